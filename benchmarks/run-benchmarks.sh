@@ -0,0 +1,34 @@
+#!/bin/bash
+# Executa os benchmarks JMH com profiler de alocação e compara com o baseline versionado.
+# Uso: ./run-benchmarks.sh [--save-baseline] [argumentos do JMH, ex.: "Parsing" -f 2]
+
+set -e
+
+cd "$(dirname "$0")"
+
+SAVE_BASELINE=false
+if [ "$1" = "--save-baseline" ]; then
+  SAVE_BASELINE=true
+  shift
+fi
+
+BASELINE=baseline/jmh-baseline.json
+RESULT=target/jmh-result.json
+
+echo "📦 Instalando a aplicação e gerando benchmarks.jar..."
+mvn -B -q -f ../pom.xml install -DskipTests
+mvn -B -q package
+
+echo "⏱️  Executando benchmarks..."
+java -jar target/benchmarks.jar -prof gc -rf json -rff "$RESULT" "$@"
+
+if [ "$SAVE_BASELINE" = true ]; then
+  mkdir -p baseline
+  cp "$RESULT" "$BASELINE"
+  echo "💾 Baseline atualizado em benchmarks/$BASELINE"
+elif [ -f "$BASELINE" ]; then
+  echo "📊 Comparação com o baseline (também em benchmarks/target/jmh-comparison.md):"
+  java -cp target/benchmarks.jar com.example.aipoc.benchmarks.BaselineComparison \
+    "$BASELINE" "$RESULT" | tee target/jmh-comparison.md
+  exit "${PIPESTATUS[0]}"
+fi
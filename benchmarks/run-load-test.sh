@@ -0,0 +1,16 @@
+#!/bin/bash
+# Teste de carga em malha aberta dos endpoints de IA contra o stub local do Gemini.
+# Uso: ./run-load-test.sh [opções do LoadTest, ex.: --endpoints sentiment --rps 50,100,200 --profiles virtual-threads]
+# Para testar o build reativo: ./run-load-test.sh --app-jar ../target/springboot-ai-poc-1.0.0-reactive.jar
+
+set -e
+
+cd "$(dirname "$0")"
+
+echo "📦 Gerando a aplicação e benchmarks.jar..."
+mvn -B -q -f ../pom.xml install -DskipTests
+mvn -B -q package
+
+echo "🚀 Executando teste de carga..."
+java -cp target/benchmarks.jar com.example.aipoc.benchmarks.LoadTest \
+  --app-jar ../target/springboot-ai-poc-1.0.0.jar "$@"
@@ -0,0 +1,141 @@
+package com.example.aipoc.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the application's own JVM meters through {@code /actuator/metrics} while a
+ * load step runs, so the report works the same for a launched jar and for an
+ * already running instance (or a container) reachable only over HTTP.
+ *
+ * <p>Heap, CPU and live threads are polled every second for the peak and mean;
+ * GC pauses and allocated bytes are cumulative counters read at both ends of the
+ * step.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+final class ActuatorSampler {
+
+    /**
+     * JVM behaviour during one step.
+     *
+     * @param heapPeakMb     highest heap in use seen by the poller
+     * @param heapMeanMb     mean heap in use
+     * @param gcPauses       GC pauses during the step
+     * @param gcPauseMs      total GC pause time during the step
+     * @param allocatedMbPerSec allocation rate
+     * @param cpuMean        mean process CPU usage, 0.0 to 1.0 of all cores
+     * @param threadsPeak    highest live thread count
+     */
+    record JvmStats(double heapPeakMb, double heapMeanMb, long gcPauses, double gcPauseMs,
+                    double allocatedMbPerSec, double cpuMean, int threadsPeak) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+
+    ActuatorSampler(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Starts sampling; call {@link Sampling#stop()} when the step ends.
+     */
+    Sampling start() {
+        return new Sampling();
+    }
+
+    final class Sampling {
+
+        private final long startNanos = System.nanoTime();
+        private final double gcCountStart = measurement("jvm.gc.pause", null, "COUNT");
+        private final double gcTimeStart = measurement("jvm.gc.pause", null, "TOTAL_TIME");
+        private final double allocatedStart = measurement("jvm.gc.memory.allocated", null, "COUNT");
+        private final Thread poller;
+
+        private volatile boolean running = true;
+        private double heapPeak;
+        private double heapSum;
+        private double cpuSum;
+        private int threadsPeak;
+        private int samples;
+
+        private Sampling() {
+            poller = Thread.ofVirtual().name("actuator-sampler").start(this::poll);
+        }
+
+        private void poll() {
+            while (running) {
+                double heap = measurement("jvm.memory.used", "area:heap", "VALUE");
+                double cpu = measurement("process.cpu.usage", null, "VALUE");
+                double threads = measurement("jvm.threads.live", null, "VALUE");
+                heapPeak = Math.max(heapPeak, heap);
+                heapSum += heap;
+                cpuSum += cpu;
+                threadsPeak = Math.max(threadsPeak, (int) threads);
+                samples++;
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Stops the poller and returns the stats collected since {@link #start()}.
+         */
+        JvmStats stop() throws InterruptedException {
+            running = false;
+            poller.interrupt();
+            poller.join(TimeUnit.SECONDS.toMillis(10));
+
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            double allocated = measurement("jvm.gc.memory.allocated", null, "COUNT") - allocatedStart;
+            int count = Math.max(samples, 1);
+            return new JvmStats(heapPeak / MB, heapSum / count / MB,
+                    (long) (measurement("jvm.gc.pause", null, "COUNT") - gcCountStart),
+                    (measurement("jvm.gc.pause", null, "TOTAL_TIME") - gcTimeStart) * 1000,
+                    allocated / MB / seconds, cpuSum / count, threadsPeak);
+        }
+    }
+
+    /**
+     * Reads one statistic of a meter, or 0 when the meter does not exist yet (e.g.
+     * {@code jvm.gc.pause} before the first collection).
+     */
+    private double measurement(String meter, String tag, String statistic) {
+        String url = baseUrl + "/actuator/metrics/" + meter + (tag == null ? "" : "?tag=" + tag);
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return 0;
+            }
+            for (JsonNode measurement : MAPPER.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (IOException e) {
+            // Métrica indisponível nesta amostra
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
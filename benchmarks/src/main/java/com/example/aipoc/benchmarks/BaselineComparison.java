@@ -0,0 +1,113 @@
+package com.example.aipoc.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) against a stored baseline and
+ * prints a Markdown table for code review.
+ *
+ * <p>Both the primary score (time per operation) and {@code gc.alloc.rate.norm}
+ * (bytes allocated per operation, from {@code -prof gc}) are compared. Allocation
+ * per operation barely depends on the machine, so it is the more reliable
+ * regression signal when the baseline was recorded elsewhere.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.aipoc.benchmarks.BaselineComparison \
+ *     baseline/jmh-baseline.json target/jmh-result.json [time-threshold-%] [alloc-threshold-%]
+ * </pre>
+ *
+ * <p>Exits with status 1 when any benchmark regresses beyond a threshold.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    private record Result(double score, double error, String unit, double allocBytes) {
+    }
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: BaselineComparison <baseline.json> <resultado.json> "
+                    + "[limite-tempo-%] [limite-alocacao-%]");
+            System.exit(2);
+        }
+
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        double timeThreshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        double allocThreshold = args.length > 3 ? Double.parseDouble(args[3]) : 5.0;
+
+        StringBuilder report = new StringBuilder()
+                .append("| Benchmark | Baseline | Atual | Δ tempo | Alloc baseline (B/op) | Alloc atual (B/op) | Δ alloc | |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|---|\n");
+
+        boolean regression = false;
+        for (String name : new TreeSet<>(current.keySet())) {
+            Result now = current.get(name);
+            Result before = baseline.get(name);
+            if (before == null) {
+                report.append(String.format(Locale.ROOT, "| %s | - | %.1f %s | novo | - | %.0f | - | |%n",
+                        name, now.score(), now.unit(), now.allocBytes()));
+                continue;
+            }
+
+            double timeDelta = percent(before.score(), now.score());
+            double allocDelta = percent(before.allocBytes(), now.allocBytes());
+            // Variação de tempo dentro do erro das duas medições não é regressão
+            boolean slower = timeDelta > timeThreshold
+                    && now.score() - now.error() > before.score() + before.error();
+            boolean allocates = allocDelta > allocThreshold;
+            regression |= slower || allocates;
+
+            report.append(String.format(Locale.ROOT, "| %s | %.1f %s | %.1f %s | %+.1f%% | %.0f | %.0f | %+.1f%% | %s |%n",
+                    name, before.score(), before.unit(), now.score(), now.unit(), timeDelta,
+                    before.allocBytes(), now.allocBytes(), allocDelta,
+                    slower || allocates ? "⚠️ regressão" : ""));
+        }
+
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        out.print(report);
+        out.printf(Locale.ROOT, "%nLimites: tempo +%.0f%% (fora da margem de erro), alocação +%.0f%%%n",
+                timeThreshold, allocThreshold);
+        if (regression) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(Files.readString(file))) {
+            String benchmark = run.path("benchmark").asText();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_METRIC);
+            results.put(name, new Result(
+                    primary.path("score").asDouble(),
+                    primary.path("scoreError").asDouble(),
+                    primary.path("scoreUnit").asText(),
+                    alloc.isMissingNode() ? Double.NaN : alloc.path("score").asDouble()));
+        }
+        return results;
+    }
+
+    private static double percent(double before, double now) {
+        return before == 0 ? 0 : (now - before) / before * 100;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.aipoc.benchmarks;
+
+import com.example.aipoc.model.AiRequest;
+import com.example.aipoc.model.ProductClassificationRequest;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SummaryRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark inputs derived from {@code examples/product-classification-examples.json}.
+ *
+ * <p>Requests come straight from the examples. Model answers and full
+ * {@code generateContent} envelopes are synthesized from each example's expected
+ * classification, shaped like real Gemini 2.5 output (fenced JSON, usage metadata,
+ * model version), so parsing cost reflects production payload sizes.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+final class BenchmarkPayloads {
+
+    private static final String EXAMPLES = "examples/product-classification-examples.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    final List<ProductClassificationRequest> productRequests = new ArrayList<>();
+    final List<SentimentRequest> sentimentRequests = new ArrayList<>();
+    final List<SummaryRequest> summaryRequests = new ArrayList<>();
+    final List<AiRequest> chatRequests = new ArrayList<>();
+
+    /** Model answers with a fenced classification JSON, as returned in the candidate text. */
+    final List<String> classificationContents = new ArrayList<>();
+    /** Full generateContent response bodies wrapping {@link #classificationContents}. */
+    final List<String> classificationResponses = new ArrayList<>();
+    /** Model answers with a fenced sentiment JSON. */
+    final List<String> sentimentContents = new ArrayList<>();
+    /** Free-text answers without JSON, the input of the keyword fallback. */
+    final List<String> proseContents = new ArrayList<>();
+
+    BenchmarkPayloads() {
+        JsonNode examples = load().path("examples");
+        String allDescriptions = joinDescriptions(examples);
+
+        int index = 0;
+        for (JsonNode example : examples) {
+            JsonNode request = example.path("request");
+            String name = request.path("productName").asText();
+            String description = request.path("description").asText();
+            String category = request.path("category").asText();
+
+            productRequests.add(new ProductClassificationRequest(name, description, category));
+            sentimentRequests.add(new SentimentRequest("Comprei " + name + " e estou muito satisfeito: "
+                    + description, "pt"));
+            summaryRequests.add(new SummaryRequest(rotate(allDescriptions, index), 3,
+                    index % 2 == 0 ? "conciso" : "bullet-points"));
+            chatRequests.add(new AiRequest("Quais são as principais vantagens de " + name + "?",
+                    "Categoria: " + category + ". " + description));
+
+            String classification = classificationJson(example, name, description, index);
+            classificationContents.add("```json\n" + classification + "\n```");
+            classificationResponses.add(generateContentResponse(classificationContents.get(index), index));
+            sentimentContents.add("```json\n" + sentimentJson(name, index) + "\n```");
+            proseContents.add("O " + name + " é " + (example.path("expectedType").asText().equals("TANGIBLE")
+                    ? "um produto físico, um objeto material" : "um serviço digital com licença de uso")
+                    + ". " + description + ".");
+            index++;
+        }
+    }
+
+    private static JsonNode load() {
+        try (InputStream input = BenchmarkPayloads.class.getClassLoader().getResourceAsStream(EXAMPLES)) {
+            if (input == null) {
+                throw new IllegalStateException("Benchmark examples not found on classpath: " + EXAMPLES);
+            }
+            return MAPPER.readTree(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String joinDescriptions(JsonNode examples) {
+        List<String> descriptions = new ArrayList<>();
+        examples.forEach(example -> descriptions.add(example.path("request").path("description").asText()));
+        return descriptions.stream().collect(Collectors.joining(". ", "", "."));
+    }
+
+    private static String rotate(String text, int index) {
+        int offset = (text.length() / 8) * index % text.length();
+        return text.substring(offset) + " " + text.substring(0, offset);
+    }
+
+    private static String classificationJson(JsonNode example, String name, String description, int index) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("tangibilityType", example.path("expectedType").asText());
+        json.put("tangibilitySubtype", example.path("expectedSubtype").asText());
+        json.put("productPriceCategory", index % 3 == 0 ? "MEDIUM_COST" : "LOW_COST");
+        json.put("lifeCycle", index % 2 == 0 ? "LONG" : "SHORT");
+        json.put("confidence", 0.85 + (index % 10) / 100.0);
+        json.put("explanation", name + " foi classificado considerando sua natureza: " + description);
+        json.put("characteristics", List.of("Característica principal de " + name,
+                "Entrega associada à categoria informada", "Valor percebido pelo consumidor final"));
+        return write(json, true);
+    }
+
+    private static String sentimentJson(String name, int index) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("sentiment", index % 3 == 0 ? "NEUTRAL" : "POSITIVE");
+        json.put("confidence", 0.8 + (index % 10) / 100.0);
+        json.put("explanation", "O texto expressa satisfação com " + name + " e destaca seus atributos");
+        return write(json, true);
+    }
+
+    private static String generateContentResponse(String content, int index) {
+        Map<String, Object> part = Map.of("text", content);
+        Map<String, Object> candidate = new LinkedHashMap<>();
+        candidate.put("content", Map.of("parts", List.of(part), "role", "model"));
+        candidate.put("finishReason", "STOP");
+        candidate.put("index", 0);
+
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("promptTokenCount", 310 + index * 7);
+        usage.put("candidatesTokenCount", 140 + index * 3);
+        usage.put("totalTokenCount", 810 + index * 10);
+        usage.put("promptTokensDetails", List.of(Map.of("modality", "TEXT", "tokenCount", 310 + index * 7)));
+        usage.put("thoughtsTokenCount", 360);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("candidates", List.of(candidate));
+        response.put("usageMetadata", usage);
+        response.put("modelVersion", "gemini-2.5-flash");
+        response.put("responseId", "bench-" + index);
+        return write(response, false);
+    }
+
+    private static String write(Object value, boolean pretty) {
+        try {
+            return pretty
+                    ? MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(value)
+                    : MAPPER.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
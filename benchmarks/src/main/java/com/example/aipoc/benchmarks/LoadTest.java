@@ -0,0 +1,297 @@
+package com.example.aipoc.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Reproducible load test of the four AI endpoints against the application wired to
+ * the local Gemini stub ({@code gemini-stub} profile).
+ *
+ * <p>Each endpoint is driven by an {@link OpenLoopGenerator} through increasing
+ * constant rates. A step is <em>sustainable</em> when its error rate, p99 latency and
+ * achieved throughput stay within the configured limits; the ramp for an endpoint
+ * stops at the first step that is not, and the highest sustainable rate is reported
+ * as its maximum throughput. JVM heap, GC and CPU are read from the application's
+ * Actuator while each step runs.
+ *
+ * <p>Results go to {@code target/load-test/<timestamp>/}: {@code summary.md},
+ * {@code summary.json} and one HdrHistogram percentile distribution
+ * ({@code <endpoint>-<rps>rps.hgrm}, milliseconds) per step, which can be plotted
+ * and compared across runs.
+ *
+ * <p>Run with {@code ./run-load-test.sh}, or directly from {@code benchmarks/}:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.aipoc.benchmarks.LoadTest \
+ *     --app-jar ../target/springboot-ai-poc-1.0.0.jar --profiles virtual-threads \
+ *     --endpoints sentiment,classify --rps 25,50,100,200 --duration-seconds 30
+ * </pre>
+ *
+ * <p>With {@code --base-url http://host:8080} an already running instance is tested
+ * instead, and stub and JVM options are up to whoever started it.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public final class LoadTest {
+
+    private record Endpoint(String name, String path, Function<BenchmarkPayloads, List<?>> requests) {
+    }
+
+    private static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("chat", "/api/ai/chat", payloads -> payloads.chatRequests),
+            new Endpoint("sentiment", "/api/ai/sentiment", payloads -> payloads.sentimentRequests),
+            new Endpoint("summary", "/api/ai/summary", payloads -> payloads.summaryRequests),
+            new Endpoint("classify", "/api/ai/product/classify", payloads -> payloads.productRequests));
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private record Step(OpenLoopGenerator.StepResult result, ActuatorSampler.JvmStats jvm, boolean sustainable) {
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setOut(new PrintStream(System.out, true, StandardCharsets.UTF_8));
+        Map<String, String> options = parseOptions(args);
+        int[] rates = Arrays.stream(options.getOrDefault("rps", "10,25,50,100,200").split(","))
+                .mapToInt(rate -> Integer.parseInt(rate.trim()))
+                .toArray();
+        List<String> selected = List.of(options.getOrDefault("endpoints", "chat,sentiment,summary,classify").split(","));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "10")));
+        Duration window = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "30")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-seconds", "30")));
+        double sloP99Ms = Double.parseDouble(options.getOrDefault("slo-p99-ms", "3000"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+
+        Path output = Path.of(options.getOrDefault("output", "target/load-test"))
+                .resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(output);
+
+        Process app = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            int port = freePort();
+            app = launch(options, port, output.resolve("app.log"));
+            baseUrl = "http://localhost:" + port;
+        }
+
+        BenchmarkPayloads payloads = new BenchmarkPayloads();
+        OpenLoopGenerator generator = new OpenLoopGenerator(timeout,
+                Integer.parseInt(options.getOrDefault("max-outstanding", "10000")));
+        ActuatorSampler sampler = new ActuatorSampler(baseUrl);
+        List<Step> steps = new ArrayList<>();
+
+        try {
+            awaitHealthy(baseUrl);
+            System.out.printf("Alvo %s | SLO p99 <= %.0fms, erros <= %.1f%% | aquecimento %ds, janela %ds%n",
+                    baseUrl, sloP99Ms, maxErrorRate * 100, warmup.toSeconds(), window.toSeconds());
+            System.out.printf("%-10s %6s %9s %7s %9s %9s %9s %9s %9s %8s %7s%n", "endpoint", "rps", "obtido",
+                    "erros", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "heap MB", "GC ms", "ok");
+
+            for (Endpoint endpoint : ENDPOINTS) {
+                if (!selected.contains(endpoint.name())) {
+                    continue;
+                }
+                URI uri = URI.create(baseUrl + endpoint.path());
+                List<String> bodies = new ArrayList<>();
+                for (Object request : endpoint.requests().apply(payloads)) {
+                    bodies.add(MAPPER.writeValueAsString(request));
+                }
+
+                for (int rps : rates) {
+                    ActuatorSampler.Sampling sampling = sampler.start();
+                    OpenLoopGenerator.StepResult result = generator.run(endpoint.name(), uri, bodies, rps, warmup, window);
+                    ActuatorSampler.JvmStats jvm = sampling.stop();
+
+                    boolean sustainable = result.errorRate() <= maxErrorRate
+                            && result.percentileMs(99) <= sloP99Ms
+                            && result.achievedRps() >= rps * 0.95;
+                    steps.add(new Step(result, jvm, sustainable));
+                    writeHistogram(output, result);
+                    printStep(result, jvm, sustainable);
+
+                    if (!sustainable) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            if (app != null) {
+                app.destroy();
+                app.waitFor(15, TimeUnit.SECONDS);
+            }
+        }
+
+        String summary = summary(steps, baseUrl, options, sloP99Ms, maxErrorRate);
+        Files.writeString(output.resolve("summary.md"), summary);
+        MAPPER.writeValue(output.resolve("summary.json").toFile(), json(steps));
+        System.out.println();
+        System.out.print(summary);
+        System.out.println("\nResultados em " + output);
+        System.exit(0);
+    }
+
+    private static Process launch(Map<String, String> options, int port, Path log) throws IOException {
+        String jar = options.getOrDefault("app-jar", "../target/springboot-ai-poc-1.0.0.jar");
+        String profiles = "gemini-stub" + (options.containsKey("profiles") ? "," + options.get("profiles") : "");
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(List.of(options.getOrDefault("jvm-args", "-Xmx512m -XX:+UseG1GC").split("\\s+")));
+        command.addAll(List.of("-jar", jar,
+                "--server.port=" + port,
+                "--spring.profiles.active=" + profiles,
+                "--ai.stub.port=" + freePort(),
+                "--ai.stub.latency.median=" + options.getOrDefault("stub-median-ms", "300") + "ms",
+                "--ai.stub.latency.p99=" + options.getOrDefault("stub-p99-ms", "1500") + "ms",
+                "--logging.level.com.example.aipoc=WARN"));
+
+        System.out.printf("Iniciando %s (perfis %s), log em %s%n", jar, profiles, log);
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    private static void awaitHealthy(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        URI health = URI.create(baseUrl + "/api/ai/health");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(90);
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(health).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Aplicação ainda subindo
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Aplicação não respondeu em " + health);
+    }
+
+    private static void printStep(OpenLoopGenerator.StepResult result, ActuatorSampler.JvmStats jvm,
+                                  boolean sustainable) {
+        System.out.printf("%-10s %6d %9.1f %6.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f %8.1f %7s%n",
+                result.endpoint(), result.targetRps(), result.achievedRps(), result.errorRate() * 100,
+                result.percentileMs(50), result.percentileMs(99), result.percentileMs(99.9),
+                result.latencyMicros().getMaxValue() / 1000.0, jvm.heapPeakMb(), jvm.gcPauseMs(),
+                sustainable ? "sim" : "NÃO");
+        if (!result.errors().isEmpty()) {
+            System.out.printf("%-10s        falhas: %s%n", "", result.errors());
+        }
+    }
+
+    private static void writeHistogram(Path output, OpenLoopGenerator.StepResult result) throws IOException {
+        Path file = output.resolve(result.endpoint() + "-" + result.targetRps() + "rps.hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+            result.latencyMicros().outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String summary(List<Step> steps, String baseUrl, Map<String, String> options,
+                                  double sloP99Ms, double maxErrorRate) {
+        StringBuilder md = new StringBuilder();
+        md.append("# Teste de carga\n\n");
+        md.append("Alvo: `").append(baseUrl).append("`");
+        if (!options.containsKey("base-url")) {
+            md.append(" (perfis `gemini-stub").append(options.containsKey("profiles") ? "," + options.get("profiles") : "")
+                    .append("`, stub mediana ").append(options.getOrDefault("stub-median-ms", "300"))
+                    .append("ms / p99 ").append(options.getOrDefault("stub-p99-ms", "1500")).append("ms)");
+        }
+        md.append("\n\nSustentável: erros <= %.1f%%, p99 <= %.0fms e vazão >= 95%% da taxa oferecida.\n\n"
+                .formatted(maxErrorRate * 100, sloP99Ms));
+
+        md.append("## Vazão máxima sustentável\n\n| Endpoint | RPS |\n|---|---:|\n");
+        Map<String, Integer> best = new LinkedHashMap<>();
+        for (Step step : steps) {
+            best.putIfAbsent(step.result().endpoint(), 0);
+            if (step.sustainable()) {
+                best.merge(step.result().endpoint(), step.result().targetRps(), Math::max);
+            }
+        }
+        best.forEach((endpoint, rps) -> md.append("| ").append(endpoint).append(" | ")
+                .append(rps == 0 ? "nenhuma" : rps).append(" |\n"));
+
+        md.append("\n## Degraus\n\n")
+                .append("| Endpoint | RPS | Obtido | Erros | p50 ms | p90 ms | p99 ms | p99.9 ms | Máx ms ")
+                .append("| Heap pico MB | GC pausas | GC ms | Alocação MB/s | CPU | Threads | Sustentável |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---|\n");
+        for (Step step : steps) {
+            OpenLoopGenerator.StepResult result = step.result();
+            ActuatorSampler.JvmStats jvm = step.jvm();
+            md.append("| %s | %d | %.1f | %.2f%% | %.1f | %.1f | %.1f | %.1f | %.1f | %.1f | %d | %.1f | %.1f | %.0f%% | %d | %s |\n"
+                    .formatted(result.endpoint(), result.targetRps(), result.achievedRps(), result.errorRate() * 100,
+                            result.percentileMs(50), result.percentileMs(90), result.percentileMs(99),
+                            result.percentileMs(99.9), result.latencyMicros().getMaxValue() / 1000.0,
+                            jvm.heapPeakMb(), jvm.gcPauses(), jvm.gcPauseMs(), jvm.allocatedMbPerSec(),
+                            jvm.cpuMean() * 100, jvm.threadsPeak(), step.sustainable() ? "sim" : "não"));
+        }
+        return md.toString();
+    }
+
+    private static List<Map<String, Object>> json(List<Step> steps) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Step step : steps) {
+            OpenLoopGenerator.StepResult result = step.result();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", result.endpoint());
+            row.put("targetRps", result.targetRps());
+            row.put("achievedRps", result.achievedRps());
+            row.put("sent", result.sent());
+            row.put("ok", result.ok());
+            row.put("errors", result.errors());
+            row.put("errorRate", result.errorRate());
+            Map<String, Double> latency = new LinkedHashMap<>();
+            for (double percentile : new double[]{50, 90, 99, 99.9}) {
+                latency.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                        result.percentileMs(percentile));
+            }
+            latency.put("max", result.latencyMicros().getMaxValue() / 1000.0);
+            row.put("latencyMs", latency);
+            row.put("jvm", step.jvm());
+            row.put("sustainable", step.sustainable());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
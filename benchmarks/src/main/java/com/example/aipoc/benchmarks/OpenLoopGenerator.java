@@ -0,0 +1,184 @@
+package com.example.aipoc.benchmarks;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator.
+ *
+ * <p>Requests are sent on a fixed schedule, one every {@code 1s / rps}, no matter how
+ * many are still outstanding, and each latency is measured from the request's
+ * <em>intended</em> send time rather than from when it actually left. A server that
+ * stalls therefore shows up as queueing delay in the histogram instead of silently
+ * lowering the offered rate, which is the coordinated omission a closed-loop client
+ * (N threads waiting for their previous answer) suffers from.
+ *
+ * <p>Only requests scheduled after the warmup are recorded. Throughput counts every
+ * successful answer that arrived inside the measured window, whenever it was sent,
+ * so a server that keeps a growing backlog reports less than the offered rate.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+final class OpenLoopGenerator {
+
+    /** Latencies are clamped to this value; the request timeout is far below it. */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    /** Error key for requests never sent because {@code maxOutstanding} was reached. */
+    static final String DROPPED = "dropped";
+
+    /**
+     * Outcome of one constant-rate step.
+     *
+     * @param endpoint       short endpoint name
+     * @param targetRps      offered rate
+     * @param window         measured window, excluding warmup
+     * @param sent           requests scheduled inside the window
+     * @param ok             successful (HTTP 200) answers among them
+     * @param okInWindow     successful answers, of any request, that arrived inside the window
+     * @param errors         failures by kind ({@code http_503}, {@code timeout}, ...)
+     * @param latencyMicros  latency from intended send time, all outcomes
+     */
+    record StepResult(String endpoint, int targetRps, Duration window, long sent, long ok, long okInWindow,
+                      Map<String, Long> errors, Histogram latencyMicros) {
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        double errorRate() {
+            return sent == 0 ? 0 : (double) errorCount() / sent;
+        }
+
+        double achievedRps() {
+            return okInWindow / (window.toNanos() / 1e9);
+        }
+
+        double percentileMs(double percentile) {
+            return latencyMicros.getTotalCount() == 0 ? 0
+                    : latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private final HttpClient client;
+    private final Duration timeout;
+    private final int maxOutstanding;
+
+    OpenLoopGenerator(Duration timeout, int maxOutstanding) {
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.timeout = timeout;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * Offers {@code rps} requests per second for {@code warmup + window}, cycling
+     * through {@code bodies}, and waits for the stragglers before returning.
+     */
+    StepResult run(String endpoint, URI uri, List<String> bodies, int rps, Duration warmup, Duration window) {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        LongAdder sent = new LongAdder();
+        LongAdder ok = new LongAdder();
+        LongAdder okInWindow = new LongAdder();
+        AtomicInteger outstanding = new AtomicInteger();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + window.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            boolean measured = intended >= measureFrom;
+            if (measured) {
+                sent.increment();
+            }
+            if (outstanding.get() >= maxOutstanding) {
+                // O gerador não segura a fila: conta como falha em vez de atrasar o agendamento
+                if (measured) {
+                    errors.computeIfAbsent(DROPPED, key -> new LongAdder()).increment();
+                }
+                continue;
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bodies.get((int) (i % bodies.size()))))
+                    .build();
+            outstanding.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        outstanding.decrementAndGet();
+                        long now = System.nanoTime();
+                        boolean success = error == null && response.statusCode() == 200;
+                        if (success && now >= measureFrom && now <= end) {
+                            okInWindow.increment();
+                        }
+                        if (!measured) {
+                            return;
+                        }
+                        histogram.recordValue(Math.min((now - intended) / 1000, HIGHEST_TRACKABLE_MICROS));
+                        if (success) {
+                            ok.increment();
+                        } else {
+                            errors.computeIfAbsent(errorKind(response, error), key -> new LongAdder()).increment();
+                        }
+                    });
+        }
+
+        awaitDrained(outstanding);
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((kind, count) -> errorCounts.put(kind, count.sum()));
+        return new StepResult(endpoint, rps, window, sent.sum(), ok.sum(), okInWindow.sum(), errorCounts, histogram);
+    }
+
+    private void awaitDrained(AtomicInteger outstanding) {
+        long deadline = System.nanoTime() + timeout.plusSeconds(5).toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    private static String errorKind(HttpResponse<Void> response, Throwable error) {
+        if (error == null) {
+            return "http_" + response.statusCode();
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return cause instanceof IOException ? "io_error" : cause.getClass().getSimpleName();
+    }
+}
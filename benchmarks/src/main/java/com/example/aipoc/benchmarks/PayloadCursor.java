@@ -0,0 +1,27 @@
+package com.example.aipoc.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-thread cursor over the benchmark examples. Each invocation takes the next
+ * example, so the JIT sees the real mix of payloads instead of folding a single
+ * constant input.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@State(Scope.Thread)
+public class PayloadCursor {
+
+    final BenchmarkPayloads payloads = new BenchmarkPayloads();
+
+    private final int size = payloads.productRequests.size();
+    private int position;
+
+    int next() {
+        int current = position;
+        position = current + 1 == size ? 0 : current + 1;
+        return current;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.aipoc.benchmarks;
+
+import com.example.aipoc.model.AiRequest;
+import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.model.ProductClassificationRequest;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SummaryRequest;
+import com.example.aipoc.service.AiGeneralService;
+import com.example.aipoc.service.BaseGeminiService;
+import com.example.aipoc.service.ProductTangibilityService;
+import com.example.aipoc.service.SentimentAnalysisService;
+import com.example.aipoc.service.TextSummaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-side hot path: prompt rendering for every service and request body
+ * construction.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class RequestBuildingBenchmark {
+
+    private final AiGeneralService chatService = new AiGeneralService();
+    private final SentimentAnalysisService sentimentService = new SentimentAnalysisService();
+    private final TextSummaryService summaryService = new TextSummaryService();
+    private final ProductTangibilityService classificationService = new ProductTangibilityService();
+
+    private final GeminiConfig config = new GeminiConfig(0.2, 1200, "gemini-2.5-flash", "benchmark-key");
+
+    private List<String> classificationPrompts;
+
+    @Setup
+    public void setUp() throws Throwable {
+        List<ProductClassificationRequest> requests = new BenchmarkPayloads().productRequests;
+        String[] prompts = new String[requests.size()];
+        for (int i = 0; i < prompts.length; i++) {
+            prompts[i] = (String) ServiceHandles.CLASSIFICATION_PROMPT.invokeExact(classificationService,
+                    requests.get(i));
+        }
+        classificationPrompts = List.of(prompts);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> buildBaseRequestBody(PayloadCursor cursor) throws Throwable {
+        return (Map<String, Object>) ServiceHandles.BUILD_BASE_REQUEST_BODY.invokeExact(
+                (BaseGeminiService) classificationService, classificationPrompts.get(cursor.next()), config);
+    }
+
+    @Benchmark
+    public String chatPrompt(PayloadCursor cursor) throws Throwable {
+        AiRequest request = cursor.payloads.chatRequests.get(cursor.next());
+        return (String) ServiceHandles.CHAT_PROMPT.invokeExact(chatService, request);
+    }
+
+    @Benchmark
+    public String sentimentPrompt(PayloadCursor cursor) throws Throwable {
+        SentimentRequest request = cursor.payloads.sentimentRequests.get(cursor.next());
+        return (String) ServiceHandles.SENTIMENT_PROMPT.invokeExact(sentimentService, request);
+    }
+
+    @Benchmark
+    public String summaryPrompt(PayloadCursor cursor) throws Throwable {
+        SummaryRequest request = cursor.payloads.summaryRequests.get(cursor.next());
+        return (String) ServiceHandles.SUMMARY_PROMPT.invokeExact(summaryService, request);
+    }
+
+    @Benchmark
+    public String classificationPrompt(PayloadCursor cursor) throws Throwable {
+        ProductClassificationRequest request = cursor.payloads.productRequests.get(cursor.next());
+        return (String) ServiceHandles.CLASSIFICATION_PROMPT.invokeExact(classificationService, request);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.aipoc.benchmarks;
+
+import com.example.aipoc.model.ProductClassificationRequest;
+import com.example.aipoc.model.ProductClassificationResponse;
+import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.service.BaseGeminiService;
+import com.example.aipoc.service.ProductTangibilityService;
+import com.example.aipoc.service.SentimentAnalysisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response-side hot path: envelope extraction, token usage, the two
+ * {@code parseJsonFromContent} implementations and the keyword fallback.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ResponseParsingBenchmark {
+
+    private final SentimentAnalysisService sentimentService = new SentimentAnalysisService();
+    private final ProductTangibilityService classificationService = new ProductTangibilityService();
+
+    @Benchmark
+    public String extractContentFromResponse(PayloadCursor cursor) throws Throwable {
+        String body = cursor.payloads.classificationResponses.get(cursor.next());
+        return (String) ServiceHandles.EXTRACT_CONTENT.invokeExact((BaseGeminiService) classificationService, body);
+    }
+
+    @Benchmark
+    public int extractTokenUsage(PayloadCursor cursor) throws Throwable {
+        String body = cursor.payloads.classificationResponses.get(cursor.next());
+        return (int) ServiceHandles.EXTRACT_TOKEN_USAGE.invokeExact((BaseGeminiService) classificationService, body);
+    }
+
+    @Benchmark
+    public SentimentResponse sentimentParseJsonFromContent(PayloadCursor cursor) throws Throwable {
+        int index = cursor.next();
+        String content = cursor.payloads.sentimentContents.get(index);
+        String text = cursor.payloads.sentimentRequests.get(index).getText();
+        return (SentimentResponse) ServiceHandles.SENTIMENT_PARSE_JSON.invokeExact(sentimentService, content, text);
+    }
+
+    @Benchmark
+    public ProductClassificationResponse classificationParseJsonFromContent(PayloadCursor cursor) throws Throwable {
+        int index = cursor.next();
+        String content = cursor.payloads.classificationContents.get(index);
+        ProductClassificationRequest request = cursor.payloads.productRequests.get(index);
+        return (ProductClassificationResponse) ServiceHandles.CLASSIFICATION_PARSE_JSON.invokeExact(
+                classificationService, content, request.getProductName());
+    }
+
+    @Benchmark
+    public ProductClassificationResponse fallbackClassification(PayloadCursor cursor) throws Throwable {
+        int index = cursor.next();
+        String content = cursor.payloads.proseContents.get(index);
+        ProductClassificationRequest request = cursor.payloads.productRequests.get(index);
+        return (ProductClassificationResponse) ServiceHandles.FALLBACK_CLASSIFICATION.invokeExact(
+                classificationService, content, request.getProductName());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.aipoc.benchmarks;
+
+import com.example.aipoc.model.AiRequest;
+import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.model.ProductClassificationRequest;
+import com.example.aipoc.model.ProductClassificationResponse;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.model.SummaryRequest;
+import com.example.aipoc.service.AiGeneralService;
+import com.example.aipoc.service.BaseGeminiService;
+import com.example.aipoc.service.ProductTangibilityService;
+import com.example.aipoc.service.SentimentAnalysisService;
+import com.example.aipoc.service.TextSummaryService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+
+/**
+ * Method handles for the non-public service methods under benchmark.
+ *
+ * <p>The handles are {@code static final}, so the JIT treats them as constants and
+ * {@code invokeExact} compiles down to a direct call; the benchmarks measure the
+ * service code, not reflection.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+final class ServiceHandles {
+
+    static final MethodHandle BUILD_BASE_REQUEST_BODY = find(BaseGeminiService.class, "buildBaseRequestBody",
+            Map.class, String.class, GeminiConfig.class);
+    static final MethodHandle EXTRACT_CONTENT = find(BaseGeminiService.class, "extractContentFromResponse",
+            String.class, String.class);
+    static final MethodHandle EXTRACT_TOKEN_USAGE = find(BaseGeminiService.class, "extractTokenUsage",
+            int.class, String.class);
+
+    static final MethodHandle CHAT_PROMPT = find(AiGeneralService.class, "buildPrompt",
+            String.class, AiRequest.class);
+    static final MethodHandle SENTIMENT_PROMPT = find(SentimentAnalysisService.class, "buildSentimentPrompt",
+            String.class, SentimentRequest.class);
+    static final MethodHandle SUMMARY_PROMPT = find(TextSummaryService.class, "buildSummaryPrompt",
+            String.class, SummaryRequest.class);
+    static final MethodHandle CLASSIFICATION_PROMPT = find(ProductTangibilityService.class,
+            "buildClassificationPrompt", String.class, ProductClassificationRequest.class);
+
+    static final MethodHandle SENTIMENT_PARSE_JSON = find(SentimentAnalysisService.class, "parseJsonFromContent",
+            SentimentResponse.class, String.class, String.class);
+    static final MethodHandle CLASSIFICATION_PARSE_JSON = find(ProductTangibilityService.class,
+            "parseJsonFromContent", ProductClassificationResponse.class, String.class, String.class);
+    static final MethodHandle FALLBACK_CLASSIFICATION = find(ProductTangibilityService.class,
+            "fallbackClassification", ProductClassificationResponse.class, String.class, String.class);
+
+    private ServiceHandles() {
+    }
+
+    private static MethodHandle find(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            return lookup.findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Benchmark target not found: " + owner.getSimpleName() + "#" + name
+                    + " - update ServiceHandles after renaming service methods", e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the servlet (Tomcat) and reactive (Netty) builds of the application under
+ * a growing number of concurrent, slow upstream calls.
+ *
+ * <p>A fake Gemini endpoint that answers after a fixed delay is started in-process,
+ * each application jar is launched against it, and for every concurrency level all
+ * requests are fired at once. While they are in flight the application's live heap
+ * (after a forced GC), RSS and thread count are sampled.
+ *
+ * <p>Run with {@code ./test-server-modes.sh}, or directly (Linux, JDK 21):
+ *
+ * <pre>
+ * java load-tests/ServerModeComparison.java \
+ *     --servlet-jar target/springboot-ai-poc-1.0.0.jar \
+ *     --reactive-jar target/springboot-ai-poc-1.0.0-reactive.jar \
+ *     --levels 100,500,1000,2000 --upstream-delay-ms 2000
+ * </pre>
+ */
+public class ServerModeComparison {
+
+    private static final String GEMINI_RESPONSE = """
+            {"candidates":[{"content":{"parts":[{"text":"{\\"sentiment\\": \\"POSITIVE\\", \\"confidence\\": 0.9, \\"explanation\\": \\"teste de carga\\"}"}]},"finishReason":"STOP"}],
+             "usageMetadata":{"promptTokenCount":80,"candidatesTokenCount":20,"totalTokenCount":100}}
+            """;
+
+    private static final String REQUEST_BODY = "{\"text\": \"Produto excelente, chegou antes do prazo!\"}";
+
+    private static final Pattern HEAP_USED = Pattern.compile("used (\\d+)K");
+
+    record Sample(int concurrency, int errors, long p50Ms, long p99Ms, long maxMs,
+                  long liveHeapKb, long rssKb, int threads) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "100,500,1000,2000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        long upstreamDelayMs = Long.parseLong(options.getOrDefault("upstream-delay-ms", "2000"));
+        String endpoint = options.getOrDefault("endpoint", "/api/ai/sentiment");
+
+        HttpServer upstream = startUpstream(upstreamDelayMs);
+        int upstreamPort = upstream.getAddress().getPort();
+        System.out.printf("Upstream falso em http://localhost:%d (atraso %dms)%n", upstreamPort, upstreamDelayMs);
+
+        Map<String, List<Sample>> results = new LinkedHashMap<>();
+        try {
+            for (String mode : List.of("servlet", "reactive")) {
+                String jar = options.get(mode + "-jar");
+                if (jar == null) {
+                    System.out.printf("Modo [%s] ignorado: informe --%s-jar%n", mode, mode);
+                    continue;
+                }
+                results.put(mode, runMode(mode, Path.of(jar), upstreamPort, endpoint, levels, upstreamDelayMs));
+            }
+        } finally {
+            upstream.stop(0);
+        }
+
+        printReport(results, upstreamDelayMs);
+        System.exit(0);
+    }
+
+    private static List<Sample> runMode(String mode, Path jar, int upstreamPort, String endpoint,
+                                        int[] levels, long upstreamDelayMs) throws Exception {
+        int port = 18080 + (mode.equals("reactive") ? 1 : 0);
+        List<String> command = new ArrayList<>(List.of(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-Xmx512m", "-XX:+UseG1GC",
+                "-jar", jar.toString(),
+                "--server.port=" + port,
+                "--gemini.api.url=http://localhost:" + upstreamPort + "/v1beta",
+                "--gemini.api.key=load-test",
+                "--logging.level.com.example.aipoc=WARN"));
+        if (mode.equals("reactive")) {
+            command.add("--spring.profiles.active=reactive");
+        }
+
+        System.out.printf("%n=== Modo %s (%s) ===%n", mode, jar.getFileName());
+        Process app = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(Path.of("target", "server-mode-" + mode + ".log").toFile()))
+                .redirectErrorStream(true)
+                .start();
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        URI uri = URI.create("http://localhost:" + port + endpoint);
+
+        List<Sample> samples = new ArrayList<>();
+        try {
+            awaitHealthy(client, port);
+            fire(client, uri, 50, Duration.ofMillis(upstreamDelayMs * 4));
+
+            for (int concurrency : levels) {
+                Sample sample = measure(client, uri, app.pid(), concurrency, upstreamDelayMs);
+                samples.add(sample);
+                System.out.printf("  concorrência=%-6d erros=%-5d p50=%-6d p99=%-6d heap vivo=%-8dKB rss=%-8dKB threads=%d%n",
+                        sample.concurrency(), sample.errors(), sample.p50Ms(), sample.p99Ms(),
+                        sample.liveHeapKb(), sample.rssKb(), sample.threads());
+            }
+        } finally {
+            app.destroy();
+            app.waitFor(10, TimeUnit.SECONDS);
+        }
+        return samples;
+    }
+
+    private static Sample measure(HttpClient client, URI uri, long pid, int concurrency,
+                                  long upstreamDelayMs) throws Exception {
+        Duration timeout = Duration.ofMillis(upstreamDelayMs * 5);
+        CompletableFuture<long[]> load = CompletableFuture.supplyAsync(() -> fire(client, uri, concurrency, timeout));
+
+        // Amostra no meio do platô, quando todas as chamadas estão em andamento
+        Thread.sleep(upstreamDelayMs / 2);
+        jcmd(pid, "GC.run");
+        long liveHeapKb = parseHeapUsed(jcmd(pid, "GC.heap_info"));
+        long rssKb = procStatus(pid, "VmRSS");
+        int threads = (int) procStatus(pid, "Threads");
+
+        long[] latencies = load.get();
+        int errors = (int) Arrays.stream(latencies).filter(latency -> latency < 0).count();
+        long[] ok = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+
+        return new Sample(concurrency, errors, percentile(ok, 0.50), percentile(ok, 0.99),
+                ok.length == 0 ? -1 : ok[ok.length - 1], liveHeapKb, rssKb, threads);
+    }
+
+    private static long[] fire(HttpClient client, URI uri, int concurrency, Duration timeout) {
+        long[] latencies = new long[concurrency];
+        List<CompletableFuture<Void>> calls = new ArrayList<>(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            int index = i;
+            long start = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(REQUEST_BODY))
+                    .build();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        boolean success = error == null && response.statusCode() == 200;
+                        latencies[index] = success ? (System.nanoTime() - start) / 1_000_000 : -1;
+                        return null;
+                    }));
+        }
+
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        return latencies;
+    }
+
+    private static HttpServer startUpstream(long delayMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(delayMs);
+                byte[] body = GEMINI_RESPONSE.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void awaitHealthy(HttpClient client, int port) throws Exception {
+        URI health = URI.create("http://localhost:" + port + "/api/ai/health");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(health).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Aplicação ainda subindo
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Aplicação não respondeu em " + health);
+    }
+
+    private static void printReport(Map<String, List<Sample>> results, long upstreamDelayMs) {
+        System.out.printf("%n=== Resumo (sustentável: erros <= 1%% e p99 <= %dms) ===%n", upstreamDelayMs * 2);
+        System.out.printf("%-10s %-28s %-22s %-14s%n", "modo", "concorrência máx. sustentável",
+                "heap vivo/requisição", "threads (pico)");
+
+        results.forEach((mode, samples) -> {
+            int peakThreads = 0;
+            long baselineHeap = samples.isEmpty() ? 0 : samples.get(0).liveHeapKb();
+            Sample best = null;
+            for (Sample sample : samples) {
+                boolean sustainable = sample.errors() <= sample.concurrency() / 100
+                        && sample.p99Ms() >= 0 && sample.p99Ms() <= upstreamDelayMs * 2;
+                if (sustainable) {
+                    best = sample;
+                }
+                peakThreads = Math.max(peakThreads, sample.threads());
+            }
+
+            String perRequest = "n/a";
+            if (samples.size() > 1) {
+                Sample first = samples.get(0);
+                Sample last = samples.get(samples.size() - 1);
+                long deltaKb = last.liveHeapKb() - baselineHeap;
+                int deltaRequests = last.concurrency() - first.concurrency();
+                perRequest = deltaRequests > 0 ? "%.1f KB".formatted((double) deltaKb / deltaRequests) : "n/a";
+            }
+
+            System.out.printf("%-10s %-28s %-22s %-14d%n", mode,
+                    best == null ? "nenhuma" : String.valueOf(best.concurrency()), perRequest, peakThreads);
+        });
+    }
+
+    private static String jcmd(long pid, String command) throws IOException, InterruptedException {
+        Path javaHome = Path.of(System.getProperty("java.home"));
+        Process process = new ProcessBuilder(javaHome.resolve("bin").resolve("jcmd").toString(),
+                String.valueOf(pid), command)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        process.waitFor();
+        return output;
+    }
+
+    private static long parseHeapUsed(String heapInfo) {
+        Matcher matcher = HEAP_USED.matcher(heapInfo);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static long procStatus(long pid, String field) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith(field + ":")) {
+                return Long.parseLong(line.substring(field.length() + 1).trim().split("\\s+")[0]);
+            }
+        }
+        return -1;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
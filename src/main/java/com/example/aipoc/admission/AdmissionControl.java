@@ -0,0 +1,77 @@
+package com.example.aipoc.admission;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the AI endpoints: one {@link AdmissionGate} per
+ * operation, so a slow operation sheds its own load without taking slots from the
+ * others.
+ *
+ * <p>Requests beyond the in-flight limit wait in a bounded queue; requests that
+ * cannot be served in time fail fast with {@link AdmissionRejectedException},
+ * answered as {@code 503} with {@code Retry-After}, instead of piling up threads and
+ * memory while the upstream is slow.
+ *
+ * <h3>Meters (tagged by {@code operation}):</h3>
+ * <ul>
+ * <li>{@code ai.admission.in.flight} and {@code ai.admission.queued} - gauges</li>
+ * <li>{@code ai.admission.queue.wait} - timer of the time spent queued</li>
+ * <li>{@code ai.admission.latency.ewma} - service time EWMA driving the thresholds</li>
+ * <li>{@code ai.admission.rejected} - counter, also tagged by {@code reason}</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class AdmissionControl {
+
+    /**
+     * Disabled instance that admits everything. Used by components created outside
+     * Spring.
+     */
+    public static final AdmissionControl NOOP = new AdmissionControl(disabled(), new CompositeMeterRegistry());
+
+    private final boolean enabled;
+    private final Map<AiOperation, AdmissionGate> gates = new EnumMap<>(AiOperation.class);
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry registry) {
+        this.enabled = properties.isEnabled();
+        if (enabled) {
+            for (AiOperation operation : AiOperation.values()) {
+                gates.put(operation, new AdmissionGate(operation, properties.resolve(operation.getKey()), registry));
+            }
+        }
+    }
+
+    /**
+     * Runs {@code work} when the operation has a free slot.
+     *
+     * @param operation the operation being requested
+     * @param work      the request handling, subscribed only once admitted
+     * @param <T>       the result type
+     * @return the result, an {@link AdmissionRejectedException} error if shed, or a
+     *         {@link com.example.aipoc.deadline.DeadlineExceededException} error if the
+     *         request's deadline runs out while queued
+     */
+    public <T> Mono<T> admit(AiOperation operation, Supplier<Mono<T>> work) {
+        if (!enabled) {
+            return Mono.defer(work);
+        }
+        return gates.get(operation).admit(work);
+    }
+
+    private static AdmissionProperties disabled() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+}
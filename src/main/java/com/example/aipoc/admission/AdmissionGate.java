@@ -0,0 +1,359 @@
+package com.example.aipoc.admission;
+
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-flight slots plus a bounded wait queue for one operation.
+ *
+ * <p>The queue follows the adaptive LIFO + CoDel scheme. While it drains normally
+ * it is served first-in first-out and a request may wait up to
+ * {@code max-queue-wait}. Once it has not been empty for {@code codel-interval} the
+ * gate is overloaded: the newest request is served first, since it is the one most
+ * likely to still have a client waiting, and requests that have waited longer than
+ * the overload target are dropped when they reach the head instead of being served
+ * late.
+ *
+ * <p>The thresholds follow the observed service time, an EWMA of how long admitted
+ * requests take, which is dominated by the Gemini call. The overload target is that
+ * latency times {@code latency-factor}, bounded below by {@code codel-target}. An
+ * arrival whose predicted wait (queue length × latency / slots) exceeds
+ * {@code max-queue-wait} is rejected at once instead of being queued.
+ *
+ * <p>A request carrying a {@link Deadline} waits at most until it expires. If the
+ * deadline has already passed, or the predicted wait would outlast it, the request
+ * fails at once with {@link DeadlineExceededException} so the service can answer
+ * with its degraded result while there is still time.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+final class AdmissionGate {
+
+    private final AiOperation operation;
+    private final int maxInFlight;
+    private final int maxQueue;
+    private final long maxQueueWaitNanos;
+    private final long codelIntervalNanos;
+    private final long codelTargetNanos;
+    private final double latencyFactor;
+    private final double ewmaWeight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private int inFlight;
+    private long lastEmptyNanos = System.nanoTime();
+    private volatile double latencyEwmaNanos;
+
+    private final Timer queueWait;
+    private final Map<AdmissionRejectedException.Reason, Counter> rejections =
+            new EnumMap<>(AdmissionRejectedException.Reason.class);
+
+    AdmissionGate(AiOperation operation, AdmissionProperties.Limits limits, MeterRegistry registry) {
+        this.operation = operation;
+        this.maxInFlight = limits.getMaxInFlight();
+        this.maxQueue = limits.getMaxQueue();
+        this.maxQueueWaitNanos = limits.getMaxQueueWait().toNanos();
+        this.codelIntervalNanos = limits.getCodelInterval().toNanos();
+        this.codelTargetNanos = limits.getCodelTarget().toNanos();
+        this.latencyFactor = limits.getLatencyFactor();
+        this.ewmaWeight = limits.getEwmaWeight();
+
+        String tag = operation.getKey();
+        Gauge.builder("ai.admission.in.flight", this, AdmissionGate::inFlight)
+                .description("Requisições admitidas em execução")
+                .tag("operation", tag)
+                .register(registry);
+        Gauge.builder("ai.admission.queued", this, AdmissionGate::queued)
+                .description("Requisições aguardando admissão")
+                .tag("operation", tag)
+                .register(registry);
+        Gauge.builder("ai.admission.latency.ewma", this, gate -> gate.latencyEwmaNanos / 1e9)
+                .description("Média móvel exponencial do tempo de serviço das requisições admitidas")
+                .tag("operation", tag)
+                .baseUnit("seconds")
+                .register(registry);
+        queueWait = Timer.builder("ai.admission.queue.wait")
+                .description("Tempo de espera na fila de admissão")
+                .tag("operation", tag)
+                .register(registry);
+        for (AdmissionRejectedException.Reason reason : AdmissionRejectedException.Reason.values()) {
+            rejections.put(reason, Counter.builder("ai.admission.rejected")
+                    .description("Requisições descartadas pelo controle de admissão")
+                    .tag("operation", tag)
+                    .tag("reason", reason.getTag())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Runs {@code work} once a slot is free, holding the slot until it terminates.
+     */
+    <T> Mono<T> admit(Supplier<Mono<T>> work) {
+        return Mono.<Permit>create(this::acquire)
+                .flatMap(permit -> Mono.defer(work)
+                        .doOnSuccess(value -> permit.release(true))
+                        .doOnError(error -> permit.release(true))
+                        .doOnCancel(() -> permit.release(false)));
+    }
+
+    private void acquire(MonoSink<Permit> sink) {
+        long now = System.nanoTime();
+        Deadline deadline = Deadline.from(sink.contextView()).orElse(null);
+        long deadlineNanos = deadline != null ? deadline.remaining().toNanos() : Long.MAX_VALUE;
+        if (deadlineNanos <= 0) {
+            sink.error(new DeadlineExceededException(DeadlineExceededException.Stage.ADMISSION));
+            return;
+        }
+        AdmissionRejectedException.Reason rejection = null;
+        boolean outOfTime = false;
+        Waiter waiter = null;
+
+        lock.lock();
+        try {
+            long expectedWaitNanos = expectedWaitNanos(queue.size() + 1);
+            if (inFlight < maxInFlight && queue.isEmpty()) {
+                inFlight++;
+            } else if (queue.size() >= maxQueue) {
+                rejection = AdmissionRejectedException.Reason.QUEUE_FULL;
+            } else if (expectedWaitNanos > maxQueueWaitNanos) {
+                rejection = AdmissionRejectedException.Reason.EXPECTED_WAIT;
+            } else if (expectedWaitNanos > deadlineNanos) {
+                outOfTime = true;
+            } else {
+                if (queue.isEmpty()) {
+                    lastEmptyNanos = now;
+                }
+                waiter = new Waiter(sink, now, deadlineNanos < maxQueueWaitNanos);
+                queue.addLast(waiter);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (rejection != null) {
+            sink.error(reject(rejection));
+        } else if (outOfTime) {
+            sink.error(new DeadlineExceededException(DeadlineExceededException.Stage.ADMISSION));
+        } else if (waiter == null) {
+            queueWait.record(0, TimeUnit.NANOSECONDS);
+            sink.success(new Permit(now));
+        } else {
+            Waiter queued = waiter;
+            queued.timeout = Schedulers.parallel().schedule(() -> expire(queued),
+                    Math.min(maxQueueWaitNanos, deadlineNanos), TimeUnit.NANOSECONDS);
+            sink.onCancel(() -> abandon(queued));
+        }
+    }
+
+    private void release(long serviceNanos, boolean recordLatency) {
+        long now = System.nanoTime();
+        List<Waiter> dropped = new ArrayList<>();
+        Waiter next = null;
+
+        lock.lock();
+        try {
+            inFlight--;
+            if (recordLatency) {
+                latencyEwmaNanos = latencyEwmaNanos == 0 ? serviceNanos
+                        : ewmaWeight * serviceNanos + (1 - ewmaWeight) * latencyEwmaNanos;
+            }
+            boolean overloaded = now - lastEmptyNanos > codelIntervalNanos;
+            long acceptedWait = overloaded ? overloadTargetNanos() : maxQueueWaitNanos;
+            if (overloaded) {
+                // Os mais antigos ficam na cabeça: descarta quem já passou do alvo
+                while (!queue.isEmpty() && now - queue.peekFirst().arrivalNanos > acceptedWait) {
+                    Waiter stale = queue.pollFirst();
+                    if (stale.claim()) {
+                        dropped.add(stale);
+                    }
+                }
+            }
+            while (inFlight < maxInFlight && !queue.isEmpty()) {
+                Waiter waiter = overloaded ? queue.pollLast() : queue.pollFirst();
+                if (!waiter.claim()) {
+                    continue;
+                }
+                if (now - waiter.arrivalNanos > acceptedWait) {
+                    dropped.add(waiter);
+                    continue;
+                }
+                inFlight++;
+                next = waiter;
+                break;
+            }
+            if (queue.isEmpty()) {
+                lastEmptyNanos = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Waiter waiter : dropped) {
+            waiter.cancelTimeout();
+            waiter.sink.error(reject(AdmissionRejectedException.Reason.CODEL));
+        }
+        if (next != null) {
+            next.cancelTimeout();
+            queueWait.record(now - next.arrivalNanos, TimeUnit.NANOSECONDS);
+            next.grant(new Permit(now));
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        if (waiter.claim()) {
+            remove(waiter);
+            waiter.sink.error(waiter.deadlineBound
+                    ? new DeadlineExceededException(DeadlineExceededException.Stage.ADMISSION)
+                    : reject(AdmissionRejectedException.Reason.QUEUE_TIMEOUT));
+        }
+    }
+
+    private void abandon(Waiter waiter) {
+        if (waiter.claim()) {
+            remove(waiter);
+            waiter.cancelTimeout();
+        } else {
+            waiter.cancelled();
+        }
+    }
+
+    private void remove(Waiter waiter) {
+        lock.lock();
+        try {
+            queue.remove(waiter);
+            if (queue.isEmpty()) {
+                lastEmptyNanos = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AdmissionRejectedException reject(AdmissionRejectedException.Reason reason) {
+        rejections.get(reason).increment();
+        long waitNanos = Math.max(expectedWaitNanos(queued() + 1), TimeUnit.SECONDS.toNanos(1));
+        return new AdmissionRejectedException(operation, reason,
+                Duration.ofSeconds((waitNanos + 999_999_999) / 1_000_000_000L));
+    }
+
+    private long expectedWaitNanos(int position) {
+        return (long) (position * latencyEwmaNanos / maxInFlight);
+    }
+
+    private long overloadTargetNanos() {
+        return Math.min(maxQueueWaitNanos, Math.max(codelTargetNanos, (long) (latencyEwmaNanos * latencyFactor)));
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double latencyEwmaNanos() {
+        return latencyEwmaNanos;
+    }
+
+    /**
+     * A held slot; releasing it twice has no effect.
+     */
+    private final class Permit {
+
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        void release(boolean recordLatency) {
+            if (released.compareAndSet(false, true)) {
+                AdmissionGate.this.release(System.nanoTime() - startNanos, recordLatency);
+            }
+        }
+    }
+
+    /**
+     * A queued request. Grant, expiry and cancellation race to {@link #claim()} it;
+     * only the winner acts. A cancellation that loses to a grant hands the slot back.
+     */
+    private static final class Waiter {
+
+        final MonoSink<Permit> sink;
+        final long arrivalNanos;
+        /** Whether the request's deadline, not {@code max-queue-wait}, bounds the wait. */
+        final boolean deadlineBound;
+        final AtomicBoolean claimed = new AtomicBoolean();
+        volatile Disposable timeout;
+        private volatile Permit permit;
+        private volatile boolean cancelled;
+
+        Waiter(MonoSink<Permit> sink, long arrivalNanos, boolean deadlineBound) {
+            this.sink = sink;
+            this.arrivalNanos = arrivalNanos;
+            this.deadlineBound = deadlineBound;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void grant(Permit granted) {
+            permit = granted;
+            sink.success(granted);
+            if (cancelled) {
+                granted.release(false);
+            }
+        }
+
+        void cancelled() {
+            cancelled = true;
+            Permit granted = permit;
+            if (granted != null) {
+                // Cancelado na corrida com a concessão: devolve a vaga
+                granted.release(false);
+            }
+        }
+
+        void cancelTimeout() {
+            Disposable scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.aipoc.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission control limits per operation, bound from {@code ai.admission.*}:
+ *
+ * <pre>
+ * ai:
+ *   admission:
+ *     defaults:
+ *       max-in-flight: 200
+ *       max-queue: 400
+ *       max-queue-wait: 10s
+ *     operations:
+ *       product-classification:
+ *         max-in-flight: 50
+ * </pre>
+ *
+ * <p>Operations are keyed by {@link com.example.aipoc.model.AiOperation#getKey()};
+ * a limit left unset on an operation falls back to {@code defaults}.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private Limits defaults = Limits.defaults();
+    private Map<String, Limits> operations = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limits getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limits defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limits> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Limits> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Resolves the limits of an operation against the defaults.
+     *
+     * @param operationKey the operation key
+     * @return limits with every field set
+     */
+    public Limits resolve(String operationKey) {
+        Limits override = operations.get(operationKey);
+        if (override == null) {
+            return defaults;
+        }
+        Limits resolved = new Limits();
+        resolved.maxInFlight = override.maxInFlight != null ? override.maxInFlight : defaults.maxInFlight;
+        resolved.maxQueue = override.maxQueue != null ? override.maxQueue : defaults.maxQueue;
+        resolved.maxQueueWait = override.maxQueueWait != null ? override.maxQueueWait : defaults.maxQueueWait;
+        resolved.codelInterval = override.codelInterval != null ? override.codelInterval : defaults.codelInterval;
+        resolved.codelTarget = override.codelTarget != null ? override.codelTarget : defaults.codelTarget;
+        resolved.latencyFactor = override.latencyFactor != null ? override.latencyFactor : defaults.latencyFactor;
+        resolved.ewmaWeight = override.ewmaWeight != null ? override.ewmaWeight : defaults.ewmaWeight;
+        return resolved;
+    }
+
+    /**
+     * Limits of one operation.
+     */
+    public static class Limits {
+
+        /** Requests executing at once. */
+        private Integer maxInFlight;
+        /** Requests waiting for a slot; beyond this they are rejected immediately. */
+        private Integer maxQueue;
+        /** Longest wait in the queue while it drains normally. */
+        private Duration maxQueueWait;
+        /** A queue that has not emptied for this long is overloaded. */
+        private Duration codelInterval;
+        /** Lower bound of the queue wait accepted while overloaded. */
+        private Duration codelTarget;
+        /** While overloaded, the accepted queue wait is this multiple of the latency EWMA. */
+        private Double latencyFactor;
+        /** Weight of the newest sample in the service latency EWMA, 0.0 to 1.0. */
+        private Double ewmaWeight;
+
+        static Limits defaults() {
+            Limits limits = new Limits();
+            limits.maxInFlight = 200;
+            limits.maxQueue = 400;
+            limits.maxQueueWait = Duration.ofSeconds(10);
+            limits.codelInterval = Duration.ofSeconds(1);
+            limits.codelTarget = Duration.ofMillis(100);
+            limits.latencyFactor = 1.0;
+            limits.ewmaWeight = 0.2;
+            return limits;
+        }
+
+        public Integer getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(Integer maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Integer getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(Integer maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public Duration getMaxQueueWait() {
+            return maxQueueWait;
+        }
+
+        public void setMaxQueueWait(Duration maxQueueWait) {
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public Duration getCodelInterval() {
+            return codelInterval;
+        }
+
+        public void setCodelInterval(Duration codelInterval) {
+            this.codelInterval = codelInterval;
+        }
+
+        public Duration getCodelTarget() {
+            return codelTarget;
+        }
+
+        public void setCodelTarget(Duration codelTarget) {
+            this.codelTarget = codelTarget;
+        }
+
+        public Double getLatencyFactor() {
+            return latencyFactor;
+        }
+
+        public void setLatencyFactor(Double latencyFactor) {
+            this.latencyFactor = latencyFactor;
+        }
+
+        public Double getEwmaWeight() {
+            return ewmaWeight;
+        }
+
+        public void setEwmaWeight(Double ewmaWeight) {
+            this.ewmaWeight = ewmaWeight;
+        }
+    }
+}
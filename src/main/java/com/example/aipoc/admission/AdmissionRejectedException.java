@@ -0,0 +1,72 @@
+package com.example.aipoc.admission;
+
+import com.example.aipoc.model.AiOperation;
+
+import java.time.Duration;
+
+/**
+ * Thrown when admission control sheds a request. Mapped to
+ * {@code 503 Service Unavailable} with a {@code Retry-After} header.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    /**
+     * Why the request was shed.
+     */
+    public enum Reason {
+        /** The queue was full on arrival. */
+        QUEUE_FULL("queue_full"),
+        /** The wait predicted from the queue length and latency exceeded the limit. */
+        EXPECTED_WAIT("expected_wait"),
+        /** The request waited in the queue longer than {@code max-queue-wait}. */
+        QUEUE_TIMEOUT("queue_timeout"),
+        /** The queue was overloaded and the request had waited past the CoDel target. */
+        CODEL("codel");
+
+        private final String tag;
+
+        Reason(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Gets the metric tag value.
+         *
+         * @return the tag
+         */
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final AiOperation operation;
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(AiOperation operation, Reason reason, Duration retryAfter) {
+        super("Serviço sobrecarregado em " + operation.getDescription() + " (" + reason.getTag() + ")");
+        this.operation = operation;
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public AiOperation getOperation() {
+        return operation;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Suggested wait before retrying, derived from the queue length and latency.
+     *
+     * @return the wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
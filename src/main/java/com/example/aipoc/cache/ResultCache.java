@@ -0,0 +1,154 @@
+package com.example.aipoc.cache;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of model answers, keyed by operation and normalized input, so
+ * a repeated question (the same product, the same review) is answered without a
+ * Gemini call.
+ *
+ * <p>Entries expire {@code ttl} after they are written; past {@code max-entries}
+ * the least recently used one is evicted. Only full model answers are stored,
+ * never errors or degraded local answers.
+ *
+ * <h3>Meters (tagged by {@code operation}):</h3>
+ * <ul>
+ * <li>{@code ai.cache.requests} - counter, also tagged by {@code result}
+ * ({@code hit}, {@code miss})</li>
+ * <li>{@code ai.cache.size} - entries held, all operations (untagged)</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class ResultCache {
+
+    /**
+     * Disabled cache that never stores anything. Used by services created outside
+     * Spring.
+     */
+    public static final ResultCache NOOP = new ResultCache(disabled(), new CompositeMeterRegistry());
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Map<AiOperation, Counter> hits = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, Counter> misses = new EnumMap<>(AiOperation.class);
+
+    private record Key(AiOperation operation, String input) {
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+
+    public ResultCache(ResultCacheProperties properties, MeterRegistry registry) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.maxEntries = Math.max(1, properties.getMaxEntries());
+
+        for (AiOperation operation : AiOperation.values()) {
+            hits.put(operation, requests(registry, operation, "hit"));
+            misses.put(operation, requests(registry, operation, "miss"));
+        }
+        Gauge.builder("ai.cache.size", this, ResultCache::size)
+                .description("Respostas do modelo em cache")
+                .register(registry);
+    }
+
+    /**
+     * Looks up an answer, counting the hit or miss.
+     *
+     * @param operation the operation asked
+     * @param input     the normalized input
+     * @param type      the answer type
+     * @param <T>       the answer type
+     * @return the cached answer, if present and not expired
+     */
+    public <T> Optional<T> get(AiOperation operation, String input, Class<T> type) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Key key = new Key(operation, input);
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null || !type.isInstance(entry.value())) {
+            misses.get(operation).increment();
+            return Optional.empty();
+        }
+        hits.get(operation).increment();
+        return Optional.of(type.cast(entry.value()));
+    }
+
+    /**
+     * Stores an answer, evicting the least recently used entry when full.
+     *
+     * @param operation the operation asked
+     * @param input     the normalized input
+     * @param value     the model's answer
+     */
+    public void put(AiOperation operation, String input, Object value) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(value, System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            entries.put(new Key(operation, input), entry);
+            if (entries.size() > maxEntries) {
+                var eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter requests(MeterRegistry registry, AiOperation operation, String result) {
+        return Counter.builder("ai.cache.requests")
+                .description("Consultas ao cache de respostas do modelo")
+                .tag("operation", operation.getKey())
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static ResultCacheProperties disabled() {
+        ResultCacheProperties properties = new ResultCacheProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+}
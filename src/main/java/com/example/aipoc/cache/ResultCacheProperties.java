@@ -0,0 +1,55 @@
+package com.example.aipoc.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Result cache settings, bound from {@code ai.cache.*}:
+ *
+ * <pre>
+ * ai:
+ *   cache:
+ *     ttl: 10m
+ *     max-entries: 10000
+ * </pre>
+ *
+ * <p>{@code max-entries} bounds all operations together; past it the least recently
+ * used entry is evicted.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.cache")
+public class ResultCacheProperties {
+
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofMinutes(10);
+    private int maxEntries = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
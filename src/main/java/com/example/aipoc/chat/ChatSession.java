@@ -0,0 +1,208 @@
+package com.example.aipoc.chat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The history of one server-side chat conversation: the most recent exchanges,
+ * verbatim, within a token budget, and a rolling summary of the older ones.
+ *
+ * <p>Exchanges pushed out of the window wait in a pending list until a background
+ * call folds them into the summary (see {@link #startCompaction()}); only one
+ * compaction runs at a time. A turn's prompt therefore holds at most the window
+ * budget plus the summary, however long the conversation runs.
+ *
+ * <p>This class is thread-safe: concurrent turns of the same session see consistent
+ * snapshots and their exchanges are appended in completion order.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public final class ChatSession {
+
+    /**
+     * One question and answer.
+     *
+     * @param message the user's message
+     * @param reply   the model's answer
+     * @param tokens  the estimated size of both, see {@link #estimateTokens(String)}
+     */
+    public record Turn(String message, String reply, int tokens) {
+
+        public Turn(String message, String reply) {
+            this(message, reply, estimateTokens(message) + estimateTokens(reply));
+        }
+    }
+
+    /**
+     * What a turn's prompt is built from.
+     *
+     * @param summary the summary of the exchanges that left the window, possibly empty
+     * @param history the exchanges in the window, oldest first
+     */
+    public record Snapshot(String summary, List<Turn> history) {
+
+        /**
+         * Gets the estimated size of the summary and the window.
+         *
+         * @return the estimated tokens
+         */
+        public int tokens() {
+            return estimateTokens(summary) + history.stream().mapToInt(Turn::tokens).sum();
+        }
+    }
+
+    /**
+     * The work of one compaction: the current summary and the exchanges to fold into it.
+     *
+     * @param summary the summary so far, possibly empty
+     * @param turns   the pending exchanges, oldest first
+     */
+    public record Compaction(String summary, List<Turn> turns) {
+    }
+
+    private final String id;
+    private final String owner;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Turn> window = new ArrayDeque<>();
+    private final Deque<Turn> pending = new ArrayDeque<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private int windowTokens;
+    private int pendingTokens;
+    private String summary = "";
+
+    /** Last use, read by the store for expiry and written on each lookup. */
+    volatile long lastAccessNanos = System.nanoTime();
+
+    ChatSession(String id, String owner) {
+        this.id = id;
+        this.owner = owner;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the client the session belongs to.
+     *
+     * @return the client id, or null for calls made without one
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Gets the summary and window a new turn's prompt is built from.
+     *
+     * @return the current history
+     */
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            return new Snapshot(summary, List.copyOf(window));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends an exchange, moving the oldest ones out of the window until it fits in
+     * {@code historyTokens}. Past {@code maxPendingTokens} of exchanges waiting for
+     * compaction, the oldest are dropped.
+     *
+     * @param turn             the exchange
+     * @param historyTokens    the window budget
+     * @param maxPendingTokens the bound of the exchanges waiting for compaction
+     * @return how many exchanges were dropped without being summarized
+     */
+    public int append(Turn turn, int historyTokens, int maxPendingTokens) {
+        lock.lock();
+        try {
+            window.addLast(turn);
+            windowTokens += turn.tokens();
+            while (windowTokens > historyTokens && !window.isEmpty()) {
+                Turn oldest = window.removeFirst();
+                windowTokens -= oldest.tokens();
+                pending.addLast(oldest);
+                pendingTokens += oldest.tokens();
+            }
+            int dropped = 0;
+            while (pendingTokens > maxPendingTokens && !pending.isEmpty()) {
+                pendingTokens -= pending.removeFirst().tokens();
+                dropped++;
+            }
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims the pending exchanges for a compaction, unless one is already running.
+     * The caller must end it with {@link #finishCompaction} or {@link #abortCompaction}.
+     *
+     * @return the work to do, or empty if nothing is pending or a compaction is running
+     */
+    public Optional<Compaction> startCompaction() {
+        if (!compacting.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                compacting.set(false);
+                return Optional.empty();
+            }
+            return Optional.of(new Compaction(summary, List.copyOf(pending)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the summary and discards the exchanges it now covers. Exchanges that
+     * left the window meanwhile stay pending for the next compaction.
+     *
+     * @param work       the work returned by {@link #startCompaction()}
+     * @param newSummary the summary covering the work's exchanges
+     */
+    public void finishCompaction(Compaction work, String newSummary) {
+        lock.lock();
+        try {
+            summary = newSummary;
+            // Comparação por identidade: trocas iguais em texto continuam sendo trocas distintas
+            pending.removeIf(turn -> {
+                boolean covered = work.turns().stream().anyMatch(done -> done == turn);
+                if (covered) {
+                    pendingTokens -= turn.tokens();
+                }
+                return covered;
+            });
+        } finally {
+            lock.unlock();
+            compacting.set(false);
+        }
+    }
+
+    /**
+     * Ends a failed compaction, keeping its exchanges pending for the next one.
+     */
+    public void abortCompaction() {
+        compacting.set(false);
+    }
+
+    /**
+     * Estimates the tokens of a text at four characters per token.
+     *
+     * @param text the text, possibly null
+     * @return the estimate
+     */
+    public static int estimateTokens(String text) {
+        return text == null || text.isEmpty() ? 0 : (text.length() + 3) / 4;
+    }
+}
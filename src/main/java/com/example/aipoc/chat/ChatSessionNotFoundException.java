@@ -0,0 +1,23 @@
+package com.example.aipoc.chat;
+
+/**
+ * Thrown when a chat turn names a session that does not exist, has expired or
+ * belongs to another client. Mapped to {@code 404 Not Found}; the client starts a
+ * new session.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class ChatSessionNotFoundException extends RuntimeException {
+
+    private final String sessionId;
+
+    public ChatSessionNotFoundException(String sessionId) {
+        super("Sessão de chat não encontrada ou expirada: " + sessionId);
+        this.sessionId = sessionId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+}
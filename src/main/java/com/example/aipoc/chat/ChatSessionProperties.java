@@ -0,0 +1,82 @@
+package com.example.aipoc.chat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Server-side chat session settings, bound from {@code ai.chat.sessions.*}:
+ *
+ * <pre>
+ * ai:
+ *   chat:
+ *     sessions:
+ *       max-sessions: 10000
+ *       idle-timeout: 30m
+ *       history-tokens: 2000
+ *       summary-max-words: 200
+ *       max-pending-tokens: 8000
+ * </pre>
+ *
+ * <p>Sessions are held in memory; past {@code max-sessions} the least recently used
+ * one is evicted, and a session unused for {@code idle-timeout} expires. Each turn
+ * sends the most recent exchanges that fit in {@code history-tokens} verbatim, plus a
+ * summary of the older ones of at most {@code summary-max-words} words. Exchanges
+ * leaving the window wait to be folded into the summary; past
+ * {@code max-pending-tokens} of them (summarization failing) the oldest are dropped.
+ * Tokens are estimated at four characters each.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.chat.sessions")
+public class ChatSessionProperties {
+
+    private int maxSessions = 10_000;
+    private Duration idleTimeout = Duration.ofMinutes(30);
+    private int historyTokens = 2000;
+    private int summaryMaxWords = 200;
+    private int maxPendingTokens = 8000;
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public int getHistoryTokens() {
+        return historyTokens;
+    }
+
+    public void setHistoryTokens(int historyTokens) {
+        this.historyTokens = historyTokens;
+    }
+
+    public int getSummaryMaxWords() {
+        return summaryMaxWords;
+    }
+
+    public void setSummaryMaxWords(int summaryMaxWords) {
+        this.summaryMaxWords = summaryMaxWords;
+    }
+
+    public int getMaxPendingTokens() {
+        return maxPendingTokens;
+    }
+
+    public void setMaxPendingTokens(int maxPendingTokens) {
+        this.maxPendingTokens = maxPendingTokens;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.aipoc.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory store of {@link ChatSession}s.
+ *
+ * <p>Sessions expire after {@code idle-timeout} without use, checked on lookup and
+ * swept in the background; past {@code max-sessions} the least recently used one is
+ * evicted. A session is only visible to the client that created it.
+ *
+ * <h3>Meters:</h3>
+ * <ul>
+ * <li>{@code ai.chat.sessions} - sessions held</li>
+ * <li>{@code ai.chat.sessions.evicted} - counter tagged by {@code reason}
+ * ({@code expired}, {@code capacity})</li>
+ * <li>{@code ai.chat.history.tokens} - estimated tokens of summary and window sent
+ * with each turn</li>
+ * <li>{@code ai.chat.compactions} - counter of summary updates tagged by
+ * {@code outcome} ({@code success}, {@code error})</li>
+ * <li>{@code ai.chat.turns.dropped} - exchanges dropped before being summarized</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class ChatSessionStore {
+
+    private final ChatSessionProperties properties;
+    private final long idleNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, ChatSession> sessions = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Counter expired;
+    private final Counter evicted;
+    private final DistributionSummary historyTokens;
+    private final Counter compactions;
+    private final Counter compactionErrors;
+    private final Counter droppedTurns;
+
+    public ChatSessionStore(ChatSessionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+        this.expired = evictions(registry, "expired");
+        this.evicted = evictions(registry, "capacity");
+        this.historyTokens = DistributionSummary.builder("ai.chat.history.tokens")
+                .description("Tokens estimados de resumo e histórico enviados em cada turno")
+                .register(registry);
+        this.compactions = compactions(registry, "success");
+        this.compactionErrors = compactions(registry, "error");
+        this.droppedTurns = Counter.builder("ai.chat.turns.dropped")
+                .description("Trocas descartadas antes de entrar no resumo da conversa")
+                .register(registry);
+        Gauge.builder("ai.chat.sessions", this, ChatSessionStore::size)
+                .description("Sessões de chat em memória")
+                .register(registry);
+    }
+
+    /**
+     * Creates a store with the default settings and no-op meters, for services
+     * created outside Spring.
+     *
+     * @return a new store
+     */
+    public static ChatSessionStore inMemory() {
+        return new ChatSessionStore(new ChatSessionProperties(), new CompositeMeterRegistry());
+    }
+
+    public ChatSessionProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Starts a session, evicting the least recently used one when full.
+     *
+     * @param owner the client starting it, possibly null
+     * @return the new session
+     */
+    public ChatSession create(String owner) {
+        ChatSession session = new ChatSession(UUID.randomUUID().toString(), owner);
+        lock.lock();
+        try {
+            sessions.put(session.getId(), session);
+            if (sessions.size() > Math.max(1, properties.getMaxSessions())) {
+                var eldest = sessions.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evicted.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return session;
+    }
+
+    /**
+     * Looks a session up and marks it used.
+     *
+     * @param id    the session id
+     * @param owner the client asking, possibly null
+     * @return the session, if it exists, has not expired and belongs to {@code owner}
+     */
+    public Optional<ChatSession> find(String id, String owner) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            ChatSession session = sessions.get(id);
+            if (session == null || !Objects.equals(session.getOwner(), owner)) {
+                return Optional.empty();
+            }
+            if (now - session.lastAccessNanos > idleNanos) {
+                sessions.remove(id);
+                expired.increment();
+                return Optional.empty();
+            }
+            session.lastAccessNanos = now;
+            return Optional.of(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param id    the session id
+     * @param owner the client asking, possibly null
+     * @return whether the session existed and belonged to {@code owner}
+     */
+    public boolean remove(String id, String owner) {
+        lock.lock();
+        try {
+            ChatSession session = sessions.get(id);
+            if (session == null || !Objects.equals(session.getOwner(), owner)) {
+                return false;
+            }
+            sessions.remove(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the sessions idle for longer than {@code idle-timeout}.
+     */
+    @Scheduled(initialDelayString = "${ai.chat.sessions.sweep-interval:60s}",
+            fixedDelayString = "${ai.chat.sessions.sweep-interval:60s}")
+    public void sweep() {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            sessions.values().removeIf(session -> {
+                boolean idle = now - session.lastAccessNanos > idleNanos;
+                if (idle) {
+                    expired.increment();
+                }
+                return idle;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the estimated history sent with a turn.
+     *
+     * @param tokens the estimated tokens of summary and window
+     */
+    public void recordHistory(int tokens) {
+        historyTokens.record(tokens);
+    }
+
+    /**
+     * Counts a summary update.
+     *
+     * @param success whether the summary was replaced
+     */
+    public void recordCompaction(boolean success) {
+        (success ? compactions : compactionErrors).increment();
+    }
+
+    /**
+     * Counts exchanges dropped before being summarized.
+     *
+     * @param count the number of exchanges
+     */
+    public void recordDropped(int count) {
+        droppedTurns.increment(count);
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter evictions(MeterRegistry registry, String reason) {
+        return Counter.builder("ai.chat.sessions.evicted")
+                .description("Sessões de chat removidas da memória")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static Counter compactions(MeterRegistry registry, String outcome) {
+        return Counter.builder("ai.chat.compactions")
+                .description("Atualizações do resumo das conversas")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
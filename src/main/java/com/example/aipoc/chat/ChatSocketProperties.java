@@ -0,0 +1,91 @@
+package com.example.aipoc.chat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chat WebSocket settings, bound from {@code ai.chat.socket.*}:
+ *
+ * <pre>
+ * ai:
+ *   chat:
+ *     socket:
+ *       path: /ws/chat
+ *       max-streams: 8
+ *       buffered-frames: 32
+ *       pending-frames: 16
+ *       allowed-origins:
+ *         - https://app.example.com
+ * </pre>
+ *
+ * <p>A connection runs at most {@code max-streams} conversations at once; further
+ * ones are refused until one ends. Each conversation keeps at most
+ * {@code buffered-frames} frames waiting for the socket; past that its answer stops
+ * being read from Gemini until the client catches up, so a slow client holds a
+ * bounded amount of memory.
+ *
+ * <p>Frames are only read from the connection while it has room for them (see
+ * {@link ChatStreamMultiplexer}). On Tomcat, which delivers frames whether or not they are read, a
+ * connection holds at most {@code pending-frames} unread frames and is closed past
+ * that; on Netty the socket itself stops being read.
+ *
+ * <p>{@code allowed-origins} lists the browser origins allowed to open the socket;
+ * empty (the default) allows only the application's own origin. Clients that send
+ * no {@code Origin} header, such as command-line tools, are not affected.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.chat.socket")
+public class ChatSocketProperties {
+
+    private String path = "/ws/chat";
+    private int maxStreams = 8;
+    private int bufferedFrames = 32;
+    private int pendingFrames = 16;
+    private List<String> allowedOrigins = new ArrayList<>();
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    public void setMaxStreams(int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    public int getBufferedFrames() {
+        return bufferedFrames;
+    }
+
+    public void setBufferedFrames(int bufferedFrames) {
+        this.bufferedFrames = bufferedFrames;
+    }
+
+    public int getPendingFrames() {
+        return pendingFrames;
+    }
+
+    public void setPendingFrames(int pendingFrames) {
+        this.pendingFrames = pendingFrames;
+    }
+
+    public List<String> getAllowedOrigins() {
+        return allowedOrigins;
+    }
+
+    public void setAllowedOrigins(List<String> allowedOrigins) {
+        this.allowedOrigins = allowedOrigins;
+    }
+}
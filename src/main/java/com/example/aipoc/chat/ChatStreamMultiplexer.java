@@ -0,0 +1,370 @@
+package com.example.aipoc.chat;
+
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.AiRequest;
+import com.example.aipoc.model.AiResponse;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.QuotaExceededException;
+import com.example.aipoc.scheduling.PriorityScheduler;
+import com.example.aipoc.service.AiGeneralService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the chat WebSocket protocol: many concurrent conversations over one
+ * connection, each identified by a client-chosen {@code id}, with the answers
+ * streamed as they are generated. Transport-agnostic: the servlet and reactive
+ * endpoints only move text frames in and out of {@link #connect(String, Flux)}.
+ *
+ * <h3>Client frames:</h3>
+ * <ul>
+ * <li>{@code {"type": "auth", "apiKey": "..."}} - identifies the client, for browsers
+ * that cannot set the handshake header; only accepted as the first frame</li>
+ * <li>{@code {"type": "chat", "id": "c1", "message": "...", "context": "...",
+ * "sessionId": "...", "profile": "fast", "priority": "interactive"}} - starts a
+ * conversation turn; all fields but {@code type}, {@code id} and {@code message} are
+ * optional and mean what they mean on {@code POST /api/ai/chat}</li>
+ * <li>{@code {"type": "cancel", "id": "c1"}} - stops the turn and its Gemini call</li>
+ * </ul>
+ *
+ * <h3>Server frames:</h3>
+ * <ul>
+ * <li>{@code {"type": "token", "id": "c1", "text": "..."}} - the next piece of the answer</li>
+ * <li>{@code {"type": "done", "id": "c1", "model": "...", "tokensUsed": 42}} - end of the answer</li>
+ * <li>{@code {"type": "cancelled", "id": "c1"}} - end of a cancelled turn</li>
+ * <li>{@code {"type": "error", "id": "c1", "code": "...", "error": "..."}} - end of a failed
+ * or refused turn; {@code id} is null for unreadable frames</li>
+ * </ul>
+ *
+ * <p>Flow control is per connection: at most {@code max-streams} turns run at once
+ * and each buffers at most {@code buffered-frames} frames (see
+ * {@link ChatSocketProperties}). Frames are only produced as fast as the transport
+ * sends them, and a turn that cannot send stops reading its answer from Gemini.
+ * Client frames are only read while the connection has room for them: the running
+ * turns plus a bounded number of frames that start none (cancels, refusals), so
+ * cancels keep being read while a connection is at its limit. Each turn counts
+ * against the client's quotas like an HTTP request; the client is identified once,
+ * by the {@value #API_KEY_HEADER} handshake header or else by an {@code auth} first
+ * frame, never by the URI, which ends up in access logs. Closing the connection (the
+ * end of the inbound frames) cancels its turns.
+ *
+ * <h3>Meters:</h3>
+ * <ul>
+ * <li>{@code ai.chat.socket.connections} - open connections</li>
+ * <li>{@code ai.chat.socket.streams} - turns being answered</li>
+ * <li>{@code ai.chat.socket.turns} - counter tagged by {@code outcome}
+ * ({@code completed}, {@code cancelled}, {@code error}, {@code rejected})</li>
+ * <li>{@code ai.chat.socket.first.token} - timer from a turn's frame to its first token</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class ChatStreamMultiplexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatStreamMultiplexer.class);
+
+    /** Handshake header identifying the calling client, as on the HTTP API. */
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final int MAX_ID_CHARS = 64;
+
+    private final AiGeneralService aiService;
+    private final ChatSocketProperties properties;
+    private final Validator validator;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired(required = false)
+    private ClientLedger clientLedger = ClientLedger.NOOP;
+
+    @Autowired(required = false)
+    private PriorityScheduler priorityScheduler = PriorityScheduler.NOOP;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final Map<String, Counter> turns = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final Timer firstToken;
+
+    public ChatStreamMultiplexer(AiGeneralService aiService, ChatSocketProperties properties, Validator validator,
+                                 MeterRegistry registry) {
+        this.aiService = aiService;
+        this.properties = properties;
+        this.validator = validator;
+        this.registry = registry;
+        registry.gauge("ai.chat.socket.connections", connections);
+        registry.gauge("ai.chat.socket.streams", streams);
+        this.firstToken = Timer.builder("ai.chat.socket.first.token")
+                .description("Tempo entre o frame de chat e o primeiro trecho da resposta")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Reads the API key of a WebSocket handshake from its {@value #API_KEY_HEADER}
+     * header.
+     *
+     * @param headers the handshake headers
+     * @return the API key, or null if the client sent none
+     */
+    public static String apiKey(HttpHeaders headers) {
+        return headers.getFirst(API_KEY_HEADER);
+    }
+
+    /**
+     * Serves one connection. Without a handshake key, an {@code auth} first frame
+     * identifies the client; with neither, the client is anonymous.
+     *
+     * @param apiKey  the client's API key, see {@link #apiKey(HttpHeaders)}
+     * @param inbound the text frames received, requested only as they can be handled
+     * @return the text frames to send, produced on demand; cancelling the
+     *         subscription cancels every running turn
+     */
+    public Flux<String> connect(String apiKey, Flux<String> inbound) {
+        Flux<String> frames;
+        if (apiKey != null) {
+            frames = serve(apiKey, inbound);
+        } else {
+            frames = inbound.switchOnFirst((first, rest) -> {
+                JsonNode auth = first.hasValue() ? authFrame(first.get()) : null;
+                return auth == null ? serve(null, rest) : serve(text(auth, "apiKey"), rest.skip(1));
+            });
+        }
+        return frames
+                .doOnSubscribe(subscription -> connections.incrementAndGet())
+                .doFinally(signal -> connections.decrementAndGet());
+    }
+
+    private Flux<String> serve(String apiKey, Flux<String> inbound) {
+        Connection connection = new Connection(clientLedger.identify(apiKey));
+        // O fim da entrada é o fechamento da conexão: as conversas em andamento são canceladas
+        Sinks.Empty<Void> closed = Sinks.empty();
+        // O flatMap só repõe a demanda depois de concluir 3/4 da concorrência: com max-streams
+        // conversas em andamento ainda cabe um lote inteiro de cancelamentos e recusas
+        int concurrency = 4 * (Math.max(1, properties.getMaxStreams()) + 1);
+        return inbound
+                .doOnComplete(closed::tryEmitEmpty)
+                .flatMap(connection::receive, concurrency, Math.max(1, properties.getBufferedFrames()))
+                .takeUntilOther(closed.asMono());
+    }
+
+    private JsonNode authFrame(String text) {
+        try {
+            JsonNode frame = objectMapper.readTree(text);
+            return "auth".equals(frame.path("type").asText()) ? frame : null;
+        } catch (Exception e) {
+            // O frame inválido é recusado pela conexão
+            return null;
+        }
+    }
+
+    /**
+     * The turns running on one connection, by id. Frames are received one at a
+     * time; turns end on their own threads.
+     */
+    private final class Connection {
+
+        private final String clientId;
+        private final Map<String, Turn> running = new ConcurrentHashMap<>();
+
+        Connection(String clientId) {
+            this.clientId = clientId;
+        }
+
+        Flux<String> receive(String text) {
+            JsonNode frame;
+            try {
+                frame = objectMapper.readTree(text);
+            } catch (Exception e) {
+                return reject(null, "invalid_frame", "Frame não é um JSON válido");
+            }
+            String type = frame.path("type").asText("");
+            if ("auth".equals(type)) {
+                return reject(null, "invalid_frame", "O frame auth só é aceito como primeiro frame da conexão");
+            }
+            String id = text(frame, "id");
+            if (id == null || id.isBlank() || id.length() > MAX_ID_CHARS) {
+                return reject(null, "invalid_frame", "O campo id é obrigatório e deve ter no máximo "
+                        + MAX_ID_CHARS + " caracteres");
+            }
+            return switch (type) {
+                case "chat" -> start(id, frame);
+                case "cancel" -> {
+                    Turn turn = running.get(id);
+                    if (turn != null) {
+                        turn.cancel();
+                    }
+                    yield Flux.empty();
+                }
+                default -> reject(id, "invalid_frame", "Tipo de frame desconhecido: " + type);
+            };
+        }
+
+        private Flux<String> start(String id, JsonNode frame) {
+            AiRequest request = new AiRequest(text(frame, "message"), text(frame, "context"));
+            request.setSessionId(text(frame, "sessionId"));
+            request.setProfile(text(frame, "profile"));
+            String invalid = validator.validate(request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .findFirst()
+                    .orElse(null);
+            if (invalid != null) {
+                return reject(id, "invalid_request", invalid);
+            }
+            if (running.size() >= properties.getMaxStreams()) {
+                return reject(id, "too_many_streams", "Limite de " + properties.getMaxStreams()
+                        + " conversas simultâneas por conexão atingido");
+            }
+            Turn turn = new Turn();
+            if (running.putIfAbsent(id, turn) != null) {
+                return reject(id, "duplicate_id", "Já existe uma conversa em andamento com o id " + id);
+            }
+            try {
+                clientLedger.admit(clientId);
+            } catch (QuotaExceededException e) {
+                running.remove(id, turn);
+                return reject(id, "quota_exceeded", e.getMessage());
+            }
+
+            long startTime = System.nanoTime();
+            return aiService.streamMessage(request)
+                    .doOnNext(piece -> turn.last = piece)
+                    .filter(piece -> piece.isSuccess() && !piece.getResponse().isEmpty())
+                    .map(piece -> {
+                        if (!turn.answering) {
+                            turn.answering = true;
+                            firstToken.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                        }
+                        return token(id, piece.getResponse());
+                    })
+                    .onErrorResume(error -> {
+                        turn.failure = failure(id, error);
+                        return Flux.empty();
+                    })
+                    // O cancelamento interrompe a chamada ao Gemini; a conversa fecha com um frame próprio
+                    .takeUntilOther(turn.stop.asMono())
+                    .concatWith(Mono.fromSupplier(() -> finish(id, turn)))
+                    .contextWrite(Context.of(ClientLedger.CONTEXT_KEY, clientId,
+                            PriorityScheduler.PRIORITY_KEY,
+                            priorityScheduler.priorityOf(AiOperation.CHAT, text(frame, "priority"))))
+                    .doOnSubscribe(subscription -> streams.incrementAndGet())
+                    .doFinally(signal -> {
+                        streams.decrementAndGet();
+                        // Conexão fechada antes do fim da conversa
+                        if (running.remove(id, turn)) {
+                            count("cancelled");
+                        }
+                    });
+        }
+
+        /**
+         * Ends a turn with its last frame. The id is released before the frame is
+         * sent, so the client may reuse it as soon as it sees the frame.
+         */
+        private String finish(String id, Turn turn) {
+            running.remove(id, turn);
+            AiResponse last = turn.last;
+            if (turn.cancelled) {
+                count("cancelled");
+                return frameNode("cancelled", id).toString();
+            }
+            if (turn.failure != null) {
+                count("error");
+                return turn.failure;
+            }
+            if (last == null || !last.isSuccess()) {
+                count("error");
+                return error(id, "model_error",
+                        last != null ? last.getError() : "Nenhuma resposta válida gerada pela IA");
+            }
+            count("completed");
+            return frameNode("done", id)
+                    .put("model", last.getModel())
+                    .put("tokensUsed", last.getTokensUsed())
+                    .toString();
+        }
+
+        private String failure(String id, Throwable error) {
+            if (error instanceof ChatSessionNotFoundException) {
+                return error(id, "session_not_found", error.getMessage());
+            }
+            if (error instanceof QuotaExceededException) {
+                return error(id, "quota_exceeded", error.getMessage());
+            }
+            logger.debug("Conversa {} do WebSocket falhou: {}", id, error.getMessage());
+            return error(id, error instanceof WebClientException ? "upstream_error" : "internal_error",
+                    "Erro ao processar solicitação");
+        }
+
+        private Flux<String> reject(String id, String code, String message) {
+            count("rejected");
+            return Flux.just(error(id, code, message));
+        }
+    }
+
+    /**
+     * State of one running turn, written by its stream and read when it ends.
+     */
+    private static final class Turn {
+
+        final Sinks.Empty<Void> stop = Sinks.empty();
+        volatile boolean cancelled;
+        volatile boolean answering;
+        volatile AiResponse last;
+        volatile String failure;
+
+        void cancel() {
+            cancelled = true;
+            stop.tryEmitEmpty();
+        }
+    }
+
+    private void count(String outcome) {
+        turns.computeIfAbsent(outcome, key -> Counter.builder("ai.chat.socket.turns")
+                .description("Conversas do WebSocket de chat encerradas")
+                .tag("outcome", key)
+                .register(registry)).increment();
+    }
+
+    private static String text(JsonNode frame, String field) {
+        JsonNode value = frame.get(field);
+        return value != null && value.isTextual() ? value.asText() : null;
+    }
+
+    private String token(String id, String text) {
+        return frameNode("token", id).put("text", text).toString();
+    }
+
+    private String error(String id, String code, String message) {
+        return frameNode("error", id).put("code", code).put("error", message).toString();
+    }
+
+    private ObjectNode frameNode(String type, String id) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("type", type);
+        node.put("id", id);
+        return node;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.aipoc.config;
+
+import com.example.aipoc.chat.ChatSocketProperties;
+import com.example.aipoc.chat.ChatStreamMultiplexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Exposes the chat WebSocket ({@code ai.chat.socket.path}) on whichever server the
+ * application runs: Spring WebSocket on Tomcat in the servlet build, WebFlux on
+ * Netty in the reactive one. Both only move text frames; the protocol is in
+ * {@link ChatStreamMultiplexer}. Both accept only the origins in
+ * {@code ai.chat.socket.allowed-origins}, or the application's own.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Configuration(proxyBeanMethods = false)
+public class ChatSocketConfig {
+
+    /**
+     * Servlet build. Tomcat sends blocking, so frames are sent one at a time from a
+     * worker thread, never from the Netty threads producing them; the send only asks
+     * for the next frame once the previous one is written.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @EnableWebSocket
+    static class Servlet implements WebSocketConfigurer {
+
+        private final ChatStreamMultiplexer multiplexer;
+        private final ChatSocketProperties properties;
+
+        Servlet(ChatStreamMultiplexer multiplexer, ChatSocketProperties properties) {
+            this.multiplexer = multiplexer;
+            this.properties = properties;
+        }
+
+        @Override
+        public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+            registry.addHandler(new Handler(multiplexer, Math.max(1, properties.getBufferedFrames()),
+                            Math.max(1, properties.getPendingFrames())), properties.getPath())
+                    .setAllowedOrigins(properties.getAllowedOrigins().toArray(String[]::new));
+        }
+    }
+
+    /**
+     * Reactive build: the socket's own demand drives the frames, both ways. The
+     * origin check is the handler mapping's CORS check, which lets same-origin
+     * handshakes through.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        @Bean
+        HandlerMapping chatSocketHandlerMapping(ChatStreamMultiplexer multiplexer, ChatSocketProperties properties) {
+            WebSocketHandler handler = session -> {
+                HandshakeInfo handshake = session.getHandshakeInfo();
+                return session.send(multiplexer
+                        .connect(ChatStreamMultiplexer.apiKey(handshake.getHeaders()),
+                                session.receive().map(WebSocketMessage::getPayloadAsText))
+                        .map(session::textMessage));
+            };
+            // Antes dos controllers anotados
+            SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of(properties.getPath(), handler), -1);
+            CorsConfiguration cors = new CorsConfiguration();
+            cors.setAllowedOrigins(properties.getAllowedOrigins());
+            mapping.setCorsConfigurations(Map.of(properties.getPath(), cors));
+            return mapping;
+        }
+    }
+
+    /**
+     * One servlet connection: received frames feed the multiplexer, its frames are
+     * written back. Tomcat delivers frames whether or not the multiplexer reads them,
+     * so at most {@code pendingFrames} wait; a client that sends past that is
+     * disconnected.
+     */
+    static final class Handler extends TextWebSocketHandler {
+
+        private static final Logger logger = LoggerFactory.getLogger(Handler.class);
+
+        private static final String INBOUND = "chat.inbound";
+        private static final String OUTBOUND = "chat.outbound";
+
+        private final ChatStreamMultiplexer multiplexer;
+        private final int bufferedFrames;
+        private final int pendingFrames;
+
+        Handler(ChatStreamMultiplexer multiplexer, int bufferedFrames, int pendingFrames) {
+            this.multiplexer = multiplexer;
+            this.bufferedFrames = bufferedFrames;
+            this.pendingFrames = pendingFrames;
+        }
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession session) {
+            Sinks.Many<String> inbound = Sinks.many().unicast()
+                    .onBackpressureBuffer(new ArrayBlockingQueue<>(pendingFrames));
+            String apiKey = ChatStreamMultiplexer.apiKey(session.getHandshakeHeaders());
+            Disposable outbound = multiplexer.connect(apiKey, inbound.asFlux())
+                    .publishOn(Schedulers.boundedElastic(), bufferedFrames)
+                    .subscribe(frame -> send(session, frame), error -> {
+                        logger.debug("Envio no WebSocket de chat falhou: {}", error.getMessage());
+                        close(session, CloseStatus.SERVER_ERROR);
+                    });
+            session.getAttributes().put(INBOUND, inbound);
+            session.getAttributes().put(OUTBOUND, outbound);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            // O Tomcat entrega as mensagens de uma sessão uma por vez
+            Sinks.Many<String> inbound = (Sinks.Many<String>) session.getAttributes().get(INBOUND);
+            if (inbound.tryEmitNext(message.getPayload()) == Sinks.EmitResult.FAIL_OVERFLOW) {
+                logger.debug("WebSocket de chat {} fechado: mais de {} frames sem leitura", session.getId(),
+                        pendingFrames);
+                close(session, CloseStatus.POLICY_VIOLATION.withReason("Frames demais aguardando leitura"));
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            Sinks.Many<String> inbound = (Sinks.Many<String>) session.getAttributes().get(INBOUND);
+            if (inbound != null) {
+                inbound.tryEmitComplete();
+            }
+            Disposable outbound = (Disposable) session.getAttributes().get(OUTBOUND);
+            if (outbound != null) {
+                outbound.dispose();
+            }
+        }
+
+        private static void send(WebSocketSession session, String frame) {
+            try {
+                session.sendMessage(new TextMessage(frame));
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+
+        private static void close(WebSocketSession session, CloseStatus status) {
+            try {
+                session.close(status);
+            } catch (IOException e) {
+                logger.debug("Erro ao fechar o WebSocket de chat: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.aipoc.config;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One {@link WebClient} per operation, each with its own connection pool and
+ * timeouts, so a flood of slow calls of one operation (long summaries) exhausts
+ * only its own connections while the others keep theirs.
+ *
+ * <p>A call that finds its pool full waits up to {@code pending-acquire-timeout}
+ * in a queue of at most {@code pending-acquire-max-count}; past either it fails
+ * without touching the other pools (outcome {@code bulkhead_full} on
+ * {@code gemini.requests}).
+ *
+ * <p>Reactor Netty keeps one pool per remote host, so with an endpoint pool (see
+ * {@link GeminiEndpoints}) each limit would apply once per endpoint. Both limits
+ * are split evenly across the endpoints instead (at least one each), keeping the
+ * operation's total within its configured budget.
+ *
+ * <h3>Meters (tagged by {@code operation} and {@code endpoint}):</h3>
+ * <ul>
+ * <li>{@code gemini.bulkhead.active} - connections carrying a call</li>
+ * <li>{@code gemini.bulkhead.pending} - calls waiting for a connection</li>
+ * <li>{@code gemini.bulkhead.max} - pool size</li>
+ * <li>{@code gemini.bulkhead.saturation} - active / max, 0.0 to 1.0</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class GeminiBulkheads {
+
+    private final Map<AiOperation, WebClient> clients = new EnumMap<>(AiOperation.class);
+    private final List<ConnectionProvider> pools = new ArrayList<>();
+
+    /**
+     * Creates the pools for a single endpoint.
+     *
+     * @param template   client carrying the base URL, headers and observation
+     *                   setup shared by every operation
+     * @param properties pool and timeout settings
+     * @param registry   registry for the saturation gauges
+     */
+    public GeminiBulkheads(WebClient template, GeminiHttpProperties properties, MeterRegistry registry) {
+        this(template, properties, 1, registry);
+    }
+
+    /**
+     * Creates the pools, splitting each operation's limits across the endpoints.
+     *
+     * @param template   client carrying the base URL, headers and observation
+     *                   setup shared by every operation
+     * @param properties pool and timeout settings
+     * @param endpoints  number of remote hosts the calls are spread over
+     * @param registry   registry for the saturation gauges
+     */
+    public GeminiBulkheads(WebClient template, GeminiHttpProperties properties, int endpoints,
+            MeterRegistry registry) {
+        for (AiOperation operation : AiOperation.values()) {
+            GeminiHttpProperties.Pool settings = properties.resolve(operation.getKey());
+            ConnectionProvider pool = ConnectionProvider.builder("gemini-" + operation.getKey())
+                    .maxConnections(share(settings.getMaxConnections(), endpoints))
+                    .pendingAcquireMaxCount(share(settings.getPendingAcquireMaxCount(), endpoints))
+                    .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                    .maxIdleTime(settings.getMaxIdleTime())
+                    .metrics(true, () -> new SaturationGauges(operation, registry))
+                    .build();
+            HttpClient httpClient = HttpClient.create(pool)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                    .responseTimeout(settings.getResponseTimeout());
+            pools.add(pool);
+            clients.put(operation, template.mutate()
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .build());
+        }
+    }
+
+    /**
+     * Gets the client of an operation.
+     *
+     * @param operation the operation making the call
+     * @return the client bound to the operation's pool
+     */
+    public WebClient client(AiOperation operation) {
+        return clients.get(operation);
+    }
+
+    /**
+     * Closes every pool.
+     */
+    public void dispose() {
+        pools.forEach(ConnectionProvider::dispose);
+    }
+
+    private static int share(int limit, int endpoints) {
+        // Negativo = sem limite na fila de espera do Reactor Netty
+        return limit < 0 ? limit : Math.max(1, limit / Math.max(1, endpoints));
+    }
+
+    /**
+     * Registers the gauges of a pool once reactor-netty opens it for a Gemini host.
+     */
+    private record SaturationGauges(AiOperation operation, MeterRegistry registry)
+            implements ConnectionProvider.MeterRegistrar {
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                ConnectionPoolMetrics metrics) {
+            Tags tags = Tags.of("operation", operation.getKey(), "endpoint", endpointOf(remoteAddress));
+            gauge("gemini.bulkhead.active", "Conexões com chamada em andamento", tags, metrics,
+                    ConnectionPoolMetrics::acquiredSize);
+            gauge("gemini.bulkhead.pending", "Chamadas aguardando conexão", tags, metrics,
+                    ConnectionPoolMetrics::pendingAcquireSize);
+            gauge("gemini.bulkhead.max", "Tamanho do pool de conexões", tags, metrics,
+                    ConnectionPoolMetrics::maxAllocatedSize);
+            gauge("gemini.bulkhead.saturation", "Fração do pool em uso", tags, metrics,
+                    pool -> (double) pool.acquiredSize() / Math.max(1, pool.maxAllocatedSize()));
+        }
+
+        private static String endpointOf(SocketAddress remoteAddress) {
+            if (remoteAddress instanceof InetSocketAddress address) {
+                return address.getHostString() + ":" + address.getPort();
+            }
+            return String.valueOf(remoteAddress);
+        }
+
+        private void gauge(String name, String description, Tags tags, ConnectionPoolMetrics metrics,
+                ToDoubleFunction<ConnectionPoolMetrics> value) {
+            Gauge.builder(name, metrics, value)
+                    .description(description)
+                    .tags(tags)
+                    .strongReference(true)
+                    .register(registry);
+        }
+    }
+}
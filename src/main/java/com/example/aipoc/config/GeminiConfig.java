@@ -1,5 +1,6 @@
 package com.example.aipoc.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,12 +15,51 @@ public class GeminiConfig {
     @Value("${gemini.api.url}")
     private String apiUrl;
 
+    @Value("${gemini.api.model}")
+    private String model;
+
+    /**
+     * Built from Boot's auto-configured builder so every call is observed as an
+     * {@code http.client.requests} span and carries the trace context upstream.
+     * Services call through {@link GeminiBulkheads}, which derive one client per
+     * operation from this one. With {@code gemini.endpoints.urls} set, the
+     * {@link GeminiEndpoints} filter sends each call to one endpoint of the pool.
+     */
     @Bean
-    WebClient geminiWebClient() {
-        return WebClient.builder()
+    WebClient geminiWebClient(WebClient.Builder builder, GeminiEndpoints geminiEndpoints) {
+        WebClient.Builder client = builder.clone()
                 .baseUrl(apiUrl)
-                .defaultHeader("Content-Type", "application/json")
+                .defaultHeader("Content-Type", "application/json");
+        if (geminiEndpoints.isPooled()) {
+            client.filter(geminiEndpoints.filter());
+        }
+        return client.build();
+    }
+
+    /**
+     * Endpoint pool. Its probes ask each endpoint for the default model, which is
+     * cheap and needs the same API key as the calls.
+     */
+    @Bean
+    GeminiEndpoints geminiEndpoints(WebClient.Builder builder, GeminiEndpointProperties properties,
+            MeterRegistry meterRegistry) {
+        WebClient probeClient = builder.clone()
+                .defaultHeader("x-goog-api-key", apiKey)
                 .build();
+        return new GeminiEndpoints(apiUrl, properties, probeClient, "/models/" + model, meterRegistry);
+    }
+
+    /**
+     * Per-operation connection pools. Each in-flight call holds one connection for
+     * the whole upstream latency, so a pool and its pending-acquire queue bound how
+     * many slow calls of that operation can be outstanding at once. Reactor Netty
+     * pools per remote host, so the budget is split across the endpoint pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    GeminiBulkheads geminiBulkheads(WebClient geminiWebClient, GeminiHttpProperties properties,
+            GeminiEndpoints geminiEndpoints, MeterRegistry meterRegistry) {
+        return new GeminiBulkheads(geminiWebClient, properties,
+                Math.max(1, geminiEndpoints.getEndpoints().size()), meterRegistry);
     }
     
     public String getApiKey() {
@@ -0,0 +1,114 @@
+package com.example.aipoc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of Gemini endpoints, bound from {@code gemini.endpoints.*}:
+ *
+ * <pre>
+ * gemini:
+ *   endpoints:
+ *     urls:
+ *       - https://generativelanguage.googleapis.com/v1beta
+ *       - https://gemini-proxy.sa-east-1.example.com/v1beta
+ *     decay: 10s
+ *     consecutive-failures: 5
+ *     ejection-time: 30s
+ *     max-ejected-percent: 50
+ *     probe-interval: 10s
+ * </pre>
+ *
+ * <p>Every URL must serve the same API as {@code gemini.api.url}, which services keep
+ * addressing; with no {@code urls} the pool is off and every call goes to
+ * {@code gemini.api.url}. See {@link GeminiEndpoints} for how an endpoint is picked,
+ * ejected and brought back.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "gemini.endpoints")
+public class GeminiEndpointProperties {
+
+    private List<String> urls = new ArrayList<>();
+    private Duration decay = Duration.ofSeconds(10);
+    private int consecutiveFailures = 5;
+    private Duration ejectionTime = Duration.ofSeconds(30);
+    private int maxEjectedPercent = 50;
+    private Duration probeInterval = Duration.ofSeconds(10);
+    private Duration probeTimeout = Duration.ofSeconds(5);
+
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    /**
+     * Time constant of the latency EWMA: a sample this old weighs about 37% of a
+     * fresh one.
+     */
+    public Duration getDecay() {
+        return decay;
+    }
+
+    public void setDecay(Duration decay) {
+        this.decay = decay;
+    }
+
+    /**
+     * Consecutive failures (connection errors, timeouts, 5xx) that eject an endpoint.
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    /**
+     * Minimum time an ejected endpoint stays out before it is probed.
+     */
+    public Duration getEjectionTime() {
+        return ejectionTime;
+    }
+
+    public void setEjectionTime(Duration ejectionTime) {
+        this.ejectionTime = ejectionTime;
+    }
+
+    /**
+     * Most endpoints, in percent of the pool, that may be ejected at once.
+     */
+    public int getMaxEjectedPercent() {
+        return maxEjectedPercent;
+    }
+
+    public void setMaxEjectedPercent(int maxEjectedPercent) {
+        this.maxEjectedPercent = maxEjectedPercent;
+    }
+
+    public Duration getProbeInterval() {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(Duration probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    public Duration getProbeTimeout() {
+        return probeTimeout;
+    }
+
+    public void setProbeTimeout(Duration probeTimeout) {
+        this.probeTimeout = probeTimeout;
+    }
+}
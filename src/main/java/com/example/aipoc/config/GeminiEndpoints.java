@@ -0,0 +1,389 @@
+package com.example.aipoc.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spreads the Gemini calls over several endpoints serving the same API (regions or
+ * proxies), steering away from the slow and the failing ones.
+ *
+ * <p>Installed as a filter of the Gemini {@link WebClient}: calls keep addressing
+ * {@code gemini.api.url}, and the filter swaps that prefix for the endpoint it picks.
+ * Picking is power of two choices: two endpoints are drawn at random and the one
+ * with the lower cost wins, the cost being its peak-EWMA latency times its
+ * outstanding calls plus one. The EWMA jumps up at once on a slow sample and decays
+ * over {@code decay}; while the endpoint is idle it decays toward the median
+ * estimate of the pool rather than toward zero, so a degrading region loses traffic
+ * within a few calls and is tried again once its estimate is back to the pool's,
+ * without an idle endpoint ever looking free. Drawing only two keeps a herd from
+ * piling onto the single best endpoint. Latency is measured up to the response
+ * headers of real calls only.
+ *
+ * <p>Passive outlier ejection: {@code consecutive-failures} connection errors,
+ * timeouts or 5xx answers in a row take an endpoint out of the draw, as long as
+ * no more than {@code max-ejected-percent} of the pool is out (if every endpoint
+ * is out, all are drawn again). Every {@code probe-interval} a {@code GET} of the
+ * model is sent to the endpoints ejected for at least {@code ejection-time},
+ * bringing back those that answer, and to the ones idle for a whole interval, whose
+ * failed probes count toward ejection. Probes are a health signal only: a model
+ * lookup says little about generation latency, so their latency is published on
+ * its own gauge and never enters the EWMA.
+ *
+ * <h3>Meters (tagged by {@code endpoint}):</h3>
+ * <ul>
+ * <li>{@code gemini.endpoint.latency} - peak-EWMA latency, in seconds</li>
+ * <li>{@code gemini.endpoint.probe.latency} - latency of the last probe, in seconds</li>
+ * <li>{@code gemini.endpoint.outstanding} - calls waiting for their response</li>
+ * <li>{@code gemini.endpoint.ejected} - 1 while ejected, else 0</li>
+ * <li>{@code gemini.endpoint.ejections} - counter of ejections</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class GeminiEndpoints {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiEndpoints.class);
+
+    private final String baseUrl;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final double decayNanos;
+    private final int consecutiveFailures;
+    private final long ejectionNanos;
+    private final int maxEjected;
+    private final long probeIntervalNanos;
+    private final Duration probeTimeout;
+    private final WebClient probeClient;
+    private final String probePath;
+
+    /**
+     * Creates the pool.
+     *
+     * @param baseUrl     the URL services address ({@code gemini.api.url})
+     * @param properties  endpoints and ejection settings
+     * @param probeClient client for the probes, carrying the API key
+     * @param probePath   path probed on each endpoint, e.g. {@code /models/gemini-2.5-flash}
+     * @param registry    registry for the endpoint meters
+     */
+    public GeminiEndpoints(String baseUrl, GeminiEndpointProperties properties, WebClient probeClient,
+            String probePath, MeterRegistry registry) {
+        this.baseUrl = trimSlash(baseUrl);
+        this.decayNanos = Math.max(1, properties.getDecay().toNanos());
+        this.consecutiveFailures = Math.max(1, properties.getConsecutiveFailures());
+        this.ejectionNanos = properties.getEjectionTime().toNanos();
+        this.maxEjected = properties.getUrls().size() * Math.clamp(properties.getMaxEjectedPercent(), 0, 100) / 100;
+        this.probeIntervalNanos = properties.getProbeInterval().toNanos();
+        this.probeTimeout = properties.getProbeTimeout();
+        this.probeClient = probeClient;
+        this.probePath = probePath;
+        for (String url : properties.getUrls()) {
+            Endpoint endpoint = new Endpoint(trimSlash(url));
+            endpoints.add(endpoint);
+            Gauge.builder("gemini.endpoint.latency", endpoint, e -> e.latencyNanos(decayNanos, baselineNanos()) / 1e9)
+                    .description("Latência EWMA (pico) do endpoint")
+                    .baseUnit("seconds")
+                    .tag("endpoint", endpoint.url())
+                    .register(registry);
+            Gauge.builder("gemini.endpoint.probe.latency", endpoint, e -> e.probeNanos / 1e9)
+                    .description("Latência da última sonda do endpoint")
+                    .baseUnit("seconds")
+                    .tag("endpoint", endpoint.url())
+                    .register(registry);
+            Gauge.builder("gemini.endpoint.outstanding", endpoint, Endpoint::outstanding)
+                    .description("Chamadas aguardando resposta do endpoint")
+                    .tag("endpoint", endpoint.url())
+                    .register(registry);
+            Gauge.builder("gemini.endpoint.ejected", endpoint, e -> e.isEjected() ? 1 : 0)
+                    .description("1 enquanto o endpoint está ejetado")
+                    .tag("endpoint", endpoint.url())
+                    .register(registry);
+            endpoint.ejections = Counter.builder("gemini.endpoint.ejections")
+                    .description("Ejeções do endpoint por falhas consecutivas")
+                    .tag("endpoint", endpoint.url())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Checks whether there are endpoints to spread the calls over.
+     *
+     * @return false when {@code gemini.endpoints.urls} is empty
+     */
+    public boolean isPooled() {
+        return !endpoints.isEmpty();
+    }
+
+    /**
+     * Gets the endpoints, in configuration order.
+     *
+     * @return the endpoints
+     */
+    public List<Endpoint> getEndpoints() {
+        return List.copyOf(endpoints);
+    }
+
+    /**
+     * Gets the filter that sends each call to the endpoint picked for it. Calls to
+     * URLs outside {@code gemini.api.url} pass through untouched.
+     *
+     * @return the filter
+     */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            String url = request.url().toString();
+            if (!isPooled() || !url.startsWith(baseUrl)) {
+                return next.exchange(request);
+            }
+            return Mono.defer(() -> {
+                Endpoint endpoint = pick();
+                ClientRequest routed = ClientRequest.from(request)
+                        .url(URI.create(endpoint.url() + url.substring(baseUrl.length())))
+                        .build();
+                long start = endpoint.started();
+                return next.exchange(routed)
+                        .doOnNext(response -> finished(endpoint, start, !response.statusCode().is5xxServerError()))
+                        .doOnError(error -> finished(endpoint, start, false))
+                        .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+            });
+        };
+    }
+
+    /**
+     * Picks the endpoint of a call by power of two choices among the endpoints in
+     * the draw.
+     *
+     * @return the endpoint
+     */
+    Endpoint pick() {
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isEjected()) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Todos ejetados: melhor tentar algum do que recusar a chamada
+            candidates = endpoints;
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+        double baseline = baselineNanos();
+        return a.cost(decayNanos, baseline) <= b.cost(decayNanos, baseline) ? a : b;
+    }
+
+    /**
+     * Gets the median of the latest latency samples of the pool, the value an idle
+     * endpoint's estimate decays toward.
+     *
+     * @return the median, in nanoseconds; 0 before any response
+     */
+    double baselineNanos() {
+        double[] samples = new double[endpoints.size()];
+        int count = 0;
+        for (Endpoint endpoint : endpoints) {
+            double nanos = endpoint.latency.get().nanos();
+            if (nanos > 0) {
+                samples[count++] = nanos;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(samples, 0, count);
+        return count % 2 == 1 ? samples[count / 2] : (samples[count / 2 - 1] + samples[count / 2]) / 2;
+    }
+
+    /**
+     * Probes the endpoints ejected for at least {@code ejection-time} and the ones
+     * idle for a whole {@code probe-interval}. Probes run in the background; an
+     * ejected endpoint returns to the draw when its probe answers 2xx.
+     */
+    @Scheduled(initialDelayString = "${gemini.endpoints.probe-interval:10s}",
+            fixedDelayString = "${gemini.endpoints.probe-interval:10s}")
+    public void probe() {
+        long now = System.nanoTime();
+        for (Endpoint endpoint : endpoints) {
+            boolean due = endpoint.isEjected()
+                    ? now - endpoint.ejectedAt >= ejectionNanos
+                    : now - endpoint.lastFinished >= probeIntervalNanos;
+            if (due && endpoint.probing.compareAndSet(false, true)) {
+                probe(endpoint);
+            }
+        }
+    }
+
+    private void probe(Endpoint endpoint) {
+        long start = System.nanoTime();
+        probeClient.get()
+                .uri(URI.create(endpoint.url() + probePath))
+                .exchangeToMono(ClientResponse::toBodilessEntity)
+                .timeout(probeTimeout)
+                .doFinally(signal -> endpoint.probing.set(false))
+                .subscribe(response -> {
+                    boolean healthy = response.getStatusCode().is2xxSuccessful();
+                    endpoint.probeNanos = System.nanoTime() - start;
+                    if (healthy && endpoint.ejected.compareAndSet(true, false)) {
+                        endpoint.failures.set(0);
+                        logger.info("Endpoint do Gemini {} respondeu à sonda: voltando ao rodízio", endpoint.url());
+                        return;
+                    }
+                    if (!healthy) {
+                        logger.debug("Sonda do endpoint {} respondeu {}", endpoint.url(), response.getStatusCode());
+                    }
+                    health(endpoint, System.nanoTime(), healthy);
+                }, error -> {
+                    logger.debug("Sonda do endpoint {} falhou: {}", endpoint.url(), error.getMessage());
+                    health(endpoint, System.nanoTime(), false);
+                });
+    }
+
+    private void finished(Endpoint endpoint, long start, boolean success) {
+        long now = System.nanoTime();
+        endpoint.lastFinished = now;
+        endpoint.observe(now - start, decayNanos);
+        health(endpoint, now, success);
+    }
+
+    private void health(Endpoint endpoint, long now, boolean success) {
+        if (success) {
+            endpoint.failures.set(0);
+            return;
+        }
+        if (endpoint.failures.incrementAndGet() < consecutiveFailures || endpoint.isEjected()) {
+            return;
+        }
+        if (ejectedCount() >= maxEjected) {
+            logger.debug("Endpoint {} falhando, mas o limite de ejeções ({}) foi atingido", endpoint.url(),
+                    maxEjected);
+            return;
+        }
+        if (endpoint.ejected.compareAndSet(false, true)) {
+            endpoint.ejectedAt = now;
+            endpoint.ejections.increment();
+            logger.warn("Endpoint do Gemini {} ejetado após {} falhas consecutivas", endpoint.url(),
+                    endpoint.failures.get());
+        }
+    }
+
+    private int ejectedCount() {
+        int count = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isEjected()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * One endpoint of the pool and its load and health.
+     */
+    public static final class Endpoint {
+
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicBoolean ejected = new AtomicBoolean();
+        private final AtomicBoolean probing = new AtomicBoolean();
+        private final AtomicReference<Ewma> latency = new AtomicReference<>(new Ewma(0, System.nanoTime()));
+        private volatile long ejectedAt;
+        private volatile long lastFinished = System.nanoTime();
+        private volatile long probeNanos;
+        private Counter ejections;
+
+        /** Latency estimate and when it was last updated. */
+        private record Ewma(double nanos, long updatedAt) {
+        }
+
+        private Endpoint(String url) {
+            this.url = url;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isEjected() {
+            return ejected.get();
+        }
+
+        /**
+         * Gets the peak-EWMA latency, decayed toward {@code baselineNanos} for the
+         * time since the last sample; the baseline itself until the first response.
+         *
+         * @param decayNanos    the EWMA time constant
+         * @param baselineNanos the pool median, see {@link GeminiEndpoints#baselineNanos()}
+         * @return the latency estimate, in nanoseconds
+         */
+        public double latencyNanos(double decayNanos, double baselineNanos) {
+            Ewma current = latency.get();
+            if (current.nanos() == 0) {
+                return baselineNanos;
+            }
+            double weight = Math.exp(-(System.nanoTime() - current.updatedAt()) / decayNanos);
+            return baselineNanos + (current.nanos() - baselineNanos) * weight;
+        }
+
+        private double cost(double decayNanos, double baselineNanos) {
+            return latencyNanos(decayNanos, baselineNanos) * (outstanding.get() + 1);
+        }
+
+        private long started() {
+            outstanding.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        private void observe(long rttNanos, double decayNanos) {
+            long now = System.nanoTime();
+            latency.updateAndGet(current -> {
+                if (rttNanos > current.nanos()) {
+                    return new Ewma(rttNanos, now);
+                }
+                double weight = Math.exp(-(now - current.updatedAt()) / decayNanos);
+                return new Ewma(current.nanos() * weight + rttNanos * (1 - weight), now);
+            });
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
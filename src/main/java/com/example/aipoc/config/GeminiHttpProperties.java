@@ -0,0 +1,187 @@
+package com.example.aipoc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Upstream HTTP settings of the Gemini bulkheads, bound from {@code gemini.http.*}:
+ *
+ * <pre>
+ * gemini:
+ *   http:
+ *     max-connections: 125
+ *     pending-acquire-max-count: 250
+ *     pending-acquire-timeout: 45s
+ *     response-timeout: 30s
+ *     operations:
+ *       summary:
+ *         response-timeout: 60s
+ * </pre>
+ *
+ * <p>Every operation gets its own connection pool built from the top-level values;
+ * an operation under {@code operations} (keyed by
+ * {@link com.example.aipoc.model.AiOperation#getKey()}) overrides only the values
+ * it sets.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "gemini.http")
+public class GeminiHttpProperties {
+
+    private int maxConnections = 125;
+    private int pendingAcquireMaxCount = 250;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration responseTimeout = Duration.ofSeconds(30);
+    private Map<String, Pool> operations = new HashMap<>();
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public Map<String, Pool> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Pool> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Resolves the pool settings of an operation against the top-level values.
+     *
+     * @param operationKey the operation key
+     * @return settings with every field set
+     */
+    public Pool resolve(String operationKey) {
+        Pool override = operations.getOrDefault(operationKey, new Pool());
+        Pool resolved = new Pool();
+        resolved.maxConnections = override.maxConnections != null ? override.maxConnections : maxConnections;
+        resolved.pendingAcquireMaxCount = override.pendingAcquireMaxCount != null
+                ? override.pendingAcquireMaxCount : pendingAcquireMaxCount;
+        resolved.pendingAcquireTimeout = override.pendingAcquireTimeout != null
+                ? override.pendingAcquireTimeout : pendingAcquireTimeout;
+        resolved.maxIdleTime = override.maxIdleTime != null ? override.maxIdleTime : maxIdleTime;
+        resolved.connectTimeout = override.connectTimeout != null ? override.connectTimeout : connectTimeout;
+        resolved.responseTimeout = override.responseTimeout != null ? override.responseTimeout : responseTimeout;
+        return resolved;
+    }
+
+    /**
+     * Connection pool and timeouts of one operation.
+     */
+    public static class Pool {
+
+        /** Connections open at once; each in-flight call holds one. */
+        private Integer maxConnections;
+        /** Calls waiting for a connection; beyond this they fail immediately (-1 = unbounded). */
+        private Integer pendingAcquireMaxCount;
+        /** Longest wait for a connection. */
+        private Duration pendingAcquireTimeout;
+        /** Idle connections are closed after this long. */
+        private Duration maxIdleTime;
+        /** TCP connect timeout. */
+        private Duration connectTimeout;
+        /** Longest wait for the response after the request is sent. */
+        private Duration responseTimeout;
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Integer getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+    }
+}
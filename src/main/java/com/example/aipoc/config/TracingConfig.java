@@ -0,0 +1,27 @@
+package com.example.aipoc.config;
+
+import com.example.aipoc.tracing.FileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Optional span exporters. Boot's OpenTelemetry auto-configuration picks up every
+ * {@code SpanExporter} bean alongside the OTLP one.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Value("${ai.tracing.file.path:target/traces/spans.jsonl}")
+    private Path spanFile;
+
+    @Bean
+    @ConditionalOnProperty(name = "ai.tracing.file.enabled", havingValue = "true")
+    FileSpanExporter fileSpanExporter(ObjectMapper objectMapper) {
+        return new FileSpanExporter(spanFile, objectMapper);
+    }
+}
@@ -1,26 +1,43 @@
 package com.example.aipoc.controller;
 
+import com.example.aipoc.admission.AdmissionControl;
+import com.example.aipoc.chat.ChatSessionNotFoundException;
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiOperation;
 import com.example.aipoc.model.AiRequest;
 import com.example.aipoc.model.AiResponse;
+import com.example.aipoc.model.AnalyzeRequest;
+import com.example.aipoc.model.AnalyzeResponse;
 import com.example.aipoc.model.SentimentRequest;
 import com.example.aipoc.model.SentimentResponse;
 import com.example.aipoc.service.AiGeneralService;
+import com.example.aipoc.service.MultiAnalysisService;
 import com.example.aipoc.service.SentimentAnalysisService;
 import com.example.aipoc.model.SummaryRequest;
 import com.example.aipoc.service.TextSummaryService;
 import com.example.aipoc.model.ProductClassificationRequest;
 import com.example.aipoc.model.ProductClassificationResponse;
 import com.example.aipoc.service.ProductTangibilityService;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.scheduling.Priority;
+import com.example.aipoc.scheduling.PriorityScheduler;
+import com.example.aipoc.tracing.AiObservations;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.time.Clock;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -29,6 +46,18 @@ public class AiController {
 
     private static final Logger logger = LoggerFactory.getLogger(AiController.class);
 
+    /** Header identifying the calling client, see {@link ClientLedger}. */
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    /** Header overriding the endpoint's scheduling lane, see {@link Priority}. */
+    public static final String PRIORITY_HEADER = "X-Priority";
+
+    /** Header with the absolute deadline of the request, see {@link Deadline}. */
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    /** Header with the time budget of the request, see {@link Deadline}. */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
     @Autowired
     private AiGeneralService aiService;
 
@@ -41,61 +70,219 @@ public class AiController {
     @Autowired
     private ProductTangibilityService productTangibilityService;
 
+    @Autowired
+    private MultiAnalysisService multiAnalysisService;
+
+    @Autowired(required = false)
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    @Autowired(required = false)
+    private ClientLedger clientLedger = ClientLedger.NOOP;
+
+    @Autowired(required = false)
+    private AdmissionControl admissionControl = AdmissionControl.NOOP;
+
+    @Autowired(required = false)
+    private PriorityScheduler priorityScheduler = PriorityScheduler.NOOP;
+
+    @Autowired(required = false)
+    private ClientDisconnects clientDisconnects = ClientDisconnects.NONE;
+
+    private Clock clock = Clock.systemUTC();
+
     @PostMapping("/chat")
-    public Mono<ResponseEntity<AiResponse>> chat(@Valid @RequestBody AiRequest request) {
-        logger.info("Recebida solicitação de chat: {}", request.getMessage());
+    public Mono<ResponseEntity<AiResponse>> chat(@Valid @RequestBody AiRequest request,
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) String timeout) {
+        logger.debug("Recebida solicitação de chat ({} caracteres)", request.getMessage().length());
 
-        return aiService.processMessage(request)
+        String clientId = identify(apiKey);
+        return AiObservations.observe(observationRegistry, AiObservations.REQUEST, AiOperation.CHAT,
+                        () -> admitted(AiOperation.CHAT, clientId, () -> aiService.processMessage(request))
+                                .onErrorResume(DeadlineExceededException.class,
+                                        e -> Mono.fromSupplier(() -> aiService.degradedReply(e))), null)
                 .map(response -> {
                     if (response.isSuccess()) {
                         return ResponseEntity.ok(response);
+                    } else if (response.isDegraded()) {
+                        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
                     } else {
                         return ResponseEntity.internalServerError().body(response);
                     }
-                });
+                })
+                .takeUntilOther(clientDisconnects.current())
+                .contextWrite(requestContext(clientId, AiOperation.CHAT, priority, deadline, timeout));
+    }
+
+    @PostMapping("/chat/sessions")
+    public ResponseEntity<Map<String, String>> startChatSession(
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey) {
+        String sessionId = aiService.startSession(clientLedger.identify(apiKey));
+        logger.debug("Sessão de chat criada: {}", sessionId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("sessionId", sessionId));
+    }
+
+    @DeleteMapping("/chat/sessions/{sessionId}")
+    public ResponseEntity<Void> endChatSession(@PathVariable String sessionId,
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey) {
+        if (aiService.endSession(sessionId, clientLedger.identify(apiKey))) {
+            return ResponseEntity.noContent().build();
+        }
+        throw new ChatSessionNotFoundException(sessionId);
     }
 
     @PostMapping("/sentiment")
-    public Mono<ResponseEntity<SentimentResponse>> analyzeSentiment(@Valid @RequestBody SentimentRequest request) {
-        logger.info("Recebida solicitação de análise de sentimento");
+    public Mono<ResponseEntity<SentimentResponse>> analyzeSentiment(@Valid @RequestBody SentimentRequest request,
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) String timeout) {
+        logger.debug("Recebida solicitação de análise de sentimento");
 
-        return sentimentAnalysisService.analyzeSentiment(request)
+        String clientId = identify(apiKey);
+        return AiObservations.observe(observationRegistry, AiObservations.REQUEST, AiOperation.SENTIMENT,
+                        () -> admitted(AiOperation.SENTIMENT, clientId, () -> sentimentAnalysisService.analyzeSentiment(request))
+                                .onErrorResume(DeadlineExceededException.class,
+                                        e -> Mono.fromSupplier(() -> sentimentAnalysisService.degradedSentiment(request, e))), null)
                 .map(response -> {
                     if (response.isSuccess()) {
                         return ResponseEntity.ok(response);
                     } else {
                         return ResponseEntity.internalServerError().body(response);
                     }
-                });
+                })
+                .takeUntilOther(clientDisconnects.current())
+                .contextWrite(requestContext(clientId, AiOperation.SENTIMENT, priority, deadline, timeout));
     }
 
     @PostMapping("/summary")
-    public Mono<ResponseEntity<AiResponse>> summarizeText(@Valid @RequestBody SummaryRequest request) {
-        logger.info("Recebida solicitação de resumo de texto");
+    public Mono<ResponseEntity<AiResponse>> summarizeText(@Valid @RequestBody SummaryRequest request,
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) String timeout) {
+        logger.debug("Recebida solicitação de resumo de texto");
 
-        return textSummaryService.summarizeText(request)
+        String clientId = identify(apiKey);
+        return AiObservations.observe(observationRegistry, AiObservations.REQUEST, AiOperation.SUMMARY,
+                        () -> admitted(AiOperation.SUMMARY, clientId, () -> textSummaryService.summarizeText(request))
+                                .onErrorResume(DeadlineExceededException.class,
+                                        e -> Mono.fromSupplier(() -> textSummaryService.degradedSummary(request, e))), null)
                 .map(response -> {
                     if (response.isSuccess()) {
                         return ResponseEntity.ok(response);
                     } else {
                         return ResponseEntity.internalServerError().body(response);
                     }
-                });
+                })
+                .takeUntilOther(clientDisconnects.current())
+                .contextWrite(requestContext(clientId, AiOperation.SUMMARY, priority, deadline, timeout));
     }
 
     @PostMapping("/product/classify")
     public Mono<ResponseEntity<ProductClassificationResponse>> classifyProduct(
-            @Valid @RequestBody ProductClassificationRequest request) {
-        logger.info("Recebida solicitação de classificação de produto: {}", request.getProductName());
+            @Valid @RequestBody ProductClassificationRequest request,
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) String timeout) {
+        logger.debug("Recebida solicitação de classificação de produto");
 
-        return productTangibilityService.classifyProduct(request)
+        String clientId = identify(apiKey);
+        return AiObservations.observe(observationRegistry, AiObservations.REQUEST, AiOperation.PRODUCT_CLASSIFICATION,
+                        () -> admitted(AiOperation.PRODUCT_CLASSIFICATION, clientId, () -> productTangibilityService.classifyProduct(request))
+                                .onErrorResume(DeadlineExceededException.class,
+                                        e -> Mono.fromSupplier(() -> productTangibilityService.degradedClassification(request, e))), null)
                 .map(response -> {
                     if (response.isSuccess()) {
                         return ResponseEntity.ok(response);
                     } else {
                         return ResponseEntity.internalServerError().body(response);
                     }
-                });
+                })
+                .takeUntilOther(clientDisconnects.current())
+                .contextWrite(requestContext(clientId, AiOperation.PRODUCT_CLASSIFICATION, priority, deadline, timeout));
+    }
+
+    @PostMapping("/analyze")
+    public Mono<ResponseEntity<AnalyzeResponse>> analyze(@Valid @RequestBody AnalyzeRequest request,
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) String timeout) {
+        logger.debug("Recebida solicitação de análise combinada: {}", request.getAnalyses());
+
+        String clientId = identify(apiKey);
+        return AiObservations.observe(observationRegistry, AiObservations.REQUEST, AiOperation.ANALYZE,
+                        () -> admitted(AiOperation.ANALYZE, clientId, () -> multiAnalysisService.analyze(request))
+                                .onErrorResume(DeadlineExceededException.class,
+                                        e -> Mono.fromSupplier(() -> multiAnalysisService.degradedAnalysis(request, e))), null)
+                .map(response -> {
+                    if (response.isSuccess()) {
+                        return ResponseEntity.ok(response);
+                    } else if (response.isDegraded()) {
+                        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+                    } else {
+                        return ResponseEntity.internalServerError().body(response);
+                    }
+                })
+                .takeUntilOther(clientDisconnects.current())
+                .contextWrite(requestContext(clientId, AiOperation.ANALYZE, priority, deadline, timeout));
+    }
+
+    /**
+     * Identifies the caller and turns it away if one of its quotas is already used
+     * up. The request is only counted once admitted, see {@link #admitted}.
+     *
+     * @param apiKey the {@value #API_KEY_HEADER} header, possibly null
+     * @return the client id to carry in the Reactor context
+     * @throws com.example.aipoc.quota.QuotaExceededException if a quota is used up
+     */
+    private String identify(String apiKey) {
+        String clientId = clientLedger.identify(apiKey);
+        clientLedger.check(clientId);
+        return clientId;
+    }
+
+    /**
+     * Runs {@code work} through the operation's admission control, counting the
+     * request against the client's quotas only once it gets a slot: a request shed
+     * with {@code 503} does not use up quota.
+     *
+     * @param operation the operation requested
+     * @param clientId  the caller, as returned by {@link #identify(String)}
+     * @param work      the request handling
+     * @param <T>       the result type
+     * @return the result
+     */
+    private <T> Mono<T> admitted(AiOperation operation, String clientId, Supplier<Mono<T>> work) {
+        return admissionControl.admit(operation, () -> Mono.defer(() -> {
+            clientLedger.admit(clientId);
+            return work.get();
+        }));
+    }
+
+    /**
+     * Builds the Reactor context read by the services: the client id, the
+     * scheduling priority and, when the caller sent one, the deadline of the
+     * request. The deadline clock starts here, on arrival.
+     *
+     * @param clientId  the caller, as returned by {@link #identify(String)}
+     * @param operation the operation requested
+     * @param priority  the {@value #PRIORITY_HEADER} header, possibly null
+     * @param deadline  the {@value #DEADLINE_HEADER} header, possibly null
+     * @param timeout   the {@value #TIMEOUT_HEADER} header, possibly null
+     * @return the request context
+     */
+    private Context requestContext(String clientId, AiOperation operation, String priority,
+            String deadline, String timeout) {
+        Context context = Context.of(ClientLedger.CONTEXT_KEY, clientId,
+                PriorityScheduler.PRIORITY_KEY, priorityScheduler.priorityOf(operation, priority));
+        return Deadline.fromHeaders(deadline, timeout, clock)
+                .map(requestDeadline -> context.put(Deadline.CONTEXT_KEY, requestDeadline))
+                .orElse(context);
     }
 
     @GetMapping("/health")
@@ -114,9 +301,13 @@ public class AiController {
         info.put("description", "Projeto POC integrando Spring Boot com IA");
         Map<String, String> endpoints = new HashMap<>();
         endpoints.put("chat", "POST /api/ai/chat - Enviar mensagem para IA");
+        endpoints.put("chat-socket", "WS /ws/chat - Várias conversas por conexão com respostas em streaming");
+        endpoints.put("chat-sessions", "POST /api/ai/chat/sessions, DELETE /api/ai/chat/sessions/{id} - Sessões de chat com histórico no servidor");
         endpoints.put("sentiment", "POST /api/ai/sentiment - Análise de sentimento");
         endpoints.put("summary", "POST /api/ai/summary - Resumo de texto");
+        endpoints.put("analyze", "POST /api/ai/analyze - Várias análises do mesmo texto em uma requisição");
         endpoints.put("product-classify", "POST /api/ai/product/classify - Classificação de produto por tangibilidade");
+        endpoints.put("usage", "GET /api/ai/usage - Consumo de requisições e tokens do cliente (X-API-Key)");
         endpoints.put("health", "GET /api/ai/health - Status do serviço");
         endpoints.put("info", "GET /api/ai/info - Informações do serviço");
         info.put("endpoints", endpoints);
@@ -0,0 +1,57 @@
+package com.example.aipoc.controller;
+
+import com.example.aipoc.admission.AdmissionRejectedException;
+import com.example.aipoc.chat.ChatSessionNotFoundException;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiResponse;
+import com.example.aipoc.quota.QuotaExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps request-level refusals to HTTP responses with the usual
+ * {@code {"success": false, "error": ...}} body.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<AiResponse> quotaExceeded(QuotaExceededException e) {
+        logger.debug("Requisição recusada: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(AiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<AiResponse> admissionRejected(AdmissionRejectedException e) {
+        logger.debug("Requisição descartada: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(AiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(ChatSessionNotFoundException.class)
+    public ResponseEntity<AiResponse> chatSessionNotFound(ChatSessionNotFoundException e) {
+        logger.debug("Sessão recusada: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(AiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<AiResponse> deadlineExceeded(DeadlineExceededException e) {
+        logger.debug("Prazo esgotado: {}", e.getMessage());
+        AiResponse response = AiResponse.error(e.getMessage());
+        response.setDegraded(true);
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.aipoc.controller;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Signals that the client of the current HTTP request went away, so the request's
+ * work (admission wait, Gemini call) can be cancelled instead of finishing for
+ * nobody.
+ *
+ * <p>The reactive build needs none: Netty cancels the response subscription as soon
+ * as the connection closes. The servlet build uses {@link ServletClientDisconnects}.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public interface ClientDisconnects {
+
+    /** Never signals; the server cancels abandoned requests by itself. */
+    ClientDisconnects NONE = Mono::never;
+
+    /**
+     * Watches the client of the request being handled. Call on the thread handling
+     * the request.
+     *
+     * @return a Mono completing when the client is gone; cancelling it stops watching
+     */
+    Mono<Void> current();
+}
@@ -0,0 +1,178 @@
+package com.example.aipoc.controller;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servlet build: notices clients that went away while their async request waits on
+ * Gemini. Tomcat only sees a closed connection when it reads or writes it, and a
+ * parked async request does neither, so waiting for {@link AsyncListener#onError}
+ * alone would leave the call running until {@code spring.mvc.async.request-timeout}.
+ *
+ * <p>Every {@code ai.disconnect.probe-interval} the request's input stream, switched
+ * to non-blocking mode, is asked for {@code available()}: with the body consumed that
+ * attempts a socket read, and a closed connection (end of stream or read error)
+ * reports data available. Bytes of a pipelined request also do, but only once, so
+ * two positive probes in a row are needed. An {@code onError} from the container or
+ * the read listener counts at the next probe.
+ *
+ * <p>The request object is only valid while its async cycle runs; Tomcat recycles it
+ * for the next request on the connection afterwards. So the listeners are registered
+ * on the request thread, right after the async cycle starts (a
+ * {@link DeferredResultProcessingInterceptor}), and probes run under the same lock as
+ * {@link AsyncListener#onComplete}: once the container completes the request no probe
+ * touches it again.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ServletClientDisconnects implements ClientDisconnects {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServletClientDisconnects.class);
+
+    private final Duration probeInterval;
+
+    public ServletClientDisconnects(@Value("${ai.disconnect.probe-interval:1s}") Duration probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public Mono<Void> current() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return Mono.never();
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Watch watch = new Watch(request);
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(watch, watch);
+        String method = request.getMethod();
+        String uri = request.getRequestURI();
+        return Flux.interval(probeInterval, probeInterval)
+                .filter(tick -> watch.clientGone())
+                .next()
+                .doOnNext(tick -> logger.debug("Cliente desconectou: {} {}", method, uri))
+                .then();
+    }
+
+    /**
+     * Probe state of one request. Armed on the request thread once its async cycle
+     * starts; probes run on the interval's thread and are serialized with the
+     * container's completion by {@link #lock}.
+     */
+    private static final class Watch implements AsyncListener, ReadListener, DeferredResultProcessingInterceptor {
+
+        private final HttpServletRequest request;
+        private final Lock lock = new ReentrantLock();
+        private volatile boolean failed;
+        private boolean armed;
+        private boolean finished;
+        private int positives;
+
+        Watch(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest webRequest, DeferredResult<T> deferredResult) {
+            lock.lock();
+            try {
+                if (!request.isAsyncStarted()) {
+                    return;
+                }
+                request.getAsyncContext().addListener(this);
+                armed = true;
+                request.getInputStream().setReadListener(this);
+            } catch (IOException | IllegalStateException e) {
+                // Sem leitura não bloqueante não há como sondar; só onError ainda avisa
+                logger.debug("Sondagem de desconexão indisponível: {}", e.getMessage());
+                armed = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean clientGone() {
+            if (failed) {
+                return true;
+            }
+            lock.lock();
+            try {
+                if (!armed || finished) {
+                    return false;
+                }
+                positives = request.getInputStream().available() > 0 ? positives + 1 : 0;
+                return positives >= 2;
+            } catch (IOException e) {
+                // Leitura falhou: a conexão caiu
+                return true;
+            } catch (IllegalStateException e) {
+                finished = true;
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish() {
+            lock.lock();
+            try {
+                finished = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failed = true;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        @Override
+        public void onDataAvailable() {
+        }
+
+        @Override
+        public void onAllDataRead() {
+        }
+    }
+}
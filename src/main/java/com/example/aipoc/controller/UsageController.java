@@ -0,0 +1,66 @@
+package com.example.aipoc.controller;
+
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.ClientQuotaProperties;
+import com.example.aipoc.quota.UsageSnapshot;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+/**
+ * Request and token usage per client, as accounted by the {@link ClientLedger}.
+ *
+ * <p>Teams share the deployment, so a caller only sees the usage of the client its
+ * {@code X-API-Key} identifies; the {@code ai.quota.admin-api-key} sees every
+ * client. Requests without a known key are refused, since the shared
+ * {@value ClientQuotaProperties#ANONYMOUS} client belongs to nobody. No CORS: this
+ * is not meant to be read from a browser page.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@RestController
+@RequestMapping("/api/ai/usage")
+public class UsageController {
+
+    private final ClientLedger clientLedger;
+
+    public UsageController(ClientLedger clientLedger) {
+        this.clientLedger = clientLedger;
+    }
+
+    @GetMapping
+    public ResponseEntity<UsageSnapshot> usage(
+            @RequestHeader(value = AiController.API_KEY_HEADER, required = false) String apiKey) {
+        if (clientLedger.isAdmin(apiKey)) {
+            return ResponseEntity.ok(clientLedger.snapshot());
+        }
+        String clientId = clientLedger.identify(apiKey);
+        if (ClientQuotaProperties.ANONYMOUS.equals(clientId)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(new UsageSnapshot(Instant.now(),
+                clientLedger.snapshot(clientId).stream().toList()));
+    }
+
+    @GetMapping("/{clientId}")
+    public ResponseEntity<UsageSnapshot.Client> clientUsage(@PathVariable String clientId,
+            @RequestHeader(value = AiController.API_KEY_HEADER, required = false) String apiKey) {
+        if (!clientLedger.isAdmin(apiKey)) {
+            String caller = clientLedger.identify(apiKey);
+            if (ClientQuotaProperties.ANONYMOUS.equals(caller)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            if (!caller.equals(clientId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        }
+        return ResponseEntity.of(clientLedger.snapshot(clientId));
+    }
+}
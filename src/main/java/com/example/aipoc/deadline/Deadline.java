@@ -0,0 +1,150 @@
+package com.example.aipoc.deadline;
+
+import org.springframework.boot.convert.DurationStyle;
+import reactor.util.context.ContextView;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * The point in time by which a request must be answered, carried in the Reactor
+ * context under {@link #CONTEXT_KEY}.
+ *
+ * <p>Every stage between the controller and Gemini reads the remaining budget:
+ * admission and scheduler queues stop waiting when it runs out, and the upstream
+ * call gets what is left as its timeout. A stage that finds the budget spent fails
+ * with {@link DeadlineExceededException}, which the services answer with their
+ * local degraded result instead of a late full one.
+ *
+ * <p>Measured on the monotonic clock, so wall-clock adjustments after the request
+ * arrives do not move it.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public final class Deadline {
+
+    /** Reactor context key holding the {@link Deadline} of the current request. */
+    public static final String CONTEXT_KEY = "ai.deadline";
+
+    private final long expiresAtNanos;
+    private final Duration budget;
+
+    private Deadline(Duration budget) {
+        this.budget = budget.isNegative() ? Duration.ZERO : budget;
+        this.expiresAtNanos = System.nanoTime() + this.budget.toNanos();
+    }
+
+    /**
+     * Creates a deadline {@code timeout} from now.
+     *
+     * @param timeout the budget
+     * @return the deadline
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(timeout);
+    }
+
+    /**
+     * Reads the deadline of a request from its headers. When both are present the
+     * earlier one wins; a value that cannot be parsed is ignored.
+     *
+     * @param deadline absolute deadline, epoch milliseconds or an ISO-8601 instant,
+     *                 possibly null
+     * @param timeout  relative budget such as {@code 1500ms}, {@code 2s} or
+     *                 {@code PT2S}; a bare number is milliseconds. Possibly null
+     * @param clock    wall clock the absolute deadline is compared against
+     * @return the deadline, if either header carries one
+     */
+    public static Optional<Deadline> fromHeaders(String deadline, String timeout, Clock clock) {
+        Duration budget = null;
+        if (deadline != null && !deadline.isBlank()) {
+            Instant instant = parseInstant(deadline.trim());
+            if (instant != null) {
+                budget = Duration.between(clock.instant(), instant);
+            }
+        }
+        if (timeout != null && !timeout.isBlank()) {
+            Duration relative = parseDuration(timeout.trim());
+            if (relative != null && (budget == null || relative.compareTo(budget) < 0)) {
+                budget = relative;
+            }
+        }
+        return Optional.ofNullable(budget).map(Deadline::after);
+    }
+
+    /**
+     * Gets the deadline of the current request.
+     *
+     * @param context the Reactor context
+     * @return the deadline, if the request has one
+     */
+    public static Optional<Deadline> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    /**
+     * Gets the budget the request started with.
+     *
+     * @return the initial budget
+     */
+    public Duration getBudget() {
+        return budget;
+    }
+
+    /**
+     * Gets the time left.
+     *
+     * @return the time left, zero once expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    /**
+     * Checks whether the budget is spent.
+     *
+     * @return true once the deadline has passed
+     */
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Bounds a stage's own timeout by the time left, so waits, retries and hedges
+     * never outlive the request.
+     *
+     * @param limit the stage's timeout
+     * @return the smaller of {@code limit} and the time left
+     */
+    public Duration cap(Duration limit) {
+        Duration remaining = remaining();
+        return remaining.compareTo(limit) < 0 ? remaining : limit;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[budget=" + budget.toMillis() + "ms, remaining=" + remaining().toMillis() + "ms]";
+    }
+
+    private static Instant parseInstant(String value) {
+        try {
+            return value.chars().allMatch(Character::isDigit)
+                    ? Instant.ofEpochMilli(Long.parseLong(value))
+                    : Instant.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Duration parseDuration(String value) {
+        try {
+            return DurationStyle.detectAndParse(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.aipoc.deadline;
+
+/**
+ * Thrown when a request's {@link Deadline} runs out before Gemini answers. The
+ * services catch it and serve their local degraded result.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * Where the budget ran out.
+     */
+    public enum Stage {
+        /** Waiting in the admission queue. */
+        ADMISSION("admission"),
+        /** Waiting for a slot in the priority scheduler. */
+        SCHEDULER("scheduler"),
+        /** Before or during the Gemini call. */
+        UPSTREAM("upstream");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Gets the metric tag value.
+         *
+         * @return the tag
+         */
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final Stage stage;
+
+    public DeadlineExceededException(Stage stage) {
+        super("Prazo da requisição esgotado (" + stage.getTag() + ")");
+        this.stage = stage;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.aipoc.deadline;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * The Gemini calls that SLA mode leaves running in the background to fill the
+ * result cache. Such a call has already given back its admission slot, so it is
+ * bounded here instead:
+ *
+ * <ul>
+ * <li>at most {@code ai.sla.background.max-in-flight} run at once; past that the
+ * call is not detached at all and ends with its request</li>
+ * <li>one call per cache key: identical requests join the call already running</li>
+ * <li>each call gets its own {@link Deadline} of {@code ai.sla.background.timeout}
+ * in place of the request's</li>
+ * </ul>
+ *
+ * <h3>Meters:</h3>
+ * <ul>
+ * <li>{@code ai.sla.background.in.flight} - gauge of the detached calls running</li>
+ * <li>{@code ai.sla.background.dropped} - counter of calls not detached because the
+ * limit was reached, tagged by {@code operation}</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class SlaBackgroundCalls {
+
+    /**
+     * Instance with the default limits, for services created outside Spring.
+     */
+    public static final SlaBackgroundCalls DEFAULT =
+            new SlaBackgroundCalls(new SlaProperties(), new CompositeMeterRegistry());
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaBackgroundCalls.class);
+
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final Map<String, Mono<?>> running = new ConcurrentHashMap<>();
+    private final Map<AiOperation, Counter> dropped = new EnumMap<>(AiOperation.class);
+
+    public SlaBackgroundCalls(SlaProperties properties, MeterRegistry registry) {
+        this.permits = new Semaphore(Math.max(0, properties.getBackground().getMaxInFlight()));
+        this.timeout = properties.getBackground().getTimeout();
+        Gauge.builder("ai.sla.background.in.flight", running, Map::size)
+                .description("Chamadas ao Gemini seguindo em segundo plano após o SLA perdido")
+                .register(registry);
+        for (AiOperation operation : AiOperation.values()) {
+            dropped.put(operation, Counter.builder("ai.sla.background.dropped")
+                    .description("Chamadas não destacadas para segundo plano por falta de vaga")
+                    .tag("operation", operation.getKey())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Detaches {@code call} from its request, or joins the call already running for
+     * {@code key}.
+     *
+     * @param operation the operation of the call
+     * @param key       the cache key the call answers
+     * @param context   the request context; its deadline is replaced
+     * @param call      the call, subscribed only if a new one is started
+     * @param <T>       the answer type
+     * @return the shared call, or empty when the limit is reached and the caller
+     *         should keep the call attached to the request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<Mono<T>> detach(AiOperation operation, String key, ContextView context,
+            Supplier<Mono<T>> call) {
+        Mono<T> joined = (Mono<T>) running.get(key);
+        if (joined != null) {
+            return Optional.of(joined);
+        }
+        if (!permits.tryAcquire()) {
+            logger.debug("Limite de chamadas em segundo plano atingido: operation={}", operation.getKey());
+            dropped.get(operation).increment();
+            return Optional.empty();
+        }
+        Mono<T> shared = call.get()
+                .contextWrite(Context.of(context).put(Deadline.CONTEXT_KEY, Deadline.after(timeout)))
+                .doFinally(signal -> {
+                    running.remove(key);
+                    permits.release();
+                })
+                .cache();
+        joined = (Mono<T>) running.putIfAbsent(key, shared);
+        if (joined != null) {
+            permits.release();
+            return Optional.of(joined);
+        }
+        shared.subscribe(answer -> { }, error -> logger.debug(
+                "Chamada em segundo plano falhou: operation={} erro={}", operation.getKey(), error.getMessage()));
+        return Optional.of(shared);
+    }
+}
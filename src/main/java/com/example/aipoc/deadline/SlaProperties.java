@@ -0,0 +1,94 @@
+package com.example.aipoc.deadline;
+
+import com.example.aipoc.model.AiOperation;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Latency SLAs of the operations with a local fallback, bound from
+ * {@code ai.sla.*}:
+ *
+ * <pre>
+ * ai:
+ *   sla:
+ *     operations:
+ *       sentiment: 300ms
+ *       product-classification: 300ms
+ *     background:
+ *       max-in-flight: 32
+ *       timeout: 30s
+ * </pre>
+ *
+ * <p>An operation with an SLA races Gemini against the clock: if the model has not
+ * answered within the SLA (or a shorter request {@link Deadline}), the local keyword
+ * answer is served, flagged as degraded, and the Gemini call keeps running in the
+ * background to fill the result cache for the next identical request. Only
+ * {@code sentiment} and {@code product-classification} have a local answer; other
+ * keys are ignored. Background calls are bounded, see {@link SlaBackgroundCalls}.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.sla")
+public class SlaProperties {
+
+    private Map<String, Duration> operations = new HashMap<>();
+    private Background background = new Background();
+
+    public Map<String, Duration> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Duration> operations) {
+        this.operations = operations;
+    }
+
+    public Background getBackground() {
+        return background;
+    }
+
+    public void setBackground(Background background) {
+        this.background = background;
+    }
+
+    /**
+     * Gets the SLA of an operation.
+     *
+     * @param operation the operation
+     * @return the SLA, if the operation runs in SLA mode
+     */
+    public Optional<Duration> slaOf(AiOperation operation) {
+        return Optional.ofNullable(operations.get(operation.getKey()));
+    }
+
+    /**
+     * Limits of the calls left running after the SLA was missed.
+     */
+    public static class Background {
+
+        private int maxInFlight = 32;
+        private Duration timeout = Duration.ofSeconds(30);
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.aipoc.generation;
+
+import java.util.List;
+
+/**
+ * Generation settings resolved for one operation and profile.
+ *
+ * @param name            the profile name ({@code fast}, {@code balanced} or {@code thorough})
+ * @param temperature     the temperature, or null for {@code gemini.api.temperature}
+ * @param maxOutputTokens the output limit, thoughts included, or null for {@code gemini.api.max-tokens}
+ * @param thinkingBudget  the thinking budget (0 = off, -1 = dynamic), or null for the model default
+ * @param stopSequences   the sequences that end the answer, possibly empty
+ * @author AI POC Team
+ * @since 1.1
+ */
+public record GenerationProfile(String name, Double temperature, Integer maxOutputTokens, Integer thinkingBudget,
+                                List<String> stopSequences) {
+}
@@ -0,0 +1,132 @@
+package com.example.aipoc.generation;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the generation profile of each call, so latency and hidden thinking
+ * cost are set per operation in configuration instead of in code, and callers can
+ * trade one for the other per request.
+ *
+ * <p>Profiles are merged once at startup (see {@link GenerationProperties}); a call
+ * only looks its profile up.
+ *
+ * <h3>Meters:</h3>
+ * <ul>
+ * <li>{@code ai.generation.requests} - counter of calls per {@code operation} and
+ * {@code profile}; thinking spend per operation is on {@code gemini.tokens} with
+ * {@code type=thoughts}</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class GenerationProfiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationProfiles.class);
+
+    /** Lowest latency: short answers, no thinking. */
+    public static final String FAST = "fast";
+
+    /** The usual trade-off. */
+    public static final String BALANCED = "balanced";
+
+    /** Best answers: longer output and more thinking. */
+    public static final String THOROUGH = "thorough";
+
+    /** The profiles every operation has. */
+    public static final List<String> NAMES = List.of(FAST, BALANCED, THOROUGH);
+
+    /**
+     * Profiles without settings: every call uses the service defaults. Used by
+     * services created outside Spring.
+     */
+    public static final GenerationProfiles NOOP = new GenerationProfiles(new GenerationProperties(),
+            new CompositeMeterRegistry());
+
+    private final Map<AiOperation, Map<String, GenerationProfile>> profiles = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, String> defaults = new EnumMap<>(AiOperation.class);
+    private final MeterRegistry registry;
+    private final Map<ProfileKey, Counter> requests = new ConcurrentHashMap<>();
+
+    private record ProfileKey(AiOperation operation, String profile) {
+    }
+
+    public GenerationProfiles(GenerationProperties properties, MeterRegistry registry) {
+        this.registry = registry;
+        String globalDefault = validName(properties.getDefaultProfile(), BALANCED, "ai.generation.default-profile");
+        for (AiOperation operation : AiOperation.values()) {
+            GenerationProperties.Operation own = properties.getOperations().get(operation.getKey());
+            Map<String, GenerationProperties.Profile> ownProfiles = own != null ? own.getProfiles() : Map.of();
+            Map<String, GenerationProfile> resolved = new HashMap<>();
+            for (String name : NAMES) {
+                resolved.put(name, merge(name, ownProfiles.get(name), properties.getProfiles().get(name)));
+            }
+            profiles.put(operation, Map.copyOf(resolved));
+            defaults.put(operation, own != null && own.getDefaultProfile() != null
+                    ? validName(own.getDefaultProfile(), globalDefault,
+                            "ai.generation.operations." + operation.getKey() + ".default-profile")
+                    : globalDefault);
+        }
+    }
+
+    /**
+     * Gets the profile of a call, counting it.
+     *
+     * @param operation the operation making the call
+     * @param requested the profile the caller asked for, or null for the operation default
+     * @return the resolved profile
+     * @throws IllegalArgumentException if {@code requested} is not a known profile
+     */
+    public GenerationProfile resolve(AiOperation operation, String requested) {
+        String name = requested == null || requested.isBlank()
+                ? defaults.get(operation)
+                : requested.strip().toLowerCase(Locale.ROOT);
+        GenerationProfile profile = profiles.get(operation).get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown generation profile: " + requested);
+        }
+        requests.computeIfAbsent(new ProfileKey(operation, name), key -> Counter.builder("ai.generation.requests")
+                .description("Chamadas ao Gemini por perfil de geração")
+                .tag("operation", key.operation().getKey())
+                .tag("profile", key.profile())
+                .register(registry)).increment();
+        return profile;
+    }
+
+    private static GenerationProfile merge(String name, GenerationProperties.Profile own,
+                                           GenerationProperties.Profile shared) {
+        GenerationProperties.Profile empty = new GenerationProperties.Profile();
+        GenerationProperties.Profile first = Objects.requireNonNullElse(own, empty);
+        GenerationProperties.Profile second = Objects.requireNonNullElse(shared, empty);
+        return new GenerationProfile(name,
+                first.getTemperature() != null ? first.getTemperature() : second.getTemperature(),
+                first.getMaxOutputTokens() != null ? first.getMaxOutputTokens() : second.getMaxOutputTokens(),
+                first.getThinkingBudget() != null ? first.getThinkingBudget() : second.getThinkingBudget(),
+                List.copyOf(first.getStopSequences() != null ? first.getStopSequences()
+                        : Objects.requireNonNullElse(second.getStopSequences(), List.of())));
+    }
+
+    private static String validName(String name, String fallback, String property) {
+        String normalized = name == null ? null : name.strip().toLowerCase(Locale.ROOT);
+        if (NAMES.contains(normalized)) {
+            return normalized;
+        }
+        logger.warn("Perfil de geração desconhecido em {}: '{}', usando '{}'", property, name, fallback);
+        return fallback;
+    }
+}
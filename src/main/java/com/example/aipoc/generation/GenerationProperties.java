@@ -0,0 +1,144 @@
+package com.example.aipoc.generation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generation profiles of the Gemini calls, bound from {@code ai.generation.*}:
+ *
+ * <pre>
+ * ai:
+ *   generation:
+ *     default-profile: balanced
+ *     profiles:
+ *       fast:
+ *         thinking-budget: 0
+ *       thorough:
+ *         thinking-budget: -1
+ *     operations:
+ *       sentiment:
+ *         default-profile: fast
+ *         profiles:
+ *           fast:
+ *             temperature: 0.1
+ *             max-output-tokens: 300
+ * </pre>
+ *
+ * <p>Each operation has the profiles {@code fast}, {@code balanced} and
+ * {@code thorough}. A profile value is taken from the operation's own profile, then
+ * from the top-level profile of the same name; what neither sets falls back to
+ * {@code gemini.api.temperature} and {@code gemini.api.max-tokens}, the model's
+ * default thinking and no stop sequences. Callers pick a profile per request;
+ * without one the operation's {@code default-profile} is used, then the top-level
+ * one.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.generation")
+public class GenerationProperties {
+
+    private String defaultProfile = GenerationProfiles.BALANCED;
+    private Map<String, Profile> profiles = new HashMap<>();
+    private Map<String, Operation> operations = new HashMap<>();
+
+    public String getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public void setDefaultProfile(String defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    public Map<String, Profile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, Profile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public Map<String, Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * The profiles of one operation and the one used when the caller picks none.
+     */
+    public static class Operation {
+
+        private String defaultProfile;
+        private Map<String, Profile> profiles = new HashMap<>();
+
+        public String getDefaultProfile() {
+            return defaultProfile;
+        }
+
+        public void setDefaultProfile(String defaultProfile) {
+            this.defaultProfile = defaultProfile;
+        }
+
+        public Map<String, Profile> getProfiles() {
+            return profiles;
+        }
+
+        public void setProfiles(Map<String, Profile> profiles) {
+            this.profiles = profiles;
+        }
+    }
+
+    /**
+     * Generation settings of a profile; unset values are inherited.
+     */
+    public static class Profile {
+
+        private Double temperature;
+        private Integer maxOutputTokens;
+        private Integer thinkingBudget;
+        private List<String> stopSequences;
+
+        public Double getTemperature() {
+            return temperature;
+        }
+
+        public void setTemperature(Double temperature) {
+            this.temperature = temperature;
+        }
+
+        public Integer getMaxOutputTokens() {
+            return maxOutputTokens;
+        }
+
+        public void setMaxOutputTokens(Integer maxOutputTokens) {
+            this.maxOutputTokens = maxOutputTokens;
+        }
+
+        /**
+         * Thinking token budget: 0 turns thinking off, -1 lets the model decide.
+         */
+        public Integer getThinkingBudget() {
+            return thinkingBudget;
+        }
+
+        public void setThinkingBudget(Integer thinkingBudget) {
+            this.thinkingBudget = thinkingBudget;
+        }
+
+        public List<String> getStopSequences() {
+            return stopSequences;
+        }
+
+        public void setStopSequences(List<String> stopSequences) {
+            this.stopSequences = stopSequences;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.aipoc.jfr;
+
+import com.example.aipoc.model.AiOperation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Instant Flight Recorder event emitted when the local keyword fallback answers
+ * instead of the model. Keeps the stack trace, which shows which parse path gave
+ * up.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Name("com.example.aipoc.FallbackUsed")
+@Label("Fallback Used")
+@Category({"AI POC", "Gemini"})
+@Description("Answer produced by the local keyword fallback")
+public final class FallbackUsedEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    /**
+     * Commits an instant event for the given operation, if the recording wants it.
+     *
+     * @param operation the operation that fell back
+     */
+    public static void emit(AiOperation operation) {
+        FallbackUsedEvent event = new FallbackUsedEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation.getKey();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.aipoc.jfr;
+
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.TokenUsage;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one round trip to the Gemini API, from subscription
+ * until the response body arrives, the call fails or it is cancelled.
+ *
+ * <p>The event begins and ends on different threads; JFR records the thread that
+ * committed it (usually a Netty event loop).
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Name("com.example.aipoc.GeminiCall")
+@Label("Gemini Call")
+@Category({"AI POC", "Gemini"})
+@Description("Round trip to the Gemini generateContent endpoint")
+@StackTrace(false)
+public final class GeminiCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Model")
+    String model;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Prompt Tokens")
+    int promptTokens;
+
+    @Label("Candidates Tokens")
+    int candidatesTokens;
+
+    @Label("Thoughts Tokens")
+    int thoughtsTokens;
+
+    @Label("Total Tokens")
+    int totalTokens;
+
+    /**
+     * Ends and commits the event, if the recording wants it.
+     *
+     * @param operation     the operation that made the call
+     * @param model         the model that served (or failed) the call
+     * @param outcome       the call outcome, as used by the metrics
+     * @param requestBytes  the serialized request size
+     * @param responseBytes the response size, 0 when the call failed
+     * @param usage         the reported token usage
+     */
+    public void complete(AiOperation operation, String model, String outcome,
+                         long requestBytes, long responseBytes, TokenUsage usage) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.getKey();
+            this.model = model;
+            this.outcome = outcome;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+            this.promptTokens = usage.promptTokens();
+            this.candidatesTokens = usage.candidatesTokens();
+            this.thoughtsTokens = usage.thoughtsTokens();
+            this.totalTokens = usage.totalTokens();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.aipoc.jfr;
+
+import com.example.aipoc.model.AiOperation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for rendering a prompt template and building the
+ * request body.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Name("com.example.aipoc.PromptBuild")
+@Label("Prompt Build")
+@Category({"AI POC", "Prompt"})
+@Description("Prompt template rendering and request body construction")
+@StackTrace(false)
+public final class PromptBuildEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Template")
+    String template;
+
+    @Label("Prompt Characters")
+    int promptChars;
+
+    /**
+     * Ends and commits the event, if the recording wants it.
+     *
+     * @param operation   the operation the prompt belongs to
+     * @param template    the template id, such as {@code sentiment@v2}
+     * @param promptChars the rendered prompt length
+     */
+    public void complete(AiOperation operation, String template, int promptChars) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.getKey();
+            this.template = template;
+            this.promptChars = promptChars;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.aipoc.jfr;
+
+import com.example.aipoc.model.AiOperation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for extracting and parsing the answer from a Gemini
+ * response body.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Name("com.example.aipoc.ResponseParse")
+@Label("Response Parse")
+@Category({"AI POC", "Gemini"})
+@Description("Extraction and parsing of the model answer")
+@StackTrace(false)
+public final class ResponseParseEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Response Characters")
+    int responseChars;
+
+    /**
+     * Ends and commits the event, if the recording wants it.
+     *
+     * @param operation     the operation the response belongs to
+     * @param responseChars the raw response body length
+     */
+    public void complete(AiOperation operation, int responseChars) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.getKey();
+            this.responseChars = responseChars;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.aipoc.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Log argument that defers building a payload string until a log event is actually
+ * rendered.
+ *
+ * <p>Passed as a key-value pair or message argument, the payload is only serialized
+ * and truncated when the appender formats the event - on the async appender's worker
+ * thread rather than the request thread - and never when the level is disabled.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public final class LazyPayload {
+
+    private static final String TRUNCATED_SUFFIX = "... [truncated]";
+
+    private final Object source;
+    private final ObjectMapper objectMapper;
+    private final int maxChars;
+
+    private LazyPayload(Object source, ObjectMapper objectMapper, int maxChars) {
+        this.source = source;
+        this.objectMapper = objectMapper;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Wraps a text payload that is truncated to {@code maxChars} when rendered.
+     *
+     * @param text     the payload
+     * @param maxChars the maximum number of characters to render
+     * @return the lazy payload
+     */
+    public static LazyPayload truncated(String text, int maxChars) {
+        return new LazyPayload(text, null, maxChars);
+    }
+
+    /**
+     * Wraps an object that is serialized to JSON and truncated when rendered.
+     *
+     * @param value        the payload
+     * @param objectMapper the mapper used for serialization
+     * @param maxChars     the maximum number of characters to render
+     * @return the lazy payload
+     */
+    public static LazyPayload json(Object value, ObjectMapper objectMapper, int maxChars) {
+        return new LazyPayload(value, objectMapper, maxChars);
+    }
+
+    @Override
+    public String toString() {
+        String text;
+        if (objectMapper == null) {
+            text = String.valueOf(source);
+        } else {
+            try {
+                text = objectMapper.writeValueAsString(source);
+            } catch (Exception e) {
+                return "[erro ao serializar payload: " + e.getMessage() + "]";
+            }
+        }
+
+        return text.length() > maxChars ? text.substring(0, maxChars) + TRUNCATED_SUFFIX : text;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.aipoc.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests get full payload logging.
+ *
+ * <p>Each operation has a sampling rate between 0.0 (never) and 1.0 (always),
+ * falling back to {@code default-rate}:
+ *
+ * <pre>
+ * ai:
+ *   logging:
+ *     sampling:
+ *       default-rate: 0.01
+ *       rates:
+ *         product-classification: 0.05
+ * </pre>
+ *
+ * <p>A freshly constructed sampler never samples, which keeps services that are
+ * created outside Spring (e.g. in unit tests) silent.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.logging.sampling")
+public class LogSampler {
+
+    private double defaultRate;
+    private Map<String, Double> rates = new HashMap<>();
+
+    /**
+     * Decides whether the current request of the given operation should be sampled.
+     *
+     * @param operation the operation key
+     * @return true if full payloads should be logged for this request
+     */
+    public boolean sample(String operation) {
+        double rate = rates.getOrDefault(operation, defaultRate);
+        if (rate <= 0.0) {
+            return false;
+        }
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public void setRates(Map<String, Double> rates) {
+        this.rates = rates;
+    }
+}
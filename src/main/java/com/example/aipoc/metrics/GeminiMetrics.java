@@ -0,0 +1,408 @@
+package com.example.aipoc.metrics;
+
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Micrometer instrumentation for Gemini operations, exposed through Actuator
+ * ({@code /actuator/prometheus}).
+ *
+ * <h3>Meters:</h3>
+ * <ul>
+ * <li>{@code gemini.requests} - timer with percentile histogram, tagged by
+ * {@code operation}, {@code model} and {@code outcome}</li>
+ * <li>{@code gemini.requests.in.flight} - gauge of outstanding upstream calls per
+ * {@code operation}</li>
+ * <li>{@code gemini.tokens} - counter tagged by {@code operation}, {@code model}
+ * and {@code type} ({@code prompt}, {@code candidates}, {@code thoughts},
+ * {@code total})</li>
+ * <li>{@code gemini.finish.reasons} - counter tagged by {@code reason}</li>
+ * <li>{@code gemini.tokens.saved} - estimate of the tokens not spent on calls
+ * cancelled by the caller (outcome {@code cancelled} on {@code gemini.requests}),
+ * tagged by {@code operation}: the mean total tokens of that operation's completed
+ * calls, or for a stream cancelled midway the mean answer tokens not yet received</li>
+ * <li>{@code ai.fallback} - counter of answers produced by the local keyword
+ * fallback, tagged by {@code operation}</li>
+ * <li>{@code ai.deadline.exceeded} - counter of degraded answers served because
+ * the request deadline ran out, tagged by {@code operation} and {@code stage}
+ * ({@code admission}, {@code scheduler}, {@code upstream})</li>
+ * <li>{@code ai.sla.missed} - counter of local answers served because Gemini
+ * missed the operation's SLA, tagged by {@code operation} and {@code reason}
+ * ({@code timeout}, {@code error})</li>
+ * <li>{@code ai.cascade.requests} - timer with percentile histogram of answers of
+ * operations in cascade mode, end to end, tagged by {@code operation} and
+ * {@code path} (the models asked, joined by {@code >})</li>
+ * <li>{@code ai.cascade.escalations} - counter of answers passed over for the next
+ * model of the cascade, tagged by {@code operation}, {@code model} (the one passed
+ * over) and {@code reason} ({@code low_confidence}, {@code unparsed})</li>
+ * <li>{@code ai.analyze.parts} - timer of the analyses of combined requests, from
+ * the start of the request to each answer, tagged by {@code analysis} and
+ * {@code mode} ({@code combined}, {@code separate}, {@code fallback},
+ * {@code degraded})</li>
+ * </ul>
+ *
+ * <p>Meters are resolved once and cached, so recording on the request path is a
+ * map lookup plus an atomic update.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class GeminiMetrics {
+
+    /**
+     * Instance backed by an empty composite registry, whose meters are no-ops. Used
+     * by services created outside Spring.
+     */
+    public static final GeminiMetrics NOOP = new GeminiMetrics(new CompositeMeterRegistry());
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_CANCELLED = "cancelled";
+    public static final String OUTCOME_BULKHEAD_FULL = "bulkhead_full";
+    public static final String OUTCOME_DEADLINE_EXCEEDED = "deadline_exceeded";
+
+    private final MeterRegistry registry;
+
+    private final Map<AiOperation, AtomicInteger> inFlight = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, Counter> fallbacks = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, Counter> tokensSaved = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, Map<DeadlineExceededException.Stage, Counter>> deadlinesExceeded =
+            new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, LongAdder> completedTokens = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, LongAdder> completedCandidatesTokens = new EnumMap<>(AiOperation.class);
+    private final Map<AiOperation, LongAdder> completedCalls = new EnumMap<>(AiOperation.class);
+    private final Map<CallKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<TokenKey, Counter> tokenCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> finishReasons = new ConcurrentHashMap<>();
+    private final Map<SlaKey, Counter> slaMisses = new ConcurrentHashMap<>();
+    private final Map<CascadeKey, Timer> cascades = new ConcurrentHashMap<>();
+    private final Map<EscalationKey, Counter> escalations = new ConcurrentHashMap<>();
+    private final Map<AnalysisKey, Timer> analyses = new ConcurrentHashMap<>();
+
+    private record CallKey(AiOperation operation, String model, String outcome) {
+    }
+
+    private record TokenKey(AiOperation operation, String model, String type) {
+    }
+
+    private record SlaKey(AiOperation operation, String reason) {
+    }
+
+    private record CascadeKey(AiOperation operation, String path) {
+    }
+
+    private record EscalationKey(AiOperation operation, String model, String reason) {
+    }
+
+    private record AnalysisKey(String analysis, String mode) {
+    }
+
+    public GeminiMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (AiOperation operation : AiOperation.values()) {
+            AtomicInteger gauge = new AtomicInteger();
+            registry.gauge("gemini.requests.in.flight",
+                    Tags.of("operation", operation.getKey()), gauge);
+            inFlight.put(operation, gauge);
+
+            fallbacks.put(operation, Counter.builder("ai.fallback")
+                    .description("Respostas geradas pelo fallback local por palavras-chave")
+                    .tag("operation", operation.getKey())
+                    .register(registry));
+            tokensSaved.put(operation, Counter.builder("gemini.tokens.saved")
+                    .description("Estimativa de tokens economizados por chamadas canceladas pelo cliente")
+                    .tag("operation", operation.getKey())
+                    .register(registry));
+            Map<DeadlineExceededException.Stage, Counter> byStage =
+                    new EnumMap<>(DeadlineExceededException.Stage.class);
+            for (DeadlineExceededException.Stage stage : DeadlineExceededException.Stage.values()) {
+                byStage.put(stage, Counter.builder("ai.deadline.exceeded")
+                        .description("Respostas degradadas servidas por prazo da requisição esgotado")
+                        .tag("operation", operation.getKey())
+                        .tag("stage", stage.getTag())
+                        .register(registry));
+            }
+            deadlinesExceeded.put(operation, byStage);
+            completedTokens.put(operation, new LongAdder());
+            completedCandidatesTokens.put(operation, new LongAdder());
+            completedCalls.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Gets the registry backing these metrics, for components that register their
+     * own meters.
+     *
+     * @return the meter registry
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Marks the start of an upstream call.
+     *
+     * @param operation the operation making the call
+     * @return the call, to {@link Call#finish finish} once it ends
+     */
+    public Call callStarted(AiOperation operation) {
+        inFlight.get(operation).incrementAndGet();
+        return new Call(operation);
+    }
+
+    /**
+     * An upstream call in flight. A Reactor chain can see more than one terminal
+     * signal for the same call (a value followed by a downstream cancel, say), so
+     * only the first {@link #finish} counts.
+     */
+    public final class Call {
+
+        private final AiOperation operation;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Call(AiOperation operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Marks the end of the call and records its latency, the first time only.
+         *
+         * @param model         the model that served (or failed) the call
+         * @param outcome       the call outcome, see {@link #outcomeOf(Throwable)}
+         * @param durationNanos the call duration
+         * @return whether this was the first end of the call; the caller should skip
+         * the rest of its accounting otherwise
+         */
+        public boolean finish(String model, String outcome, long durationNanos) {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            callFinished(operation, model, outcome, durationNanos);
+            return true;
+        }
+    }
+
+    private void callFinished(AiOperation operation, String model, String outcome, long durationNanos) {
+        inFlight.get(operation).decrementAndGet();
+        timers.computeIfAbsent(new CallKey(operation, model, outcome), key -> Timer.builder("gemini.requests")
+                        .description("Latência das chamadas à API Gemini")
+                        .tag("operation", key.operation().getKey())
+                        .tag("model", key.model())
+                        .tag("outcome", key.outcome())
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the token usage reported by a response.
+     *
+     * @param operation the operation that made the call
+     * @param model     the model that served the call
+     * @param usage     the reported usage
+     */
+    public void recordUsage(AiOperation operation, String model, TokenUsage usage) {
+        incrementTokens(operation, model, "prompt", usage.promptTokens());
+        incrementTokens(operation, model, "candidates", usage.candidatesTokens());
+        incrementTokens(operation, model, "thoughts", usage.thoughtsTokens());
+        incrementTokens(operation, model, "total", usage.totalTokens());
+        completedTokens.get(operation).add(usage.totalTokens());
+        completedCandidatesTokens.get(operation).add(usage.candidatesTokens());
+        completedCalls.get(operation).increment();
+    }
+
+    /**
+     * Counts the tokens saved by aborting a call whose caller went away, before any
+     * of the answer arrived. Call after {@link Call#finish} with outcome
+     * {@link #OUTCOME_CANCELLED}.
+     *
+     * @param operation the operation whose call was cancelled
+     */
+    public void recordCancelled(AiOperation operation) {
+        recordCancelled(operation, 0);
+    }
+
+    /**
+     * Counts the tokens saved by aborting a streamed call whose caller went away.
+     * Once part of the answer arrived, the prompt and the thoughts are already paid
+     * for, so only the rest of an average answer is saved; with nothing received the
+     * whole average call is.
+     *
+     * @param operation      the operation whose call was cancelled
+     * @param receivedTokens the estimated answer tokens already streamed
+     */
+    public void recordCancelled(AiOperation operation, long receivedTokens) {
+        long calls = completedCalls.get(operation).sum();
+        if (calls == 0) {
+            return;
+        }
+        double saved = receivedTokens == 0
+                ? (double) completedTokens.get(operation).sum() / calls
+                : (double) completedCandidatesTokens.get(operation).sum() / calls - receivedTokens;
+        if (saved > 0) {
+            tokensSaved.get(operation).increment(saved);
+        }
+    }
+
+    /**
+     * Counts a degraded answer served because the request deadline ran out.
+     *
+     * @param operation the operation that degraded
+     * @param stage     where the deadline ran out
+     */
+    public void recordDeadlineExceeded(AiOperation operation, DeadlineExceededException.Stage stage) {
+        deadlinesExceeded.get(operation).get(stage).increment();
+    }
+
+    /**
+     * Counts a local answer served because Gemini missed the operation's SLA.
+     *
+     * @param operation the operation that degraded
+     * @param reason    {@code timeout} when the SLA elapsed, {@code error} when the
+     *                  call failed first
+     */
+    public void recordSlaMissed(AiOperation operation, String reason) {
+        slaMisses.computeIfAbsent(new SlaKey(operation, reason), key -> Counter.builder("ai.sla.missed")
+                        .description("Respostas locais servidas porque o Gemini perdeu o SLA da operação")
+                        .tag("operation", key.operation().getKey())
+                        .tag("reason", key.reason())
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Records the end-to-end latency of an answer served by a cascade.
+     *
+     * @param operation     the operation answered
+     * @param path          the models asked, joined by {@code >}
+     * @param durationNanos the time from the first call to the served answer
+     */
+    public void recordCascade(AiOperation operation, String path, long durationNanos) {
+        cascades.computeIfAbsent(new CascadeKey(operation, path), key -> Timer.builder("ai.cascade.requests")
+                        .description("Latência das respostas em modo cascata, por caminho de modelos")
+                        .tag("operation", key.operation().getKey())
+                        .tag("path", key.path())
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts an answer passed over for the next model of a cascade.
+     *
+     * @param operation the operation answered
+     * @param model     the model whose answer was passed over
+     * @param reason    {@code low_confidence} or {@code unparsed}
+     */
+    public void recordEscalation(AiOperation operation, String model, String reason) {
+        escalations.computeIfAbsent(new EscalationKey(operation, model, reason),
+                        key -> Counter.builder("ai.cascade.escalations")
+                                .description("Respostas descartadas em favor do próximo modelo da cascata")
+                                .tag("operation", key.operation().getKey())
+                                .tag("model", key.model())
+                                .tag("reason", key.reason())
+                                .register(registry))
+                .increment();
+    }
+
+    /**
+     * Records when one analysis of a combined request was answered.
+     *
+     * @param analysis      the analysis ({@code sentiment}, {@code summary}, {@code chat})
+     * @param mode          how it was answered, see {@link com.example.aipoc.model.AnalysisTiming}
+     * @param durationNanos the time from the start of the request to the answer
+     */
+    public void recordAnalysis(String analysis, String mode, long durationNanos) {
+        analyses.computeIfAbsent(new AnalysisKey(analysis, mode), key -> Timer.builder("ai.analyze.parts")
+                        .description("Tempo até cada análise de uma requisição combinada")
+                        .tag("analysis", key.analysis())
+                        .tag("mode", key.mode())
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a candidate finish reason.
+     *
+     * @param finishReason the reason reported by the API, possibly empty
+     */
+    public void recordFinishReason(String finishReason) {
+        String reason = finishReason == null || finishReason.isEmpty() ? "NONE" : finishReason;
+        finishReasons.computeIfAbsent(reason, key -> Counter.builder("gemini.finish.reasons")
+                        .description("Motivos de finalização dos candidatos retornados")
+                        .tag("reason", key)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Counts an answer produced by the local keyword fallback instead of the model.
+     *
+     * @param operation the operation that fell back
+     */
+    public void recordFallback(AiOperation operation) {
+        fallbacks.get(operation).increment();
+    }
+
+    /**
+     * Maps a call failure to a low-cardinality outcome tag.
+     *
+     * @param error the failure
+     * @return the outcome tag value
+     */
+    public static String outcomeOf(Throwable error) {
+        if (error instanceof WebClientResponseException webEx) {
+            int status = webEx.getStatusCode().value();
+            if (status == 429) {
+                return "rate_limited";
+            }
+            return status >= 500 ? "server_error" : "client_error";
+        }
+        if (error instanceof DeadlineExceededException) {
+            return OUTCOME_DEADLINE_EXCEEDED;
+        }
+        // Falhas de transporte chegam embrulhadas (ex.: WebClientRequestException)
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause.getClass().getSimpleName().startsWith("PoolAcquire")) {
+                // Pool da operação cheio: fila de espera lotada ou pending-acquire-timeout
+                return OUTCOME_BULKHEAD_FULL;
+            }
+            if (cause instanceof TimeoutException || cause instanceof ReadTimeoutException) {
+                return "timeout";
+            }
+        }
+        return "io_error";
+    }
+
+    private void incrementTokens(AiOperation operation, String model, String type, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        tokenCounters.computeIfAbsent(new TokenKey(operation, model, type), key -> Counter.builder("gemini.tokens")
+                        .description("Tokens reportados em usageMetadata")
+                        .tag("operation", key.operation().getKey())
+                        .tag("model", key.model())
+                        .tag("type", key.type())
+                        .register(registry))
+                .increment(amount);
+    }
+}
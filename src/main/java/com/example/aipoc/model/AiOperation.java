@@ -0,0 +1,48 @@
+package com.example.aipoc.model;
+
+/**
+ * The AI operations exposed by the application.
+ *
+ * <p>The {@link #getKey() key} is the stable identifier used in configuration
+ * (e.g. {@code ai.logging.sampling.rates.sentiment}), metric tags and cache keys;
+ * the {@link #getDescription() description} is the human-readable label used in
+ * log messages.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public enum AiOperation {
+
+    CHAT("chat", "processamento de mensagem"),
+    SENTIMENT("sentiment", "análise de sentimento"),
+    SUMMARY("summary", "resumo de texto"),
+    PRODUCT_CLASSIFICATION("product-classification", "classificação de produto"),
+    ANALYZE("analyze", "análise combinada"),
+    CHAT_SUMMARY("chat-summary", "resumo de sessão de chat");
+
+    private final String key;
+    private final String description;
+
+    AiOperation(String key, String description) {
+        this.key = key;
+        this.description = description;
+    }
+
+    /**
+     * Gets the stable identifier of this operation.
+     *
+     * @return the operation key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the label used in log messages.
+     *
+     * @return the operation description
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.aipoc.model;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 public class AiRequest {
@@ -11,6 +12,12 @@ public class AiRequest {
     
     private String context;
     
+    @Size(max = 64, message = "O identificador de sessão deve ter no máximo 64 caracteres")
+    private String sessionId; // sessão de chat no servidor; vazio = sem histórico
+    
+    @Pattern(regexp = "(?i)fast|balanced|thorough", message = "O perfil deve ser fast, balanced ou thorough")
+    private String profile; // perfil de geração; vazio = padrão da operação
+    
     public AiRequest() {}
     
     public AiRequest(String message, String context) {
@@ -33,4 +40,20 @@ public class AiRequest {
     public void setContext(String context) {
         this.context = context;
     }
+    
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ public class AiResponse {
     private LocalDateTime timestamp;
     private boolean success;
     private String error;
+    private boolean degraded; // resposta local servida porque o prazo da requisição acabou
     
     public AiResponse() {
         this.timestamp = LocalDateTime.now();
@@ -78,4 +79,12 @@ public class AiResponse {
     public void setError(String error) {
         this.error = error;
     }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+    
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.aipoc.model;
+
+/**
+ * How and when one analysis of a {@code POST /api/ai/analyze} request was answered.
+ *
+ * @param mode       {@code combined} (shared structured call), {@code separate} (own
+ *                   call, concurrent with the others), {@code fallback} (own call after
+ *                   the combined answer lacked it) or {@code degraded} (local answer)
+ * @param durationMs the time from the start of the request to this answer
+ * @author AI POC Team
+ * @since 1.1
+ */
+public record AnalysisTiming(String mode, long durationMs) {
+}
@@ -0,0 +1,109 @@
+package com.example.aipoc.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class AnalyzeRequest {
+    
+    @NotBlank(message = "O texto não pode estar vazio")
+    @Size(max = 10000, message = "O texto deve ter no máximo 10000 caracteres")
+    private String text;
+    
+    @NotEmpty(message = "Informe ao menos uma análise")
+    private List<@Pattern(regexp = "(?i)sentiment|summary|chat",
+            message = "As análises devem ser sentiment, summary ou chat") String> analyses;
+    
+    @Size(max = 2000, message = "A pergunta deve ter no máximo 2000 caracteres")
+    private String question; // pergunta da análise chat, respondida com o texto como contexto
+    
+    @Min(value = 1, message = "Número de sentenças deve ser pelo menos 1")
+    @Max(value = 10, message = "Número de sentenças deve ser no máximo 10")
+    private int maxSentences = 3;
+    
+    @Pattern(regexp = "(?i)conciso|detalhado|bullet-points",
+            message = "O estilo deve ser conciso, detalhado ou bullet-points")
+    private String style = "conciso";
+    
+    private String language = "pt"; // idioma do texto, repassado à análise de sentimento
+    
+    @Pattern(regexp = "(?i)fast|balanced|thorough", message = "O perfil deve ser fast, balanced ou thorough")
+    private String profile; // perfil de geração; vazio = padrão de cada operação
+    
+    public AnalyzeRequest() {}
+    
+    public AnalyzeRequest(String text, List<String> analyses) {
+        this.text = text;
+        this.analyses = analyses;
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "A análise chat exige o campo question")
+    public boolean isQuestionGivenForChat() {
+        return analyses == null || analyses.stream().noneMatch("chat"::equalsIgnoreCase)
+                || (question != null && !question.isBlank());
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+    
+    public List<String> getAnalyses() {
+        return analyses;
+    }
+    
+    public void setAnalyses(List<String> analyses) {
+        this.analyses = analyses;
+    }
+    
+    public String getQuestion() {
+        return question;
+    }
+    
+    public void setQuestion(String question) {
+        this.question = question;
+    }
+    
+    public int getMaxSentences() {
+        return maxSentences;
+    }
+    
+    public void setMaxSentences(int maxSentences) {
+        this.maxSentences = maxSentences;
+    }
+    
+    public String getStyle() {
+        return style;
+    }
+    
+    public void setStyle(String style) {
+        this.style = style;
+    }
+    
+    public String getLanguage() {
+        return language;
+    }
+    
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+}
\ No newline at end of file
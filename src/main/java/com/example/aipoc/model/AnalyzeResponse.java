@@ -0,0 +1,102 @@
+package com.example.aipoc.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AnalyzeResponse {
+    
+    private SentimentResponse sentiment;
+    private AiResponse summary;
+    private AiResponse chat;
+    private Map<String, AnalysisTiming> timings = new LinkedHashMap<>(); // por análise pedida
+    private int tokensUsed; // soma das chamadas ao Gemini; a chamada combinada conta uma vez
+    private LocalDateTime timestamp;
+    private boolean success; // todas as análises pedidas tiveram sucesso
+    private String error;
+    private boolean degraded; // alguma análise veio do fallback local
+    
+    public AnalyzeResponse() {
+        this.timestamp = LocalDateTime.now();
+    }
+    
+    public static AnalyzeResponse error(String error) {
+        AnalyzeResponse response = new AnalyzeResponse();
+        response.error = error;
+        response.success = false;
+        return response;
+    }
+    
+    // Getters and Setters
+    public SentimentResponse getSentiment() {
+        return sentiment;
+    }
+    
+    public void setSentiment(SentimentResponse sentiment) {
+        this.sentiment = sentiment;
+    }
+    
+    public AiResponse getSummary() {
+        return summary;
+    }
+    
+    public void setSummary(AiResponse summary) {
+        this.summary = summary;
+    }
+    
+    public AiResponse getChat() {
+        return chat;
+    }
+    
+    public void setChat(AiResponse chat) {
+        this.chat = chat;
+    }
+    
+    public Map<String, AnalysisTiming> getTimings() {
+        return timings;
+    }
+    
+    public void setTimings(Map<String, AnalysisTiming> timings) {
+        this.timings = timings;
+    }
+    
+    public int getTokensUsed() {
+        return tokensUsed;
+    }
+    
+    public void setTokensUsed(int tokensUsed) {
+        this.tokensUsed = tokensUsed;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public boolean isDegraded() {
+        return degraded;
+    }
+    
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.aipoc.model;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -35,7 +36,13 @@ import java.util.Objects;
  *       <li>500-1000: Medium responses (summaries, explanations)</li>
  *       <li>1000+: Long responses (detailed analysis, creative content)</li>
  *     </ul>
+ *     On thinking models the thoughts count against this limit too.
  *   </li>
+ *   <li><strong>Thinking budget:</strong> tokens the model may spend reasoning before
+ *     answering; 0 turns thinking off, -1 lets the model decide, null keeps the model
+ *     default</li>
+ *   <li><strong>Stop sequences:</strong> up to 5 strings that end the answer when
+ *     generated</li>
  * </ul>
  * 
  * <p>This class is thread-safe and can be safely shared across multiple service calls.
@@ -50,9 +57,12 @@ public final class GeminiConfig {
     private final int maxTokens;
     private final String model;
     private final String apiKey;
+    private final Integer thinkingBudget;
+    private final List<String> stopSequences;
     
     /**
-     * Creates a new GeminiConfig instance with the specified parameters.
+     * Creates a new GeminiConfig instance with the specified parameters, the model's
+     * default thinking and no stop sequences.
      *
      * @param temperature The temperature parameter for response randomness (0.0 to 1.0)
      * @param maxTokens The maximum number of tokens in the response
@@ -61,6 +71,22 @@ public final class GeminiConfig {
      * @throws IllegalArgumentException if any parameter is invalid
      */
     public GeminiConfig(double temperature, int maxTokens, String model, String apiKey) {
+        this(temperature, maxTokens, model, apiKey, null, List.of());
+    }
+    
+    /**
+     * Creates a new GeminiConfig instance with the specified parameters.
+     *
+     * @param temperature The temperature parameter for response randomness (0.0 to 1.0)
+     * @param maxTokens The maximum number of tokens in the response
+     * @param model The Gemini model to use
+     * @param apiKey The API key for authentication
+     * @param thinkingBudget The thinking token budget (0 = off, -1 = dynamic), or null for the model default
+     * @param stopSequences The sequences that end the answer, at most 5
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    public GeminiConfig(double temperature, int maxTokens, String model, String apiKey,
+                        Integer thinkingBudget, List<String> stopSequences) {
         if (temperature < 0.0 || temperature > 1.0) {
             throw new IllegalArgumentException("Temperature must be between 0.0 and 1.0");
         }
@@ -73,11 +99,19 @@ public final class GeminiConfig {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("API key cannot be null or empty");
         }
+        if (thinkingBudget != null && thinkingBudget < -1) {
+            throw new IllegalArgumentException("Thinking budget must be -1 (dynamic), 0 (off) or positive");
+        }
+        if (stopSequences == null || stopSequences.size() > 5) {
+            throw new IllegalArgumentException("Stop sequences must be a list of at most 5 entries");
+        }
         
         this.temperature = temperature;
         this.maxTokens = maxTokens;
         this.model = model.trim();
         this.apiKey = apiKey.trim();
+        this.thinkingBudget = thinkingBudget;
+        this.stopSequences = List.copyOf(stopSequences);
     }
     
     /**
@@ -116,6 +150,38 @@ public final class GeminiConfig {
         return apiKey;
     }
     
+    /**
+     * Gets the thinking token budget.
+     *
+     * @return 0 for no thinking, -1 for dynamic, or null for the model default
+     */
+    public Integer getThinkingBudget() {
+        return thinkingBudget;
+    }
+    
+    /**
+     * Gets the sequences that end the answer when generated.
+     *
+     * @return the stop sequences, possibly empty
+     */
+    public List<String> getStopSequences() {
+        return stopSequences;
+    }
+    
+    /**
+     * Gets a copy of this configuration that calls another model.
+     *
+     * @param model the Gemini model to use
+     * @return this instance if the model is the same, otherwise a new one
+     * @throws IllegalArgumentException if the model is null or empty
+     */
+    public GeminiConfig withModel(String model) {
+        if (this.model.equals(model)) {
+            return this;
+        }
+        return new GeminiConfig(temperature, maxTokens, model, apiKey, thinkingBudget, stopSequences);
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -125,12 +191,14 @@ public final class GeminiConfig {
         return Double.compare(that.temperature, temperature) == 0 &&
                maxTokens == that.maxTokens &&
                Objects.equals(model, that.model) &&
-               Objects.equals(apiKey, that.apiKey);
+               Objects.equals(apiKey, that.apiKey) &&
+               Objects.equals(thinkingBudget, that.thinkingBudget) &&
+               stopSequences.equals(that.stopSequences);
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(temperature, maxTokens, model, apiKey);
+        return Objects.hash(temperature, maxTokens, model, apiKey, thinkingBudget, stopSequences);
     }
     
     @Override
@@ -140,6 +208,8 @@ public final class GeminiConfig {
                ", maxTokens=" + maxTokens +
                ", model='" + model + '\'' +
                ", apiKey='***'" + // Hide API key in toString
+               (thinkingBudget != null ? ", thinkingBudget=" + thinkingBudget : "") +
+               (stopSequences.isEmpty() ? "" : ", stopSequences=" + stopSequences) +
                '}';
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.aipoc.model;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 public class ProductClassificationRequest {
@@ -15,6 +16,9 @@ public class ProductClassificationRequest {
     @Size(max = 100, message = "A categoria deve ter no máximo 100 caracteres")
     private String category;
     
+    @Pattern(regexp = "(?i)fast|balanced|thorough", message = "O perfil deve ser fast, balanced ou thorough")
+    private String profile; // perfil de geração; vazio = padrão da operação
+    
     public ProductClassificationRequest() {}
     
     public ProductClassificationRequest(String productName, String description, String category) {
@@ -46,4 +50,12 @@ public class ProductClassificationRequest {
     public void setCategory(String category) {
         this.category = category;
     }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ public class ProductClassificationResponse {
     private LocalDateTime timestamp;
     private boolean success;
     private String error;
+    private boolean degraded; // resposta local servida porque o prazo da requisição acabou
     
     // Subcategorias de tangibilidade
     private String tangibilitySubtype; // Para produtos tangíveis: DURABLE, NON_DURABLE, CONSUMABLE
@@ -136,4 +137,12 @@ public class ProductClassificationResponse {
     public void setError(String error) {
         this.error = error;
     }
+    
+    public boolean isDegraded() {
+        return degraded;
+    }
+    
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.aipoc.model;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 public class SentimentRequest {
@@ -11,6 +12,9 @@ public class SentimentRequest {
     
     private String language = "pt";
     
+    @Pattern(regexp = "(?i)fast|balanced|thorough", message = "O perfil deve ser fast, balanced ou thorough")
+    private String profile; // perfil de geração; vazio = padrão da operação
+    
     public SentimentRequest() {}
     
     public SentimentRequest(String text, String language) {
@@ -33,4 +37,12 @@ public class SentimentRequest {
     public void setLanguage(String language) {
         this.language = language;
     }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ public class SentimentResponse {
     private LocalDateTime timestamp;
     private boolean success;
     private String error;
+    private boolean degraded; // resposta local servida porque o prazo da requisição acabou
     
     public SentimentResponse() {
         this.timestamp = LocalDateTime.now();
@@ -88,4 +89,12 @@ public class SentimentResponse {
     public void setError(String error) {
         this.error = error;
     }
+    
+    public boolean isDegraded() {
+        return degraded;
+    }
+    
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.aipoc.model;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
@@ -15,7 +16,12 @@ public class SummaryRequest {
     @Max(value = 10, message = "Número de sentenças deve ser no máximo 10")
     private int maxSentences = 3;
     
-    private String style = "conciso"; // conciso, detalhado, bullet-points
+    @Pattern(regexp = "(?i)conciso|detalhado|bullet-points",
+            message = "O estilo deve ser conciso, detalhado ou bullet-points")
+    private String style = "conciso";
+    
+    @Pattern(regexp = "(?i)fast|balanced|thorough", message = "O perfil deve ser fast, balanced ou thorough")
+    private String profile; // perfil de geração; vazio = padrão da operação
     
     public SummaryRequest() {}
     
@@ -48,4 +54,12 @@ public class SummaryRequest {
     public void setStyle(String style) {
         this.style = style;
     }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
 }
\ No newline at end of file
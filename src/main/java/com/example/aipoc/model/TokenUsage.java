@@ -0,0 +1,19 @@
+package com.example.aipoc.model;
+
+/**
+ * Token counts reported in the {@code usageMetadata} block of a Gemini response.
+ *
+ * @param promptTokens     tokens in the prompt ({@code promptTokenCount})
+ * @param candidatesTokens tokens in the generated answer ({@code candidatesTokenCount})
+ * @param thoughtsTokens   tokens spent on internal reasoning ({@code thoughtsTokenCount})
+ * @param totalTokens      total billed tokens ({@code totalTokenCount})
+ * @author AI POC Team
+ * @since 1.1
+ */
+public record TokenUsage(int promptTokens, int candidatesTokens, int thoughtsTokens, int totalTokens) {
+
+    /**
+     * Usage for responses without a {@code usageMetadata} block.
+     */
+    public static final TokenUsage EMPTY = new TokenUsage(0, 0, 0, 0);
+}
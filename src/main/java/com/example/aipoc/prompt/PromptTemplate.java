@@ -0,0 +1,287 @@
+package com.example.aipoc.prompt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, precompiled prompt template.
+ *
+ * <p>A template is parsed once into an array of segments (literal text, variable
+ * slots and optional sections) so rendering is a single pass that only appends
+ * pre-built strings and request values into a buffer sized up front.
+ *
+ * <h3>Template syntax:</h3>
+ * <ul>
+ * <li>{@code {{name}}} - inserts the value as-is</li>
+ * <li>{@code {{name|quoted}}} - escapes quotes, backslashes and control
+ * characters so the value can be embedded between double quotes</li>
+ * <li>{@code {{#name}}...{{/name}}} - renders the enclosed block only when the
+ * value is not blank</li>
+ * </ul>
+ *
+ * <p>Values are passed positionally, in the order declared by the template's
+ * {@code params} header (see {@link PromptTemplates}).
+ *
+ * <p>This class is thread-safe and is meant to be held in a {@code static final}
+ * field.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ * @see PromptTemplates
+ */
+public final class PromptTemplate {
+
+    /**
+     * How a variable value is written into the rendered prompt.
+     */
+    public enum Escape {
+        RAW,
+        QUOTED
+    }
+
+    sealed interface Segment permits Literal, Variable, Section {
+    }
+
+    record Literal(String text) implements Segment {
+    }
+
+    record Variable(int slot, Escape escape) implements Segment {
+    }
+
+    record Section(int slot, Segment[] body) implements Segment {
+    }
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final int version;
+    private final List<String> params;
+    private final Segment[] segments;
+    private final int literalLength;
+
+    PromptTemplate(String name, int version, List<String> params, String source) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Template name cannot be null or empty");
+        }
+        if (version <= 0) {
+            throw new IllegalArgumentException("Template version must be positive");
+        }
+        this.name = name;
+        this.version = version;
+        this.params = List.copyOf(params);
+
+        int[] cursor = { 0 };
+        this.segments = compile(source, cursor, null);
+        this.literalLength = literalLength(segments);
+    }
+
+    /**
+     * Renders the template with the given values.
+     *
+     * @param values one value per declared parameter, in declaration order;
+     *               {@code null} is rendered as an empty string
+     * @return the rendered prompt
+     * @throws IllegalArgumentException if the number of values does not match the
+     *                                  declared parameters
+     */
+    public String render(String... values) {
+        if (values.length != params.size()) {
+            throw new IllegalArgumentException("Template [" + id() + "] expects " + params.size()
+                    + " values " + params + " but got " + values.length);
+        }
+
+        int capacity = literalLength;
+        for (String value : values) {
+            if (value != null) {
+                capacity += value.length();
+            }
+        }
+
+        // Folga para caracteres escapados; evita realocações do buffer
+        StringBuilder buffer = new StringBuilder(capacity + 16);
+        append(buffer, segments, values);
+        return buffer.toString();
+    }
+
+    /**
+     * Gets the template name, e.g. {@code sentiment}.
+     *
+     * @return the template name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the template version declared in the template header.
+     *
+     * @return the template version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the declared parameter names, in the order {@link #render(String...)}
+     * expects them.
+     *
+     * @return the parameter names
+     */
+    public List<String> getParams() {
+        return params;
+    }
+
+    /**
+     * Gets a stable identifier combining name and version, suitable for cache keys
+     * and metric tags, e.g. {@code sentiment@v2}.
+     *
+     * @return the template identifier
+     */
+    public String id() {
+        return name + "@v" + version;
+    }
+
+    @Override
+    public String toString() {
+        return "PromptTemplate{" + id() + ", params=" + params + '}';
+    }
+
+    private static void append(StringBuilder buffer, Segment[] segments, String[] values) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal -> buffer.append(literal.text());
+                case Variable variable -> appendValue(buffer, values[variable.slot()], variable.escape());
+                case Section section -> {
+                    String value = values[section.slot()];
+                    if (value != null && !value.isBlank()) {
+                        append(buffer, section.body(), values);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void appendValue(StringBuilder buffer, String value, Escape escape) {
+        if (value == null) {
+            return;
+        }
+        if (escape == Escape.RAW) {
+            buffer.append(value);
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> buffer.append("\\\"");
+                case '\\' -> buffer.append("\\\\");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                case '\t' -> buffer.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        buffer.append(' ');
+                    } else {
+                        buffer.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private Segment[] compile(String source, int[] cursor, String openSection) {
+        List<Segment> compiled = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        while (cursor[0] < source.length()) {
+            int start = source.indexOf(OPEN, cursor[0]);
+            if (start < 0) {
+                literal.append(source, cursor[0], source.length());
+                cursor[0] = source.length();
+                break;
+            }
+
+            int end = source.indexOf(CLOSE, start + OPEN.length());
+            if (end < 0) {
+                throw invalid("unterminated tag at offset " + start);
+            }
+
+            literal.append(source, cursor[0], start);
+            String tag = source.substring(start + OPEN.length(), end).trim();
+            cursor[0] = end + CLOSE.length();
+
+            if (tag.startsWith("/")) {
+                String closing = tag.substring(1).trim();
+                if (!closing.equals(openSection)) {
+                    throw invalid("unexpected closing tag {{/" + closing + "}}");
+                }
+                flush(literal, compiled);
+                return compiled.toArray(Segment[]::new);
+            }
+
+            flush(literal, compiled);
+
+            if (tag.startsWith("#")) {
+                String sectionName = tag.substring(1).trim();
+                Segment[] body = compile(source, cursor, sectionName);
+                compiled.add(new Section(slotOf(sectionName), body));
+            } else {
+                compiled.add(variable(tag));
+            }
+        }
+
+        if (openSection != null) {
+            throw invalid("section {{#" + openSection + "}} is never closed");
+        }
+
+        flush(literal, compiled);
+        return compiled.toArray(Segment[]::new);
+    }
+
+    private Variable variable(String tag) {
+        int pipe = tag.indexOf('|');
+        if (pipe < 0) {
+            return new Variable(slotOf(tag), Escape.RAW);
+        }
+
+        String modifier = tag.substring(pipe + 1).trim();
+        Escape escape = Arrays.stream(Escape.values())
+                .filter(candidate -> candidate.name().equalsIgnoreCase(modifier))
+                .findFirst()
+                .orElseThrow(() -> invalid("unknown escape modifier [" + modifier + "]"));
+        return new Variable(slotOf(tag.substring(0, pipe).trim()), escape);
+    }
+
+    private int slotOf(String param) {
+        int slot = params.indexOf(param);
+        if (slot < 0) {
+            throw invalid("parameter [" + param + "] is not declared in params " + params);
+        }
+        return slot;
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Invalid template [" + name + "]: " + reason);
+    }
+
+    private static void flush(StringBuilder literal, List<Segment> compiled) {
+        if (!literal.isEmpty()) {
+            compiled.add(new Literal(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private static int literalLength(Segment[] segments) {
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                length += literal.text().length();
+            } else if (segment instanceof Section section) {
+                length += literalLength(section.body());
+            }
+        }
+        return length;
+    }
+}
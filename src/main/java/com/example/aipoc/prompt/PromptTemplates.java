@@ -0,0 +1,123 @@
+package com.example.aipoc.prompt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads and caches the prompt templates shipped in {@code src/main/resources/prompts/}.
+ *
+ * <p>Each template lives in {@code prompts/<name>.prompt} and starts with a small
+ * header, followed by a {@code ---} separator and the template body:
+ *
+ * <pre>
+ * # version: 2
+ * # params: text, language
+ * ---
+ * Analise o sentimento do texto "{{text|quoted}}"
+ * </pre>
+ *
+ * <p>Templates are compiled on first use and then served from memory, so services
+ * should resolve them once into {@code static final} fields:
+ *
+ * <pre>{@code
+ * private static final PromptTemplate SENTIMENT_TEMPLATE = PromptTemplates.get("sentiment");
+ * }</pre>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ * @see PromptTemplate
+ */
+public final class PromptTemplates {
+
+    private static final String LOCATION = "prompts/";
+    private static final String EXTENSION = ".prompt";
+    private static final String SEPARATOR = "---";
+
+    private static final Map<String, PromptTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private PromptTemplates() {
+    }
+
+    /**
+     * Gets the compiled template with the given name, loading it from the classpath
+     * on first access.
+     *
+     * @param name the template name, without directory or extension
+     * @return the compiled template
+     * @throws IllegalStateException if the template cannot be found or is invalid
+     */
+    public static PromptTemplate get(String name) {
+        return CACHE.computeIfAbsent(name, PromptTemplates::load);
+    }
+
+    /**
+     * Parses a template from its textual definition.
+     *
+     * @param name       the template name
+     * @param definition the header and body, as stored in the template file
+     * @return the compiled template
+     * @throws IllegalArgumentException if the definition is invalid
+     */
+    public static PromptTemplate parse(String name, String definition) {
+        String normalized = definition.replace("\r\n", "\n");
+        int separator = normalized.startsWith(SEPARATOR + "\n") ? 0 : normalized.indexOf("\n" + SEPARATOR + "\n");
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid template [" + name + "]: missing '---' header separator");
+        }
+
+        String header = normalized.substring(0, separator);
+        String body = normalized.substring(separator == 0 ? SEPARATOR.length() + 1 : separator + SEPARATOR.length() + 2);
+        if (body.endsWith("\n")) {
+            body = body.substring(0, body.length() - 1);
+        }
+
+        int version = 1;
+        List<String> params = List.of();
+
+        for (String line : header.split("\n")) {
+            String entry = line.strip();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (!entry.startsWith("#") || entry.indexOf(':') < 0) {
+                throw new IllegalArgumentException("Invalid template [" + name + "]: malformed header line '" + line + "'");
+            }
+
+            String key = entry.substring(1, entry.indexOf(':')).strip();
+            String value = entry.substring(entry.indexOf(':') + 1).strip();
+
+            switch (key) {
+                case "version" -> version = Integer.parseInt(value);
+                case "params" -> params = value.isEmpty()
+                        ? List.of()
+                        : Arrays.stream(value.split(",")).map(String::strip).toList();
+                default -> {
+                    // Cabeçalhos desconhecidos são apenas documentação
+                }
+            }
+        }
+
+        return new PromptTemplate(name, version, params, body);
+    }
+
+    private static PromptTemplate load(String name) {
+        String resource = LOCATION + name + EXTENSION;
+        ClassLoader classLoader = PromptTemplates.class.getClassLoader();
+
+        try (InputStream input = classLoader.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException("Prompt template not found on classpath: " + resource);
+            }
+            return parse(name, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read prompt template: " + resource, e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.aipoc.quota;
+
+import com.example.aipoc.model.TokenUsage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client request and token ledger with minute and daily quotas.
+ *
+ * <p>Every counter is a {@link LongAdder}, which stripes updates across cells under
+ * contention, and each quota window is an immutable epoch plus its adders held in an
+ * {@link AtomicReference}, replaced by CAS when the clock moves into a new window.
+ * Nothing on the request path takes a lock.
+ *
+ * <p>Admission reads the window and then increments it, so under concurrent
+ * requests a client can overshoot a request quota by the number of requests admitted
+ * in the same instant. A request is only counted once the endpoint's admission
+ * control lets it through (see {@link #admit(String)}); {@link #check(String)} turns
+ * an over-quota client away before it queues, without counting anything. Token quotas are checked against tokens already reported,
+ * since a call's usage is only known from its {@code usageMetadata}: the request
+ * that crosses the limit completes, the following ones are refused.
+ *
+ * <p>The client id travels in the Reactor context under {@link #CONTEXT_KEY} from
+ * the controller to {@code BaseGeminiService}, which reports usage here.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class ClientLedger {
+
+    /** Reactor context key holding the id of the calling client. */
+    public static final String CONTEXT_KEY = "ai.client";
+
+    /**
+     * Disabled ledger: admits everything and records nothing. Used by services
+     * created outside Spring.
+     */
+    public static final ClientLedger NOOP = new ClientLedger(disabled(), Clock.systemUTC());
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final boolean enabled;
+    private final Clock clock;
+    private final Map<String, String> clientsByKey = new HashMap<>();
+    private final Map<String, UsageSnapshot.Limits> limits = new HashMap<>();
+    private final Map<String, String> tiers = new HashMap<>();
+    private final UsageSnapshot.Limits defaultLimits;
+    private final byte[] adminKey;
+    private final Map<String, ClientUsage> usage = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ClientLedger(ClientQuotaProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public ClientLedger(ClientQuotaProperties properties, Clock clock) {
+        this.enabled = properties.isEnabled();
+        this.clock = clock;
+        ClientQuotaProperties.Limits defaults = properties.getDefaults();
+        this.defaultLimits = resolve(defaults, new ClientQuotaProperties.Limits());
+        String admin = properties.getAdminApiKey();
+        this.adminKey = admin == null || admin.isBlank() ? null : admin.getBytes(StandardCharsets.UTF_8);
+        properties.getClients().forEach((clientId, client) -> {
+            if (client.getApiKey() != null && !client.getApiKey().isBlank()) {
+                clientsByKey.put(client.getApiKey(), clientId);
+            }
+            limits.put(clientId, resolve(client, defaults));
+            if (client.getTier() != null && !client.getTier().isBlank()) {
+                tiers.put(clientId, client.getTier());
+            }
+        });
+    }
+
+    /**
+     * Maps the {@code X-API-Key} header to a client id.
+     *
+     * @param apiKey the header value, possibly null
+     * @return the configured client id, or {@link ClientQuotaProperties#ANONYMOUS}
+     */
+    public String identify(String apiKey) {
+        if (apiKey == null) {
+            return ClientQuotaProperties.ANONYMOUS;
+        }
+        return clientsByKey.getOrDefault(apiKey, ClientQuotaProperties.ANONYMOUS);
+    }
+
+    /**
+     * Checks whether an {@code X-API-Key} header carries the configured
+     * {@code ai.quota.admin-api-key}, compared in constant time.
+     *
+     * @param apiKey the header value, possibly null
+     * @return true if it is the admin key; always false when none is configured
+     */
+    public boolean isAdmin(String apiKey) {
+        return adminKey != null && apiKey != null
+                && MessageDigest.isEqual(adminKey, apiKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the tier configured for a client, matched by the model routing rules.
+     *
+     * @param clientId the client id, possibly null outside a request
+     * @return the tier, or null if the client has none
+     */
+    public String tierOf(String clientId) {
+        return clientId == null ? null : tiers.get(clientId);
+    }
+
+    /**
+     * Refuses a request if a quota of the client is already used up, without
+     * counting it.
+     *
+     * @param clientId the client id from {@link #identify(String)}
+     * @throws QuotaExceededException if a quota is used up
+     */
+    public void check(String clientId) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        ClientUsage client = usage(clientId);
+        checkQuotas(client, clientId, client.minute(now), client.day(now), now);
+    }
+
+    /**
+     * Counts a request for the client, or refuses it if a quota is used up.
+     *
+     * @param clientId the client id from {@link #identify(String)}
+     * @throws QuotaExceededException if the request would exceed a quota
+     */
+    public void admit(String clientId) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        ClientUsage client = usage(clientId);
+        Window minute = client.minute(now);
+        Window day = client.day(now);
+        checkQuotas(client, clientId, minute, day, now);
+
+        minute.requests.increment();
+        day.requests.increment();
+        client.requests.increment();
+    }
+
+    /**
+     * Records the tokens reported by a Gemini response.
+     *
+     * @param clientId the client that made the request, possibly null outside a request
+     * @param tokens   the reported usage
+     */
+    public void recordUsage(String clientId, TokenUsage tokens) {
+        if (!enabled || clientId == null) {
+            return;
+        }
+        long total = tokens.totalTokens() > 0 ? tokens.totalTokens()
+                : (long) tokens.promptTokens() + tokens.candidatesTokens() + tokens.thoughtsTokens();
+        if (total <= 0) {
+            return;
+        }
+        long now = clock.millis();
+        ClientUsage client = usage(clientId);
+        client.minute(now).tokens.add(total);
+        client.day(now).tokens.add(total);
+        client.promptTokens.add(tokens.promptTokens());
+        client.candidatesTokens.add(tokens.candidatesTokens());
+        client.thoughtsTokens.add(tokens.thoughtsTokens());
+        client.totalTokens.add(total);
+    }
+
+    /**
+     * Takes a snapshot of every client seen so far.
+     *
+     * @return the current usage
+     */
+    public UsageSnapshot snapshot() {
+        long now = clock.millis();
+        List<UsageSnapshot.Client> clients = usage.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().snapshot(entry.getKey(), limitsOf(entry.getKey()), now))
+                .toList();
+        return new UsageSnapshot(Instant.ofEpochMilli(now), clients);
+    }
+
+    /**
+     * Takes a snapshot of a single client.
+     *
+     * @param clientId the client id
+     * @return its usage, or empty if it made no request yet
+     */
+    public Optional<UsageSnapshot.Client> snapshot(String clientId) {
+        ClientUsage client = usage.get(clientId);
+        return client == null ? Optional.empty()
+                : Optional.of(client.snapshot(clientId, limitsOf(clientId), clock.millis()));
+    }
+
+    /**
+     * Loads counters from a previous snapshot, typically at startup. Windows that
+     * already ended are discarded; totals are added to the current ones.
+     *
+     * @param snapshot the snapshot to restore
+     */
+    public void restore(UsageSnapshot snapshot) {
+        long now = clock.millis();
+        for (UsageSnapshot.Client saved : snapshot.clients()) {
+            ClientUsage client = usage(saved.clientId());
+            client.requests.add(saved.requests());
+            client.rejected.add(saved.rejected());
+            client.promptTokens.add(saved.promptTokens());
+            client.candidatesTokens.add(saved.candidatesTokens());
+            client.thoughtsTokens.add(saved.thoughtsTokens());
+            client.totalTokens.add(saved.totalTokens());
+            restoreWindow(saved.minute(), client.minute(now));
+            restoreWindow(saved.day(), client.day(now));
+        }
+    }
+
+    private static void restoreWindow(UsageSnapshot.Window saved, Window current) {
+        if (saved != null && saved.start().toEpochMilli() == current.start) {
+            current.requests.add(saved.requests());
+            current.tokens.add(saved.tokens());
+        }
+    }
+
+    private void checkQuotas(ClientUsage client, String clientId, Window minute, Window day, long now) {
+        UsageSnapshot.Limits limit = limitsOf(clientId);
+        check(client, clientId, QuotaExceededException.Scope.REQUESTS_PER_MINUTE,
+                limit.requestsPerMinute(), minute.requests.sum(), minute, MINUTE_MILLIS, now);
+        check(client, clientId, QuotaExceededException.Scope.TOKENS_PER_MINUTE,
+                limit.tokensPerMinute(), minute.tokens.sum(), minute, MINUTE_MILLIS, now);
+        check(client, clientId, QuotaExceededException.Scope.REQUESTS_PER_DAY,
+                limit.requestsPerDay(), day.requests.sum(), day, DAY_MILLIS, now);
+        check(client, clientId, QuotaExceededException.Scope.TOKENS_PER_DAY,
+                limit.tokensPerDay(), day.tokens.sum(), day, DAY_MILLIS, now);
+    }
+
+    private void check(ClientUsage client, String clientId, QuotaExceededException.Scope scope, long limit,
+                       long used, Window window, long windowMillis, long now) {
+        if (limit > 0 && used >= limit) {
+            client.rejected.increment();
+            long waitMillis = window.start + windowMillis - now;
+            throw new QuotaExceededException(clientId, scope, limit,
+                    Duration.ofSeconds(Math.max(1, (waitMillis + 999) / 1000)));
+        }
+    }
+
+    private ClientUsage usage(String clientId) {
+        return usage.computeIfAbsent(clientId, id -> new ClientUsage());
+    }
+
+    private UsageSnapshot.Limits limitsOf(String clientId) {
+        return limits.getOrDefault(clientId, defaultLimits);
+    }
+
+    private static UsageSnapshot.Limits resolve(ClientQuotaProperties.Limits client,
+                                                ClientQuotaProperties.Limits defaults) {
+        return new UsageSnapshot.Limits(
+                valueOf(client.getRequestsPerMinute(), defaults.getRequestsPerMinute()),
+                valueOf(client.getTokensPerMinute(), defaults.getTokensPerMinute()),
+                valueOf(client.getRequestsPerDay(), defaults.getRequestsPerDay()),
+                valueOf(client.getTokensPerDay(), defaults.getTokensPerDay()));
+    }
+
+    private static long valueOf(Long value, Long fallback) {
+        if (value != null) {
+            return value;
+        }
+        return fallback != null ? fallback : 0;
+    }
+
+    private static ClientQuotaProperties disabled() {
+        ClientQuotaProperties properties = new ClientQuotaProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    /**
+     * Counters of one fixed window, starting at {@code start} (epoch millis).
+     */
+    private static final class Window {
+
+        final long start;
+        final LongAdder requests = new LongAdder();
+        final LongAdder tokens = new LongAdder();
+
+        Window(long start) {
+            this.start = start;
+        }
+
+        UsageSnapshot.Window snapshot() {
+            return new UsageSnapshot.Window(Instant.ofEpochMilli(start), requests.sum(), tokens.sum());
+        }
+    }
+
+    private static final class ClientUsage {
+
+        final AtomicReference<Window> minute = new AtomicReference<>(new Window(0));
+        final AtomicReference<Window> day = new AtomicReference<>(new Window(0));
+        final LongAdder requests = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder candidatesTokens = new LongAdder();
+        final LongAdder thoughtsTokens = new LongAdder();
+        final LongAdder totalTokens = new LongAdder();
+
+        Window minute(long now) {
+            return current(minute, now - now % MINUTE_MILLIS);
+        }
+
+        Window day(long now) {
+            return current(day, now - now % DAY_MILLIS);
+        }
+
+        UsageSnapshot.Client snapshot(String clientId, UsageSnapshot.Limits limits, long now) {
+            return new UsageSnapshot.Client(clientId, limits, requests.sum(), rejected.sum(),
+                    promptTokens.sum(), candidatesTokens.sum(), thoughtsTokens.sum(), totalTokens.sum(),
+                    minute(now).snapshot(), day(now).snapshot());
+        }
+
+        private static Window current(AtomicReference<Window> reference, long start) {
+            Window window = reference.get();
+            while (window.start < start) {
+                Window next = new Window(start);
+                if (reference.compareAndSet(window, next)) {
+                    return next;
+                }
+                window = reference.get();
+            }
+            return window;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.aipoc.quota;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caller identification and per-client quotas, bound from {@code ai.quota.*}:
+ *
+ * <pre>
+ * ai:
+ *   quota:
+ *     defaults:
+ *       requests-per-minute: 60
+ *       tokens-per-day: 2000000
+ *     clients:
+ *       reporting:
+ *         api-key: ${REPORTING_API_KEY}
+ *         tokens-per-minute: 200000
+ *         tier: premium
+ *     admin-api-key: ${AI_USAGE_ADMIN_KEY}
+ * </pre>
+ *
+ * <p>Callers send their key in the {@code X-API-Key} header. Requests without a key,
+ * or with a key that is not configured, are accounted to the shared
+ * {@value #ANONYMOUS} client. A limit left unset on a client falls back to
+ * {@code defaults}; 0 means unlimited. {@code admin-api-key} unlocks every
+ * client's usage on {@code GET /api/ai/usage}; without it each client only sees
+ * its own.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.quota")
+public class ClientQuotaProperties {
+
+    /** Client id for requests without a known API key. */
+    public static final String ANONYMOUS = "anonymous";
+
+    private boolean enabled = true;
+    private Limits defaults = new Limits();
+    private Map<String, Client> clients = new LinkedHashMap<>();
+    private Snapshot snapshot = new Snapshot();
+    private String adminApiKey;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limits getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limits defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Client> getClients() {
+        return clients;
+    }
+
+    public void setClients(Map<String, Client> clients) {
+        this.clients = clients;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getAdminApiKey() {
+        return adminApiKey;
+    }
+
+    public void setAdminApiKey(String adminApiKey) {
+        this.adminApiKey = adminApiKey;
+    }
+
+    /**
+     * Request and token limits; null inherits the default, 0 is unlimited.
+     */
+    public static class Limits {
+
+        private Long requestsPerMinute;
+        private Long tokensPerMinute;
+        private Long requestsPerDay;
+        private Long tokensPerDay;
+
+        public Long getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(Long requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public Long getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(Long tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+
+        public Long getRequestsPerDay() {
+            return requestsPerDay;
+        }
+
+        public void setRequestsPerDay(Long requestsPerDay) {
+            this.requestsPerDay = requestsPerDay;
+        }
+
+        public Long getTokensPerDay() {
+            return tokensPerDay;
+        }
+
+        public void setTokensPerDay(Long tokensPerDay) {
+            this.tokensPerDay = tokensPerDay;
+        }
+    }
+
+    /**
+     * A known caller: its API key, optional limit overrides and the tier the model
+     * routing rules can match on.
+     */
+    public static class Client extends Limits {
+
+        private String apiKey;
+        private String tier;
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public void setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        public String getTier() {
+            return tier;
+        }
+
+        public void setTier(String tier) {
+            this.tier = tier;
+        }
+    }
+
+    /**
+     * Periodic dump of the ledger to disk, also read back on startup so daily
+     * quotas survive a restart. Off unless enabled with an explicit {@code path}, so
+     * the ledger is never kept somewhere a build cleans up.
+     */
+    public static class Snapshot {
+
+        private boolean enabled;
+        private String path;
+        private Duration interval = Duration.ofSeconds(60);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+}
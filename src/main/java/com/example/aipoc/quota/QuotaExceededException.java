@@ -0,0 +1,57 @@
+package com.example.aipoc.quota;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client has used up one of its quotas. Mapped to
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class QuotaExceededException extends RuntimeException {
+
+    /**
+     * The quota that was exceeded.
+     */
+    public enum Scope {
+        REQUESTS_PER_MINUTE,
+        TOKENS_PER_MINUTE,
+        REQUESTS_PER_DAY,
+        TOKENS_PER_DAY
+    }
+
+    private final String clientId;
+    private final Scope scope;
+    private final long limit;
+    private final Duration retryAfter;
+
+    public QuotaExceededException(String clientId, Scope scope, long limit, Duration retryAfter) {
+        super("Cota " + scope + " (" + limit + ") esgotada para o cliente " + clientId);
+        this.clientId = clientId;
+        this.scope = scope;
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Time until the exceeded window resets.
+     *
+     * @return the wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
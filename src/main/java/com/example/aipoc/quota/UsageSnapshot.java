@@ -0,0 +1,51 @@
+package com.example.aipoc.quota;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Point-in-time view of the {@link ClientLedger}, as written to disk and returned
+ * by {@code GET /api/ai/usage}.
+ *
+ * @param takenAt when the snapshot was taken
+ * @param clients usage per client, in client id order
+ * @author AI POC Team
+ * @since 1.1
+ */
+public record UsageSnapshot(Instant takenAt, List<Client> clients) {
+
+    /**
+     * Usage of one client.
+     *
+     * @param clientId         the client id
+     * @param limits           effective limits, 0 meaning unlimited
+     * @param requests         admitted requests since the ledger started
+     * @param rejected         requests refused by a quota
+     * @param promptTokens     prompt tokens reported by Gemini
+     * @param candidatesTokens answer tokens reported by Gemini
+     * @param thoughtsTokens   reasoning tokens reported by Gemini
+     * @param totalTokens      total billed tokens reported by Gemini
+     * @param minute           the current per-minute window
+     * @param day              the current per-day window (UTC)
+     */
+    public record Client(String clientId, Limits limits, long requests, long rejected, long promptTokens,
+                         long candidatesTokens, long thoughtsTokens, long totalTokens,
+                         Window minute, Window day) {
+    }
+
+    /**
+     * Effective limits of a client.
+     */
+    public record Limits(long requestsPerMinute, long tokensPerMinute, long requestsPerDay, long tokensPerDay) {
+    }
+
+    /**
+     * Requests and tokens counted in a fixed window.
+     *
+     * @param start    start of the window
+     * @param requests admitted requests in the window
+     * @param tokens   total tokens in the window
+     */
+    public record Window(Instant start, long requests, long tokens) {
+    }
+}
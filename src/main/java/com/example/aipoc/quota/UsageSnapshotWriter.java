@@ -0,0 +1,90 @@
+package com.example.aipoc.quota;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes the {@link ClientLedger} to {@code ai.quota.snapshot.path} every
+ * {@code ai.quota.snapshot.interval} and on shutdown, and restores it on startup so
+ * a restart does not hand every client a fresh daily quota.
+ *
+ * <p>Disabled by default; enabling it requires an explicit path, and startup fails
+ * without one.
+ *
+ * <p>The file is written next to its final location and then atomically moved over
+ * it, so readers never see a partial snapshot.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class UsageSnapshotWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageSnapshotWriter.class);
+
+    private final ClientLedger ledger;
+    private final ObjectMapper objectMapper;
+    private final ClientQuotaProperties.Snapshot settings;
+
+    public UsageSnapshotWriter(ClientLedger ledger, ObjectMapper objectMapper, ClientQuotaProperties properties) {
+        this.ledger = ledger;
+        this.objectMapper = objectMapper;
+        this.settings = properties.getSnapshot();
+        if (settings.isEnabled() && !StringUtils.hasText(settings.getPath())) {
+            throw new IllegalStateException(
+                    "ai.quota.snapshot.path é obrigatório quando ai.quota.snapshot.enabled=true");
+        }
+    }
+
+    /**
+     * Restores the last snapshot, if any.
+     */
+    @PostConstruct
+    public void restore() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Path path = Path.of(settings.getPath());
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            ledger.restore(objectMapper.readValue(path.toFile(), UsageSnapshot.class));
+            logger.info("Uso por cliente restaurado de {}", path);
+        } catch (IOException e) {
+            logger.warn("Snapshot de uso ilegível em {}, iniciando zerado: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the current ledger to disk.
+     */
+    @Scheduled(initialDelayString = "${ai.quota.snapshot.interval:60s}",
+            fixedDelayString = "${ai.quota.snapshot.interval:60s}")
+    @PreDestroy
+    public void write() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Path path = Path.of(settings.getPath()).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), ledger.snapshot());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Falha ao gravar snapshot de uso em {}: {}", path, e.getMessage());
+        }
+    }
+}
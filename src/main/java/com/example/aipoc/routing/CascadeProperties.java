@@ -0,0 +1,85 @@
+package com.example.aipoc.routing;
+
+import com.example.aipoc.model.AiOperation;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Confidence cascades of the operations whose answers carry a confidence, bound
+ * from {@code ai.cascade.*}:
+ *
+ * <pre>
+ * ai:
+ *   cascade:
+ *     operations:
+ *       sentiment:
+ *         models: [gemini-2.5-flash-lite, gemini-2.5-flash]
+ *         min-confidence: 0.8
+ * </pre>
+ *
+ * <p>An operation with a cascade asks its models in order, cheapest first, and
+ * only moves to the next one when the answer's confidence is below
+ * {@code min-confidence} or the model's JSON could not be parsed. The last model's
+ * answer is served whatever its confidence. A cascade takes the place of the
+ * {@link ModelRouter} rules for its operation. Only {@code sentiment} and
+ * {@code product-classification} report a confidence; other keys are ignored.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.cascade")
+public class CascadeProperties {
+
+    private Map<String, Cascade> operations = new HashMap<>();
+
+    public Map<String, Cascade> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Cascade> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Gets the cascade of an operation.
+     *
+     * @param operation the operation
+     * @return the cascade, if the operation has at least one model configured
+     */
+    public Optional<Cascade> cascadeOf(AiOperation operation) {
+        return Optional.ofNullable(operations.get(operation.getKey()))
+                .filter(cascade -> !cascade.getModels().isEmpty());
+    }
+
+    /**
+     * The models of a cascade, cheapest first, and the confidence that stops it.
+     */
+    public static class Cascade {
+
+        private List<String> models = new ArrayList<>();
+        private double minConfidence = 0.75;
+
+        public List<String> getModels() {
+            return models;
+        }
+
+        public void setModels(List<String> models) {
+            this.models = models;
+        }
+
+        public double getMinConfidence() {
+            return minConfidence;
+        }
+
+        public void setMinConfidence(double minConfidence) {
+            this.minConfidence = minConfidence;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.aipoc.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Models to fall back to when the one chosen for a call is overloaded or out of
+ * quota, bound from {@code ai.model-fallback.*}:
+ *
+ * <pre>
+ * ai:
+ *   model-fallback:
+ *     cool-down: 30s
+ *     defaults: [gemini-2.5-flash-lite, gemini-2.5-flash]
+ *     operations:
+ *       summary: [gemini-2.5-pro, gemini-2.5-flash]
+ * </pre>
+ *
+ * <p>The lists are tried in order after the model picked for the call; an operation
+ * listed in {@code operations} uses its own list instead of {@code defaults}. A
+ * model that answered 429 or 503 is left alone for {@code cool-down}, or for the
+ * retry delay the API asked for if longer.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.model-fallback")
+public class ModelFallbackProperties {
+
+    private Duration coolDown = Duration.ofSeconds(30);
+    private List<String> defaults = new ArrayList<>();
+    private Map<String, List<String>> operations = new HashMap<>();
+
+    public Duration getCoolDown() {
+        return coolDown;
+    }
+
+    public void setCoolDown(Duration coolDown) {
+        this.coolDown = coolDown;
+    }
+
+    public List<String> getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(List<String> defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, List<String>> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, List<String>> operations) {
+        this.operations = operations;
+    }
+}
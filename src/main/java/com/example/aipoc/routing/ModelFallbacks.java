@@ -0,0 +1,160 @@
+package com.example.aipoc.routing;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fallback chains of the Gemini calls and the cool-down of overloaded models.
+ *
+ * <p>When the model of a call answers 429 (quota or rate limit) or 503 (overloaded),
+ * the call moves on to the next model of the operation's fallback list, and the
+ * failing model cools down: for {@code ai.model-fallback.cool-down}, or for the
+ * retry delay the API asked for if longer, it goes to the end of every chain. It is
+ * still tried last, so a request is never refused only because every model is
+ * cooling down.
+ *
+ * <h3>Meters:</h3>
+ * <ul>
+ * <li>{@code gemini.model.cooldowns} - counter of overload answers that put a model
+ * to cool down, tagged by {@code operation} and {@code model}</li>
+ * </ul>
+ *
+ * <p>The model that finally served the call is on {@code gemini.requests}, tagged by
+ * model and outcome.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class ModelFallbacks {
+
+    /**
+     * No fallbacks: every call uses only its own model. Used by services created
+     * outside Spring.
+     */
+    public static final ModelFallbacks NOOP = new ModelFallbacks(new ModelFallbackProperties(),
+            new CompositeMeterRegistry());
+
+    /** Retry delay in the {@code google.rpc.RetryInfo} detail of a 429 body, e.g. {@code "37s"}. */
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+)(?:\\.\\d+)?s\"");
+
+    private final long coolDownNanos;
+    private final List<String> defaults;
+    private final Map<AiOperation, List<String>> byOperation = new EnumMap<>(AiOperation.class);
+    private final Map<String, Long> coolingUntil = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final Map<CooldownKey, Counter> cooldowns = new ConcurrentHashMap<>();
+
+    private record CooldownKey(AiOperation operation, String model) {
+    }
+
+    public ModelFallbacks(ModelFallbackProperties properties, MeterRegistry registry) {
+        this.coolDownNanos = properties.getCoolDown().toNanos();
+        this.defaults = List.copyOf(properties.getDefaults());
+        for (AiOperation operation : AiOperation.values()) {
+            List<String> models = properties.getOperations().get(operation.getKey());
+            if (models != null) {
+                byOperation.put(operation, List.copyOf(models));
+            }
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Gets the models to try for a call, in order: the call's own model and its
+     * fallbacks, with the ones cooling down moved to the end.
+     *
+     * @param operation the operation making the call
+     * @param model     the model picked for the call
+     * @return the models to try, never empty
+     */
+    public List<String> chain(AiOperation operation, String model) {
+        List<String> fallbacks = byOperation.getOrDefault(operation, defaults);
+        if (fallbacks.isEmpty()) {
+            return List.of(model);
+        }
+        Set<String> models = new LinkedHashSet<>();
+        models.add(model);
+        models.addAll(fallbacks);
+
+        List<String> ready = new ArrayList<>(models.size());
+        List<String> cooling = new ArrayList<>();
+        for (String candidate : models) {
+            (isCoolingDown(candidate) ? cooling : ready).add(candidate);
+        }
+        ready.addAll(cooling);
+        return ready;
+    }
+
+    /**
+     * Checks whether a failure means the model is overloaded or out of quota, so
+     * another model may still answer.
+     *
+     * @param error the call failure
+     * @return true for 429 and 503 answers
+     */
+    public static boolean isOverload(Throwable error) {
+        if (error instanceof WebClientResponseException webEx) {
+            int status = webEx.getStatusCode().value();
+            return status == 429 || status == 503;
+        }
+        return false;
+    }
+
+    /**
+     * Puts a model to cool down after an overload answer.
+     *
+     * @param operation the operation whose call failed
+     * @param model     the overloaded model
+     * @param error     the overload answer, read for a requested retry delay
+     */
+    public void coolDown(AiOperation operation, String model, Throwable error) {
+        long until = System.nanoTime() + Math.max(coolDownNanos, retryDelay(error).toNanos());
+        coolingUntil.merge(model, until, (current, next) -> next - current > 0 ? next : current);
+        cooldowns.computeIfAbsent(new CooldownKey(operation, model), key -> Counter.builder("gemini.model.cooldowns")
+                        .description("Respostas 429/503 que puseram um modelo em espera")
+                        .tag("operation", key.operation().getKey())
+                        .tag("model", key.model())
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Checks whether a model is cooling down.
+     *
+     * @param model the model
+     * @return true until its cool-down ends
+     */
+    public boolean isCoolingDown(String model) {
+        Long until = coolingUntil.get(model);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private static Duration retryDelay(Throwable error) {
+        if (!(error instanceof WebClientResponseException webEx)) {
+            return Duration.ZERO;
+        }
+        String retryAfter = webEx.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null && !retryAfter.isEmpty() && retryAfter.chars().allMatch(Character::isDigit)) {
+            return Duration.ofSeconds(Long.parseLong(retryAfter));
+        }
+        Matcher matcher = RETRY_DELAY.matcher(webEx.getResponseBodyAsString());
+        return matcher.find() ? Duration.ofSeconds(Long.parseLong(matcher.group(1))) : Duration.ZERO;
+    }
+}
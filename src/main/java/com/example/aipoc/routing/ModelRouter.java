@@ -0,0 +1,241 @@
+package com.example.aipoc.routing;
+
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.TokenUsage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the Gemini model of each call from the operation and the request profile
+ * (input size, requested style, caller tier), so a three-word sentiment check does
+ * not pay for the same model as a detailed summary.
+ *
+ * <p>Rules are kept in an immutable list behind a volatile reference: routing reads
+ * it without locking, and a reload swaps it whole. The rules file is checked every
+ * {@code ai.routing.reload-interval} and read again only when its modification time
+ * changes; a file that fails to parse keeps the rules in force, and a deleted file
+ * brings back the ones in {@code ai.routing.rules}.
+ *
+ * <h3>Meters (tagged by {@code operation} and {@code model}):</h3>
+ * <ul>
+ * <li>{@code ai.routing.decisions} - counter of calls routed to each model</li>
+ * <li>{@code gemini.cost} - estimated spend in USD, from the tokens reported by
+ * each response and the catalog price of the model that served it</li>
+ * </ul>
+ *
+ * <p>Latency per model is already on {@code gemini.requests}, tagged by model.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    /**
+     * Router without rules: every call goes to the default model. Used by services
+     * created outside Spring.
+     */
+    public static final ModelRouter NOOP = new ModelRouter(disabled(), new CompositeMeterRegistry());
+
+    private final boolean enabled;
+    private final Map<String, ModelRoutingProperties.Model> catalog;
+    private final List<RouteRule> configuredRules;
+    private final Path rulesFile;
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile List<RouteRule> rules;
+    private volatile FileTime rulesFileModified;
+
+    private final Map<RouteKey, Counter> decisions = new ConcurrentHashMap<>();
+    private final Map<RouteKey, Counter> costs = new ConcurrentHashMap<>();
+
+    private record RouteKey(AiOperation operation, String model) {
+    }
+
+    /** Layout of the rules file. */
+    private record RulesFile(List<RouteRule> rules) {
+    }
+
+    public ModelRouter(ModelRoutingProperties properties, MeterRegistry registry) {
+        this.enabled = properties.isEnabled();
+        this.catalog = Map.copyOf(properties.getModels());
+        this.configuredRules = validated(properties.getRules(), "ai.routing.rules");
+        this.rulesFile = properties.getRulesFile() != null && !properties.getRulesFile().isBlank()
+                ? Path.of(properties.getRulesFile()) : null;
+        this.registry = registry;
+        this.rules = configuredRules;
+        reloadIfChanged();
+    }
+
+    /**
+     * Picks the model of a call, counting the decision.
+     *
+     * @param request      the request profile
+     * @param defaultModel the model used when no rule matches
+     * @return the model to call
+     */
+    public String route(RouteRequest request, String defaultModel) {
+        String model = defaultModel;
+        if (enabled) {
+            for (RouteRule rule : rules) {
+                if (rule.matches(request)) {
+                    model = rule.getModel();
+                    break;
+                }
+            }
+        }
+        decisions.computeIfAbsent(new RouteKey(request.operation(), model), key -> Counter.builder("ai.routing.decisions")
+                .description("Chamadas ao Gemini por modelo escolhido pelo roteamento")
+                .tag("operation", key.operation().getKey())
+                .tag("model", key.model())
+                .register(registry)).increment();
+        return model;
+    }
+
+    /**
+     * Adds the cost of a completed call to {@code gemini.cost}. Models outside the
+     * catalog are not priced.
+     *
+     * @param operation the operation that made the call
+     * @param model     the model that served it
+     * @param usage     the tokens reported by the response
+     */
+    public void recordUsage(AiOperation operation, String model, TokenUsage usage) {
+        ModelRoutingProperties.Model price = catalog.get(model);
+        if (price == null) {
+            return;
+        }
+        double cost = (usage.promptTokens() * price.getInputCostPerMillion()
+                + ((long) usage.candidatesTokens() + usage.thoughtsTokens()) * price.getOutputCostPerMillion())
+                / 1_000_000;
+        if (cost <= 0) {
+            return;
+        }
+        costs.computeIfAbsent(new RouteKey(operation, model), key -> Counter.builder("gemini.cost")
+                .description("Custo estimado das chamadas ao Gemini pelo preço de tabela do modelo")
+                .baseUnit("usd")
+                .tag("operation", key.operation().getKey())
+                .tag("model", key.model())
+                .register(registry)).increment(cost);
+    }
+
+    /**
+     * Fits a thinking budget into the range the model accepts, so a profile tuned for
+     * one model does not get a 400 from another. Models outside the catalog, and the
+     * dynamic budget (-1), are left as is.
+     *
+     * @param model  the model the call goes to
+     * @param budget the budget of the call's profile, or null for the model default
+     * @return the budget to send
+     */
+    public Integer thinkingBudget(String model, Integer budget) {
+        ModelRoutingProperties.Model limits = catalog.get(model);
+        if (limits == null || budget == null || budget == -1) {
+            return budget;
+        }
+        if (limits.getMinThinkingBudget() != null && budget < limits.getMinThinkingBudget()) {
+            return limits.getMinThinkingBudget();
+        }
+        if (limits.getMaxThinkingBudget() != null && budget > limits.getMaxThinkingBudget()) {
+            return limits.getMaxThinkingBudget();
+        }
+        return budget;
+    }
+
+    /**
+     * Gets the rules in force, in match order.
+     *
+     * @return the current rules
+     */
+    public List<RouteRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Reads the rules file again if it changed since the last read.
+     */
+    @Scheduled(initialDelayString = "${ai.routing.reload-interval:5s}",
+            fixedDelayString = "${ai.routing.reload-interval:5s}")
+    public void reloadIfChanged() {
+        if (rulesFile == null) {
+            return;
+        }
+        if (!Files.exists(rulesFile)) {
+            if (rulesFileModified != null) {
+                logger.info("Arquivo de regras de roteamento {} removido: voltando às regras de ai.routing.rules",
+                        rulesFile);
+                rulesFileModified = null;
+                rules = configuredRules;
+            }
+            return;
+        }
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(rulesFile);
+        } catch (IOException e) {
+            logger.warn("Não foi possível ler a data do arquivo de regras {}: {}", rulesFile, e.getMessage());
+            return;
+        }
+        if (modified.equals(rulesFileModified)) {
+            return;
+        }
+        // Marcado antes de ler: um arquivo inválido gera um único aviso, não um por intervalo
+        rulesFileModified = modified;
+        try {
+            RulesFile loaded = objectMapper.readValue(rulesFile.toFile(), RulesFile.class);
+            rules = validated(Objects.requireNonNullElse(loaded.rules(), List.of()), rulesFile.toString());
+            logger.info("Regras de roteamento carregadas de {}: {} regra(s)", rulesFile, rules.size());
+        } catch (IOException e) {
+            logger.warn("Arquivo de regras de roteamento {} inválido, mantendo as regras atuais: {}",
+                    rulesFile, e.getMessage());
+        }
+    }
+
+    private List<RouteRule> validated(List<RouteRule> candidates, String source) {
+        return candidates.stream()
+                .filter(rule -> {
+                    if (rule.getModel() == null || rule.getModel().isBlank()) {
+                        logger.warn("Regra de roteamento sem modelo ignorada ({}): {}", source, rule);
+                        return false;
+                    }
+                    if (!catalog.isEmpty() && !catalog.containsKey(rule.getModel())) {
+                        logger.warn("Regra de roteamento para modelo fora do catálogo ignorada ({}): {}",
+                                source, rule);
+                        return false;
+                    }
+                    if (rule.getOperation() != null && Arrays.stream(AiOperation.values())
+                            .noneMatch(operation -> operation.getKey().equals(rule.getOperation()))) {
+                        logger.warn("Regra de roteamento para operação desconhecida ignorada ({}): {}",
+                                source, rule);
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+    }
+
+    private static ModelRoutingProperties disabled() {
+        ModelRoutingProperties properties = new ModelRoutingProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+}
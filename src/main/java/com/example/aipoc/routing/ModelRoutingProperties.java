@@ -0,0 +1,139 @@
+package com.example.aipoc.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model catalog and routing rules, bound from {@code ai.routing.*}:
+ *
+ * <pre>
+ * ai:
+ *   routing:
+ *     models:
+ *       '[gemini-2.5-flash-lite]':
+ *         input-cost-per-million: 0.10
+ *         output-cost-per-million: 0.40
+ *       '[gemini-2.5-pro]':
+ *         input-cost-per-million: 1.25
+ *         output-cost-per-million: 10.00
+ *         min-thinking-budget: 128
+ *         max-thinking-budget: 32768
+ *     rules:
+ *       - operation: sentiment
+ *         max-chars: 500
+ *         model: gemini-2.5-flash-lite
+ *     rules-file: config/model-routes.json
+ *     reload-interval: 5s
+ * </pre>
+ *
+ * <p>Model names contain dots, so catalog keys need the bracket notation. Rules are
+ * tried in order and the first match wins; a request no rule matches goes to
+ * {@code gemini.api.model}. When {@code rules-file} exists, its rules replace the
+ * configured ones and are read again whenever the file changes.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.routing")
+public class ModelRoutingProperties {
+
+    private boolean enabled = true;
+    private Map<String, Model> models = new LinkedHashMap<>();
+    private List<RouteRule> rules = new ArrayList<>();
+    private String rulesFile;
+    private Duration reloadInterval = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Model> getModels() {
+        return models;
+    }
+
+    public void setModels(Map<String, Model> models) {
+        this.models = models;
+    }
+
+    public List<RouteRule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<RouteRule> rules) {
+        this.rules = rules;
+    }
+
+    public String getRulesFile() {
+        return rulesFile;
+    }
+
+    public void setRulesFile(String rulesFile) {
+        this.rulesFile = rulesFile;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    /**
+     * A catalog entry: the list price of a model, in USD per million tokens, and the
+     * thinking budgets it accepts. Thought tokens are billed as output; a budget
+     * outside the range is clamped into it before the call (-1, dynamic, is always
+     * accepted), so a profile that turns thinking off still works on a model that
+     * cannot.
+     */
+    public static class Model {
+
+        private double inputCostPerMillion;
+        private double outputCostPerMillion;
+        private Integer minThinkingBudget;
+        private Integer maxThinkingBudget;
+
+        public double getInputCostPerMillion() {
+            return inputCostPerMillion;
+        }
+
+        public void setInputCostPerMillion(double inputCostPerMillion) {
+            this.inputCostPerMillion = inputCostPerMillion;
+        }
+
+        public double getOutputCostPerMillion() {
+            return outputCostPerMillion;
+        }
+
+        public void setOutputCostPerMillion(double outputCostPerMillion) {
+            this.outputCostPerMillion = outputCostPerMillion;
+        }
+
+        public Integer getMinThinkingBudget() {
+            return minThinkingBudget;
+        }
+
+        public void setMinThinkingBudget(Integer minThinkingBudget) {
+            this.minThinkingBudget = minThinkingBudget;
+        }
+
+        public Integer getMaxThinkingBudget() {
+            return maxThinkingBudget;
+        }
+
+        public void setMaxThinkingBudget(Integer maxThinkingBudget) {
+            this.maxThinkingBudget = maxThinkingBudget;
+        }
+    }
+}
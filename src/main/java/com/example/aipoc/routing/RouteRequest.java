@@ -0,0 +1,18 @@
+package com.example.aipoc.routing;
+
+import com.example.aipoc.model.AiOperation;
+
+/**
+ * What the {@link ModelRouter} knows about a request when it picks the model.
+ *
+ * @param operation  the operation asked
+ * @param inputChars the size of the caller's input (not of the rendered prompt)
+ * @param style      the requested output style, e.g. a summary's {@code detalhado};
+ *                   null when the operation has none
+ * @param tier       the caller's tier (see {@code ai.quota.clients.<id>.tier}); null
+ *                   for anonymous or untiered callers
+ * @author AI POC Team
+ * @since 1.1
+ */
+public record RouteRequest(AiOperation operation, int inputChars, String style, String tier) {
+}
@@ -0,0 +1,93 @@
+package com.example.aipoc.routing;
+
+/**
+ * A routing rule: the request profile it matches and the model it sends matching
+ * requests to. Unset conditions match anything; {@code maxChars} is inclusive.
+ *
+ * <p>Bound from {@code ai.routing.rules} (kebab-case keys) or read from the rules
+ * file (camelCase keys):
+ *
+ * <pre>
+ * {"operation": "sentiment", "maxChars": 500, "model": "gemini-2.5-flash-lite"}
+ * </pre>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class RouteRule {
+
+    private String operation;
+    private String style;
+    private String tier;
+    private int minChars;
+    private Integer maxChars;
+    private String model;
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getStyle() {
+        return style;
+    }
+
+    public void setStyle(String style) {
+        this.style = style;
+    }
+
+    public String getTier() {
+        return tier;
+    }
+
+    public void setTier(String tier) {
+        this.tier = tier;
+    }
+
+    public int getMinChars() {
+        return minChars;
+    }
+
+    public void setMinChars(int minChars) {
+        this.minChars = minChars;
+    }
+
+    public Integer getMaxChars() {
+        return maxChars;
+    }
+
+    public void setMaxChars(Integer maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    /**
+     * Checks whether a request falls under this rule.
+     *
+     * @param request the request profile
+     * @return true if every condition set on the rule holds
+     */
+    public boolean matches(RouteRequest request) {
+        return (operation == null || operation.equals(request.operation().getKey()))
+                && (style == null || style.equalsIgnoreCase(request.style()))
+                && (tier == null || tier.equals(request.tier()))
+                && request.inputChars() >= minChars
+                && (maxChars == null || request.inputChars() <= maxChars);
+    }
+
+    @Override
+    public String toString() {
+        return "RouteRule{operation=" + operation + ", style=" + style + ", tier=" + tier
+                + ", chars=" + minChars + ".." + (maxChars != null ? maxChars : "") + ", model=" + model + '}';
+    }
+}
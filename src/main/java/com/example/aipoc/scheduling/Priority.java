@@ -0,0 +1,55 @@
+package com.example.aipoc.scheduling;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Scheduling lanes for outbound Gemini calls, set per request with the
+ * {@code X-Priority} header or per endpoint in {@code ai.scheduler.endpoint-priorities}.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public enum Priority {
+
+    /** A person is waiting on the answer, e.g. chat. */
+    INTERACTIVE("interactive"),
+    /** Regular API traffic. */
+    STANDARD("standard"),
+    /** Batch jobs that can absorb delay, e.g. catalog imports. */
+    BULK("bulk");
+
+    private final String key;
+
+    Priority(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the identifier used in headers, configuration and metric tags.
+     *
+     * @return the lane key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Parses a header value, ignoring case.
+     *
+     * @param value the header value, possibly null
+     * @return the priority, or empty if the value is missing or unknown
+     */
+    public static Optional<Priority> parse(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (Priority priority : values()) {
+            if (priority.key.equals(normalized)) {
+                return Optional.of(priority);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.aipoc.scheduling;
+
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.ClientQuotaProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Orders outbound Gemini calls by priority lane and tenant.
+ *
+ * <p>At most {@code max-concurrent} calls run at once. When a slot frees, the next
+ * call is picked in two steps:
+ * <ol>
+ * <li><b>Lane</b> - weighted fair queuing: every lane has a virtual time that
+ * advances by {@code 1 / weight} per call it starts, and the waiting lane whose
+ * next call would finish first in virtual time goes next. With weights 8/3/1, interactive, standard and bulk
+ * get 8:3:1 of the slots while all three are backlogged, and an idle lane's share
+ * goes to the others. A lane that wakes up starts at the current virtual time, so
+ * idleness does not bank credit.</li>
+ * <li><b>Tenant</b> - round robin between the clients waiting in that lane (the
+ * {@link ClientLedger} client id), so one client's batch cannot starve another
+ * client in the same lane.</li>
+ * </ol>
+ *
+ * <p>A lane is skipped while it holds {@code max-share} of the slots. Bulk work
+ * therefore soaks up spare capacity, but the slots above its share stay free for
+ * interactive calls, which start without waiting for bulk calls to finish.
+ *
+ * <p>Priority and tenant are read from the Reactor context ({@link #PRIORITY_KEY},
+ * {@link ClientLedger#CONTEXT_KEY}); calls without them run as {@code standard}
+ * for the anonymous client. The queue itself is unbounded: inbound admission
+ * control already bounds how many requests can be waiting. A call whose
+ * {@link Deadline} runs out while queued leaves the queue with
+ * {@link DeadlineExceededException} instead of taking a slot it can no longer use.
+ *
+ * <h3>Meters (tagged by {@code lane}):</h3>
+ * <ul>
+ * <li>{@code ai.scheduler.queue.time} - timer of the wait for a slot</li>
+ * <li>{@code ai.scheduler.queued} and {@code ai.scheduler.in.flight} - gauges</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+public class PriorityScheduler {
+
+    /** Reactor context key holding the {@link Priority} of the current request. */
+    public static final String PRIORITY_KEY = "ai.priority";
+
+    /**
+     * Disabled scheduler that runs every call at once. Used by services created
+     * outside Spring.
+     */
+    public static final PriorityScheduler NOOP = new PriorityScheduler(disabled(), new CompositeMeterRegistry());
+
+    private final SchedulerProperties properties;
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private int inFlight;
+    private double virtualTime;
+
+    public PriorityScheduler(SchedulerProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.enabled = properties.isEnabled();
+        this.maxConcurrent = properties.getMaxConcurrent();
+        if (enabled) {
+            for (Priority priority : Priority.values()) {
+                SchedulerProperties.Lane settings = properties.lane(priority);
+                int laneLimit = Math.max(1, (int) Math.floor(maxConcurrent * settings.getMaxShare()));
+                lanes.put(priority, new Lane(priority, settings.getWeight(), laneLimit, registry));
+            }
+        }
+    }
+
+    /**
+     * Resolves the priority of a request.
+     *
+     * @param operation the operation requested
+     * @param header    the {@code X-Priority} header, possibly null
+     * @return the header priority if valid, otherwise the endpoint default
+     */
+    public Priority priorityOf(AiOperation operation, String header) {
+        return Priority.parse(header).orElseGet(() -> properties.priorityOf(operation));
+    }
+
+    /**
+     * Runs {@code call} when its lane and tenant get a slot.
+     *
+     * @param call the outbound call, subscribed only once scheduled
+     * @param <T>  the result type
+     * @return the call result
+     */
+    public <T> Mono<T> schedule(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return slot().flatMap(slot -> Mono.defer(call).doFinally(signal -> slot.release()));
+    }
+
+    /**
+     * Runs a streamed {@code call} when its lane and tenant get a slot. The slot is
+     * held until the stream ends or is cancelled.
+     *
+     * @param call the outbound streamed call, subscribed only once scheduled
+     * @param <T>  the element type
+     * @return the call's elements
+     */
+    public <T> Flux<T> scheduleMany(Supplier<Flux<T>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        return slot().flatMapMany(slot -> Flux.defer(call).doFinally(signal -> slot.release()));
+    }
+
+    private Mono<Slot> slot() {
+        return Mono.deferContextual(context -> {
+            Priority priority = context.getOrDefault(PRIORITY_KEY, Priority.STANDARD);
+            String tenant = context.getOrDefault(ClientLedger.CONTEXT_KEY, ClientQuotaProperties.ANONYMOUS);
+            Deadline deadline = Deadline.from(context).orElse(null);
+            Lane lane = lanes.get(priority);
+            return Mono.create(sink -> acquire(lane, tenant, deadline, sink));
+        });
+    }
+
+    private void acquire(Lane lane, String tenant, Deadline deadline, MonoSink<Slot> sink) {
+        if (deadline != null && deadline.isExpired()) {
+            sink.error(new DeadlineExceededException(DeadlineExceededException.Stage.SCHEDULER));
+            return;
+        }
+        Waiter waiter = new Waiter(lane, tenant, sink, System.nanoTime());
+        sink.onCancel(() -> abandon(waiter));
+        List<Waiter> granted;
+
+        lock.lock();
+        try {
+            if (lane.waiting == 0) {
+                lane.virtualTime = Math.max(lane.virtualTime, virtualTime);
+            }
+            lane.enqueue(waiter);
+            granted = dispatch();
+        } finally {
+            lock.unlock();
+        }
+        grant(granted);
+        if (deadline != null && !waiter.claimed.get()) {
+            waiter.timeout = Schedulers.parallel().schedule(() -> expire(waiter),
+                    deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release(Lane lane) {
+        List<Waiter> granted;
+        lock.lock();
+        try {
+            inFlight--;
+            lane.inFlight--;
+            granted = dispatch();
+        } finally {
+            lock.unlock();
+        }
+        grant(granted);
+    }
+
+    private void grant(List<Waiter> granted) {
+        long now = System.nanoTime();
+        for (Waiter waiter : granted) {
+            waiter.cancelTimeout();
+            waiter.lane.queueTime.record(now - waiter.arrivalNanos, TimeUnit.NANOSECONDS);
+            waiter.grant(new Slot(waiter.lane));
+        }
+    }
+
+    /**
+     * Starts waiters while there are free slots and eligible lanes. Must be called
+     * with the lock held; the returned waiters are granted after unlocking.
+     */
+    private List<Waiter> dispatch() {
+        List<Waiter> granted = List.of();
+        Waiter next;
+        while ((next = pollNext()) != null) {
+            if (granted.isEmpty()) {
+                granted = new ArrayList<>(1);
+            }
+            granted.add(next);
+        }
+        return granted;
+    }
+
+    /**
+     * Picks and starts the next waiter: among the lanes under their share, the one
+     * whose next call finishes first in virtual time.
+     */
+    private Waiter pollNext() {
+        while (inFlight < maxConcurrent) {
+            Lane chosen = null;
+            for (Lane lane : lanes.values()) {
+                if (lane.waiting > 0 && lane.inFlight < lane.maxInFlight
+                        && (chosen == null || lane.finishTime() < chosen.finishTime())) {
+                    chosen = lane;
+                }
+            }
+            if (chosen == null) {
+                return null;
+            }
+            Waiter waiter = chosen.poll();
+            if (waiter.claim()) {
+                virtualTime = chosen.virtualTime;
+                chosen.virtualTime = chosen.finishTime();
+                start(chosen);
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private void start(Lane lane) {
+        inFlight++;
+        lane.inFlight++;
+    }
+
+    private void expire(Waiter waiter) {
+        if (waiter.claim()) {
+            remove(waiter);
+            waiter.lane.queueTime.record(System.nanoTime() - waiter.arrivalNanos, TimeUnit.NANOSECONDS);
+            waiter.sink.error(new DeadlineExceededException(DeadlineExceededException.Stage.SCHEDULER));
+        }
+    }
+
+    private void abandon(Waiter waiter) {
+        if (waiter.claim()) {
+            remove(waiter);
+            waiter.cancelTimeout();
+        } else {
+            waiter.cancelled();
+        }
+    }
+
+    private void remove(Waiter waiter) {
+        lock.lock();
+        try {
+            waiter.lane.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight(Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued(Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static SchedulerProperties disabled() {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    /**
+     * One priority lane: per-tenant FIFO queues served round robin. Guarded by the
+     * scheduler lock.
+     */
+    private final class Lane {
+
+        final int weight;
+        final int maxInFlight;
+        final Timer queueTime;
+        final Map<String, Deque<Waiter>> tenants = new LinkedHashMap<>();
+        double virtualTime;
+        int inFlight;
+        int waiting;
+
+        Lane(Priority priority, int weight, int maxInFlight, MeterRegistry registry) {
+            this.weight = Math.max(1, weight);
+            this.maxInFlight = maxInFlight;
+            this.queueTime = Timer.builder("ai.scheduler.queue.time")
+                    .description("Espera por uma vaga de chamada ao Gemini")
+                    .tag("lane", priority.getKey())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            Gauge.builder("ai.scheduler.queued", PriorityScheduler.this, scheduler -> scheduler.queued(priority))
+                    .description("Chamadas ao Gemini aguardando vaga")
+                    .tag("lane", priority.getKey())
+                    .register(registry);
+            Gauge.builder("ai.scheduler.in.flight", PriorityScheduler.this, scheduler -> scheduler.inFlight(priority))
+                    .description("Chamadas ao Gemini em execução")
+                    .tag("lane", priority.getKey())
+                    .register(registry);
+        }
+
+        double finishTime() {
+            return virtualTime + 1.0 / weight;
+        }
+
+        void enqueue(Waiter waiter) {
+            tenants.computeIfAbsent(waiter.tenant, key -> new ArrayDeque<>()).addLast(waiter);
+            waiting++;
+        }
+
+        /**
+         * Takes the head of the first tenant queue and moves that tenant to the back.
+         */
+        Waiter poll() {
+            var iterator = tenants.entrySet().iterator();
+            Map.Entry<String, Deque<Waiter>> first = iterator.next();
+            iterator.remove();
+            Waiter waiter = first.getValue().pollFirst();
+            if (!first.getValue().isEmpty()) {
+                tenants.put(first.getKey(), first.getValue());
+            }
+            waiting--;
+            return waiter;
+        }
+
+        void remove(Waiter waiter) {
+            Deque<Waiter> queue = tenants.get(waiter.tenant);
+            if (queue != null && queue.remove(waiter)) {
+                waiting--;
+                if (queue.isEmpty()) {
+                    tenants.remove(waiter.tenant);
+                }
+            }
+        }
+    }
+
+    /**
+     * A running call's slot; releasing it twice has no effect.
+     */
+    private final class Slot {
+
+        private final Lane lane;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Slot(Lane lane) {
+            this.lane = lane;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                PriorityScheduler.this.release(lane);
+            }
+        }
+    }
+
+    /**
+     * A queued call. Grant, deadline expiry and cancellation race to
+     * {@link #claim()} it; a cancellation that loses to a grant hands the slot back.
+     */
+    private static final class Waiter {
+
+        final Lane lane;
+        final String tenant;
+        final MonoSink<Slot> sink;
+        final long arrivalNanos;
+        final AtomicBoolean claimed = new AtomicBoolean();
+        volatile Disposable timeout;
+        private volatile Slot slot;
+        private volatile boolean cancelled;
+
+        Waiter(Lane lane, String tenant, MonoSink<Slot> sink, long arrivalNanos) {
+            this.lane = lane;
+            this.tenant = tenant;
+            this.sink = sink;
+            this.arrivalNanos = arrivalNanos;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void grant(Slot granted) {
+            slot = granted;
+            sink.success(granted);
+            if (cancelled) {
+                granted.release();
+            }
+        }
+
+        void cancelled() {
+            cancelled = true;
+            Slot granted = slot;
+            if (granted != null) {
+                // Cancelado na corrida com a concessão: devolve a vaga
+                granted.release();
+            }
+        }
+
+        void cancelTimeout() {
+            Disposable scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.aipoc.scheduling;
+
+import com.example.aipoc.model.AiOperation;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outbound call scheduling, bound from {@code ai.scheduler.*}:
+ *
+ * <pre>
+ * ai:
+ *   scheduler:
+ *     max-concurrent: 650
+ *     lanes:
+ *       interactive: { weight: 8, max-share: 1.0 }
+ *       standard:    { weight: 3, max-share: 0.9 }
+ *       bulk:        { weight: 1, max-share: 0.6 }
+ *     endpoint-priorities:
+ *       chat: interactive
+ *       product-classification: bulk
+ * </pre>
+ *
+ * <p>{@code weight} sets each lane's share of the slots while several lanes are
+ * waiting; {@code max-share} caps the fraction of {@code max-concurrent} a lane may
+ * hold even when the others are idle, which keeps the rest reserved for the higher
+ * lanes. Operations missing from {@code endpoint-priorities} are {@code standard}.
+ * {@code max-concurrent} should match the sum of the operations' connection pools
+ * ({@code gemini.http}): with more slots than connections, calls would queue in the
+ * pools in arrival order and the lanes would stop mattering.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.scheduler")
+public class SchedulerProperties {
+
+    private boolean enabled = true;
+    private int maxConcurrent = 650;
+    private Map<Priority, Lane> lanes = defaultLanes();
+    private Map<String, Priority> endpointPriorities = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public Map<Priority, Lane> getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(Map<Priority, Lane> lanes) {
+        this.lanes = lanes;
+    }
+
+    public Map<String, Priority> getEndpointPriorities() {
+        return endpointPriorities;
+    }
+
+    public void setEndpointPriorities(Map<String, Priority> endpointPriorities) {
+        this.endpointPriorities = endpointPriorities;
+    }
+
+    /**
+     * Gets the default priority of an operation.
+     *
+     * @param operation the operation
+     * @return the configured priority, or {@link Priority#STANDARD}
+     */
+    public Priority priorityOf(AiOperation operation) {
+        return endpointPriorities.getOrDefault(operation.getKey(), Priority.STANDARD);
+    }
+
+    /**
+     * Gets the settings of a lane, falling back to weight 1 and no cap.
+     *
+     * @param priority the lane
+     * @return the lane settings
+     */
+    public Lane lane(Priority priority) {
+        return lanes.getOrDefault(priority, new Lane(1, 1.0));
+    }
+
+    private static Map<Priority, Lane> defaultLanes() {
+        Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+        lanes.put(Priority.INTERACTIVE, new Lane(8, 1.0));
+        lanes.put(Priority.STANDARD, new Lane(3, 0.9));
+        lanes.put(Priority.BULK, new Lane(1, 0.6));
+        return lanes;
+    }
+
+    /**
+     * Weight and capacity cap of one lane.
+     */
+    public static class Lane {
+
+        private int weight;
+        private double maxShare;
+
+        public Lane() {
+            this(1, 1.0);
+        }
+
+        public Lane(int weight, double maxShare) {
+            this.weight = weight;
+            this.maxShare = maxShare;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public double getMaxShare() {
+            return maxShare;
+        }
+
+        public void setMaxShare(double maxShare) {
+            this.maxShare = maxShare;
+        }
+    }
+}
@@ -1,26 +1,155 @@
 package com.example.aipoc.service;
 
+import com.example.aipoc.chat.ChatSession;
+import com.example.aipoc.chat.ChatSessionNotFoundException;
+import com.example.aipoc.chat.ChatSessionStore;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.generation.GenerationProfile;
+import com.example.aipoc.generation.GenerationProfiles;
+import com.example.aipoc.model.AiOperation;
 import com.example.aipoc.model.AiRequest;
 import com.example.aipoc.model.AiResponse;
 import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.prompt.PromptTemplate;
+import com.example.aipoc.prompt.PromptTemplates;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.scheduling.Priority;
+import com.example.aipoc.scheduling.PriorityScheduler;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * Free-form chat, stateless or in server-side sessions.
+ *
+ * <p>A request naming a {@code sessionId} (see {@link #startSession(String)}) is
+ * answered with the session's history instead of a client-sent {@code context}: the
+ * recent exchanges within {@code ai.chat.sessions.history-tokens}, verbatim, and a
+ * rolling summary of the older ones. Exchanges leaving the window are folded into
+ * the summary by a background call in the {@code bulk} lane, so the prompt, and the
+ * latency of each turn, stays flat however long the conversation runs.
+ *
+ * <p>Answers can also be streamed as they are generated (see
+ * {@link #streamMessage(AiRequest)}), for the chat WebSocket.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
 @Service
 public class AiGeneralService extends BaseGeminiService {
 
+    private static final PromptTemplate CHAT_TEMPLATE = PromptTemplates.get("chat");
+    private static final PromptTemplate CHAT_SESSION_TEMPLATE = PromptTemplates.get("chat-session");
+    private static final PromptTemplate CHAT_SUMMARY_TEMPLATE = PromptTemplates.get("chat-summary");
+
+    @Autowired(required = false)
+    protected ChatSessionStore chatSessions = ChatSessionStore.inMemory();
+
     public Mono<AiResponse> processMessage(AiRequest request) {
+        if (request.getSessionId() == null || request.getSessionId().isBlank()) {
+            return reply(request, null);
+        }
+        return Mono.deferContextual(context -> {
+            String clientId = context.getOrDefault(ClientLedger.CONTEXT_KEY, null);
+            ChatSession session = session(request, clientId);
+            ChatSession.Snapshot history = session.snapshot();
+            chatSessions.recordHistory(history.tokens());
+            return reply(request, history)
+                    .doOnNext(response -> {
+                        // Só respostas do modelo entram no histórico
+                        if (response.isSuccess() && !response.isDegraded()) {
+                            remember(session, new ChatSession.Turn(request.getMessage(), response.getResponse()),
+                                    clientId);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Streams the answer to a message as it is generated, for the chat WebSocket.
+     *
+     * <p>Each element carries the next piece of the answer in {@code response}; the
+     * last one also carries the token usage. An answer the model cuts short (token
+     * limit, safety filters) ends with an error element. Sessions work as in
+     * {@link #processMessage(AiRequest)}: a completed answer joins the history.
+     *
+     * @param request the request to answer
+     * @return the pieces of the answer
+     */
+    public Flux<AiResponse> streamMessage(AiRequest request) {
+        if (request.getSessionId() == null || request.getSessionId().isBlank()) {
+            return streamReply(request, null);
+        }
+        return Flux.deferContextual(context -> {
+            String clientId = context.getOrDefault(ClientLedger.CONTEXT_KEY, null);
+            ChatSession session = session(request, clientId);
+            ChatSession.Snapshot history = session.snapshot();
+            chatSessions.recordHistory(history.tokens());
+            StringBuilder answer = new StringBuilder();
+            boolean[] failed = {false};
+            return streamReply(request, history)
+                    .doOnNext(piece -> {
+                        if (piece.isSuccess()) {
+                            answer.append(piece.getResponse());
+                        } else {
+                            failed[0] = true;
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        // Respostas interrompidas ou canceladas não entram no histórico
+                        if (!failed[0] && !answer.isEmpty()) {
+                            remember(session, new ChatSession.Turn(request.getMessage(), answer.toString()),
+                                    clientId);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Starts a server-side chat session.
+     *
+     * @param clientId the client starting it, see {@link ClientLedger}
+     * @return the session id, to send as {@code sessionId} with each turn
+     */
+    public String startSession(String clientId) {
+        return chatSessions.create(clientId).getId();
+    }
+
+    /**
+     * Ends a server-side chat session.
+     *
+     * @param sessionId the session id
+     * @param clientId  the client asking
+     * @return whether the session existed and belonged to the client
+     */
+    public boolean endSession(String sessionId, String clientId) {
+        return chatSessions.remove(sessionId, clientId);
+    }
+
+    private ChatSession session(AiRequest request, String clientId) {
+        return chatSessions.find(request.getSessionId(), clientId)
+                .orElseThrow(() -> new ChatSessionNotFoundException(request.getSessionId()));
+    }
+
+    private Mono<AiResponse> reply(AiRequest request, ChatSession.Snapshot history) {
         logOperationStart("processamento de mensagem", request.getMessage());
 
         try {
-            String prompt = buildPrompt(request);
-            GeminiConfig config = createDefaultConfig();
-            Map<String, Object> requestBody = buildBaseRequestBody(prompt, config);
+            GenerationProfile profile = generationProfiles.resolve(AiOperation.CHAT, request.getProfile());
 
-            return callGeminiApi(requestBody, config)
-                    .map(this::parseGeminiResponse)
+            return routed(AiOperation.CHAT, inputChars(request, history), null, profile,
+                            config -> callGeminiApi(AiOperation.CHAT, buildRequest(request, history, config), config)
+                                    .map(response -> parseResponse(AiOperation.CHAT, response,
+                                            body -> parseGeminiResponse(body, servedModel(body, config.getModel())))))
+                    .onErrorResume(DeadlineExceededException.class,
+                            e -> Mono.fromSupplier(() -> degradedReply(e)))
                     .doOnNext(response -> {
                         if (response.isSuccess()) {
                             logOperationSuccess("processamento de mensagem", null, response.getTokensUsed());
@@ -37,21 +166,145 @@ public class AiGeneralService extends BaseGeminiService {
         }
     }
 
+    private Flux<AiResponse> streamReply(AiRequest request, ChatSession.Snapshot history) {
+        logOperationStart("streaming de mensagem", request.getMessage());
 
+        GenerationProfile profile = generationProfiles.resolve(AiOperation.CHAT, request.getProfile());
+        return routed(AiOperation.CHAT, inputChars(request, history), null, profile, Mono::just)
+                .flatMapMany(config -> streamGeminiApi(AiOperation.CHAT, buildRequest(request, history, config),
+                        config)
+                        .map(chunk -> parseChunk(chunk, config.getModel())))
+                // Uma peça de erro encerra a resposta
+                .takeUntil(piece -> !piece.isSuccess())
+                .doOnError(error -> handleApiError("streaming de mensagem", error,
+                        AiResponse.error("Erro ao processar solicitação")));
+    }
+
+    private static int inputChars(AiRequest request, ChatSession.Snapshot history) {
+        return request.getMessage().length()
+                + (request.getContext() != null ? request.getContext().length() : 0)
+                + (history != null ? history.tokens() * 4 : 0);
+    }
+
+    private Map<String, Object> buildRequest(AiRequest request, ChatSession.Snapshot history, GeminiConfig config) {
+        return history == null
+                ? buildPromptRequest(AiOperation.CHAT, CHAT_TEMPLATE, () -> buildPrompt(request), config)
+                : buildPromptRequest(AiOperation.CHAT, CHAT_SESSION_TEMPLATE,
+                        () -> buildSessionPrompt(request, history), config);
+    }
+
+    /**
+     * Answer served when the request deadline runs out. Free-form chat has no local
+     * fallback, so this is an error flagged as degraded, answered as
+     * {@code 504 Gateway Timeout}.
+     *
+     * @param cause where the deadline ran out
+     * @return the degraded error response
+     */
+    public AiResponse degradedReply(DeadlineExceededException cause) {
+        return degrade(AiOperation.CHAT, cause, () -> {
+            AiResponse response = AiResponse.error("Prazo da requisição esgotado antes da resposta da IA");
+            response.setDegraded(true);
+            return response;
+        });
+    }
 
     private String buildPrompt(AiRequest request) {
-        StringBuilder prompt = new StringBuilder();
+        return CHAT_TEMPLATE.render(request.getContext(), request.getMessage());
+    }
+
+    private String buildSessionPrompt(AiRequest request, ChatSession.Snapshot history) {
+        return CHAT_SESSION_TEMPLATE.render(request.getContext(), history.summary(),
+                renderTurns(history.history()), request.getMessage());
+    }
+
+    /**
+     * Appends an exchange to the session and, when exchanges left the window, folds
+     * them into the summary in the background (see {@link #compact}).
+     */
+    private void remember(ChatSession session, ChatSession.Turn turn, String clientId) {
+        int dropped = session.append(turn, chatSessions.getProperties().getHistoryTokens(),
+                chatSessions.getProperties().getMaxPendingTokens());
+        if (dropped > 0) {
+            logger.warn("Sessão {}: {} trocas descartadas sem resumo", session.getId(), dropped);
+            chatSessions.recordDropped(dropped);
+        }
+        compact(session, clientId);
+    }
 
-        if (request.getContext() != null && !request.getContext().trim().isEmpty()) {
-            prompt.append("Contexto: ").append(request.getContext()).append("\n\n");
+    /**
+     * Folds the session's pending exchanges into its summary, if any are pending and
+     * no compaction is running. The call is made as {@link AiOperation#CHAT_SUMMARY},
+     * so it has its own bulkhead, metrics and log sampling instead of counting as chat;
+     * it is billed to the session's client, runs in the {@code bulk} lane and outlives
+     * the request. Exchanges that left the window while it ran are folded by a
+     * follow-up compaction rather than waiting for the next turn; a failed one leaves
+     * them to the next turn.
+     */
+    private void compact(ChatSession session, String clientId) {
+        ChatSession.Compaction work = session.startCompaction().orElse(null);
+        if (work == null) {
+            return;
         }
 
-        prompt.append("Pergunta: ").append(request.getMessage());
+        GeminiConfig config = createConfig(generationProfiles.resolve(AiOperation.CHAT_SUMMARY,
+                GenerationProfiles.FAST));
+        Context background = Context.of(PriorityScheduler.PRIORITY_KEY, Priority.BULK);
+        if (clientId != null) {
+            background = background.put(ClientLedger.CONTEXT_KEY, clientId);
+        }
+        callGeminiApi(AiOperation.CHAT_SUMMARY, buildPromptRequest(AiOperation.CHAT_SUMMARY, CHAT_SUMMARY_TEMPLATE,
+                        () -> CHAT_SUMMARY_TEMPLATE.render(
+                                String.valueOf(chatSessions.getProperties().getSummaryMaxWords()),
+                                work.summary(), renderTurns(work.turns())), config), config)
+                .mapNotNull(this::extractContentFromResponse)
+                .defaultIfEmpty("")
+                .contextWrite(background)
+                .subscribe(summary -> {
+                    if (summary.isBlank()) {
+                        session.abortCompaction();
+                        chatSessions.recordCompaction(false);
+                    } else {
+                        session.finishCompaction(work, summary.strip());
+                        chatSessions.recordCompaction(true);
+                        compact(session, clientId);
+                    }
+                }, error -> {
+                    logger.debug("Resumo da sessão {} falhou: {}", session.getId(), error.getMessage());
+                    session.abortCompaction();
+                    chatSessions.recordCompaction(false);
+                });
+    }
+
+    private static String renderTurns(List<ChatSession.Turn> turns) {
+        return turns.stream()
+                .map(turn -> "Usuário: " + turn.message() + "\nAssistente: " + turn.reply())
+                .collect(Collectors.joining("\n\n"));
+    }
 
-        return prompt.toString();
+    /**
+     * Reads one chunk of a streamed answer: the text of its parts, and the finish
+     * reason and token usage when it is the last one.
+     */
+    private AiResponse parseChunk(String chunk, String requested) {
+        try {
+            JsonNode candidate = objectMapper.readTree(chunk).path("candidates").path(0);
+            if (candidate.has("finishReason") && !isValidResponse(candidate)) {
+                return AiResponse.error("Resposta interrompida pela IA: " + candidate.path("finishReason").asText());
+            }
+            StringBuilder text = new StringBuilder();
+            for (JsonNode part : candidate.path("content").path("parts")) {
+                if (!part.path("thought").asBoolean(false)) {
+                    text.append(part.path("text").asText(""));
+                }
+            }
+            return new AiResponse(text.toString(), servedModel(chunk, requested), extractTokenUsage(chunk));
+        } catch (Exception e) {
+            return handleApiError("parsing de trecho da IA", e, AiResponse.error("Erro ao processar resposta da IA"));
+        }
     }
 
-    private AiResponse parseGeminiResponse(String responseBody) {
+    private AiResponse parseGeminiResponse(String responseBody, String model) {
         try {
             String content = extractContentFromResponse(responseBody);
             
@@ -61,7 +314,7 @@ public class AiGeneralService extends BaseGeminiService {
             }
 
             int tokensUsed = extractTokenUsage(responseBody);
-            return new AiResponse(content, defaultModel, tokensUsed);
+            return new AiResponse(content, model, tokensUsed);
 
         } catch (Exception e) {
             return handleApiError("parsing de resposta da IA", e, 
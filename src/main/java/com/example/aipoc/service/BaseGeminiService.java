@@ -1,18 +1,60 @@
 package com.example.aipoc.service;
 
+import com.example.aipoc.cache.ResultCache;
+import com.example.aipoc.config.GeminiBulkheads;
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.deadline.SlaBackgroundCalls;
+import com.example.aipoc.deadline.SlaProperties;
+import com.example.aipoc.generation.GenerationProfile;
+import com.example.aipoc.generation.GenerationProfiles;
+import com.example.aipoc.jfr.FallbackUsedEvent;
+import com.example.aipoc.jfr.GeminiCallEvent;
+import com.example.aipoc.jfr.PromptBuildEvent;
+import com.example.aipoc.jfr.ResponseParseEvent;
+import com.example.aipoc.logging.LazyPayload;
+import com.example.aipoc.logging.LogSampler;
+import com.example.aipoc.metrics.GeminiMetrics;
+import com.example.aipoc.model.AiOperation;
 import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.model.TokenUsage;
+import com.example.aipoc.prompt.PromptTemplate;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.routing.CascadeProperties;
+import com.example.aipoc.routing.ModelFallbacks;
+import com.example.aipoc.routing.ModelRouter;
+import com.example.aipoc.routing.RouteRequest;
+import com.example.aipoc.scheduling.PriorityScheduler;
+import com.example.aipoc.tracing.AiObservations;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Abstract base class for services that interact with the Gemini API.
@@ -23,7 +65,15 @@ import java.util.Map;
  * <li>WebClient operations with standardized error handling</li>
  * <li>Request building with consistent structure</li>
  * <li>Response parsing with validation</li>
- * <li>Centralized logging and monitoring</li>
+ * <li>Centralized logging and metrics (see {@link GeminiMetrics})</li>
+ * <li>Tracing and Flight Recorder events for each request stage</li>
+ * <li>Per-client token accounting (see {@link ClientLedger})</li>
+ * <li>Request deadlines bounding the upstream call (see {@link Deadline})</li>
+ * <li>Result caching and latency SLAs with a local answer (see {@link ResultCache},
+ * {@link SlaProperties})</li>
+ * <li>Per-request model routing and cost tracking (see {@link ModelRouter}), and
+ * confidence cascades across models (see {@link CascadeProperties})</li>
+ * <li>Streamed calls, chunk by chunk (see {@link #streamGeminiApi})</li>
  * <li>Configuration management</li>
  * </ul>
  * 
@@ -34,14 +84,14 @@ import java.util.Map;
  * public class MyAiService extends BaseGeminiService {
  * 
  *     public Mono<MyResponse> processRequest(MyRequest request) {
- *         logOperationStart("my operation", request.getInput());
+ *         logOperationStart("my operation", () -> request.getInput());
  * 
  *         try {
  *             String prompt = buildMyPrompt(request);
  *             GeminiConfig config = createConfig(0.7, 1000);
  *             Map<String, Object> requestBody = buildBaseRequestBody(prompt, config);
  * 
- *             return callGeminiApi(requestBody, config)
+ *             return callGeminiApi(AiOperation.CHAT, requestBody, config)
  *                     .map(this::parseMyResponse)
  *                     .onErrorReturn(handleApiError("my operation",
  *                             new RuntimeException("Error"),
@@ -85,6 +135,9 @@ public abstract class BaseGeminiService {
     @Autowired
     protected WebClient geminiWebClient;
 
+    @Autowired(required = false)
+    protected GeminiBulkheads geminiBulkheads;
+
     @Value("${gemini.api.model}")
     protected String defaultModel;
 
@@ -97,50 +150,95 @@ public abstract class BaseGeminiService {
     @Value("${gemini.api.key}")
     protected String defaultApiKey;
 
+    @Value("${gemini.api.blocking-timeout:60s}")
+    protected Duration blockingTimeout;
+
+    /** Below this much time left a call is not started; the degraded answer is served instead. */
+    @Value("${ai.deadline.min-upstream:100ms}")
+    protected Duration minUpstreamBudget = Duration.ofMillis(100);
+
+    @Autowired(required = false)
+    protected LogSampler logSampler = new LogSampler();
+
+    @Autowired(required = false)
+    protected GeminiMetrics metrics = GeminiMetrics.NOOP;
+
+    @Autowired(required = false)
+    protected ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    @Autowired(required = false)
+    protected ClientLedger clientLedger = ClientLedger.NOOP;
+
+    @Autowired(required = false)
+    protected PriorityScheduler priorityScheduler = PriorityScheduler.NOOP;
+
+    @Autowired(required = false)
+    protected ResultCache resultCache = ResultCache.NOOP;
+
+    @Autowired(required = false)
+    protected SlaProperties slaProperties = new SlaProperties();
+
+    @Autowired(required = false)
+    protected SlaBackgroundCalls slaBackgroundCalls = SlaBackgroundCalls.DEFAULT;
+
+    @Autowired(required = false)
+    protected ModelRouter modelRouter = ModelRouter.NOOP;
+
+    @Autowired(required = false)
+    protected CascadeProperties cascadeProperties = new CascadeProperties();
+
+    @Autowired(required = false)
+    protected ModelFallbacks modelFallbacks = ModelFallbacks.NOOP;
+
+    @Autowired(required = false)
+    protected GenerationProfiles generationProfiles = GenerationProfiles.NOOP;
+
     protected final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final String API_KEY_HEADER = "x-goog-api-key";
+
+    private static final int MAX_LOGGED_PAYLOAD_CHARS = 1000;
+
     /**
      * Makes a call to the Gemini API with the provided request body using default
      * configuration.
      *
+     * @param operation   The operation on whose behalf the call is made
      * @param requestBody The request body to send to the API
      * @return A Mono containing the response body as a String
      */
-    protected Mono<String> callGeminiApi(Map<String, Object> requestBody) {
-        return callGeminiApi(requestBody, createDefaultConfig());
+    protected Mono<String> callGeminiApi(AiOperation operation, Map<String, Object> requestBody) {
+        return callGeminiApi(operation, requestBody, createDefaultConfig());
     }
 
     /**
      * Makes a call to the Gemini API with the provided request body.
      *
+     * <p>Request and response payloads are only logged for requests picked by the
+     * {@link LogSampler} (at INFO), when DEBUG is enabled, or when the call fails.
+     *
+     * <p>When the request carries a {@link Deadline}, the call is not started with
+     * less than {@code ai.deadline.min-upstream} left, and is aborted when the
+     * deadline passes; both fail with {@link DeadlineExceededException}.
+     *
+     * @param operation   The operation on whose behalf the call is made
      * @param requestBody The request body to send to the API
      * @param config      The configuration to use for this API call
      * @return A Mono containing the response body as a String
      */
-    protected Mono<String> callGeminiApi(Map<String, Object> requestBody, GeminiConfig config) {
+    protected Mono<String> callGeminiApi(AiOperation operation, Map<String, Object> requestBody, GeminiConfig config) {
         try {
-            String endpoint = "/models/" + config.getModel() + ":generateContent?key=" + config.getApiKey();
-
-            // Use standardized logging
-            logApiRequest(endpoint, requestBody);
-
-            long startTime = System.currentTimeMillis();
-
-            return geminiWebClient
-                    .post()
-                    .uri(endpoint)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnNext(response -> {
-                        logApiResponse(response);
-                        long duration = System.currentTimeMillis() - startTime;
-                        logger.debug("Chamada API concluída em {}ms", duration);
-                    })
-                    .doOnError(error -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        logger.error("Erro na chamada API após {}ms: {}", duration, error.getMessage());
-                    });
+            boolean sampled = logSampler.sample(operation.getKey());
+            // Serializado aqui (e não pelo encoder do WebClient) para conhecer o tamanho enviado
+            byte[] payload = objectMapper.writeValueAsBytes(requestBody);
+
+            logApiRequest(operation, endpointOf(config), requestBody, sampled);
+            List<String> models = modelFallbacks.chain(operation, config.getModel());
+
+            // A espera na fila de prioridade fica fora do span da chamada ao Gemini; os
+            // modelos de fallback são tentados dentro da mesma vaga
+            return priorityScheduler.schedule(() -> callInOrder(operation, requestBody, payload, config, models, 0,
+                    sampled));
 
         } catch (Exception e) {
             logger.error("Erro na construção de requisição API: {}", e.getMessage());
@@ -151,11 +249,488 @@ public abstract class BaseGeminiService {
         }
     }
 
+    /**
+     * Tries the call on each model of {@code models} in turn, moving on when a model
+     * is overloaded or out of quota (see {@link ModelFallbacks}).
+     */
+    private Mono<String> callInOrder(AiOperation operation, Map<String, Object> requestBody, byte[] payload,
+                                     GeminiConfig config, List<String> models, int index, boolean sampled) {
+        GeminiConfig attempt = config.withModel(models.get(index));
+        Mono<String> call;
+        try {
+            call = callModel(operation, requestBody, payloadFor(requestBody, payload, attempt), attempt, sampled);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        if (models.size() == 1) {
+            return call;
+        }
+        return call.onErrorResume(ModelFallbacks::isOverload, error -> {
+            modelFallbacks.coolDown(operation, attempt.getModel(), error);
+            if (index + 1 == models.size()) {
+                return Mono.error(error);
+            }
+            logger.warn("Modelo {} indisponível para {} ({}): tentando {}", attempt.getModel(), operation.getKey(),
+                    error.getMessage(), models.get(index + 1));
+            return callInOrder(operation, requestBody, payload, config, models, index + 1, sampled);
+        });
+    }
+
+    /**
+     * Gets the payload sent to the attempt's model: the serialized body as is, or a
+     * copy whose thinking budget is fitted to the model (see
+     * {@link ModelRouter#thinkingBudget}), since a fallback may go to a model that
+     * does not accept the budget of the first one.
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] payloadFor(Map<String, Object> requestBody, byte[] payload, GeminiConfig attempt)
+            throws JsonProcessingException {
+        if (!(requestBody.get("generationConfig") instanceof Map<?, ?> generationConfig)
+                || !(generationConfig.get("thinkingConfig") instanceof Map<?, ?> thinkingConfig)
+                || !(thinkingConfig.get("thinkingBudget") instanceof Integer budget)) {
+            return payload;
+        }
+        Integer fitted = modelRouter.thinkingBudget(attempt.getModel(), budget);
+        if (budget.equals(fitted)) {
+            return payload;
+        }
+        logger.debug("Orçamento de raciocínio {} fora da faixa de {}: enviando {}", budget, attempt.getModel(),
+                fitted);
+        Map<String, Object> fittedThinking = new HashMap<>((Map<String, Object>) thinkingConfig);
+        fittedThinking.put("thinkingBudget", fitted);
+        Map<String, Object> fittedConfig = new HashMap<>((Map<String, Object>) generationConfig);
+        fittedConfig.put("thinkingConfig", fittedThinking);
+        Map<String, Object> fittedBody = new HashMap<>(requestBody);
+        fittedBody.put("generationConfig", fittedConfig);
+        return objectMapper.writeValueAsBytes(fittedBody);
+    }
+
+    /**
+     * Makes one call to one model, traced as a {@link AiObservations#GEMINI_CALL}.
+     */
+    private Mono<String> callModel(AiOperation operation, Map<String, Object> requestBody, byte[] payload,
+                                   GeminiConfig config, boolean sampled) {
+        String endpoint = endpointOf(config);
+        return checkBudget(AiObservations.observe(observationRegistry,
+                AiObservations.GEMINI_CALL, operation,
+                () -> Mono.deferContextual(context -> {
+                    Deadline deadline = Deadline.from(context).orElse(null);
+                    Observation observation = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+                    if (observation != null) {
+                        observation.lowCardinalityKeyValue("gemini.model", config.getModel());
+                    }
+                    String clientId = context.getOrDefault(ClientLedger.CONTEXT_KEY, null);
+                    GeminiCallEvent event = new GeminiCallEvent();
+                    event.begin();
+                    long startTime = System.nanoTime();
+                    GeminiMetrics.Call inFlight = metrics.callStarted(operation);
+
+                    return webClient(operation)
+                            .post()
+                            .uri(endpoint)
+                            .header(API_KEY_HEADER, config.getApiKey())
+                            .bodyValue(payload)
+                            .retrieve()
+                            .bodyToMono(byte[].class)
+                            .transform(call -> boundByDeadline(call, deadline))
+                            .map(bytes -> {
+                                long duration = System.nanoTime() - startTime;
+                                String response = new String(bytes, StandardCharsets.UTF_8);
+                                TokenUsage usage = extractUsageMetadata(response);
+                                inFlight.finish(config.getModel(), GeminiMetrics.OUTCOME_SUCCESS, duration);
+                                metrics.recordUsage(operation, config.getModel(), usage);
+                                modelRouter.recordUsage(operation, config.getModel(), usage);
+                                clientLedger.recordUsage(clientId, usage);
+                                event.complete(operation, config.getModel(), GeminiMetrics.OUTCOME_SUCCESS,
+                                        payload.length, bytes.length, usage);
+                                tagCallObservation(observation, usage, response);
+                                logApiResponse(operation, config, duration / 1_000_000, response, sampled);
+                                return response;
+                            })
+                            .doOnError(error -> {
+                                long duration = System.nanoTime() - startTime;
+                                String outcome = GeminiMetrics.outcomeOf(error);
+                                if (!inFlight.finish(config.getModel(), outcome, duration)) {
+                                    return;
+                                }
+                                event.complete(operation, config.getModel(), outcome,
+                                        payload.length, 0, TokenUsage.EMPTY);
+                                if (error instanceof DeadlineExceededException) {
+                                    // Abortada por prazo: como no cancelamento, os tokens não são gastos
+                                    logger.debug("Chamada ao Gemini abortada por prazo: operation={}",
+                                            operation.getKey());
+                                    metrics.recordCancelled(operation);
+                                } else {
+                                    logApiFailure(operation, config, duration / 1_000_000, requestBody, error);
+                                }
+                            })
+                            .doOnCancel(() -> {
+                                // Cancelamento depois da resposta (ex.: timeout mais abaixo) não conta de novo
+                                if (!inFlight.finish(config.getModel(), GeminiMetrics.OUTCOME_CANCELLED,
+                                        System.nanoTime() - startTime)) {
+                                    return;
+                                }
+                                // Cliente desistiu: o cancelamento aborta a requisição HTTP e libera a conexão
+                                logger.debug("Chamada ao Gemini cancelada pelo cliente: operation={}",
+                                        operation.getKey());
+                                metrics.recordCancelled(operation);
+                                event.complete(operation, config.getModel(), GeminiMetrics.OUTCOME_CANCELLED,
+                                        payload.length, 0, TokenUsage.EMPTY);
+                            });
+                }),
+                null));
+    }
+
+    private static String endpointOf(GeminiConfig config) {
+        return "/models/" + config.getModel() + ":generateContent";
+    }
+
+    /**
+     * Makes a streamed call to the Gemini API ({@code streamGenerateContent} with
+     * server-sent events), emitting each chunk of the answer as it arrives.
+     *
+     * <p>Each chunk is a complete response body holding the next piece of the text;
+     * the last one carries the finish reason and the token usage. The call holds its
+     * {@link PriorityScheduler} slot until the stream ends, and falls back to the
+     * next model on overload like {@link #callGeminiApi(AiOperation, Map, GeminiConfig)}:
+     * those errors come with the response status, before any chunk. Reading follows
+     * the subscriber's demand, so a slow consumer slows the upstream read instead of
+     * buffering the answer; cancelling aborts the HTTP request. Each model tried is
+     * traced as a {@link AiObservations#GEMINI_CALL} and, as in the unary call, not
+     * started with less than {@code ai.deadline.min-upstream} left on the request's
+     * {@link Deadline}.
+     *
+     * @param operation   The operation on whose behalf the call is made
+     * @param requestBody The request body to send to the API
+     * @param config      The configuration to use for this API call
+     * @return A Flux of response chunks, as Strings
+     */
+    protected Flux<String> streamGeminiApi(AiOperation operation, Map<String, Object> requestBody,
+                                           GeminiConfig config) {
+        try {
+            boolean sampled = logSampler.sample(operation.getKey());
+            byte[] payload = objectMapper.writeValueAsBytes(requestBody);
+
+            logApiRequest(operation, streamEndpointOf(config), requestBody, sampled);
+            List<String> models = modelFallbacks.chain(operation, config.getModel());
+
+            return priorityScheduler.scheduleMany(() -> streamInOrder(operation, requestBody, payload, config, models,
+                    0, sampled));
+
+        } catch (Exception e) {
+            logger.error("Erro na construção de requisição API: {}", e.getMessage());
+            return Flux.error(e);
+        }
+    }
+
+    private Flux<String> streamInOrder(AiOperation operation, Map<String, Object> requestBody, byte[] payload,
+                                       GeminiConfig config, List<String> models, int index, boolean sampled) {
+        GeminiConfig attempt = config.withModel(models.get(index));
+        Flux<String> call;
+        try {
+            call = streamModel(operation, requestBody, payloadFor(requestBody, payload, attempt), attempt, sampled);
+        } catch (JsonProcessingException e) {
+            return Flux.error(e);
+        }
+        if (models.size() == 1) {
+            return call;
+        }
+        return call.onErrorResume(ModelFallbacks::isOverload, error -> {
+            modelFallbacks.coolDown(operation, attempt.getModel(), error);
+            if (index + 1 == models.size()) {
+                return Flux.error(error);
+            }
+            logger.warn("Modelo {} indisponível para {} ({}): tentando {}", attempt.getModel(), operation.getKey(),
+                    error.getMessage(), models.get(index + 1));
+            return streamInOrder(operation, requestBody, payload, config, models, index + 1, sampled);
+        });
+    }
+
+    /**
+     * Makes one streamed call to one model. Metrics, usage and the
+     * {@link GeminiCallEvent} are recorded once the stream ends, from the last chunk.
+     */
+    private Flux<String> streamModel(AiOperation operation, Map<String, Object> requestBody, byte[] payload,
+                                     GeminiConfig config, boolean sampled) {
+        return checkBudget(AiObservations.observeMany(observationRegistry,
+                AiObservations.GEMINI_CALL, operation,
+                () -> Flux.deferContextual(context -> {
+                    Observation observation = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+                    if (observation != null) {
+                        observation.lowCardinalityKeyValue("gemini.model", config.getModel());
+                    }
+                    String clientId = context.getOrDefault(ClientLedger.CONTEXT_KEY, null);
+                    GeminiCallEvent event = new GeminiCallEvent();
+                    event.begin();
+                    long startTime = System.nanoTime();
+                    GeminiMetrics.Call inFlight = metrics.callStarted(operation);
+                    // Sinais de um Flux são serializados: bastam holders simples para o estado do stream
+                    String[] last = {null};
+                    long[] received = {0};
+                    long[] answerChars = {0};
+
+                    return webClient(operation)
+                            .post()
+                            .uri(streamEndpointOf(config))
+                            .header(API_KEY_HEADER, config.getApiKey())
+                            .bodyValue(payload)
+                            .retrieve()
+                            .bodyToFlux(String.class)
+                            .doOnNext(chunk -> {
+                                last[0] = chunk;
+                                received[0] += chunk.length();
+                                answerChars[0] += answerCharsOf(chunk);
+                            })
+                            .doOnComplete(() -> {
+                                long duration = System.nanoTime() - startTime;
+                                String response = last[0] != null ? last[0] : "";
+                                TokenUsage usage = extractUsageMetadata(response);
+                                if (!inFlight.finish(config.getModel(), GeminiMetrics.OUTCOME_SUCCESS, duration)) {
+                                    return;
+                                }
+                                metrics.recordUsage(operation, config.getModel(), usage);
+                                modelRouter.recordUsage(operation, config.getModel(), usage);
+                                clientLedger.recordUsage(clientId, usage);
+                                event.complete(operation, config.getModel(), GeminiMetrics.OUTCOME_SUCCESS,
+                                        payload.length, received[0], usage);
+                                tagCallObservation(observation, usage, response);
+                                logApiResponse(operation, config, duration / 1_000_000, response, sampled);
+                            })
+                            .doOnError(error -> {
+                                long duration = System.nanoTime() - startTime;
+                                String outcome = GeminiMetrics.outcomeOf(error);
+                                if (!inFlight.finish(config.getModel(), outcome, duration)) {
+                                    return;
+                                }
+                                event.complete(operation, config.getModel(), outcome, payload.length, received[0],
+                                        TokenUsage.EMPTY);
+                                logApiFailure(operation, config, duration / 1_000_000, requestBody, error);
+                            })
+                            .doOnCancel(() -> {
+                                if (!inFlight.finish(config.getModel(), GeminiMetrics.OUTCOME_CANCELLED,
+                                        System.nanoTime() - startTime)) {
+                                    return;
+                                }
+                                logger.debug("Chamada em streaming ao Gemini cancelada: operation={}",
+                                        operation.getKey());
+                                // Mesma estimativa de 4 caracteres por token das sessões de chat
+                                metrics.recordCancelled(operation, (answerChars[0] + 3) / 4);
+                                event.complete(operation, config.getModel(), GeminiMetrics.OUTCOME_CANCELLED,
+                                        payload.length, received[0], TokenUsage.EMPTY);
+                            });
+                })));
+    }
+
+    /**
+     * Counts the answer characters in one streamed chunk, thoughts excluded.
+     */
+    private long answerCharsOf(String chunk) {
+        try {
+            long chars = 0;
+            for (JsonNode part : objectMapper.readTree(chunk).path("candidates").path(0).path("content")
+                    .path("parts")) {
+                if (!part.path("thought").asBoolean(false)) {
+                    chars += part.path("text").asText("").length();
+                }
+            }
+            return chars;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static String streamEndpointOf(GeminiConfig config) {
+        return "/models/" + config.getModel() + ":streamGenerateContent?alt=sse";
+    }
+
+    /**
+     * Fails with {@link DeadlineExceededException} instead of starting {@code call}
+     * when the request's deadline leaves less than {@code ai.deadline.min-upstream}.
+     */
+    private <T> Mono<T> checkBudget(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.from(context).orElse(null);
+            if (deadline != null && deadline.remaining().compareTo(minUpstreamBudget) < 0) {
+                // Sem tempo para uma resposta útil: nem chega a chamar o Gemini
+                return Mono.error(new DeadlineExceededException(DeadlineExceededException.Stage.UPSTREAM));
+            }
+            return call;
+        });
+    }
+
+    /**
+     * Fails with {@link DeadlineExceededException} instead of starting a streamed
+     * {@code call}, like {@link #checkBudget(Mono)}.
+     */
+    private <T> Flux<T> checkBudget(Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            Deadline deadline = Deadline.from(context).orElse(null);
+            if (deadline != null && deadline.remaining().compareTo(minUpstreamBudget) < 0) {
+                return Flux.error(new DeadlineExceededException(DeadlineExceededException.Stage.UPSTREAM));
+            }
+            return call;
+        });
+    }
+
+    /**
+     * Aborts {@code call} when the deadline passes. The connection's own response
+     * timeout still applies; whichever is shorter wins.
+     */
+    private static <T> Mono<T> boundByDeadline(Mono<T> call, Deadline deadline) {
+        if (deadline == null) {
+            return call;
+        }
+        return call.timeout(deadline.remaining(),
+                Mono.error(() -> new DeadlineExceededException(DeadlineExceededException.Stage.UPSTREAM)));
+    }
+
+    /**
+     * Answers from the {@link ResultCache} when it can, otherwise from {@code call},
+     * storing the answer if {@code cacheable} accepts it. The request span gets an
+     * {@code ai.cache} attribute ({@code hit} or {@code miss}).
+     *
+     * <p>When the operation has an SLA (see {@link SlaProperties}) the call is raced
+     * against it: if Gemini has not answered within the SLA, capped by the request
+     * {@link Deadline}, or fails first, {@code local} is served and counted on
+     * {@code ai.sla.missed}. The call itself is detached from the request and runs on
+     * in the background under its own deadline, so its answer still reaches the
+     * cache; identical requests share it, and when {@link SlaBackgroundCalls} is full
+     * it is not detached and ends with the request.
+     *
+     * @param operation The operation being answered
+     * @param input     The normalized input, used as cache key
+     * @param type      The answer type
+     * @param call      The Gemini call and parsing
+     * @param cacheable Whether an answer of the call may be cached
+     * @param local     Builds the local answer, flagged as degraded
+     * @param <T>       The answer type
+     * @return The cached, model or local answer
+     */
+    protected <T> Mono<T> cachedWithinSla(AiOperation operation, String input, Class<T> type, Mono<T> call,
+            Predicate<T> cacheable, Supplier<T> local) {
+        return Mono.deferContextual(context -> {
+            Optional<T> cached = resultCache.get(operation, input, type);
+            Observation observation = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+            if (observation != null) {
+                observation.highCardinalityKeyValue("ai.cache", cached.isPresent() ? "hit" : "miss");
+            }
+            if (cached.isPresent()) {
+                return Mono.just(cached.get());
+            }
+
+            Mono<T> caching = call.doOnNext(answer -> {
+                if (cacheable.test(answer)) {
+                    resultCache.put(operation, input, answer);
+                }
+            });
+            Duration sla = slaProperties.slaOf(operation).orElse(null);
+            if (sla == null) {
+                return caching;
+            }
+
+            Duration wait = Deadline.from(context).map(deadline -> deadline.cap(sla)).orElse(sla);
+            // Desacoplada da requisição (com prazo próprio) para aquecer o cache; sem vaga, a
+            // chamada fica presa à requisição e é cancelada junto com ela
+            Mono<T> answer = slaBackgroundCalls
+                    .detach(operation, operation.getKey() + "\u0000" + input, context, () -> caching)
+                    .orElse(caching);
+            return answer
+                    .timeout(wait)
+                    .onErrorResume(error -> Mono.fromSupplier(() -> {
+                        String reason = error instanceof TimeoutException ? "timeout" : "error";
+                        logger.debug("SLA de {} perdido ({}): servindo resposta local", operation.getKey(), reason);
+                        metrics.recordSlaMissed(operation, reason);
+                        return local.get();
+                    }));
+        });
+    }
+
+    /**
+     * Serves the degraded answer of a request whose deadline ran out, counting it
+     * on {@code ai.deadline.exceeded}.
+     *
+     * @param operation The operation that ran out of time
+     * @param cause     Where the deadline ran out
+     * @param degraded  Builds the local answer
+     * @param <T>       The response type
+     * @return The degraded answer
+     */
+    protected <T> T degrade(AiOperation operation, DeadlineExceededException cause, Supplier<T> degraded) {
+        logger.debug("Prazo esgotado em {} ({}): servindo resposta degradada",
+                operation.getKey(), cause.getStage().getTag());
+        metrics.recordDeadlineExceeded(operation, cause.getStage());
+        return degraded.get();
+    }
+
+    /**
+     * Gets the client bound to the operation's bulkhead, or the shared client when
+     * the service was created outside Spring.
+     *
+     * @param operation the operation making the call
+     * @return the client to call Gemini with
+     */
+    protected WebClient webClient(AiOperation operation) {
+        return geminiBulkheads != null ? geminiBulkheads.client(operation) : geminiWebClient;
+    }
+
+    /**
+     * Blocking variant of {@link #callGeminiApi(AiOperation, Map, GeminiConfig)}.
+     *
+     * <p>Intended for callers running on virtual threads (see the
+     * {@code virtual-threads} profile), where waiting parks the virtual thread
+     * instead of holding a platform thread.
+     *
+     * @param operation   The operation on whose behalf the call is made
+     * @param requestBody The request body to send to the API
+     * @param config      The configuration to use for this API call
+     * @return The response body as a String
+     */
+    protected String callGeminiApiBlocking(AiOperation operation, Map<String, Object> requestBody,
+                                           GeminiConfig config) {
+        return awaitBlocking(callGeminiApi(operation, requestBody, config));
+    }
+
+    /**
+     * Waits for the result of a service operation, bounded by
+     * {@code gemini.api.blocking-timeout}.
+     *
+     * <p>Reactor refuses to block on event-loop threads and throws
+     * {@link IllegalStateException} in that case, so this must only be used from
+     * request threads (virtual or platform), never from inside a reactive chain.
+     *
+     * @param result The asynchronous result to wait for
+     * @param <T>    The result type
+     * @return The result value, or null if the Mono completes empty
+     */
+    protected <T> T awaitBlocking(Mono<T> result) {
+        return blockingTimeout != null ? result.block(blockingTimeout) : result.block();
+    }
+
+    /**
+     * Waits for the result of a service operation run under {@code deadline}.
+     *
+     * <p>The deadline travels in the Reactor context like one read from the request
+     * headers, so every stage honours it and the operation answers with its local
+     * degraded result once it runs out; {@code gemini.api.blocking-timeout} stays the
+     * hard ceiling on the wait.
+     *
+     * @param result   The asynchronous result to wait for
+     * @param deadline The caller's deadline, possibly null
+     * @param <T>      The result type
+     * @return The result value, or null if the Mono completes empty
+     */
+    protected <T> T awaitBlocking(Mono<T> result, Deadline deadline) {
+        return awaitBlocking(deadline != null
+                ? result.contextWrite(Context.of(Deadline.CONTEXT_KEY, deadline))
+                : result);
+    }
+
     /**
      * Builds the base request body structure for Gemini API calls.
      *
      * @param prompt The text prompt to send to the API
-     * @param config The configuration containing temperature and max tokens
+     * @param config The configuration containing temperature, max tokens, thinking
+     *               budget and stop sequences
      * @return A Map representing the request body
      */
     protected Map<String, Object> buildBaseRequestBody(String prompt, GeminiConfig config) {
@@ -165,6 +740,12 @@ public abstract class BaseGeminiService {
         Map<String, Object> generationConfig = new HashMap<>();
         generationConfig.put("temperature", config.getTemperature());
         generationConfig.put("maxOutputTokens", config.getMaxTokens());
+        if (config.getThinkingBudget() != null) {
+            generationConfig.put("thinkingConfig", Map.of("thinkingBudget", config.getThinkingBudget()));
+        }
+        if (!config.getStopSequences().isEmpty()) {
+            generationConfig.put("stopSequences", config.getStopSequences());
+        }
         requestBody.put("generationConfig", generationConfig);
 
         // Content structure
@@ -234,6 +815,7 @@ public abstract class BaseGeminiService {
      */
     protected boolean isValidResponse(JsonNode candidate) {
         String finishReason = candidate.path("finishReason").asText();
+        metrics.recordFinishReason(finishReason);
 
         if ("MAX_TOKENS".equals(finishReason)) {
             logValidationWarning("validação de resposta", "Resposta truncada devido ao limite de tokens");
@@ -322,13 +904,28 @@ public abstract class BaseGeminiService {
     /**
      * Logs the start of an AI operation with consistent formatting.
      *
+     * <p>Logged at DEBUG only: request details usually carry user input, which
+     * should not be written on every request.
+     *
      * @param operation The operation being started
      * @param details   Additional details about the operation
      */
     protected void logOperationStart(String operation, String details) {
-        logger.info("Iniciando operação [{}]: {}", operation, details);
         if (logger.isDebugEnabled()) {
-            logger.debug("Detalhes da operação [{}]: {}", operation, details);
+            logger.debug("Iniciando operação [{}]: {}", operation, details);
+        }
+    }
+
+    /**
+     * Logs the start of an AI operation, building the details only when DEBUG is
+     * enabled.
+     *
+     * @param operation The operation being started
+     * @param details   Supplier of additional details about the operation
+     */
+    protected void logOperationStart(String operation, Supplier<String> details) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Iniciando operação [{}]: {}", operation, details.get());
         }
     }
 
@@ -340,6 +937,10 @@ public abstract class BaseGeminiService {
      * @param tokensUsed The number of tokens used (optional, can be null)
      */
     protected void logOperationSuccess(String operation, Long duration, Integer tokensUsed) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+
         StringBuilder message = new StringBuilder();
         message.append("Operação [").append(operation).append("] concluída com sucesso");
 
@@ -355,41 +956,70 @@ public abstract class BaseGeminiService {
     }
 
     /**
-     * Logs API request details in debug mode with consistent formatting.
+     * Logs an outgoing API request. Sampled requests are logged at INFO with the
+     * full (truncated) payload; otherwise only at DEBUG. The payload is serialized
+     * lazily, when the event is rendered.
      *
+     * @param operation   The operation on whose behalf the call is made
      * @param endpoint    The API endpoint being called
      * @param requestBody The request body (will be truncated if too long)
+     * @param sampled     Whether this request was picked for payload capture
      */
-    protected void logApiRequest(String endpoint, Map<String, Object> requestBody) {
-        if (logger.isDebugEnabled()) {
-            try {
-                String requestJson = objectMapper.writeValueAsString(requestBody);
-                // Truncate long requests for readability
-                if (requestJson.length() > 1000) {
-                    requestJson = requestJson.substring(0, 1000) + "... [truncated]";
-                }
-                logger.debug("Chamando endpoint Gemini: {}", endpoint);
-                logger.debug("Request body: {}", requestJson);
-            } catch (Exception e) {
-                logger.debug("Chamando endpoint Gemini: {} (erro ao serializar request body)", endpoint);
-            }
+    protected void logApiRequest(AiOperation operation, String endpoint, Map<String, Object> requestBody,
+                                 boolean sampled) {
+        if (!sampled && !logger.isDebugEnabled()) {
+            return;
         }
+
+        (sampled ? logger.atInfo() : logger.atDebug())
+                .addKeyValue("operation", operation.getKey())
+                .addKeyValue("endpoint", endpoint)
+                .addKeyValue("requestBody", LazyPayload.json(requestBody, objectMapper, MAX_LOGGED_PAYLOAD_CHARS))
+                .log("Chamando endpoint Gemini");
     }
 
     /**
-     * Logs API response details in debug mode with consistent formatting.
+     * Logs a successful API response. Sampled requests are logged at INFO with the
+     * (truncated) response body; otherwise only at DEBUG.
      *
+     * @param operation    The operation on whose behalf the call was made
+     * @param config       The configuration used for the call
+     * @param durationMs   The call duration in milliseconds
      * @param responseBody The response body (will be truncated if too long)
+     * @param sampled      Whether this request was picked for payload capture
      */
-    protected void logApiResponse(String responseBody) {
-        if (logger.isDebugEnabled()) {
-            // Truncate long responses for readability
-            String logResponse = responseBody;
-            if (responseBody.length() > 1000) {
-                logResponse = responseBody.substring(0, 1000) + "... [truncated]";
-            }
-            logger.debug("Resposta da API Gemini: {}", logResponse);
+    protected void logApiResponse(AiOperation operation, GeminiConfig config, long durationMs,
+                                  String responseBody, boolean sampled) {
+        if (!sampled && !logger.isDebugEnabled()) {
+            return;
         }
+
+        (sampled ? logger.atInfo() : logger.atDebug())
+                .addKeyValue("operation", operation.getKey())
+                .addKeyValue("model", config.getModel())
+                .addKeyValue("durationMs", durationMs)
+                .addKeyValue("responseBody", LazyPayload.truncated(responseBody, MAX_LOGGED_PAYLOAD_CHARS))
+                .log("Chamada API concluída");
+    }
+
+    /**
+     * Logs a failed API call. Failures are always captured with the request
+     * payload, regardless of sampling.
+     *
+     * @param operation   The operation on whose behalf the call was made
+     * @param config      The configuration used for the call
+     * @param durationMs  The call duration in milliseconds
+     * @param requestBody The request body that was sent
+     * @param error       The failure
+     */
+    protected void logApiFailure(AiOperation operation, GeminiConfig config, long durationMs,
+                                 Map<String, Object> requestBody, Throwable error) {
+        logger.atError()
+                .addKeyValue("operation", operation.getKey())
+                .addKeyValue("model", config.getModel())
+                .addKeyValue("durationMs", durationMs)
+                .addKeyValue("requestBody", LazyPayload.json(requestBody, objectMapper, MAX_LOGGED_PAYLOAD_CHARS))
+                .log("Erro na chamada API: {}", error.getMessage());
     }
 
     /**
@@ -419,6 +1049,23 @@ public abstract class BaseGeminiService {
                 defaultApiKey);
     }
 
+    /**
+     * Creates a GeminiConfig instance from a generation profile. Values the profile
+     * leaves unset fall back to the defaults from application configuration.
+     *
+     * @param profile The generation profile of the call
+     * @return A new GeminiConfig instance
+     */
+    protected GeminiConfig createConfig(GenerationProfile profile) {
+        return new GeminiConfig(
+                profile.temperature() != null ? profile.temperature() : defaultTemperature,
+                profile.maxOutputTokens() != null ? profile.maxOutputTokens() : defaultMaxTokens,
+                defaultModel,
+                defaultApiKey,
+                profile.thinkingBudget(),
+                profile.stopSequences());
+    }
+
     /**
      * Creates a GeminiConfig instance using default values from application
      * configuration.
@@ -429,6 +1076,283 @@ public abstract class BaseGeminiService {
         return new GeminiConfig(defaultTemperature, defaultMaxTokens, defaultModel, defaultApiKey);
     }
 
+    /**
+     * Runs {@code call} with a configuration whose model is picked by the
+     * {@link ModelRouter} for the operation, the input and the caller's tier. The
+     * tier is only known from the Reactor context, so the configuration is created
+     * on subscription.
+     *
+     * @param operation  The operation being answered
+     * @param inputChars The size of the caller's input
+     * @param style      The requested output style, or null
+     * @param profile    The generation profile of the call
+     * @param call       Builds and makes the call with the routed configuration
+     * @param <T>        The call result type
+     * @return The call
+     */
+    protected <T> Mono<T> routed(AiOperation operation, int inputChars, String style, GenerationProfile profile,
+                                 Function<GeminiConfig, Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            GeminiConfig config = createConfig(profile);
+            String tier = clientLedger.tierOf(context.getOrDefault(ClientLedger.CONTEXT_KEY, null));
+            String model = modelRouter.route(new RouteRequest(operation, inputChars, style, tier), config.getModel());
+            return call.apply(config.withModel(model));
+        });
+    }
+
+    /**
+     * Runs {@code call} through the operation's confidence cascade: its models are
+     * asked in order and the answer of each is kept only if {@code parsed} accepts it
+     * and its confidence reaches the cascade's {@code min-confidence}; otherwise the
+     * next model is asked. The last model's answer is served as is. Answers are
+     * timed end to end on {@code ai.cascade.requests} and passed-over ones counted on
+     * {@code ai.cascade.escalations}.
+     *
+     * <p>Operations without a cascade are {@link #routed routed} as usual.
+     *
+     * @param operation  The operation being answered
+     * @param inputChars The size of the caller's input
+     * @param profile    The generation profile of the call
+     * @param call       Builds and makes the call with a given configuration
+     * @param parsed     Whether an answer was parsed from the model's JSON
+     * @param confidence The confidence of an answer
+     * @param <T>        The call result type
+     * @return The call
+     */
+    protected <T> Mono<T> cascaded(AiOperation operation, int inputChars, GenerationProfile profile,
+                                   Function<GeminiConfig, Mono<T>> call, Predicate<T> parsed,
+                                   ToDoubleFunction<T> confidence) {
+        CascadeProperties.Cascade cascade = cascadeProperties.cascadeOf(operation).orElse(null);
+        if (cascade == null) {
+            return routed(operation, inputChars, null, profile, call);
+        }
+        GeminiConfig config = createConfig(profile);
+        return Mono.defer(() -> cascadeStep(operation, cascade, 0, config, call, parsed, confidence,
+                System.nanoTime()));
+    }
+
+    private <T> Mono<T> cascadeStep(AiOperation operation, CascadeProperties.Cascade cascade, int step,
+                                    GeminiConfig config, Function<GeminiConfig, Mono<T>> call, Predicate<T> parsed,
+                                    ToDoubleFunction<T> confidence, long startTime) {
+        List<String> models = cascade.getModels();
+        String model = models.get(step);
+        return call.apply(config.withModel(model))
+                .flatMap(answer -> {
+                    String reason = !parsed.test(answer) ? "unparsed"
+                            : confidence.applyAsDouble(answer) < cascade.getMinConfidence() ? "low_confidence"
+                            : null;
+                    if (reason == null || step == models.size() - 1) {
+                        metrics.recordCascade(operation, String.join(">", models.subList(0, step + 1)),
+                                System.nanoTime() - startTime);
+                        return Mono.just(answer);
+                    }
+                    logger.debug("Cascata de {}: resposta de {} descartada ({}), escalando para {}",
+                            operation.getKey(), model, reason, models.get(step + 1));
+                    metrics.recordEscalation(operation, model, reason);
+                    return cascadeStep(operation, cascade, step + 1, config, call, parsed, confidence, startTime);
+                });
+    }
+
+    /**
+     * Runs a synchronous request stage (prompt building, response parsing) inside
+     * a tracing observation.
+     *
+     * @param name      The observation name, see {@link AiObservations}
+     * @param operation The operation the stage belongs to
+     * @param stage     The stage to run
+     * @param <T>       The stage result type
+     * @return The stage result
+     */
+    protected <T> T observeStage(String name, AiOperation operation, Supplier<T> stage) {
+        return AiObservations.observe(observationRegistry, name, operation, stage);
+    }
+
+    /**
+     * Renders a prompt and builds the request body around it, traced as the
+     * {@link AiObservations#PROMPT_BUILD} stage tagged with the template id and
+     * recorded as a {@link PromptBuildEvent}.
+     *
+     * @param operation The operation the prompt belongs to
+     * @param template  The template the prompt is rendered from
+     * @param prompt    Supplier that renders the prompt
+     * @param config    The configuration containing temperature and max tokens
+     * @return A Map representing the request body
+     */
+    protected Map<String, Object> buildPromptRequest(AiOperation operation, PromptTemplate template,
+                                                     Supplier<String> prompt, GeminiConfig config) {
+        return AiObservations.observe(observationRegistry, AiObservations.PROMPT_BUILD, operation,
+                KeyValues.of(AiObservations.TEMPLATE_KEY, template.id()), () -> {
+            PromptBuildEvent event = new PromptBuildEvent();
+            event.begin();
+            String rendered = prompt.get();
+            Map<String, Object> requestBody = buildBaseRequestBody(rendered, config);
+            event.complete(operation, template.id(), rendered.length());
+            return requestBody;
+        });
+    }
+
+    /**
+     * Parses a response body, traced as the {@link AiObservations#RESPONSE_PARSE}
+     * stage and recorded as a {@link ResponseParseEvent}.
+     *
+     * @param operation    The operation the response belongs to
+     * @param responseBody The raw response body from the API
+     * @param parser       The service-specific parser
+     * @param <T>          The parsed response type
+     * @return The parsed response
+     */
+    protected <T> T parseResponse(AiOperation operation, String responseBody, Function<String, T> parser) {
+        return observeStage(AiObservations.RESPONSE_PARSE, operation, () -> {
+            ResponseParseEvent event = new ResponseParseEvent();
+            event.begin();
+            T parsed = parser.apply(responseBody);
+            event.complete(operation, responseBody.length());
+            return parsed;
+        });
+    }
+
+    /**
+     * Records that the local keyword fallback produced an answer, as a metric, as
+     * an event on the current span and as a {@link FallbackUsedEvent}.
+     *
+     * @param operation The operation that fell back
+     */
+    protected void recordFallback(AiOperation operation) {
+        metrics.recordFallback(operation);
+        AiObservations.event(observationRegistry, AiObservations.FALLBACK_EVENT);
+        FallbackUsedEvent.emit(operation);
+    }
+
+    private void tagCallObservation(Observation observation, TokenUsage usage, String responseBody) {
+        if (observation == null) {
+            return;
+        }
+        observation.highCardinalityKeyValue("gemini.tokens.prompt", String.valueOf(usage.promptTokens()));
+        observation.highCardinalityKeyValue("gemini.tokens.candidates", String.valueOf(usage.candidatesTokens()));
+        observation.highCardinalityKeyValue("gemini.tokens.thoughts", String.valueOf(usage.thoughtsTokens()));
+        observation.highCardinalityKeyValue("gemini.tokens.total", String.valueOf(usage.totalTokens()));
+        observation.highCardinalityKeyValue("gemini.response.chars", String.valueOf(responseBody.length()));
+        observation.highCardinalityKeyValue("gemini.finish_reason", finishReasonOf(responseBody));
+    }
+
+    /**
+     * Reads the {@code finishReason} of the first candidate with the streaming
+     * parser, without materializing the response.
+     *
+     * @param responseBody The raw response body from the API
+     * @return The finish reason, or an empty string if absent or invalid
+     */
+    private String finishReasonOf(String responseBody) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return "";
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"candidates".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return "";
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String candidateField = parser.currentName();
+                    if (parser.nextToken() == JsonToken.VALUE_STRING && "finishReason".equals(candidateField)) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+                return "";
+            }
+        } catch (Exception e) {
+            logger.debug("Não foi possível extrair finishReason: {}", e.getMessage());
+        }
+        return "";
+    }
+
+    /**
+     * Gets the elapsed time since a {@link System#nanoTime()} reading.
+     *
+     * @param startNanos The start reading
+     * @return The elapsed time in milliseconds
+     */
+    protected static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Extracts the full {@code usageMetadata} block from a Gemini API response.
+     *
+     * <p>Uses the streaming parser and skips every other top-level field without
+     * materializing it, so it is cheap enough to run on every response.
+     *
+     * @param responseBody The raw response body from the API
+     * @return The reported usage, or {@link TokenUsage#EMPTY} if absent or invalid
+     */
+    protected TokenUsage extractUsageMetadata(String responseBody) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return TokenUsage.EMPTY;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if (!"usageMetadata".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                int prompt = 0, candidates = 0, thoughts = 0, total = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String counter = parser.currentName();
+                    parser.nextToken();
+                    switch (counter) {
+                        case "promptTokenCount" -> prompt = parser.getValueAsInt();
+                        case "candidatesTokenCount" -> candidates = parser.getValueAsInt();
+                        case "thoughtsTokenCount" -> thoughts = parser.getValueAsInt();
+                        case "totalTokenCount" -> total = parser.getValueAsInt();
+                        default -> parser.skipChildren();
+                    }
+                }
+                return new TokenUsage(prompt, candidates, thoughts, total);
+            }
+        } catch (Exception e) {
+            logger.debug("Não foi possível extrair usageMetadata: {}", e.getMessage());
+        }
+        return TokenUsage.EMPTY;
+    }
+
+    /**
+     * Reads the model that answered from the top-level {@code modelVersion} of a
+     * Gemini API response. It differs from the requested one when the call fell back
+     * to another model (see {@link ModelFallbacks}).
+     *
+     * @param responseBody The raw response body from the API
+     * @param requested    The model the call was made for
+     * @return The reported model, or {@code requested} if absent or invalid
+     */
+    protected String servedModel(String responseBody, String requested) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return requested;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.VALUE_STRING && "modelVersion".equals(field)) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+        } catch (Exception e) {
+            logger.debug("Não foi possível extrair modelVersion: {}", e.getMessage());
+        }
+        return requested;
+    }
+
     /**
      * Extracts token usage information from a Gemini API response.
      *
@@ -0,0 +1,295 @@
+package com.example.aipoc.service;
+
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.generation.GenerationProfile;
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.AiRequest;
+import com.example.aipoc.model.AiResponse;
+import com.example.aipoc.model.AnalysisTiming;
+import com.example.aipoc.model.AnalyzeRequest;
+import com.example.aipoc.model.AnalyzeResponse;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.model.SummaryRequest;
+import com.example.aipoc.prompt.PromptTemplate;
+import com.example.aipoc.prompt.PromptTemplates;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Runs several analyses of the same text in one request ({@code POST /api/ai/analyze}).
+ *
+ * <p>Sentiment and summary are structured, low-temperature answers, so when both are
+ * asked for they share one Gemini call returning a JSON object with a field per
+ * analysis: the text is sent, and paid for as prompt tokens, once. Chat is free-form
+ * and runs through {@link AiGeneralService}, concurrently with the rest. An analysis
+ * asked for alone, or missing from the combined answer, goes through its own service,
+ * with that service's caching, cascades and fallbacks.
+ *
+ * <p>Each analysis reports how it was answered and how long after the start of the
+ * request, see {@link AnalysisTiming}.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+@Service
+public class MultiAnalysisService extends BaseGeminiService {
+
+    private static final PromptTemplate ANALYZE_TEMPLATE = PromptTemplates.get("analyze");
+
+    public static final String SENTIMENT = "sentiment";
+    public static final String SUMMARY = "summary";
+    public static final String CHAT = "chat";
+
+    /** The analyses, in the order they are reported. */
+    public static final List<String> ANALYSES = List.of(SENTIMENT, SUMMARY, CHAT);
+
+    static final String MODE_COMBINED = "combined";
+    static final String MODE_SEPARATE = "separate";
+    static final String MODE_FALLBACK = "fallback";
+    static final String MODE_DEGRADED = "degraded";
+
+    private static final Set<String> SENTIMENTS = Set.of("POSITIVE", "NEGATIVE", "NEUTRAL");
+
+    @Autowired
+    private SentimentAnalysisService sentimentAnalysisService;
+
+    @Autowired
+    private TextSummaryService textSummaryService;
+
+    @Autowired
+    private AiGeneralService aiGeneralService;
+
+    /** Whether sentiment and summary share one call; false sends every analysis on its own. */
+    @Value("${ai.analyze.combine:true}")
+    protected boolean combine = true;
+
+    /** One answered analysis. */
+    private record Part(String analysis, Object result, String mode, long durationNanos) {
+    }
+
+    /** The analyses answered by one call, and the tokens it used. */
+    private record Outcome(List<Part> parts, int tokensUsed) {
+    }
+
+    public Mono<AnalyzeResponse> analyze(AnalyzeRequest request) {
+        Set<String> requested = requested(request);
+        logOperationStart("análise combinada",
+                () -> "Análises %s, texto de %d caracteres".formatted(requested, request.getText().length()));
+
+        try {
+            long startTime = System.nanoTime();
+            List<String> structured = requested.stream().filter(analysis -> !CHAT.equals(analysis)).toList();
+
+            Flux<Outcome> structuredOutcomes = combine && structured.size() > 1
+                    ? combined(request, startTime).flatMapMany(outcome -> {
+                        List<String> missing = structured.stream()
+                                .filter(analysis -> outcome.parts().stream()
+                                        .noneMatch(part -> part.analysis().equals(analysis)))
+                                .toList();
+                        if (!missing.isEmpty()) {
+                            logger.debug("Resposta combinada sem {}: consultando separadamente", missing);
+                        }
+                        return Flux.fromIterable(missing)
+                                .flatMap(analysis -> separately(analysis, request, MODE_FALLBACK, startTime))
+                                .startWith(outcome);
+                    })
+                    : Flux.fromIterable(structured)
+                            .flatMap(analysis -> separately(analysis, request, MODE_SEPARATE, startTime));
+            Flux<Outcome> chat = requested.contains(CHAT)
+                    ? separately(CHAT, request, MODE_SEPARATE, startTime).flux()
+                    : Flux.empty();
+
+            return Flux.merge(structuredOutcomes, chat)
+                    .collectList()
+                    .map(outcomes -> assemble(outcomes, requested))
+                    .doOnNext(response -> logOperationSuccess("análise combinada", elapsedMillis(startTime),
+                            response.getTokensUsed()));
+
+        } catch (Exception e) {
+            return Mono.just(handleApiError("construção de requisição de análise combinada", e,
+                    AnalyzeResponse.error("Erro interno do servidor")));
+        }
+    }
+
+    /**
+     * Local answers of every requested analysis, served without calling Gemini when
+     * the request deadline runs out before the analyses start.
+     *
+     * @param request the request being answered
+     * @param cause   where the deadline ran out
+     * @return the local answers, flagged as degraded
+     */
+    public AnalyzeResponse degradedAnalysis(AnalyzeRequest request, DeadlineExceededException cause) {
+        Set<String> requested = requested(request);
+        return degrade(AiOperation.ANALYZE, cause, () -> assemble(requested.stream()
+                .map(analysis -> new Outcome(List.of(new Part(analysis, switch (analysis) {
+                    case SENTIMENT -> sentimentAnalysisService.degradedSentiment(sentimentRequest(request), cause);
+                    case SUMMARY -> textSummaryService.degradedSummary(summaryRequest(request), cause);
+                    default -> aiGeneralService.degradedReply(cause);
+                }, MODE_DEGRADED, 0)), 0))
+                .toList(), requested));
+    }
+
+    /**
+     * Asks for sentiment and summary in one structured call. An answer that cannot be
+     * used leaves its analyses out of the outcome, and a failed call leaves them all
+     * out, so the caller asks for them separately.
+     */
+    private Mono<Outcome> combined(AnalyzeRequest request, long startTime) {
+        GenerationProfile profile = generationProfiles.resolve(AiOperation.ANALYZE, request.getProfile());
+        return routed(AiOperation.ANALYZE, request.getText().length(), request.getStyle(), profile,
+                        config -> callGeminiApi(AiOperation.ANALYZE, jsonResponse(buildPromptRequest(AiOperation.ANALYZE,
+                                        ANALYZE_TEMPLATE, () -> buildAnalyzePrompt(request), config)), config)
+                                .map(response -> parseResponse(AiOperation.ANALYZE, response,
+                                        body -> parseCombinedResponse(body, request,
+                                                servedModel(body, config.getModel()), startTime))))
+                .onErrorResume(error -> {
+                    logger.warn("Chamada combinada falhou ({}): consultando as análises separadamente",
+                            error.getMessage());
+                    return Mono.just(new Outcome(List.of(), 0));
+                });
+    }
+
+    /**
+     * Runs one analysis through its own service. Errors become error answers, so the
+     * other analyses of the request are still served.
+     */
+    private Mono<Outcome> separately(String analysis, AnalyzeRequest request, String mode, long startTime) {
+        Mono<?> call = switch (analysis) {
+            case SENTIMENT -> sentimentAnalysisService.analyzeSentiment(sentimentRequest(request));
+            case SUMMARY -> textSummaryService.summarizeText(summaryRequest(request))
+                    .onErrorResume(error -> Mono.just(handleApiError("resumo da análise combinada", error,
+                            AiResponse.error("Erro ao processar resumo"))));
+            default -> aiGeneralService.processMessage(chatRequest(request))
+                    .onErrorResume(error -> Mono.just(handleApiError("chat da análise combinada", error,
+                            AiResponse.error("Erro ao processar solicitação"))));
+        };
+        return call.map(result -> new Outcome(
+                List.of(new Part(analysis, result, mode, System.nanoTime() - startTime)),
+                result instanceof AiResponse answer ? answer.getTokensUsed() : 0));
+    }
+
+    private AnalyzeResponse assemble(List<Outcome> outcomes, Set<String> requested) {
+        AnalyzeResponse response = new AnalyzeResponse();
+        Map<String, Part> parts = outcomes.stream()
+                .flatMap(outcome -> outcome.parts().stream())
+                .collect(Collectors.toMap(Part::analysis, part -> part));
+        boolean success = true;
+        boolean degraded = false;
+        for (String analysis : ANALYSES) {
+            Part part = parts.get(analysis);
+            if (part == null || !requested.contains(analysis)) {
+                continue;
+            }
+            switch (part.result()) {
+                case SentimentResponse sentiment -> {
+                    response.setSentiment(sentiment);
+                    success &= sentiment.isSuccess();
+                    degraded |= sentiment.isDegraded();
+                }
+                case AiResponse answer -> {
+                    if (CHAT.equals(analysis)) {
+                        response.setChat(answer);
+                    } else {
+                        response.setSummary(answer);
+                    }
+                    success &= answer.isSuccess();
+                    degraded |= answer.isDegraded();
+                }
+                default -> throw new IllegalStateException("Unexpected analysis result: " + part.result());
+            }
+            response.getTimings().put(analysis, new AnalysisTiming(part.mode(), part.durationNanos() / 1_000_000));
+            metrics.recordAnalysis(analysis, part.mode(), part.durationNanos());
+        }
+        response.setTokensUsed(outcomes.stream().mapToInt(Outcome::tokensUsed).sum());
+        response.setSuccess(success);
+        response.setDegraded(degraded);
+        return response;
+    }
+
+    private String buildAnalyzePrompt(AnalyzeRequest request) {
+        return ANALYZE_TEMPLATE.render(TextSummaryService.styleInstruction(request.getStyle()),
+                String.valueOf(request.getMaxSentences()), request.getText());
+    }
+
+    /**
+     * Asks Gemini for a JSON document instead of free text, so the combined answer
+     * needs no extraction from surrounding prose.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> jsonResponse(Map<String, Object> requestBody) {
+        ((Map<String, Object>) requestBody.get("generationConfig")).put("responseMimeType", "application/json");
+        return requestBody;
+    }
+
+    private Outcome parseCombinedResponse(String responseBody, AnalyzeRequest request, String model,
+                                          long startTime) {
+        int tokensUsed = extractTokenUsage(responseBody);
+        long duration = System.nanoTime() - startTime;
+        String content = extractContentFromResponse(responseBody);
+        if (content == null || content.indexOf('{') < 0) {
+            logger.warn("Nenhum JSON na resposta da análise combinada");
+            return new Outcome(List.of(), tokensUsed);
+        }
+
+        try {
+            JsonNode json = objectMapper.readTree(content.substring(content.indexOf('{'), content.lastIndexOf('}') + 1));
+            List<Part> parts = new ArrayList<>();
+
+            JsonNode sentiment = json.path(SENTIMENT);
+            String label = sentiment.path("sentiment").asText().toUpperCase(Locale.ROOT);
+            if (SENTIMENTS.contains(label)) {
+                parts.add(new Part(SENTIMENT, new SentimentResponse(label, sentiment.path("confidence").asDouble(),
+                        sentiment.path("explanation").asText(), request.getText()), MODE_COMBINED, duration));
+            }
+
+            String summary = json.path(SUMMARY).asText();
+            if (!summary.isBlank()) {
+                // Os tokens da chamada combinada contam uma vez, no total da requisição
+                parts.add(new Part(SUMMARY, new AiResponse(summary, model, 0), MODE_COMBINED, duration));
+            }
+            return new Outcome(parts, tokensUsed);
+
+        } catch (Exception e) {
+            logger.warn("Erro ao interpretar a resposta da análise combinada: {}", e.getMessage());
+            return new Outcome(List.of(), tokensUsed);
+        }
+    }
+
+    private static Set<String> requested(AnalyzeRequest request) {
+        return request.getAnalyses().stream()
+                .map(analysis -> analysis.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static SentimentRequest sentimentRequest(AnalyzeRequest request) {
+        SentimentRequest sentiment = new SentimentRequest(request.getText(), request.getLanguage());
+        sentiment.setProfile(request.getProfile());
+        return sentiment;
+    }
+
+    private static SummaryRequest summaryRequest(AnalyzeRequest request) {
+        SummaryRequest summary = new SummaryRequest(request.getText(), request.getMaxSentences(), request.getStyle());
+        summary.setProfile(request.getProfile());
+        return summary;
+    }
+
+    private static AiRequest chatRequest(AnalyzeRequest request) {
+        AiRequest chat = new AiRequest(request.getQuestion(), request.getText());
+        chat.setProfile(request.getProfile());
+        return chat;
+    }
+}
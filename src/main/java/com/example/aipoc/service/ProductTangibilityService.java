@@ -1,21 +1,27 @@
 package com.example.aipoc.service;
 
-import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.generation.GenerationProfile;
+import com.example.aipoc.model.AiOperation;
 import com.example.aipoc.model.ProductClassificationRequest;
 import com.example.aipoc.model.ProductClassificationResponse;
+import com.example.aipoc.prompt.PromptTemplate;
+import com.example.aipoc.prompt.PromptTemplates;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 public class ProductTangibilityService extends BaseGeminiService {
 
+    private static final PromptTemplate CLASSIFICATION_TEMPLATE = PromptTemplates.get("product-classification");
+
     // DTO para mapear o JSON da resposta da IA
     @JsonIgnoreProperties(ignoreUnknown = true)
     private static class ClassificationDto {
@@ -29,15 +35,25 @@ public class ProductTangibilityService extends BaseGeminiService {
     }
 
     public Mono<ProductClassificationResponse> classifyProduct(ProductClassificationRequest request) {
-        logOperationStart("classificação de produto", "Produto: " + request.getProductName());
+        logOperationStart("classificação de produto", () -> "Produto: " + request.getProductName());
 
         try {
-            String prompt = buildClassificationPrompt(request);
-            GeminiConfig config = createConfig(0.2, 1200);
-            Map<String, Object> requestBody = buildBaseRequestBody(prompt, config);
-
-            return callGeminiApi(requestBody, config)
-                    .map(response -> parseClassificationResponse(response, request.getProductName()))
+            GenerationProfile profile = generationProfiles.resolve(AiOperation.PRODUCT_CLASSIFICATION,
+                    request.getProfile());
+            Mono<ProductClassificationResponse> call = cascaded(AiOperation.PRODUCT_CLASSIFICATION,
+                    inputChars(request), profile,
+                    config -> callGeminiApi(AiOperation.PRODUCT_CLASSIFICATION,
+                                    buildPromptRequest(AiOperation.PRODUCT_CLASSIFICATION, CLASSIFICATION_TEMPLATE,
+                                            () -> buildClassificationPrompt(request), config), config)
+                            .map(response -> parseResponse(AiOperation.PRODUCT_CLASSIFICATION, response,
+                                    body -> parseClassificationResponse(body, request.getProductName()))),
+                    ProductTangibilityService::isModelAnswer, ProductClassificationResponse::getConfidence);
+
+            return cachedWithinSla(AiOperation.PRODUCT_CLASSIFICATION, cacheKey(request, profile),
+                            ProductClassificationResponse.class, call,
+                            ProductTangibilityService::isModelAnswer, () -> localClassification(request))
+                    .onErrorResume(DeadlineExceededException.class,
+                            e -> Mono.fromSupplier(() -> degradedClassification(request, e)))
                     .doOnError(error -> handleApiError(
                             "classificação de produto",
                             error,
@@ -49,43 +65,44 @@ public class ProductTangibilityService extends BaseGeminiService {
         }
     }
 
-    private String buildClassificationPrompt(ProductClassificationRequest request) {
-        StringBuilder productInfo = new StringBuilder();
-        productInfo.append("Nome: ").append(request.getProductName());
-
-        if (request.getDescription() != null && !request.getDescription().trim().isEmpty()) {
-            productInfo.append("\nDescrição: ").append(request.getDescription());
-        }
-
-        if (request.getCategory() != null && !request.getCategory().trim().isEmpty()) {
-            productInfo.append("\nCategoria: ").append(request.getCategory());
-        }
-
-        return """
-                Classifique por TANGIBILIDADE e responda em JSON:
+    /**
+     * Keyword classification of the product name and description, served without
+     * calling Gemini when the request deadline runs out.
+     *
+     * @param request the request being answered
+     * @param cause   where the deadline ran out
+     * @return the local classification, flagged as degraded
+     */
+    public ProductClassificationResponse degradedClassification(ProductClassificationRequest request,
+            DeadlineExceededException cause) {
+        return degrade(AiOperation.PRODUCT_CLASSIFICATION, cause, () -> localClassification(request));
+    }
 
-                {
-                  "tangibilityType": "TANGIBLE|INTANGIBLE|HYBRID",
-                  "tangibilitySubtype": "DURABLE|NON_DURABLE|CONSUMABLE|SERVICE|DIGITAL|EXPERIENCE|KNOWLEDGE|MIXED",
-                  "productPriceCategory": "VERY_HIGH_COST|HIGH_COST|MEDIUM_COST|LOW_COST",
-                  "lifeCycle": "SHORT|MID|LONG",
-                  "confidence": 0.95,
-                  "explanation": "Breve explicação da classificação",
-                  "characteristics": ["característica 1", "característica 2"]
-                }
+    private ProductClassificationResponse localClassification(ProductClassificationRequest request) {
+        String content = Objects.toString(request.getDescription(), "") + " "
+                + Objects.toString(request.getCategory(), "");
+        return fallbackClassification(content, request.getProductName());
+    }
 
-                TIPOS:
-                TANGIBLE: DURABLE (carros, móveis), NON_DURABLE (roupas), CONSUMABLE (alimentos)
-                INTANGIBLE: SERVICE (consultoria), DIGITAL (software), EXPERIENCE (viagens), KNOWLEDGE (patentes)
-                HYBRID: MIXED (combinação)
+    private static String cacheKey(ProductClassificationRequest request, GenerationProfile profile) {
+        // Os três campos entram no prompt e o template e o perfil mudam a resposta; o separador NUL não aparece em texto digitado
+        return String.join("\u0000", CLASSIFICATION_TEMPLATE.id(), profile.name(), request.getProductName().strip(),
+                Objects.toString(request.getDescription(), "").strip(),
+                Objects.toString(request.getCategory(), "").strip());
+    }
 
-                PREÇO: VERY_HIGH_COST (>100k), HIGH_COST (>50k), MEDIUM_COST (>1k), LOW_COST (≤1k)
-                VIDA ÚTIL: SHORT (curta), MID (média), LONG (longa)
+    private static boolean isModelAnswer(ProductClassificationResponse response) {
+        return response.isSuccess() && !response.isDegraded();
+    }
 
-                Produto: %s
+    private static int inputChars(ProductClassificationRequest request) {
+        return request.getProductName().length() + Objects.toString(request.getDescription(), "").length()
+                + Objects.toString(request.getCategory(), "").length();
+    }
 
-                Responda apenas o JSON.
-                """.formatted(productInfo.toString());
+    private String buildClassificationPrompt(ProductClassificationRequest request) {
+        return CLASSIFICATION_TEMPLATE.render(
+                request.getProductName(), request.getDescription(), request.getCategory());
     }
 
     private ProductClassificationResponse parseClassificationResponse(String responseBody, String productName) {
@@ -141,6 +158,7 @@ public class ProductTangibilityService extends BaseGeminiService {
     }
 
     private ProductClassificationResponse fallbackClassification(String content, String productName) {
+        recordFallback(AiOperation.PRODUCT_CLASSIFICATION);
         String lowerContent = content.toLowerCase();
         String lowerProductName = productName.toLowerCase();
 
@@ -158,26 +176,30 @@ public class ProductTangibilityService extends BaseGeminiService {
         boolean hasIntangible = Arrays.stream(intangibleKeywords)
                 .anyMatch(keyword -> lowerContent.contains(keyword) || lowerProductName.contains(keyword));
 
+        ProductClassificationResponse response;
         if (hasTangible && hasIntangible) {
-            return new ProductClassificationResponse("HYBRID", 0.6,
+            response = new ProductClassificationResponse("HYBRID", 0.6,
                     "Classificação baseada em análise de palavras-chave - produto híbrido",
                     Arrays.asList("Elementos tangíveis e intangíveis identificados"),
                     productName, "MIXED", "NA", "NA");
         } else if (hasTangible) {
-            return new ProductClassificationResponse("TANGIBLE", 0.7,
+            response = new ProductClassificationResponse("TANGIBLE", 0.7,
                     "Classificação baseada em análise de palavras-chave - produto físico",
                     Arrays.asList("Características físicas identificadas"),
                     productName, "NON_DURABLE", "NA", "NA");
         } else if (hasIntangible) {
-            return new ProductClassificationResponse("INTANGIBLE", 0.7,
+            response = new ProductClassificationResponse("INTANGIBLE", 0.7,
                     "Classificação baseada em análise de palavras-chave - produto intangível",
                     Arrays.asList("Características de serviço/digital identificadas"),
                     productName, "SERVICE", "NA", "NA");
         } else {
-            return new ProductClassificationResponse("TANGIBLE", 0.5,
+            response = new ProductClassificationResponse("TANGIBLE", 0.5,
                     "Classificação padrão - assumindo produto tangível",
                     Arrays.asList("Classificação incerta"),
                     productName, "NON_DURABLE", "NA", "NA");
         }
+        // Resposta por palavras-chave, não do modelo
+        response.setDegraded(true);
+        return response;
     }
 }
@@ -1,30 +1,47 @@
 package com.example.aipoc.service;
 
-import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.generation.GenerationProfile;
+import com.example.aipoc.model.AiOperation;
 import com.example.aipoc.model.SentimentRequest;
 import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.prompt.PromptTemplate;
+import com.example.aipoc.prompt.PromptTemplates;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 public class SentimentAnalysisService extends BaseGeminiService {
 
+    private static final PromptTemplate SENTIMENT_TEMPLATE = PromptTemplates.get("sentiment");
+
+    /** First flat JSON object in the model answer. */
+    private static final Pattern JSON_OBJECT = Pattern.compile("\\{[^}]*\\}", Pattern.DOTALL);
+
     public Mono<SentimentResponse> analyzeSentiment(SentimentRequest request) {
-        logOperationStart("análise de sentimento", 
-                "Texto: " + request.getText().substring(0, Math.min(50, request.getText().length())));
+        logOperationStart("análise de sentimento",
+                () -> "Texto: " + request.getText().substring(0, Math.min(50, request.getText().length())));
 
         try {
-            String prompt = buildSentimentPrompt(request);
-            GeminiConfig config = createConfig(0.1, 500);
-            Map<String, Object> requestBody = buildBaseRequestBody(prompt, config);
-
-            return callGeminiApi(requestBody, config)
-                    .map(response -> parseSentimentResponse(response, request.getText()))
+            GenerationProfile profile = generationProfiles.resolve(AiOperation.SENTIMENT, request.getProfile());
+            Mono<SentimentResponse> call = cascaded(AiOperation.SENTIMENT, request.getText().length(), profile,
+                    config -> callGeminiApi(AiOperation.SENTIMENT, buildPromptRequest(AiOperation.SENTIMENT,
+                                    SENTIMENT_TEMPLATE, () -> buildSentimentPrompt(request), config), config)
+                            .map(response -> parseResponse(AiOperation.SENTIMENT, response,
+                                    body -> parseSentimentResponse(body, request.getText()))),
+                    SentimentAnalysisService::isModelAnswer, SentimentResponse::getConfidence);
+
+            // O template (versão do prompt) e o perfil (tokens, raciocínio) mudam a resposta: entram na chave do cache
+            return cachedWithinSla(AiOperation.SENTIMENT,
+                            String.join("\u0000", SENTIMENT_TEMPLATE.id(), profile.name(), request.getText().strip()),
+                            SentimentResponse.class, call,
+                            SentimentAnalysisService::isModelAnswer, () -> localSentiment(request))
+                    .onErrorResume(DeadlineExceededException.class,
+                            e -> Mono.fromSupplier(() -> degradedSentiment(request, e)))
                     .doOnError(error -> logger.error("Erro ao analisar sentimento: {}", error.getMessage()))
                     .onErrorReturn(SentimentResponse.error("Erro ao processar análise de sentimento"));
 
@@ -34,23 +51,28 @@ public class SentimentAnalysisService extends BaseGeminiService {
         }
     }
 
+    /**
+     * Keyword analysis of the text itself, served without calling Gemini when the
+     * request deadline runs out.
+     *
+     * @param request the request being answered
+     * @param cause   where the deadline ran out
+     * @return the local analysis, flagged as degraded
+     */
+    public SentimentResponse degradedSentiment(SentimentRequest request, DeadlineExceededException cause) {
+        return degrade(AiOperation.SENTIMENT, cause, () -> localSentiment(request));
+    }
 
+    private SentimentResponse localSentiment(SentimentRequest request) {
+        return fallbackSentimentAnalysis(request.getText(), request.getText());
+    }
 
-    private String buildSentimentPrompt(SentimentRequest request) {
-        return """
-                Analise o sentimento do seguinte texto e responda EXATAMENTE no formato JSON:
-
-                {
-                  "sentiment": "POSITIVE|NEGATIVE|NEUTRAL",
-                  "confidence": 0.85,
-                  "explanation": "Breve explicação do por que este sentimento foi identificado"
-                }
-
-                Texto para análise:
-                "%s"
+    private static boolean isModelAnswer(SentimentResponse response) {
+        return response.isSuccess() && !response.isDegraded();
+    }
 
-                Responda apenas com o JSON, sem texto adicional.
-                """.formatted(request.getText());
+    private String buildSentimentPrompt(SentimentRequest request) {
+        return SENTIMENT_TEMPLATE.render(request.getText());
     }
 
     private SentimentResponse parseSentimentResponse(String responseBody, String originalText) {
@@ -73,8 +95,7 @@ public class SentimentAnalysisService extends BaseGeminiService {
     private SentimentResponse parseJsonFromContent(String content, String originalText) {
         try {
             // Extrair JSON do conteúdo usando regex
-            Pattern jsonPattern = Pattern.compile("\\{[^}]*\\}", Pattern.DOTALL);
-            Matcher matcher = jsonPattern.matcher(content);
+            Matcher matcher = JSON_OBJECT.matcher(content);
 
             if (matcher.find()) {
                 String jsonStr = matcher.group();
@@ -97,15 +118,20 @@ public class SentimentAnalysisService extends BaseGeminiService {
     }
 
     private SentimentResponse fallbackSentimentAnalysis(String content, String originalText) {
+        recordFallback(AiOperation.SENTIMENT);
         String lowerContent = content.toLowerCase();
 
+        SentimentResponse response;
         if (lowerContent.contains("positiv") || lowerContent.contains("bom") || lowerContent.contains("feliz")) {
-            return new SentimentResponse("POSITIVE", 0.7, "Análise baseada em palavras-chave positivas", originalText);
+            response = new SentimentResponse("POSITIVE", 0.7, "Análise baseada em palavras-chave positivas", originalText);
         } else if (lowerContent.contains("negativ") || lowerContent.contains("ruim")
                 || lowerContent.contains("triste")) {
-            return new SentimentResponse("NEGATIVE", 0.7, "Análise baseada em palavras-chave negativas", originalText);
+            response = new SentimentResponse("NEGATIVE", 0.7, "Análise baseada em palavras-chave negativas", originalText);
         } else {
-            return new SentimentResponse("NEUTRAL", 0.6, "Sentimento neutro identificado", originalText);
+            response = new SentimentResponse("NEUTRAL", 0.6, "Sentimento neutro identificado", originalText);
         }
+        // Resposta por palavras-chave, não do modelo
+        response.setDegraded(true);
+        return response;
     }
 }
\ No newline at end of file
@@ -1,32 +1,48 @@
 package com.example.aipoc.service;
 
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.generation.GenerationProfile;
+import com.example.aipoc.model.AiOperation;
 import com.example.aipoc.model.AiResponse;
-import com.example.aipoc.model.GeminiConfig;
 import com.example.aipoc.model.SummaryRequest;
+import com.example.aipoc.prompt.PromptTemplate;
+import com.example.aipoc.prompt.PromptTemplates;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class TextSummaryService extends BaseGeminiService {
-    
+
+    private static final PromptTemplate SUMMARY_TEMPLATE = PromptTemplates.get("summary");
+
+    /** Model reported on summaries cut locally from the text instead of generated. */
+    static final String EXTRACTIVE_MODEL = "extractive";
+
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+");
+
     public Mono<AiResponse> summarizeText(SummaryRequest request) {
-        logOperationStart("resumo de texto", "Texto de %d caracteres".formatted(request.getText().length()));
+        logOperationStart("resumo de texto", () -> "Texto de %d caracteres".formatted(request.getText().length()));
         
         try {
-            String prompt = buildSummaryPrompt(request);
-            GeminiConfig config = createConfig(0.3, 1000);
-            Map<String, Object> requestBody = buildBaseRequestBody(prompt, config);
-            
-            long startTime = System.currentTimeMillis();
+            long startTime = System.nanoTime();
             
-            return callGeminiApi(requestBody, config)
-                    .map(responseBody -> parseGeminiResponse(responseBody, config.getModel()))
+            GenerationProfile profile = generationProfiles.resolve(AiOperation.SUMMARY, request.getProfile());
+
+            return routed(AiOperation.SUMMARY, request.getText().length(), request.getStyle(), profile,
+                            config -> callGeminiApi(AiOperation.SUMMARY, buildPromptRequest(AiOperation.SUMMARY,
+                                            SUMMARY_TEMPLATE, () -> buildSummaryPrompt(request), config), config)
+                                    .map(responseBody -> parseResponse(AiOperation.SUMMARY, responseBody,
+                                            body -> parseGeminiResponse(body, servedModel(body, config.getModel())))))
+                    .onErrorResume(DeadlineExceededException.class,
+                            e -> Mono.fromSupplier(() -> degradedSummary(request, e)))
                     .doOnNext(response -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        logOperationSuccess("resumo de texto", duration, response.getTokensUsed());
+                        logOperationSuccess("resumo de texto", elapsedMillis(startTime), response.getTokensUsed());
                     })
                     .doOnError(error -> handleApiError(
                             "Erro ao processar resumo",
@@ -38,24 +54,48 @@ public class TextSummaryService extends BaseGeminiService {
                 AiResponse.error("Erro interno do servidor")));
         }
     }
+
+    /**
+     * Extractive summary made of the text's first {@code maxSentences} sentences,
+     * served without calling Gemini when the request deadline runs out.
+     *
+     * @param request the request being answered
+     * @param cause   where the deadline ran out
+     * @return the leading sentences, flagged as degraded
+     */
+    public AiResponse degradedSummary(SummaryRequest request, DeadlineExceededException cause) {
+        return degrade(AiOperation.SUMMARY, cause, () -> {
+            boolean bullets = "bullet-points".equalsIgnoreCase(request.getStyle());
+            String summary = Arrays.stream(SENTENCE_END.split(request.getText().trim()))
+                    .limit(Math.max(1, request.getMaxSentences()))
+                    .map(sentence -> bullets ? "• " + sentence : sentence)
+                    .collect(Collectors.joining(bullets ? "\n" : " "));
+            AiResponse response = new AiResponse(summary, EXTRACTIVE_MODEL, 0);
+            response.setDegraded(true);
+            return response;
+        });
+    }
     
 
     
     private String buildSummaryPrompt(SummaryRequest request) {
-        String styleInstruction = switch (request.getStyle().toLowerCase()) {
+        return SUMMARY_TEMPLATE.render(
+                styleInstruction(request.getStyle()), String.valueOf(request.getMaxSentences()), request.getText());
+    }
+    
+    /**
+     * Gets the prompt instruction for a summary style.
+     *
+     * @param style the requested style ({@code conciso}, {@code detalhado} or {@code bullet-points}),
+     *              or null for {@code conciso}
+     * @return the instruction opening the summary prompt
+     */
+    static String styleInstruction(String style) {
+        return switch (style == null ? "conciso" : style.toLowerCase(Locale.ROOT)) {
             case "detalhado" -> "Crie um resumo detalhado e explicativo";
             case "bullet-points" -> "Crie um resumo em formato de bullet points (•)";
             default -> "Crie um resumo conciso e direto";
         };
-        
-        return """
-            %s do seguinte texto em no máximo %d sentenças.
-            
-            Mantenha as informações mais importantes e o contexto principal.
-            
-            Texto original:
-            %s
-            """.formatted(styleInstruction, request.getMaxSentences(), request.getText());
     }
     
     private AiResponse parseGeminiResponse(String responseBody, String model) {
@@ -0,0 +1,27 @@
+package com.example.aipoc.stub;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Starts the {@link GeminiStubServer} inside the application when the
+ * {@code gemini-stub} profile is active. The profile also points
+ * {@code gemini.api.url} at the stub, so every service runs offline.
+ */
+@Configuration
+@Profile("gemini-stub")
+public class GeminiStubConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "ai.stub")
+    GeminiStubSettings geminiStubSettings() {
+        return new GeminiStubSettings();
+    }
+
+    @Bean(destroyMethod = "stop")
+    GeminiStubServer geminiStubServer(GeminiStubSettings geminiStubSettings) {
+        return new GeminiStubServer(geminiStubSettings).start();
+    }
+}
@@ -0,0 +1,610 @@
+package com.example.aipoc.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Local stand-in for the Gemini REST API ({@code v1beta}), for load and
+ * integration tests that must run offline and reproducibly.
+ *
+ * <h3>Endpoints:</h3>
+ * <ul>
+ * <li>{@code POST /v1beta/models/{model}:generateContent}</li>
+ * <li>{@code POST /v1beta/models/{model}:streamGenerateContent} - JSON array, or
+ * server-sent events with {@code ?alt=sse}</li>
+ * <li>{@code POST /v1beta/models/{model}:countTokens}</li>
+ * <li>{@code GET /v1beta/models/{model}} - model metadata, used as health probe;
+ * follows the latency and {@code unavailable-rate} settings</li>
+ * <li>{@code POST|GET /v1beta/cachedContents}, {@code GET|DELETE
+ * /v1beta/cachedContents/{id}}</li>
+ * </ul>
+ *
+ * <p>Answers, latency and injected faults follow {@link GeminiStubSettings}. Token
+ * counts are estimated as one token per four characters. Requests without an
+ * {@code x-goog-api-key} header (or {@code key} parameter) are rejected with 403,
+ * like the real API.
+ *
+ * <p>Runs inside the application with the {@code gemini-stub} profile (see
+ * {@link GeminiStubConfig}) or standalone in tests:
+ *
+ * <pre>{@code
+ * GeminiStubServer stub = new GeminiStubServer(new GeminiStubSettings()).start(0);
+ * WebClient client = WebClient.create(stub.getBaseUrl());
+ * ...
+ * stub.stop();
+ * }</pre>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class GeminiStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiStubServer.class);
+
+    private static final String BASE_PATH = "/v1beta/";
+    private static final String MODELS = "models/";
+    private static final String CACHED_CONTENTS = "cachedContents";
+    private static final double Z_99 = 2.3263;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, ObjectNode> cachedContents = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ReentrantLock quotaLock = new ReentrantLock();
+    private long quotaMinute;
+    private int quotaUsed;
+
+    private volatile GeminiStubSettings settings;
+    private volatile Random seededRandom;
+    private DisposableServer server;
+
+    private enum Fault {
+        NONE, QUOTA, RATE_LIMITED, UNAVAILABLE, MAX_TOKENS, MALFORMED
+    }
+
+    public GeminiStubServer(GeminiStubSettings settings) {
+        setSettings(settings);
+    }
+
+    /**
+     * Starts the server on {@link GeminiStubSettings#getPort()}.
+     *
+     * @return this server
+     */
+    public GeminiStubServer start() {
+        return start(settings.getPort());
+    }
+
+    /**
+     * Starts the server on the given port.
+     *
+     * @param port the port, or 0 for a random free port
+     * @return this server
+     */
+    public GeminiStubServer start(int port) {
+        server = HttpServer.create()
+                .port(port)
+                .handle(this::handle)
+                .bindNow();
+        logger.info("Stub do Gemini escutando em {}", getBaseUrl());
+        return this;
+    }
+
+    /**
+     * Stops the server, waiting for it to release its port.
+     */
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+
+    /**
+     * Gets the base URL to use as {@code gemini.api.url}.
+     *
+     * @return the base URL, ending in {@code /v1beta}
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort() + "/v1beta";
+    }
+
+    public GeminiStubSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Replaces the stub behaviour. Takes effect for requests received afterwards.
+     *
+     * @param settings the new settings
+     */
+    public void setSettings(GeminiStubSettings settings) {
+        this.seededRandom = settings.getSeed() != null ? new Random(settings.getSeed()) : null;
+        this.settings = settings;
+    }
+
+    /**
+     * Gets the number of requests received since start or the last {@link #reset()}.
+     *
+     * @return the request count
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of requests whose client went away before the answer was
+     * sent.
+     *
+     * @return the cancelled request count
+     */
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    /**
+     * Gets the number of requests currently being answered.
+     *
+     * @return the in-flight request count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Clears counters, the quota window and cached contents.
+     */
+    public void reset() {
+        requests.set(0);
+        cancelled.set(0);
+        cachedContents.clear();
+        quotaLock.lock();
+        try {
+            quotaUsed = 0;
+        } finally {
+            quotaLock.unlock();
+        }
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        QueryStringDecoder uri = new QueryStringDecoder(request.uri());
+        String path = uri.path();
+
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8)
+                .defaultIfEmpty("")
+                .flatMap(body -> {
+                    if (!hasApiKey(request, uri)) {
+                        return sendError(response, 403, "PERMISSION_DENIED",
+                                "Method doesn't allow unregistered callers. Please use an API key.");
+                    }
+                    if (!path.startsWith(BASE_PATH)) {
+                        return sendError(response, 404, "NOT_FOUND", "Unknown path: " + path);
+                    }
+                    return route(request.method(), path.substring(BASE_PATH.length()), uri, body, response);
+                })
+                .doOnSubscribe(subscription -> {
+                    requests.incrementAndGet();
+                    inFlight.incrementAndGet();
+                })
+                .doOnCancel(() -> {
+                    cancelled.incrementAndGet();
+                    logger.debug("Cliente cancelou a requisição ao stub: {}", path);
+                })
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private Mono<Void> route(HttpMethod method, String resource, QueryStringDecoder uri, String body,
+                             HttpServerResponse response) {
+        try {
+            if (resource.startsWith(MODELS) && HttpMethod.POST.equals(method)) {
+                int colon = resource.lastIndexOf(':');
+                if (colon > 0) {
+                    String model = resource.substring(MODELS.length(), colon);
+                    JsonNode json = body.isBlank() ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+                    switch (resource.substring(colon + 1)) {
+                        case "generateContent":
+                            return generateContent(model, json, response);
+                        case "streamGenerateContent":
+                            boolean sse = "sse".equals(first(uri, "alt"));
+                            return streamGenerateContent(model, json, sse, response);
+                        case "countTokens":
+                            return countTokens(json, response);
+                        default:
+                            break;
+                    }
+                }
+            }
+            if (resource.startsWith(MODELS) && HttpMethod.GET.equals(method) && resource.indexOf(':') < 0) {
+                return getModel(resource.substring(MODELS.length()), response);
+            }
+            if (resource.equals(CACHED_CONTENTS) || resource.startsWith(CACHED_CONTENTS + "/")) {
+                return cachedContents(method, resource, body, response);
+            }
+            return sendError(response, 404, "NOT_FOUND", "Unknown resource: " + resource);
+        } catch (Exception e) {
+            return sendError(response, 400, "INVALID_ARGUMENT", "Invalid JSON payload: " + e.getMessage());
+        }
+    }
+
+    private Mono<Void> generateContent(String model, JsonNode request, HttpServerResponse response) {
+        GeminiStubSettings current = settings;
+        String invalidBudget = invalidThinkingBudget(current, model, request);
+        if (invalidBudget != null) {
+            return sendError(response, 400, "INVALID_ARGUMENT", invalidBudget);
+        }
+        Fault fault = drawFault(current, model);
+        if (isError(fault)) {
+            return sendFault(fault, response);
+        }
+
+        String prompt = promptText(request);
+        String answer = applyFault(fault, answerFor(prompt, current));
+        String finishReason = fault == Fault.MAX_TOKENS ? "MAX_TOKENS" : "STOP";
+        ObjectNode body = candidateResponse(model, answer, finishReason);
+        body.set("usageMetadata", usage(request, prompt, answer, current));
+
+        return Mono.delay(sampleLatency(current.getLatency()))
+                .then(sendJson(response, 200, body));
+    }
+
+    private Mono<Void> streamGenerateContent(String model, JsonNode request, boolean sse,
+                                             HttpServerResponse response) {
+        GeminiStubSettings current = settings;
+        String invalidBudget = invalidThinkingBudget(current, model, request);
+        if (invalidBudget != null) {
+            return sendError(response, 400, "INVALID_ARGUMENT", invalidBudget);
+        }
+        Fault fault = drawFault(current, model);
+        if (isError(fault)) {
+            return sendFault(fault, response);
+        }
+
+        String prompt = promptText(request);
+        String answer = applyFault(fault, answerFor(prompt, current));
+        String finishReason = fault == Fault.MAX_TOKENS ? "MAX_TOKENS" : "STOP";
+
+        List<String> chunks = new ArrayList<>();
+        int size = Math.max(1, current.getStream().getChunkChars());
+        for (int start = 0; start < answer.length(); start += size) {
+            chunks.add(answer.substring(start, Math.min(answer.length(), start + size)));
+        }
+        if (chunks.isEmpty()) {
+            chunks.add("");
+        }
+
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            boolean last = i == chunks.size() - 1;
+            ObjectNode chunk = candidateResponse(model, chunks.get(i), last ? finishReason : null);
+            if (last) {
+                chunk.set("usageMetadata", usage(request, prompt, answer, current));
+            }
+            String json = chunk.toString();
+            if (sse) {
+                events.add("data: " + json + "\r\n\r\n");
+            } else {
+                events.add((i == 0 ? "[" : ",\r\n") + json + (last ? "]" : ""));
+            }
+        }
+
+        Flux<String> stream = Flux.concat(
+                Mono.just(events.get(0)).delaySubscription(sampleLatency(current.getLatency())),
+                Flux.fromIterable(events.subList(1, events.size()))
+                        .delayElements(current.getStream().getChunkInterval()));
+
+        return response.status(200)
+                .header("Content-Type", sse ? "text/event-stream" : "application/json")
+                .sendString(stream)
+                .then();
+    }
+
+    private Mono<Void> getModel(String model, HttpServerResponse response) {
+        GeminiStubSettings current = settings;
+        if (hit(random(), current.getUnavailableRate())) {
+            return sendFault(Fault.UNAVAILABLE, response);
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("name", MODELS + model);
+        body.put("baseModelId", model);
+        body.put("displayName", model);
+        body.putArray("supportedGenerationMethods").add("generateContent").add("countTokens");
+        return Mono.delay(sampleLatency(current.getLatency()))
+                .then(sendJson(response, 200, body));
+    }
+
+    private Mono<Void> countTokens(JsonNode request, HttpServerResponse response) {
+        JsonNode source = request.has("generateContentRequest") ? request.path("generateContentRequest") : request;
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("totalTokens", estimateTokens(promptText(source)));
+        return sendJson(response, 200, body);
+    }
+
+    private Mono<Void> cachedContents(HttpMethod method, String resource, String body,
+                                      HttpServerResponse response) throws Exception {
+        if (resource.equals(CACHED_CONTENTS)) {
+            if (HttpMethod.POST.equals(method)) {
+                JsonNode request = objectMapper.readTree(body);
+                Instant now = Instant.now();
+                Duration ttl = parseTtl(request.path("ttl").asText("3600s"));
+
+                ObjectNode cached = objectMapper.createObjectNode();
+                cached.put("name", CACHED_CONTENTS + "/" + UUID.randomUUID().toString().replace("-", ""));
+                cached.put("model", request.path("model").asText());
+                cached.put("createTime", now.toString());
+                cached.put("updateTime", now.toString());
+                cached.put("expireTime", now.plus(ttl).toString());
+                cached.putObject("usageMetadata").put("totalTokenCount",
+                        estimateTokens(promptText(request) + request.path("systemInstruction")));
+                cachedContents.put(cached.path("name").asText(), cached);
+                return sendJson(response, 200, cached);
+            }
+            ObjectNode list = objectMapper.createObjectNode();
+            ArrayNode items = list.putArray(CACHED_CONTENTS);
+            cachedContents.values().forEach(items::add);
+            return sendJson(response, 200, list);
+        }
+
+        ObjectNode cached = cachedContents.get(resource);
+        if (cached == null) {
+            return sendError(response, 404, "NOT_FOUND", "CachedContent not found: " + resource);
+        }
+        if (HttpMethod.DELETE.equals(method)) {
+            cachedContents.remove(resource);
+            return sendJson(response, 200, objectMapper.createObjectNode());
+        }
+        return sendJson(response, 200, cached);
+    }
+
+    private static String invalidThinkingBudget(GeminiStubSettings current, String model, JsonNode request) {
+        Integer min = current.getMinThinkingBudgets().get(model);
+        JsonNode budget = request.path("generationConfig").path("thinkingConfig").path("thinkingBudget");
+        if (min == null || !budget.isInt() || budget.asInt() == -1 || budget.asInt() >= min) {
+            return null;
+        }
+        // Como o Gemini para o gemini-2.5-pro, que só funciona raciocinando
+        return "The thinking budget " + budget.asInt() + " is invalid. Please choose a value between " + min
+                + " and 32768.";
+    }
+
+    private Fault drawFault(GeminiStubSettings current, String model) {
+        if (current.getExhaustedModels().contains(model)
+                || quotaExceeded(current.getQuota().getRequestsPerMinute())) {
+            return Fault.QUOTA;
+        }
+        RandomGenerator random = random();
+        if (hit(random, current.getRateLimitRate())) {
+            return Fault.RATE_LIMITED;
+        }
+        if (hit(random, current.getUnavailableRate())) {
+            return Fault.UNAVAILABLE;
+        }
+        if (hit(random, current.getMaxTokensRate())) {
+            return Fault.MAX_TOKENS;
+        }
+        if (hit(random, current.getMalformedRate())) {
+            return Fault.MALFORMED;
+        }
+        return Fault.NONE;
+    }
+
+    private static boolean isError(Fault fault) {
+        return fault == Fault.QUOTA || fault == Fault.RATE_LIMITED || fault == Fault.UNAVAILABLE;
+    }
+
+    private static boolean hit(RandomGenerator random, double rate) {
+        return rate > 0 && (rate >= 1.0 || random.nextDouble() < rate);
+    }
+
+    private boolean quotaExceeded(int requestsPerMinute) {
+        if (requestsPerMinute <= 0) {
+            return false;
+        }
+        long minute = System.currentTimeMillis() / 60_000;
+        quotaLock.lock();
+        try {
+            if (minute != quotaMinute) {
+                quotaMinute = minute;
+                quotaUsed = 0;
+            }
+            return ++quotaUsed > requestsPerMinute;
+        } finally {
+            quotaLock.unlock();
+        }
+    }
+
+    private Mono<Void> sendFault(Fault fault, HttpServerResponse response) {
+        if (fault == Fault.UNAVAILABLE) {
+            return sendError(response, 503, "UNAVAILABLE", "The model is overloaded. Please try again later.");
+        }
+
+        long retrySeconds = fault == Fault.QUOTA ? 60 - (System.currentTimeMillis() / 1000) % 60 : 1;
+        ObjectNode body = error(429, "RESOURCE_EXHAUSTED", fault == Fault.QUOTA
+                ? "You exceeded your current quota, please check your plan and billing details."
+                : "Resource has been exhausted (e.g. check quota).");
+        ((ObjectNode) body.get("error")).putArray("details").addObject()
+                .put("@type", "type.googleapis.com/google.rpc.RetryInfo")
+                .put("retryDelay", retrySeconds + "s");
+        return sendJson(response, 429, body);
+    }
+
+    private String applyFault(Fault fault, String answer) {
+        if (fault == Fault.MAX_TOKENS) {
+            return answer.substring(0, answer.length() / 2);
+        }
+        if (fault == Fault.MALFORMED) {
+            // JSON com aspas simples e sem fechamento, como o modelo às vezes devolve
+            String broken = answer.replace('"', '\'');
+            int end = broken.lastIndexOf('}');
+            return "```json\n" + (end > 0 ? broken.substring(0, end) : broken) + "\n```";
+        }
+        return answer;
+    }
+
+    private String answerFor(String prompt, GeminiStubSettings current) {
+        for (GeminiStubSettings.CannedAnswer canned : current.getAnswers()) {
+            if (canned.getContains() != null && prompt.contains(canned.getContains())) {
+                return canned.getAnswer();
+            }
+        }
+        return current.getDefaultAnswer();
+    }
+
+    private Duration sampleLatency(GeminiStubSettings.Latency latency) {
+        RandomGenerator random = random();
+        long millis = switch (latency.getDistribution()) {
+            case NONE -> 0;
+            case FIXED -> latency.getMedian().toMillis();
+            case UNIFORM -> {
+                long min = latency.getMin().toMillis();
+                long max = Math.max(min, latency.getMax().toMillis());
+                yield min + (long) (random.nextDouble() * (max - min));
+            }
+            case LOG_NORMAL -> {
+                double mu = Math.log(Math.max(1, latency.getMedian().toMillis()));
+                double sigma = Math.max(0, (Math.log(Math.max(1, latency.getP99().toMillis())) - mu) / Z_99);
+                yield Math.min(latency.getMax().toMillis(), Math.round(Math.exp(mu + sigma * random.nextGaussian())));
+            }
+        };
+        return Duration.ofMillis(Math.max(0, millis));
+    }
+
+    private RandomGenerator random() {
+        Random seeded = seededRandom;
+        return seeded != null ? seeded : ThreadLocalRandom.current();
+    }
+
+    private ObjectNode candidateResponse(String model, String text, String finishReason) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode candidate = body.putArray("candidates").addObject();
+        ObjectNode content = candidate.putObject("content");
+        content.putArray("parts").addObject().put("text", text);
+        content.put("role", "model");
+        if (finishReason != null) {
+            candidate.put("finishReason", finishReason);
+        }
+        candidate.put("index", 0);
+        body.put("modelVersion", model);
+        body.put("responseId", Long.toHexString(ThreadLocalRandom.current().nextLong()));
+        return body;
+    }
+
+    private ObjectNode usage(JsonNode request, String prompt, String answer, GeminiStubSettings current) {
+        int promptTokens = estimateTokens(prompt);
+        int candidatesTokens = estimateTokens(answer);
+        int thoughtsTokens = current.getThoughtsTokens();
+        JsonNode budget = request.path("generationConfig").path("thinkingConfig").path("thinkingBudget");
+        if (budget.isInt() && budget.asInt() >= 0) {
+            // Como o Gemini: 0 desliga o raciocínio, um valor positivo o limita (-1 = dinâmico)
+            thoughtsTokens = Math.min(thoughtsTokens, budget.asInt());
+        }
+
+        ObjectNode usage = objectMapper.createObjectNode();
+        usage.put("promptTokenCount", promptTokens);
+        usage.put("candidatesTokenCount", candidatesTokens);
+        usage.put("totalTokenCount", promptTokens + candidatesTokens + thoughtsTokens);
+        if (thoughtsTokens > 0) {
+            usage.put("thoughtsTokenCount", thoughtsTokens);
+        }
+
+        ObjectNode cached = cachedContents.get(request.path("cachedContent").asText(""));
+        if (cached != null) {
+            int cachedTokens = cached.path("usageMetadata").path("totalTokenCount").asInt();
+            usage.put("cachedContentTokenCount", cachedTokens);
+            usage.put("promptTokenCount", promptTokens + cachedTokens);
+            usage.put("totalTokenCount", promptTokens + cachedTokens + candidatesTokens + thoughtsTokens);
+        }
+        return usage;
+    }
+
+    private static String promptText(JsonNode request) {
+        StringBuilder text = new StringBuilder();
+        for (JsonNode content : request.path("contents")) {
+            for (JsonNode part : content.path("parts")) {
+                if (part.has("text")) {
+                    if (!text.isEmpty()) {
+                        text.append('\n');
+                    }
+                    text.append(part.path("text").asText());
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static int estimateTokens(String text) {
+        return text.isEmpty() ? 0 : Math.max(1, text.length() / 4);
+    }
+
+    private static Duration parseTtl(String ttl) {
+        try {
+            return Duration.ofMillis(Math.round(Double.parseDouble(ttl.replace("s", "")) * 1000));
+        } catch (NumberFormatException e) {
+            return Duration.ofHours(1);
+        }
+    }
+
+    private static boolean hasApiKey(HttpServerRequest request, QueryStringDecoder uri) {
+        String header = request.requestHeaders().get("x-goog-api-key");
+        return (header != null && !header.isBlank()) || first(uri, "key") != null;
+    }
+
+    private static String first(QueryStringDecoder uri, String name) {
+        List<String> values = uri.parameters().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private ObjectNode error(int code, String status, String message) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("error")
+                .put("code", code)
+                .put("message", message)
+                .put("status", status);
+        return body;
+    }
+
+    private Mono<Void> sendError(HttpServerResponse response, int code, String status, String message) {
+        return sendJson(response, code, error(code, status, message));
+    }
+
+    private Mono<Void> sendJson(HttpServerResponse response, int status, JsonNode body) {
+        return response.status(status)
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .sendString(Mono.just(body.toString()))
+                .then();
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.aipoc.stub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Behaviour of the {@link GeminiStubServer}: latency, injected faults and canned
+ * answers. Bound from {@code ai.stub.*} when running with the {@code gemini-stub}
+ * profile:
+ *
+ * <pre>
+ * ai:
+ *   stub:
+ *     latency:
+ *       distribution: LOG_NORMAL
+ *       median: 800ms
+ *       p99: 4s
+ *     rate-limit-rate: 0.02
+ *     unavailable-rate: 0.01
+ *     exhausted-models: [gemini-2.5-flash]
+ *     min-thinking-budgets:
+ *       '[gemini-2.5-pro]': 128
+ *     answers:
+ *       - contains: "Analise o sentimento"
+ *         answer: '{"sentiment": "POSITIVE", "confidence": 0.9, "explanation": "..."}'
+ * </pre>
+ *
+ * <p>Rates are probabilities between 0.0 and 1.0, drawn independently for each
+ * request in the order: quota, rate limit, unavailable, truncation, malformed.
+ * Models listed in {@code exhausted-models} answer every call with the quota error,
+ * as when the project's quota for that model is used up. Models listed in
+ * {@code min-thinking-budgets} answer 400 to a {@code thinkingBudget} below their
+ * minimum (other than -1), as the API does for models that cannot turn thinking off.
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public class GeminiStubSettings {
+
+    /**
+     * Shape of the simulated generation latency.
+     */
+    public enum Distribution {
+        /** Answer immediately. */
+        NONE,
+        /** Always wait {@code median}. */
+        FIXED,
+        /** Uniform between {@code min} and {@code max}. */
+        UNIFORM,
+        /** Log-normal with the given {@code median} and {@code p99}, capped at {@code max}. */
+        LOG_NORMAL
+    }
+
+    private int port = 8089;
+    private Long seed;
+    private Latency latency = new Latency();
+    private Quota quota = new Quota();
+    private Stream stream = new Stream();
+    private double rateLimitRate;
+    private double unavailableRate;
+    private double maxTokensRate;
+    private double malformedRate;
+    private List<String> exhaustedModels = new ArrayList<>();
+    private Map<String, Integer> minThinkingBudgets = new HashMap<>();
+    private int thoughtsTokens;
+    private String defaultAnswer = "Resposta simulada pelo stub local do Gemini.";
+    private List<CannedAnswer> answers = new ArrayList<>();
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public void setLatency(Latency latency) {
+        this.latency = latency;
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+
+    public void setQuota(Quota quota) {
+        this.quota = quota;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public void setStream(Stream stream) {
+        this.stream = stream;
+    }
+
+    public double getRateLimitRate() {
+        return rateLimitRate;
+    }
+
+    public void setRateLimitRate(double rateLimitRate) {
+        this.rateLimitRate = rateLimitRate;
+    }
+
+    public double getUnavailableRate() {
+        return unavailableRate;
+    }
+
+    public void setUnavailableRate(double unavailableRate) {
+        this.unavailableRate = unavailableRate;
+    }
+
+    public double getMaxTokensRate() {
+        return maxTokensRate;
+    }
+
+    public void setMaxTokensRate(double maxTokensRate) {
+        this.maxTokensRate = maxTokensRate;
+    }
+
+    public double getMalformedRate() {
+        return malformedRate;
+    }
+
+    public void setMalformedRate(double malformedRate) {
+        this.malformedRate = malformedRate;
+    }
+
+    public List<String> getExhaustedModels() {
+        return exhaustedModels;
+    }
+
+    public void setExhaustedModels(List<String> exhaustedModels) {
+        this.exhaustedModels = exhaustedModels;
+    }
+
+    public Map<String, Integer> getMinThinkingBudgets() {
+        return minThinkingBudgets;
+    }
+
+    public void setMinThinkingBudgets(Map<String, Integer> minThinkingBudgets) {
+        this.minThinkingBudgets = minThinkingBudgets;
+    }
+
+    /**
+     * Thoughts tokens reported on each answer, capped by the request's
+     * {@code thinkingConfig.thinkingBudget} (0 reports none).
+     */
+    public int getThoughtsTokens() {
+        return thoughtsTokens;
+    }
+
+    public void setThoughtsTokens(int thoughtsTokens) {
+        this.thoughtsTokens = thoughtsTokens;
+    }
+
+    public String getDefaultAnswer() {
+        return defaultAnswer;
+    }
+
+    public void setDefaultAnswer(String defaultAnswer) {
+        this.defaultAnswer = defaultAnswer;
+    }
+
+    public List<CannedAnswer> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<CannedAnswer> answers) {
+        this.answers = answers;
+    }
+
+    /**
+     * Simulated generation latency.
+     */
+    public static class Latency {
+
+        private Distribution distribution = Distribution.NONE;
+        private Duration min = Duration.ZERO;
+        private Duration max = Duration.ofSeconds(30);
+        private Duration median = Duration.ofMillis(500);
+        private Duration p99 = Duration.ofSeconds(2);
+
+        public Distribution getDistribution() {
+            return distribution;
+        }
+
+        public void setDistribution(Distribution distribution) {
+            this.distribution = distribution;
+        }
+
+        public Duration getMin() {
+            return min;
+        }
+
+        public void setMin(Duration min) {
+            this.min = min;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+
+        public void setMax(Duration max) {
+            this.max = max;
+        }
+
+        public Duration getMedian() {
+            return median;
+        }
+
+        public void setMedian(Duration median) {
+            this.median = median;
+        }
+
+        public Duration getP99() {
+            return p99;
+        }
+
+        public void setP99(Duration p99) {
+            this.p99 = p99;
+        }
+    }
+
+    /**
+     * Deterministic quota: requests beyond the limit within a clock minute get a
+     * 429 {@code RESOURCE_EXHAUSTED}, like the real per-minute API quota.
+     */
+    public static class Quota {
+
+        /** Requests allowed per minute, 0 for unlimited. */
+        private int requestsPerMinute;
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+    }
+
+    /**
+     * Chunking of {@code streamGenerateContent} answers. The first chunk is sent
+     * after the sampled latency, the following ones every {@code chunk-interval}.
+     */
+    public static class Stream {
+
+        private int chunkChars = 40;
+        private Duration chunkInterval = Duration.ofMillis(20);
+
+        public int getChunkChars() {
+            return chunkChars;
+        }
+
+        public void setChunkChars(int chunkChars) {
+            this.chunkChars = chunkChars;
+        }
+
+        public Duration getChunkInterval() {
+            return chunkInterval;
+        }
+
+        public void setChunkInterval(Duration chunkInterval) {
+            this.chunkInterval = chunkInterval;
+        }
+    }
+
+    /**
+     * Fixed answer for prompts containing a given text. The first matching entry
+     * wins; prompts matching none get {@code default-answer}.
+     */
+    public static class CannedAnswer {
+
+        private String contains;
+        private String answer;
+
+        public CannedAnswer() {
+        }
+
+        public CannedAnswer(String contains, String answer) {
+            this.contains = contains;
+            this.answer = answer;
+        }
+
+        public String getContains() {
+            return contains;
+        }
+
+        public void setContains(String contains) {
+            this.contains = contains;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+
+        public void setAnswer(String answer) {
+            this.answer = answer;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.aipoc.tracing;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for wrapping request stages in Micrometer observations.
+ *
+ * <p>With the OpenTelemetry bridge on the classpath every observation becomes a
+ * span; low-cardinality key values become span attributes and metric tags, while
+ * high-cardinality ones (token counts, sizes) only become span attributes.
+ *
+ * <h3>Observation names:</h3>
+ * <ul>
+ * <li>{@link #REQUEST} - a whole AI operation, opened by the controller</li>
+ * <li>{@link #PROMPT_BUILD} - rendering the prompt and request body, tagged with the
+ * {@code template} id</li>
+ * <li>{@link #GEMINI_CALL} - the upstream round trip</li>
+ * <li>{@link #RESPONSE_PARSE} - extracting and parsing the answer</li>
+ * </ul>
+ *
+ * @author AI POC Team
+ * @since 1.1
+ */
+public final class AiObservations {
+
+    public static final String REQUEST = "ai.request";
+    public static final String PROMPT_BUILD = "ai.prompt.build";
+    public static final String GEMINI_CALL = "gemini.call";
+    public static final String RESPONSE_PARSE = "ai.response.parse";
+
+    /** Key of the prompt template id ({@code name@vN}) on {@link #PROMPT_BUILD}. */
+    public static final String TEMPLATE_KEY = "template";
+
+    public static final String FALLBACK_EVENT = "ai.fallback";
+    public static final String CANCELLED_EVENT = "cancelled";
+
+    private AiObservations() {
+    }
+
+    /**
+     * Runs a synchronous stage inside an observation.
+     *
+     * @param registry  the observation registry
+     * @param name      the observation name
+     * @param operation the AI operation the stage belongs to
+     * @param stage     the stage to run
+     * @param <T>       the stage result type
+     * @return the stage result
+     */
+    public static <T> T observe(ObservationRegistry registry, String name, AiOperation operation, Supplier<T> stage) {
+        return observe(registry, name, operation, KeyValues.empty(), stage);
+    }
+
+    /**
+     * Runs a synchronous stage inside an observation carrying extra low-cardinality
+     * key values, such as the prompt template id of {@link #PROMPT_BUILD}.
+     *
+     * @param registry  the observation registry
+     * @param name      the observation name
+     * @param operation the AI operation the stage belongs to
+     * @param keyValues extra low-cardinality key values
+     * @param stage     the stage to run
+     * @param <T>       the stage result type
+     * @return the stage result
+     */
+    public static <T> T observe(ObservationRegistry registry, String name, AiOperation operation,
+                                KeyValues keyValues, Supplier<T> stage) {
+        return Observation.createNotStarted(name, registry)
+                .lowCardinalityKeyValue("operation", operation.getKey())
+                .lowCardinalityKeyValues(keyValues)
+                .observe(stage);
+    }
+
+    /**
+     * Wraps an asynchronous stage in an observation that starts on subscription and
+     * stops on completion, error or cancellation.
+     *
+     * <p>The stage is assembled while the observation is in scope, so synchronous
+     * work done during assembly (such as building the prompt) is attributed to it.
+     * The observation is also written into the Reactor context, so observations
+     * created further down the chain (including the WebClient's own
+     * {@code http.client.requests}) become its children.
+     *
+     * @param registry  the observation registry
+     * @param name      the observation name
+     * @param operation the AI operation the stage belongs to
+     * @param stage     supplier of the stage to observe
+     * @param onValue   callback to attach attributes from the emitted value, may be
+     *                  null
+     * @param <T>       the stage result type
+     * @return the observed stage
+     */
+    public static <T> Mono<T> observe(ObservationRegistry registry, String name, AiOperation operation,
+                                      Supplier<Mono<T>> stage, BiConsumer<Observation, T> onValue) {
+        if (registry.isNoop()) {
+            return Mono.defer(stage);
+        }
+
+        return Mono.deferContextual(context -> {
+            Observation observation = Observation.createNotStarted(name, registry);
+            Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+            if (parent != null) {
+                observation.parentObservation(parent);
+            }
+            observation.lowCardinalityKeyValue("operation", operation.getKey()).start();
+
+            Mono<T> assembled;
+            try (Observation.Scope scope = observation.openScope()) {
+                assembled = stage.get();
+            } catch (RuntimeException e) {
+                observation.error(e);
+                observation.stop();
+                return Mono.error(e);
+            }
+
+            // Encerra antes de propagar o sinal, para que o span filho termine antes do pai
+            return assembled
+                    .doOnSuccess(value -> {
+                        if (value != null && onValue != null) {
+                            onValue.accept(observation, value);
+                        }
+                        observation.stop();
+                    })
+                    .doOnError(error -> {
+                        observation.error(error);
+                        observation.stop();
+                    })
+                    .doOnCancel(() -> {
+                        observation.event(Observation.Event.of(CANCELLED_EVENT));
+                        observation.stop();
+                    })
+                    .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    /**
+     * Wraps a streamed stage in an observation, like
+     * {@link #observe(ObservationRegistry, String, AiOperation, Supplier, BiConsumer)}:
+     * it starts on subscription and stops when the stream completes, fails or is
+     * cancelled.
+     *
+     * @param registry  the observation registry
+     * @param name      the observation name
+     * @param operation the AI operation the stage belongs to
+     * @param stage     supplier of the stage to observe
+     * @param <T>       the element type
+     * @return the observed stage
+     */
+    public static <T> Flux<T> observeMany(ObservationRegistry registry, String name, AiOperation operation,
+                                          Supplier<Flux<T>> stage) {
+        if (registry.isNoop()) {
+            return Flux.defer(stage);
+        }
+
+        return Flux.deferContextual(context -> {
+            Observation observation = Observation.createNotStarted(name, registry);
+            Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+            if (parent != null) {
+                observation.parentObservation(parent);
+            }
+            observation.lowCardinalityKeyValue("operation", operation.getKey()).start();
+
+            Flux<T> assembled;
+            try (Observation.Scope scope = observation.openScope()) {
+                assembled = stage.get();
+            } catch (RuntimeException e) {
+                observation.error(e);
+                observation.stop();
+                return Flux.error(e);
+            }
+
+            return assembled
+                    .doOnComplete(observation::stop)
+                    .doOnError(error -> {
+                        observation.error(error);
+                        observation.stop();
+                    })
+                    .doOnCancel(() -> {
+                        observation.event(Observation.Event.of(CANCELLED_EVENT));
+                        observation.stop();
+                    })
+                    .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    /**
+     * Adds a span event to the observation currently in scope, if any.
+     *
+     * @param registry the observation registry
+     * @param event    the event name
+     */
+    public static void event(ObservationRegistry registry, String event) {
+        Observation current = registry.getCurrentObservation();
+        if (current != null) {
+            current.event(Observation.Event.of(event));
+        }
+    }
+}
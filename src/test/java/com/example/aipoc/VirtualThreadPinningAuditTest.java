@@ -0,0 +1,51 @@
+package com.example.aipoc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * On JDK 21 a virtual thread that blocks inside a {@code synchronized} block or method
+ * pins its carrier thread. Request-path code must use {@code java.util.concurrent}
+ * locks or lock-free structures instead, so the {@code virtual-threads} profile can
+ * keep thousands of slow upstream calls in flight on a few carriers.
+ *
+ * <p>This is a source scan of {@code src/main/java} only. Pinning inside libraries
+ * (monitors in dependencies) or native frames is not covered; run the profile with
+ * {@code -Djdk.tracePinnedThreads=short} to catch those.
+ */
+@DisplayName("Virtual thread pinning audit")
+class VirtualThreadPinningAuditTest {
+
+    private static final Pattern SYNCHRONIZED = Pattern.compile("\\bsynchronized\\b");
+
+    @Test
+    @DisplayName("Main sources should not use synchronized")
+    void mainSourcesShouldNotUseSynchronized() throws IOException {
+        List<String> violations = new ArrayList<>();
+
+        try (Stream<Path> sources = Files.walk(Path.of("src", "main", "java"))) {
+            for (Path source : sources.filter(path -> path.toString().endsWith(".java")).toList()) {
+                List<String> lines = Files.readAllLines(source);
+                for (int i = 0; i < lines.size(); i++) {
+                    String line = lines.get(i).strip();
+                    boolean comment = line.startsWith("*") || line.startsWith("//") || line.startsWith("/*");
+                    if (!comment && SYNCHRONIZED.matcher(line).find()) {
+                        violations.add(source + ":" + (i + 1) + " -> " + line);
+                    }
+                }
+            }
+        }
+
+        assertTrue(violations.isEmpty(), "synchronized pins virtual threads: " + violations);
+    }
+}
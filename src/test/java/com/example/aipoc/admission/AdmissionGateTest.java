@@ -0,0 +1,236 @@
+package com.example.aipoc.admission;
+
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdmissionGate Tests")
+class AdmissionGateTest {
+
+    private SimpleMeterRegistry registry;
+    private AdmissionProperties.Limits limits;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        limits = AdmissionProperties.Limits.defaults();
+        limits.setMaxInFlight(1);
+        limits.setMaxQueue(10);
+        limits.setMaxQueueWait(Duration.ofSeconds(5));
+        limits.setCodelInterval(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should queue requests beyond the in-flight limit and serve them in order")
+    void shouldQueueAndServeInOrder() throws Exception {
+        // Given
+        AdmissionGate gate = gate();
+        Sinks.One<String> running = Sinks.one();
+        CompletableFuture<String> first = gate.admit(running::asMono).toFuture();
+        List<String> served = new ArrayList<>();
+
+        // When
+        CompletableFuture<String> second = gate.admit(() -> Mono.fromSupplier(() -> record(served, "second"))).toFuture();
+        CompletableFuture<String> third = gate.admit(() -> Mono.fromSupplier(() -> record(served, "third"))).toFuture();
+
+        // Then
+        assertEquals(1, gate.inFlight());
+        assertEquals(2, gate.queued());
+        assertFalse(second.isDone());
+
+        // When
+        running.tryEmitValue("first");
+
+        // Then
+        assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        assertEquals("third", third.get(1, TimeUnit.SECONDS));
+        assertEquals(List.of("second", "third"), served);
+        assertEquals(0, gate.inFlight());
+        assertEquals(0, gate.queued());
+    }
+
+    @Test
+    @DisplayName("Should reject immediately with Retry-After when the queue is full")
+    void shouldRejectWhenQueueFull() {
+        // Given
+        limits.setMaxQueue(1);
+        AdmissionGate gate = gate();
+        gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+        gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+
+        // When
+        AdmissionRejectedException rejection = rejectionOf(gate.admit(() -> Mono.just("late")).toFuture());
+
+        // Then
+        assertEquals(AdmissionRejectedException.Reason.QUEUE_FULL, rejection.getReason());
+        assertTrue(rejection.getRetryAfter().toSeconds() >= 1);
+        assertEquals(1.0, registry.get("ai.admission.rejected")
+                .tags("operation", "sentiment", "reason", "queue_full").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fail requests that wait longer than max-queue-wait")
+    void shouldTimeOutQueuedRequests() {
+        // Given
+        limits.setMaxQueueWait(Duration.ofMillis(100));
+        AdmissionGate gate = gate();
+        gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+
+        // When
+        AdmissionRejectedException rejection = rejectionOf(gate.admit(() -> Mono.just("late")).toFuture());
+
+        // Then
+        assertEquals(AdmissionRejectedException.Reason.QUEUE_TIMEOUT, rejection.getReason());
+        assertEquals(0, gate.queued());
+    }
+
+    @Test
+    @DisplayName("Should serve the newest request first once the queue is overloaded")
+    void shouldServeLifoWhenOverloaded() throws Exception {
+        // Given
+        limits.setCodelInterval(Duration.ofMillis(50));
+        limits.setCodelTarget(Duration.ofSeconds(2));
+        AdmissionGate gate = gate();
+        Sinks.One<String> running = Sinks.one();
+        gate.admit(running::asMono).subscribe();
+        List<String> served = new ArrayList<>();
+        CompletableFuture<String> older = gate.admit(() -> Mono.fromSupplier(() -> record(served, "older"))).toFuture();
+        CompletableFuture<String> newer = gate.admit(() -> Mono.fromSupplier(() -> record(served, "newer"))).toFuture();
+        Thread.sleep(100);
+
+        // When
+        running.tryEmitValue("done");
+
+        // Then
+        older.get(1, TimeUnit.SECONDS);
+        newer.get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("newer", "older"), served);
+    }
+
+    @Test
+    @DisplayName("Should drop requests past the CoDel target when the queue is overloaded")
+    void shouldDropStaleRequestsWhenOverloaded() throws Exception {
+        // Given
+        limits.setCodelInterval(Duration.ofMillis(50));
+        limits.setCodelTarget(Duration.ofMillis(100));
+        limits.setLatencyFactor(0.0);
+        AdmissionGate gate = gate();
+        Sinks.One<String> running = Sinks.one();
+        gate.admit(running::asMono).subscribe();
+        CompletableFuture<String> stale = gate.admit(() -> Mono.just("stale")).toFuture();
+        Thread.sleep(200);
+        CompletableFuture<String> fresh = gate.admit(() -> Mono.just("fresh")).toFuture();
+
+        // When
+        running.tryEmitValue("done");
+
+        // Then
+        assertEquals(AdmissionRejectedException.Reason.CODEL, rejectionOf(stale).getReason());
+        assertEquals("fresh", fresh.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should reject arrivals whose predicted wait exceeds max-queue-wait")
+    void shouldRejectOnExpectedWait() throws Exception {
+        // Given
+        limits.setMaxQueueWait(Duration.ofMillis(100));
+        AdmissionGate gate = gate();
+        gate.admit(() -> Mono.delay(Duration.ofMillis(300)).thenReturn("slow")).toFuture().get(1, TimeUnit.SECONDS);
+        gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+
+        // When
+        AdmissionRejectedException rejection = rejectionOf(gate.admit(() -> Mono.just("late")).toFuture());
+
+        // Then
+        assertTrue(gate.latencyEwmaNanos() >= TimeUnit.MILLISECONDS.toNanos(300));
+        assertEquals(AdmissionRejectedException.Reason.EXPECTED_WAIT, rejection.getReason());
+    }
+
+    @Test
+    @DisplayName("Should stop waiting when the request deadline runs out before max-queue-wait")
+    void shouldLeaveQueueAtDeadline() {
+        // Given
+        AdmissionGate gate = gate();
+        gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+        CompletableFuture<String> queued = gate.admit(() -> Mono.just("late"))
+                .contextWrite(Context.of(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(100))))
+                .toFuture();
+
+        // When
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+
+        // Then
+        DeadlineExceededException exceeded = assertInstanceOf(DeadlineExceededException.class, failure.getCause());
+        assertEquals(DeadlineExceededException.Stage.ADMISSION, exceeded.getStage());
+        assertEquals(0, gate.queued());
+        assertEquals(0.0, registry.get("ai.admission.rejected").tag("reason", "queue_timeout").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fail at once when the expected wait outlasts the request deadline")
+    void shouldNotQueuePastDeadline() throws Exception {
+        // Given
+        AdmissionGate gate = gate();
+        gate.admit(() -> Mono.just("first").delayElement(Duration.ofMillis(300))).toFuture().get(1, TimeUnit.SECONDS);
+        gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+
+        // When
+        CompletableFuture<String> tight = gate.admit(() -> Mono.just("tight"))
+                .contextWrite(Context.of(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(50))))
+                .toFuture();
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> tight.get(20, TimeUnit.MILLISECONDS));
+        assertInstanceOf(DeadlineExceededException.class, failure.getCause());
+        assertEquals(0, gate.queued());
+    }
+
+    @Test
+    @DisplayName("Should release the slot and leave the queue when the caller cancels")
+    void shouldReleaseOnCancel() throws Exception {
+        // Given
+        AdmissionGate gate = gate();
+        Disposable running = gate.admit(() -> Sinks.<String>one().asMono()).subscribe();
+        Disposable queued = gate.admit(() -> Mono.just("queued")).subscribe();
+
+        // When
+        queued.dispose();
+        running.dispose();
+
+        // Then
+        assertEquals(0, gate.queued());
+        assertEquals(0, gate.inFlight());
+        assertEquals("next", gate.admit(() -> Mono.just("next")).toFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    private AdmissionGate gate() {
+        return new AdmissionGate(AiOperation.SENTIMENT, limits, registry);
+    }
+
+    private static String record(List<String> served, String value) {
+        served.add(value);
+        return value;
+    }
+
+    private static AdmissionRejectedException rejectionOf(CompletableFuture<?> result) {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        return assertInstanceOf(AdmissionRejectedException.class, failure.getCause());
+    }
+}
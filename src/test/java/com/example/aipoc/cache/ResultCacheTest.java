@@ -0,0 +1,80 @@
+package com.example.aipoc.cache;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResultCache Tests")
+class ResultCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private ResultCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ResultCacheProperties();
+    }
+
+    @Test
+    @DisplayName("Should keep entries apart by operation and count hits and misses")
+    void shouldKeyByOperation() {
+        // Given
+        ResultCache cache = new ResultCache(properties, registry);
+        cache.put(AiOperation.SENTIMENT, "texto", "positivo");
+
+        // When
+        Optional<String> hit = cache.get(AiOperation.SENTIMENT, "texto", String.class);
+        Optional<String> miss = cache.get(AiOperation.SUMMARY, "texto", String.class);
+
+        // Then
+        assertEquals(Optional.of("positivo"), hit);
+        assertTrue(miss.isEmpty());
+        assertEquals(1.0, registry.get("ai.cache.requests").tags("operation", "sentiment", "result", "hit")
+                .counter().count());
+        assertEquals(1.0, registry.get("ai.cache.requests").tags("operation", "summary", "result", "miss")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void shouldEvictLeastRecentlyUsed() {
+        // Given
+        properties.setMaxEntries(2);
+        ResultCache cache = new ResultCache(properties, registry);
+        cache.put(AiOperation.SENTIMENT, "a", "A");
+        cache.put(AiOperation.SENTIMENT, "b", "B");
+        cache.get(AiOperation.SENTIMENT, "a", String.class);
+
+        // When
+        cache.put(AiOperation.SENTIMENT, "c", "C");
+
+        // Then
+        assertTrue(cache.get(AiOperation.SENTIMENT, "b", String.class).isEmpty());
+        assertTrue(cache.get(AiOperation.SENTIMENT, "a", String.class).isPresent());
+        assertEquals(2.0, registry.get("ai.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should drop entries older than the TTL")
+    void shouldExpireEntries() throws Exception {
+        // Given
+        properties.setTtl(Duration.ofMillis(50));
+        ResultCache cache = new ResultCache(properties, registry);
+        cache.put(AiOperation.SENTIMENT, "texto", "positivo");
+
+        // When
+        Thread.sleep(80);
+
+        // Then
+        assertTrue(cache.get(AiOperation.SENTIMENT, "texto", String.class).isEmpty());
+        assertEquals(0.0, registry.get("ai.cache.size").gauge().value());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.aipoc.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ChatSessionStore Tests")
+class ChatSessionStoreTest {
+
+    private SimpleMeterRegistry registry;
+    private ChatSessionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ChatSessionProperties();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used session and hide sessions from other clients")
+    void shouldEvictLeastRecentlyUsed() {
+        // Given
+        properties.setMaxSessions(2);
+        ChatSessionStore store = new ChatSessionStore(properties, registry);
+        ChatSession first = store.create("loja");
+        ChatSession second = store.create("loja");
+        store.find(first.getId(), "loja");
+
+        // When
+        store.create("loja");
+
+        // Then
+        assertTrue(store.find(first.getId(), "loja").isPresent());
+        assertTrue(store.find(second.getId(), "loja").isEmpty());
+        assertTrue(store.find(first.getId(), "relatorios").isEmpty());
+        assertFalse(store.remove(first.getId(), "relatorios"));
+        assertEquals(1.0, registry.get("ai.chat.sessions.evicted").tag("reason", "capacity").counter().count());
+        assertEquals(2.0, registry.get("ai.chat.sessions").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should expire idle sessions on lookup and on sweep")
+    void shouldExpireIdleSessions() throws Exception {
+        // Given
+        properties.setIdleTimeout(Duration.ofMillis(50));
+        ChatSessionStore store = new ChatSessionStore(properties, registry);
+        ChatSession looked = store.create(null);
+        store.create(null);
+        Thread.sleep(80);
+
+        // When
+        boolean found = store.find(looked.getId(), null).isPresent();
+        store.sweep();
+
+        // Then
+        assertFalse(found);
+        assertEquals(0, store.size());
+        assertEquals(2.0, registry.get("ai.chat.sessions.evicted").tag("reason", "expired").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should keep the window within budget and fold older turns into the summary")
+    void shouldBoundWindowAndCompactOlderTurns() {
+        // Given
+        ChatSession session = new ChatSessionStore(properties, registry).create(null);
+        ChatSession.Turn first = new ChatSession.Turn("a".repeat(40), "b".repeat(40));
+        ChatSession.Turn second = new ChatSession.Turn("c".repeat(40), "d".repeat(40));
+        ChatSession.Turn third = new ChatSession.Turn("e".repeat(40), "f".repeat(40));
+
+        // When
+        session.append(first, 30, 1000);
+        session.append(second, 30, 1000);
+        ChatSession.Compaction work = session.startCompaction().orElseThrow();
+        session.append(third, 30, 1000);
+
+        // Then
+        assertEquals(List.of(first), work.turns());
+        assertTrue(session.startCompaction().isEmpty(), "only one compaction at a time");
+        assertEquals(List.of(third), session.snapshot().history());
+
+        // When
+        session.finishCompaction(work, "Resumo da primeira troca");
+        ChatSession.Compaction next = session.startCompaction().orElseThrow();
+
+        // Then
+        assertEquals("Resumo da primeira troca", session.snapshot().summary());
+        assertEquals(List.of(second), next.turns());
+        assertEquals(1, session.append(new ChatSession.Turn("g".repeat(40), "h".repeat(40)), 0, 40));
+    }
+}
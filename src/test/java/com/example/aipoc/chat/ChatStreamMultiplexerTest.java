@@ -0,0 +1,245 @@
+package com.example.aipoc.chat;
+
+import com.example.aipoc.metrics.GeminiMetrics;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.ClientQuotaProperties;
+import com.example.aipoc.service.AiGeneralService;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.reactivestreams.Subscription;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs WebSocket conversations through the multiplexer against the local Gemini stub.
+ */
+@DisplayName("ChatStreamMultiplexer against the Gemini stub")
+class ChatStreamMultiplexerTest {
+
+    private static final String ANSWER = "Resposta simulada pelo stub local do Gemini.";
+    private static final Set<String> TERMINAL = Set.of("done", "cancelled", "error");
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry registry;
+    private ChatSocketProperties properties;
+    private ChatStreamMultiplexer multiplexer;
+    private Sinks.Many<String> inbound;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        AiGeneralService aiService = new AiGeneralService();
+        ReflectionTestUtils.setField(aiService, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        ReflectionTestUtils.setField(aiService, "defaultModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(aiService, "defaultMaxTokens", 1000);
+        ReflectionTestUtils.setField(aiService, "defaultTemperature", 0.7);
+        ReflectionTestUtils.setField(aiService, "defaultApiKey", "test-api-key");
+        ReflectionTestUtils.setField(aiService, "metrics", new GeminiMetrics(registry));
+        properties = new ChatSocketProperties();
+        multiplexer = new ChatStreamMultiplexer(aiService, properties,
+                Validation.buildDefaultValidatorFactory().getValidator(), registry);
+        inbound = Sinks.many().unicast().onBackpressureBuffer();
+        stub.getServer().getSettings().getStream().setChunkChars(8);
+    }
+
+    @Test
+    @DisplayName("Should stream concurrent conversations over one connection, each ending with done")
+    void shouldMultiplexConversations() {
+        // Given
+        inbound.tryEmitNext(chat("c1", "Primeira pergunta"));
+        inbound.tryEmitNext(chat("c2", "Segunda pergunta"));
+
+        // When
+        List<JsonNode> frames = collectUntilTerminal(2);
+
+        // Then
+        for (String id : List.of("c1", "c2")) {
+            StringBuilder answer = new StringBuilder();
+            frames.stream()
+                    .filter(frame -> id.equals(frame.path("id").asText()) && "token".equals(type(frame)))
+                    .forEach(frame -> answer.append(frame.path("text").asText()));
+            assertEquals(ANSWER, answer.toString());
+            JsonNode done = last(frames, id);
+            assertEquals("done", type(done));
+            assertEquals("gemini-2.5-flash", done.path("model").asText());
+            assertTrue(done.path("tokensUsed").asInt() > 0);
+        }
+        assertEquals(2, stub.getServer().getRequestCount());
+        assertEquals(2.0, registry.get("ai.chat.socket.turns").tag("outcome", "completed").counter().count());
+        assertEquals(2, registry.get("ai.chat.socket.first.token").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should stop a cancelled conversation and its Gemini call")
+    void shouldCancelConversation() {
+        // Given
+        stub.getServer().getSettings().getStream().setChunkChars(2);
+        stub.getServer().getSettings().getStream().setChunkInterval(Duration.ofMillis(100));
+        inbound.tryEmitNext(chat("c1", "Pergunta longa"));
+        AtomicInteger tokens = new AtomicInteger();
+
+        // When
+        List<JsonNode> frames = multiplexer.connect(null, inbound.asFlux())
+                .map(this::read)
+                .doOnNext(frame -> {
+                    if ("token".equals(type(frame)) && tokens.incrementAndGet() == 1) {
+                        inbound.tryEmitNext("{\"type\": \"cancel\", \"id\": \"c1\"}");
+                    }
+                })
+                .takeUntil(frame -> TERMINAL.contains(type(frame)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(frames);
+        assertEquals("cancelled", type(frames.get(frames.size() - 1)));
+        assertTrue(tokens.get() < ANSWER.length() / 2);
+        assertEquals(1.0, registry.get("ai.chat.socket.turns").tag("outcome", "cancelled").counter().count());
+        assertEquals(1, registry.get("gemini.requests").tag("outcome", GeminiMetrics.OUTCOME_CANCELLED)
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should refuse bad frames, reused ids and conversations past max-streams, and cancel the rest on close")
+    void shouldRejectFramesAndCancelOnClose() {
+        // Given
+        properties.setMaxStreams(2);
+        stub.getServer().getSettings().getStream().setChunkInterval(Duration.ofSeconds(1));
+        inbound.tryEmitNext("não é JSON");
+        inbound.tryEmitNext(chat("c0", " "));
+        inbound.tryEmitNext(chat("c1", "Pergunta"));
+        inbound.tryEmitNext(chat("c1", "Outra pergunta"));
+        inbound.tryEmitNext(chat("c2", "Pergunta"));
+        inbound.tryEmitNext(chat("c3", "Pergunta"));
+
+        // When
+        List<JsonNode> frames = multiplexer.connect(null, inbound.asFlux())
+                .map(this::read)
+                .doOnNext(frame -> {
+                    if ("c3".equals(frame.path("id").asText())) {
+                        inbound.tryEmitComplete();
+                    }
+                })
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(frames);
+        List<JsonNode> errors = frames.stream().filter(frame -> "error".equals(type(frame))).toList();
+        assertEquals(List.of("invalid_frame", "invalid_request", "duplicate_id", "too_many_streams"),
+                errors.stream().map(frame -> frame.path("code").asText()).toList());
+        assertTrue(errors.get(0).path("id").isNull());
+        assertEquals("c1", errors.get(2).path("id").asText());
+        assertTrue(frames.stream().noneMatch(frame -> "done".equals(type(frame))));
+        assertEquals(4.0, registry.get("ai.chat.socket.turns").tag("outcome", "rejected").counter().count());
+        assertEquals(2.0, registry.get("ai.chat.socket.turns").tag("outcome", "cancelled").counter().count());
+        assertEquals(0.0, registry.get("ai.chat.socket.streams").gauge().value());
+        assertEquals(0.0, registry.get("ai.chat.socket.connections").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should identify the client by an auth first frame and refuse auth frames after it")
+    void shouldIdentifyClientByFirstFrame() {
+        // Given
+        ClientQuotaProperties quotas = new ClientQuotaProperties();
+        ClientQuotaProperties.Client acme = new ClientQuotaProperties.Client();
+        acme.setApiKey("acme-key");
+        acme.setRequestsPerMinute(1L);
+        quotas.getClients().put("acme", acme);
+        ReflectionTestUtils.setField(multiplexer, "clientLedger", new ClientLedger(quotas));
+        inbound.tryEmitNext("{\"type\": \"auth\", \"apiKey\": \"acme-key\"}");
+        inbound.tryEmitNext(chat("c1", "Primeira pergunta"));
+        inbound.tryEmitNext(chat("c2", "Segunda pergunta"));
+        inbound.tryEmitNext("{\"type\": \"auth\", \"apiKey\": \"acme-key\"}");
+
+        // When
+        List<JsonNode> frames = collectUntilTerminal(3);
+
+        // Then
+        assertEquals("done", type(last(frames, "c1")));
+        assertEquals("quota_exceeded", last(frames, "c2").path("code").asText());
+        assertTrue(frames.stream().anyMatch(frame -> frame.path("id").isNull()
+                && "invalid_frame".equals(frame.path("code").asText())));
+        assertEquals(1, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should stop reading client frames while the connection has no room for another conversation")
+    void shouldBoundFramesRead() {
+        // Given
+        properties.setMaxStreams(2);
+        stub.getServer().getSettings().getStream().setChunkInterval(Duration.ofSeconds(1));
+        AtomicLong requested = new AtomicLong();
+        Flux<String> frames = Flux.range(1, 100)
+                .map(i -> chat("c" + i, "Pergunta"))
+                .doOnRequest(requested::addAndGet);
+
+        // When
+        BaseSubscriber<String> connection = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // O cliente não lê nada
+            }
+        };
+        multiplexer.connect(null, frames).subscribe(connection);
+
+        // Then
+        try {
+            // 4 × (max-streams + 1)
+            assertEquals(12, requested.get());
+            assertEquals(2.0, registry.get("ai.chat.socket.streams").gauge().value());
+        } finally {
+            connection.dispose();
+        }
+    }
+
+    private List<JsonNode> collectUntilTerminal(int conversations) {
+        AtomicInteger ended = new AtomicInteger();
+        return multiplexer.connect(null, inbound.asFlux())
+                .map(this::read)
+                .takeUntil(frame -> TERMINAL.contains(type(frame)) && ended.incrementAndGet() == conversations)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static String chat(String id, String message) {
+        return "{\"type\": \"chat\", \"id\": \"" + id + "\", \"message\": \"" + message + "\"}";
+    }
+
+    private static JsonNode last(List<JsonNode> frames, String id) {
+        return frames.stream().filter(frame -> id.equals(frame.path("id").asText())).reduce((a, b) -> b).orElseThrow();
+    }
+
+    private static String type(JsonNode frame) {
+        return frame.path("type").asText();
+    }
+
+    private JsonNode read(String frame) {
+        try {
+            return objectMapper.readTree(frame);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.aipoc.config;
+
+import com.example.aipoc.chat.ChatStreamMultiplexer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ChatSocketConfig Tests")
+class ChatSocketConfigTest {
+
+    @Test
+    @DisplayName("Should close a servlet connection that sends more frames than it has read")
+    void shouldCloseConnectionPastPendingFrames() throws Exception {
+        // Given
+        ChatStreamMultiplexer multiplexer = mock(ChatStreamMultiplexer.class);
+        // A conexão lê o primeiro frame e não pede mais nenhum
+        when(multiplexer.connect(any(), any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(1)
+                .delayUntil(frame -> Mono.never()));
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        when(session.getHandshakeHeaders()).thenReturn(new HttpHeaders());
+        ChatSocketConfig.Handler handler = new ChatSocketConfig.Handler(multiplexer, 32, 2);
+        handler.afterConnectionEstablished(session);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            handler.handleTextMessage(session, new TextMessage("{}"));
+        }
+
+        // Then
+        verify(session, never()).close(any());
+
+        // When
+        handler.handleTextMessage(session, new TextMessage("{}"));
+
+        // Then
+        verify(session).close(CloseStatus.POLICY_VIOLATION.withReason("Frames demais aguardando leitura"));
+    }
+}
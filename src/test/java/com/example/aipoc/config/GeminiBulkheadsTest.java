@@ -0,0 +1,141 @@
+package com.example.aipoc.config;
+
+import com.example.aipoc.metrics.GeminiMetrics;
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GeminiBulkheads Tests")
+class GeminiBulkheadsTest {
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        settings.getLatency().setMedian(Duration.ofMillis(500));
+        return settings;
+    });
+
+    private SimpleMeterRegistry registry;
+    private GeminiHttpProperties properties;
+    private GeminiBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new GeminiHttpProperties();
+        GeminiHttpProperties.Pool summary = new GeminiHttpProperties.Pool();
+        summary.setMaxConnections(1);
+        summary.setPendingAcquireMaxCount(1);
+        summary.setPendingAcquireTimeout(Duration.ofMillis(100));
+        properties.getOperations().put("summary", summary);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bulkheads != null) {
+            bulkheads.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail calls beyond an operation's pool without affecting the others")
+    void shouldIsolateOperations() throws Exception {
+        // Given
+        bulkheads = new GeminiBulkheads(WebClient.create(stub.getServer().getBaseUrl()), properties, registry);
+        Disposable running = call(AiOperation.SUMMARY).subscribe();
+        Thread.sleep(100);
+
+        // When
+        CompletableFuture<String> overflow = call(AiOperation.SUMMARY).toFuture();
+        CompletableFuture<String> sentiment = call(AiOperation.SENTIMENT).toFuture();
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> overflow.get(1, TimeUnit.SECONDS));
+        assertEquals(GeminiMetrics.OUTCOME_BULKHEAD_FULL, GeminiMetrics.outcomeOf(failure.getCause()));
+        assertTrue(sentiment.get(2, TimeUnit.SECONDS).contains("candidates"));
+        running.dispose();
+    }
+
+    @Test
+    @DisplayName("Should apply each operation's response timeout")
+    void shouldApplyResponseTimeoutPerOperation() throws Exception {
+        // Given
+        GeminiHttpProperties.Pool sentiment = new GeminiHttpProperties.Pool();
+        sentiment.setResponseTimeout(Duration.ofMillis(100));
+        properties.getOperations().put("sentiment", sentiment);
+        bulkheads = new GeminiBulkheads(WebClient.create(stub.getServer().getBaseUrl()), properties, registry);
+
+        // When
+        CompletableFuture<String> fast = call(AiOperation.SENTIMENT).toFuture();
+        CompletableFuture<String> chat = call(AiOperation.CHAT).toFuture();
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> fast.get(2, TimeUnit.SECONDS));
+        assertEquals("timeout", GeminiMetrics.outcomeOf(failure.getCause()));
+        assertTrue(chat.get(2, TimeUnit.SECONDS).contains("candidates"));
+    }
+
+    @Test
+    @DisplayName("Should publish pool saturation per operation")
+    void shouldPublishSaturation() throws Exception {
+        // Given
+        bulkheads = new GeminiBulkheads(WebClient.create(stub.getServer().getBaseUrl()), properties, registry);
+
+        // When
+        Disposable running = call(AiOperation.SUMMARY).subscribe();
+        Thread.sleep(200);
+
+        // Then
+        assertEquals(1.0, registry.get("gemini.bulkhead.max").tag("operation", "summary").gauge().value());
+        assertEquals(1.0, registry.get("gemini.bulkhead.saturation").tag("operation", "summary").gauge().value());
+        running.dispose();
+    }
+
+    @Test
+    @DisplayName("Should split an operation's pool across endpoints and tag the gauges by endpoint")
+    void shouldSplitPoolAcrossEndpoints() throws Exception {
+        // Given
+        properties.getOperations().get("summary").setMaxConnections(4);
+        bulkheads = new GeminiBulkheads(WebClient.create(stub.getServer().getBaseUrl()), properties, 2, registry);
+
+        // When
+        Disposable running = call(AiOperation.SUMMARY).subscribe();
+        Thread.sleep(200);
+
+        // Then
+        assertEquals(2.0, registry.get("gemini.bulkhead.max")
+                .tags("operation", "summary", "endpoint", "localhost:" + stub.getServer().getPort())
+                .gauge().value());
+        assertEquals(0.5, registry.get("gemini.bulkhead.saturation").tag("operation", "summary").gauge().value());
+        running.dispose();
+    }
+
+    private Mono<String> call(AiOperation operation) {
+        return bulkheads.client(operation)
+                .post()
+                .uri("/models/gemini-2.5-flash:generateContent")
+                .header("x-goog-api-key", "test-api-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"contents\":[{\"parts\":[{\"text\":\"" + operation.getKey() + "\"}]}]}")
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.aipoc.config;
+
+import com.example.aipoc.stub.GeminiStubServer;
+import com.example.aipoc.stub.GeminiStubSettings;
+import com.example.aipoc.support.Await;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GeminiEndpoints Tests")
+class GeminiEndpointsTest {
+
+    private static final String BASE_URL = "http://gemini.invalid/v1beta";
+    private static final String API_KEY = "test-api-key";
+
+    private GeminiStubServer fast;
+    private GeminiStubServer slow;
+    private SimpleMeterRegistry registry;
+    private GeminiEndpointProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        fast = new GeminiStubServer(new GeminiStubSettings()).start(0);
+        GeminiStubSettings degraded = new GeminiStubSettings();
+        degraded.getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        degraded.getLatency().setMedian(Duration.ofMillis(150));
+        slow = new GeminiStubServer(degraded).start(0);
+        registry = new SimpleMeterRegistry();
+        properties = new GeminiEndpointProperties();
+        properties.setUrls(List.of(fast.getBaseUrl(), slow.getBaseUrl()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fast.stop();
+        slow.stop();
+    }
+
+    @Test
+    @DisplayName("Should steer calls away from the slower endpoint")
+    void shouldPreferFasterEndpoint() {
+        // Given
+        properties.setDecay(Duration.ofMillis(200));
+        GeminiEndpoints endpoints = endpoints();
+        WebClient client = client(endpoints);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            call(client);
+        }
+
+        // Then
+        assertTrue(slow.getRequestCount() <= 5, "slow endpoint got " + slow.getRequestCount() + " calls");
+        assertEquals(20, fast.getRequestCount() + slow.getRequestCount());
+        assertEquals(0.0, registry.get("gemini.endpoint.outstanding").tag("endpoint", fast.getBaseUrl())
+                .gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should eject an endpoint after consecutive failures and bring it back when a probe succeeds")
+    void shouldEjectAndProbeBack() throws Exception {
+        // Given
+        // Falhas rápidas parecem baratas para a escolha por latência: só a ejeção as tira do rodízio
+        properties.setConsecutiveFailures(2);
+        properties.setEjectionTime(Duration.ZERO);
+        slow.getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.NONE);
+        slow.getSettings().setUnavailableRate(1.0);
+        fast.getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        fast.getSettings().getLatency().setMedian(Duration.ofMillis(200));
+        GeminiEndpoints endpoints = endpoints();
+        GeminiEndpoints.Endpoint failing = endpoints.getEndpoints().get(1);
+        WebClient client = client(endpoints);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            call(client);
+        }
+
+        // Then
+        assertTrue(failing.isEjected());
+        assertEquals(2, slow.getRequestCount());
+        assertEquals(1.0, registry.get("gemini.endpoint.ejections").tag("endpoint", slow.getBaseUrl())
+                .counter().count());
+
+        // When
+        endpoints.probe();
+        Await.until(() -> slow.getRequestCount() == 3 && failing.outstanding() == 0);
+        Thread.sleep(50);
+
+        // Then
+        assertTrue(failing.isEjected());
+
+        // When
+        slow.getSettings().setUnavailableRate(0.0);
+        Await.until(() -> {
+            endpoints.probe();
+            return !failing.isEjected();
+        });
+
+        // Then
+        assertEquals(0.0, registry.get("gemini.endpoint.ejected").tag("endpoint", slow.getBaseUrl())
+                .gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should keep at most max-ejected-percent of the pool out")
+    void shouldCapEjections() {
+        // Given
+        properties.setConsecutiveFailures(1);
+        fast.getSettings().setUnavailableRate(1.0);
+        slow.getSettings().setUnavailableRate(1.0);
+        GeminiEndpoints endpoints = endpoints();
+        WebClient client = client(endpoints);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            call(client);
+        }
+
+        // Then
+        assertEquals(1, endpoints.getEndpoints().stream().filter(GeminiEndpoints.Endpoint::isEjected).count());
+        assertEquals(10, fast.getRequestCount() + slow.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should keep probe latency out of the endpoint latency estimate")
+    void shouldNotFeedProbesIntoLatency() throws Exception {
+        // Given
+        properties.setDecay(Duration.ofHours(1));
+        properties.setProbeInterval(Duration.ZERO);
+        GeminiEndpoints endpoints = endpoints();
+        WebClient client = client(endpoints);
+        for (int i = 0; i < 5; i++) {
+            call(client);
+        }
+        double before = latency(fast);
+        fast.getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        fast.getSettings().getLatency().setMedian(Duration.ofMillis(300));
+        long requests = fast.getRequestCount();
+
+        // When
+        endpoints.probe();
+        Await.until(() -> fast.getRequestCount() > requests
+                && registry.get("gemini.endpoint.probe.latency").tag("endpoint", fast.getBaseUrl())
+                        .gauge().value() >= 0.3);
+
+        // Then
+        assertEquals(before, latency(fast), before * 0.01);
+    }
+
+    @Test
+    @DisplayName("Should decay an idle endpoint's latency toward the pool median rather than to zero")
+    void shouldDecayTowardPoolMedian() throws Exception {
+        // Given
+        properties.setDecay(Duration.ofMillis(100));
+        GeminiEndpoints endpoints = endpoints();
+        WebClient client = client(endpoints);
+        for (int i = 0; i < 50 && slow.getRequestCount() == 0; i++) {
+            call(client);
+        }
+        assertEquals(1, slow.getRequestCount());
+
+        // When
+        Thread.sleep(1000);
+
+        // Then
+        double median = endpoints.baselineNanos() / 1e9;
+        assertTrue(median >= 0.075, "median " + median);
+        assertEquals(median, latency(slow), median * 0.01);
+        assertEquals(median, latency(fast), median * 0.01);
+    }
+
+    private double latency(GeminiStubServer server) {
+        return registry.get("gemini.endpoint.latency").tag("endpoint", server.getBaseUrl()).gauge().value();
+    }
+
+    private GeminiEndpoints endpoints() {
+        WebClient probeClient = WebClient.builder().defaultHeader("x-goog-api-key", API_KEY).build();
+        return new GeminiEndpoints(BASE_URL, properties, probeClient, "/models/gemini-2.5-flash", registry);
+    }
+
+    private static WebClient client(GeminiEndpoints endpoints) {
+        return WebClient.builder()
+                .baseUrl(BASE_URL)
+                .defaultHeader("x-goog-api-key", API_KEY)
+                .filter(endpoints.filter())
+                .build();
+    }
+
+    private static void call(WebClient client) {
+        client.post()
+                .uri("/models/gemini-2.5-flash:generateContent")
+                .bodyValue("{\"contents\": [{\"parts\": [{\"text\": \"Olá\"}]}]}")
+                .exchangeToMono(ClientResponse::releaseBody)
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.aipoc.controller;
+
+import com.example.aipoc.admission.AdmissionControl;
+import com.example.aipoc.admission.AdmissionProperties;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.scheduling.PriorityScheduler;
+import com.example.aipoc.scheduling.SchedulerProperties;
+import com.example.aipoc.service.SentimentAnalysisService;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import com.example.aipoc.support.Await;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+
+/**
+ * Cancels a request at the controller, as the server does when the client goes
+ * away, and checks that the cancellation crosses admission control and the
+ * priority scheduler down to the upstream connection.
+ */
+@DisplayName("AiController cancellation Tests")
+class AiControllerCancellationTest {
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        settings.getLatency().setMedian(Duration.ofSeconds(5));
+        return settings;
+    });
+
+    private AiController controller;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admissionControl = new AdmissionControl(new AdmissionProperties(), registry);
+        PriorityScheduler priorityScheduler = new PriorityScheduler(new SchedulerProperties(), registry);
+
+        SentimentAnalysisService service = new SentimentAnalysisService();
+        ReflectionTestUtils.setField(service, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        ReflectionTestUtils.setField(service, "defaultModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(service, "defaultMaxTokens", 1000);
+        ReflectionTestUtils.setField(service, "defaultTemperature", 0.7);
+        ReflectionTestUtils.setField(service, "defaultApiKey", "test-api-key");
+        ReflectionTestUtils.setField(service, "priorityScheduler", priorityScheduler);
+
+        controller = new AiController();
+        ReflectionTestUtils.setField(controller, "sentimentAnalysisService", service);
+        ReflectionTestUtils.setField(controller, "admissionControl", admissionControl);
+        ReflectionTestUtils.setField(controller, "priorityScheduler", priorityScheduler);
+    }
+
+    @Test
+    @DisplayName("Should abort the upstream call when the response subscription is cancelled")
+    void shouldPropagateCancellationUpstream() throws Exception {
+        // Given
+        Disposable exchange = controller.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt"), null, null, null, null)
+                .subscribe();
+        Await.until(() -> stub.getServer().getInFlight() == 1);
+
+        // When
+        exchange.dispose();
+
+        // Then
+        Await.until(() -> stub.getServer().getCancelledCount() == 1);
+        Await.until(() -> stub.getServer().getInFlight() == 0);
+    }
+}
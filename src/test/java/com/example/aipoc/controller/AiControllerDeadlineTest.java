@@ -0,0 +1,185 @@
+package com.example.aipoc.controller;
+
+import com.example.aipoc.admission.AdmissionControl;
+import com.example.aipoc.admission.AdmissionProperties;
+import com.example.aipoc.admission.AdmissionRejectedException;
+import com.example.aipoc.metrics.GeminiMetrics;
+import com.example.aipoc.model.AiRequest;
+import com.example.aipoc.model.AiResponse;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.model.SummaryRequest;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.ClientQuotaProperties;
+import com.example.aipoc.scheduling.PriorityScheduler;
+import com.example.aipoc.scheduling.SchedulerProperties;
+import com.example.aipoc.service.AiGeneralService;
+import com.example.aipoc.service.BaseGeminiService;
+import com.example.aipoc.service.SentimentAnalysisService;
+import com.example.aipoc.service.TextSummaryService;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sends requests with a deadline shorter than the upstream latency and checks that
+ * the degraded answer arrives within the budget instead of the late full one.
+ */
+@DisplayName("AiController deadline Tests")
+class AiControllerDeadlineTest {
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        settings.getLatency().setMedian(Duration.ofSeconds(5));
+        return settings;
+    });
+
+    private SimpleMeterRegistry registry;
+    private AiController controller;
+
+    /**
+     * The first WebClient call of the JVM (Netty event loops, class loading, the
+     * connection) takes longer than the deadlines below; pay for it once here so the
+     * tests pass on their own. The extension resets the stub before each test.
+     */
+    @BeforeAll
+    static void warmUp() {
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ZERO);
+        SentimentAnalysisService warmUp = service(new SentimentAnalysisService(), GeminiMetrics.NOOP,
+                PriorityScheduler.NOOP);
+        warmUp.analyzeSentiment(new SentimentRequest("Aquecimento", "pt")).block(Duration.ofSeconds(10));
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        GeminiMetrics metrics = new GeminiMetrics(registry);
+        PriorityScheduler priorityScheduler = new PriorityScheduler(new SchedulerProperties(), registry);
+
+        controller = new AiController();
+        ReflectionTestUtils.setField(controller, "aiService",
+                service(new AiGeneralService(), metrics, priorityScheduler));
+        ReflectionTestUtils.setField(controller, "sentimentAnalysisService",
+                service(new SentimentAnalysisService(), metrics, priorityScheduler));
+        ReflectionTestUtils.setField(controller, "textSummaryService",
+                service(new TextSummaryService(), metrics, priorityScheduler));
+        ReflectionTestUtils.setField(controller, "admissionControl",
+                new AdmissionControl(new AdmissionProperties(), registry));
+        ReflectionTestUtils.setField(controller, "priorityScheduler", priorityScheduler);
+    }
+
+    @Test
+    @DisplayName("Should abort the upstream call at the deadline and answer with the local analysis")
+    void shouldDegradeWhenUpstreamOutlastsDeadline() throws Exception {
+        // Given
+        SentimentRequest request = new SentimentRequest("Produto muito bom, fiquei feliz", "pt");
+        long start = System.nanoTime();
+
+        // When
+        ResponseEntity<SentimentResponse> response = controller.analyzeSentiment(request, null, null, null, "300ms")
+                .toFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "answer should not wait for the upstream");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isDegraded());
+        assertEquals("POSITIVE", response.getBody().getSentiment());
+        assertEquals(1, stub.getServer().getRequestCount());
+        assertEquals(1.0, registry.get("ai.deadline.exceeded")
+                .tags("operation", "sentiment", "stage", "upstream").counter().count());
+        assertEquals(1, registry.get("gemini.requests").tag("outcome", GeminiMetrics.OUTCOME_DEADLINE_EXCEEDED)
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should not call Gemini when less than the minimum upstream budget is left")
+    void shouldSkipUpstreamWithoutBudget() throws Exception {
+        // Given
+        SummaryRequest request = new SummaryRequest(
+                "Primeira frase do texto. Segunda frase do texto! Terceira frase? Quarta frase.", 2, "conciso");
+
+        // When
+        ResponseEntity<AiResponse> response = controller.summarizeText(request, null, null, null, "50")
+                .toFuture().get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isDegraded());
+        assertEquals("Primeira frase do texto. Segunda frase do texto!", response.getBody().getResponse());
+        assertEquals(0, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should answer chat with 504 when the deadline has already passed")
+    void shouldTimeOutChatWithoutLocalAnswer() throws Exception {
+        // Given
+        String pastDeadline = String.valueOf(System.currentTimeMillis() - 1000);
+
+        // When
+        ResponseEntity<AiResponse> response = controller.chat(new AiRequest("Olá", ""), null, null, pastDeadline, null)
+                .toFuture().get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertTrue(response.getBody().isDegraded());
+        assertFalse(response.getBody().isSuccess());
+        assertEquals(1.0, registry.get("ai.deadline.exceeded")
+                .tags("operation", "chat", "stage", "admission").counter().count());
+        assertEquals(0, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should not charge the client's quota for a request shed by admission control")
+    void shouldNotChargeQuotaForShedRequests() {
+        // Given
+        AdmissionProperties admission = new AdmissionProperties();
+        admission.getDefaults().setMaxInFlight(1);
+        admission.getDefaults().setMaxQueue(0);
+        ReflectionTestUtils.setField(controller, "admissionControl", new AdmissionControl(admission, registry));
+        ClientLedger ledger = new ClientLedger(new ClientQuotaProperties(), Clock.systemUTC());
+        ReflectionTestUtils.setField(controller, "clientLedger", ledger);
+        SentimentRequest request = new SentimentRequest("Produto muito bom", "pt");
+        Disposable first = controller.analyzeSentiment(request, null, null, null, null).subscribe();
+
+        try {
+            // When / Then
+            StepVerifier.create(controller.analyzeSentiment(request, null, null, null, null))
+                    .expectError(AdmissionRejectedException.class)
+                    .verify(Duration.ofSeconds(2));
+            assertEquals(1, ledger.snapshot(ClientQuotaProperties.ANONYMOUS).orElseThrow().requests());
+        } finally {
+            first.dispose();
+        }
+    }
+
+    private static <S extends BaseGeminiService> S service(S service, GeminiMetrics metrics,
+            PriorityScheduler priorityScheduler) {
+        ReflectionTestUtils.setField(service, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        ReflectionTestUtils.setField(service, "defaultModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(service, "defaultMaxTokens", 1000);
+        ReflectionTestUtils.setField(service, "defaultTemperature", 0.7);
+        ReflectionTestUtils.setField(service, "defaultApiKey", "test-api-key");
+        ReflectionTestUtils.setField(service, "metrics", metrics);
+        ReflectionTestUtils.setField(service, "priorityScheduler", priorityScheduler);
+        return service;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.aipoc.controller;
+
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import com.example.aipoc.support.Await;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.ClassUtils;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application on a real server in each web stack, drops the client
+ * connection while Gemini is still answering and checks that the upstream call is
+ * aborted well before any request timeout.
+ */
+@DisplayName("AiController client disconnect Tests")
+class AiControllerDisconnectTest {
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        settings.getLatency().setMedian(Duration.ofSeconds(10));
+        return settings;
+    });
+
+    @DynamicPropertySource
+    static void gemini(DynamicPropertyRegistry registry) {
+        registry.add("gemini.api.url", () -> stub.getServer().getBaseUrl());
+        registry.add("gemini.api.key", () -> "test-api-key");
+    }
+
+    @Nested
+    @DisplayName("Servlet (Tomcat)")
+    @EnabledIf("com.example.aipoc.controller.AiControllerDisconnectTest#servletStackPresent")
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {"spring.main.web-application-type=servlet", "ai.disconnect.probe-interval=200ms"})
+    class ServletStack {
+
+        @LocalServerPort
+        int port;
+
+        @Test
+        @DisplayName("Should abort the upstream call when the client disconnects")
+        void shouldAbortUpstreamOnDisconnect() throws Exception {
+            assertUpstreamAbortedOnDisconnect(port);
+        }
+
+        @Test
+        @DisplayName("Should leave a connected client alone while Gemini takes several probes to answer")
+        void shouldKeepConnectedClientAcrossProbes() throws Exception {
+            // Given: cada chamada dura cinco sondagens
+            stub.getServer().getSettings().getLatency().setMedian(Duration.ofSeconds(1));
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            // When: duas requisições seguidas na mesma conexão keep-alive (textos distintos, sem cache)
+            HttpResponse<String> first = client.send(sentiment(port, "Produto excelente"),
+                    HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> second = client.send(sentiment(port, "Amei a entrega"),
+                    HttpResponse.BodyHandlers.ofString());
+
+            // Then
+            assertEquals(200, first.statusCode());
+            assertEquals(200, second.statusCode());
+            assertEquals(2, stub.getServer().getRequestCount());
+            assertEquals(0, stub.getServer().getCancelledCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Reactive (Netty)")
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.main.web-application-type=reactive")
+    @Import(NettyServer.class)
+    class ReactiveStack {
+
+        @LocalServerPort
+        int port;
+
+        @Test
+        @DisplayName("Should abort the upstream call when the client disconnects")
+        void shouldAbortUpstreamOnDisconnect() throws Exception {
+            assertUpstreamAbortedOnDisconnect(port);
+        }
+    }
+
+    /** The servlet build also has Tomcat on the classpath, which would win over Netty. */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class NettyServer {
+
+        @Bean
+        NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+            return new NettyReactiveWebServerFactory();
+        }
+    }
+
+    static boolean servletStackPresent() {
+        return ClassUtils.isPresent("org.apache.catalina.startup.Tomcat", null);
+    }
+
+    private static HttpRequest sentiment(int port, String text) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/ai/sentiment"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"" + text + "\",\"language\":\"pt\"}"))
+                .build();
+    }
+
+    private static void assertUpstreamAbortedOnDisconnect(int port) throws Exception {
+        // Given
+        String body = "{\"text\":\"Adorei o produto\",\"language\":\"pt\"}";
+        byte[] request = ("POST /api/ai/sentiment HTTP/1.1\r\n"
+                + "Host: localhost:" + port + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.getBytes(StandardCharsets.UTF_8).length + "\r\n"
+                + "\r\n" + body).getBytes(StandardCharsets.UTF_8);
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request);
+            out.flush();
+            Await.until(() -> stub.getServer().getInFlight() == 1, Duration.ofSeconds(5));
+        }
+
+        // When: o socket foi fechado com a chamada ao Gemini ainda em andamento
+
+        // Then
+        Await.until(() -> stub.getServer().getCancelledCount() == 1, Duration.ofSeconds(5));
+        assertEquals(0, stub.getServer().getInFlight());
+    }
+}
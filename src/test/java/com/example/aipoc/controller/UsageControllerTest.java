@@ -0,0 +1,76 @@
+package com.example.aipoc.controller;
+
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.ClientQuotaProperties;
+import com.example.aipoc.quota.UsageSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UsageController Tests")
+class UsageControllerTest {
+
+    private UsageController controller;
+
+    @BeforeEach
+    void setUp() {
+        ClientQuotaProperties properties = new ClientQuotaProperties();
+        properties.setAdminApiKey("admin-key");
+        for (String clientId : new String[] {"reporting", "support"}) {
+            ClientQuotaProperties.Client client = new ClientQuotaProperties.Client();
+            client.setApiKey(clientId + "-key");
+            properties.getClients().put(clientId, client);
+        }
+        ClientLedger ledger = new ClientLedger(properties);
+        ledger.admit("reporting");
+        ledger.admit("support");
+        ledger.admit(ClientQuotaProperties.ANONYMOUS);
+        controller = new UsageController(ledger);
+    }
+
+    @Test
+    @DisplayName("Should show a client only its own usage")
+    void shouldShowOwnUsage() {
+        // When
+        ResponseEntity<UsageSnapshot> response = controller.usage("reporting-key");
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().clients().size());
+        assertEquals("reporting", response.getBody().clients().get(0).clientId());
+        assertEquals(HttpStatus.OK, controller.clientUsage("reporting", "reporting-key").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should refuse callers without a known key and other clients' usage")
+    void shouldRefuseOtherClients() {
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.usage(null).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.usage("unknown-key").getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.clientUsage("support", null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.clientUsage("support", "reporting-key").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should show every client to the admin key")
+    void shouldShowEveryClientToAdmin() {
+        // When
+        ResponseEntity<UsageSnapshot> response = controller.usage("admin-key");
+
+        // Then
+        assertEquals(3, response.getBody().clients().size());
+        assertEquals(HttpStatus.OK, controller.clientUsage("support", "admin-key").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.clientUsage("nobody", "admin-key").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should not allow cross-origin reads")
+    void shouldNotAllowCrossOrigin() {
+        assertNull(UsageController.class.getAnnotation(CrossOrigin.class));
+    }
+}
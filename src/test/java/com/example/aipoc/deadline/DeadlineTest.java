@@ -0,0 +1,68 @@
+package com.example.aipoc.deadline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Deadline Tests")
+class DeadlineTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Should parse relative timeouts with and without units")
+    void shouldParseTimeout() {
+        assertEquals(Duration.ofMillis(1500), budget(null, "1500"));
+        assertEquals(Duration.ofMillis(1500), budget(null, "1500ms"));
+        assertEquals(Duration.ofSeconds(2), budget(null, " 2s "));
+        assertEquals(Duration.ofSeconds(2), budget(null, "PT2S"));
+    }
+
+    @Test
+    @DisplayName("Should parse absolute deadlines as epoch millis or ISO-8601 instants")
+    void shouldParseAbsoluteDeadline() {
+        long epochMillis = clock.millis() + 3000;
+
+        assertEquals(Duration.ofSeconds(3), budget(String.valueOf(epochMillis), null));
+        assertEquals(Duration.ofSeconds(3), budget("2026-01-01T12:00:03Z", null));
+    }
+
+    @Test
+    @DisplayName("Should keep the earlier of both headers and ignore invalid values")
+    void shouldPreferEarlierAndIgnoreInvalid() {
+        assertEquals(Duration.ofSeconds(1), budget("2026-01-01T12:00:03Z", "1s"));
+        assertEquals(Duration.ofSeconds(3), budget("2026-01-01T12:00:03Z", "soon"));
+        assertTrue(Deadline.fromHeaders("tomorrow", "", clock).isEmpty());
+        assertTrue(Deadline.fromHeaders(null, null, clock).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat a deadline in the past as already expired")
+    void shouldExpirePastDeadline() {
+        Deadline deadline = Deadline.fromHeaders("2026-01-01T11:59:59Z", null, clock).orElseThrow();
+
+        assertTrue(deadline.isExpired());
+        assertEquals(Duration.ZERO, deadline.remaining());
+        assertEquals(Duration.ZERO, deadline.cap(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    @DisplayName("Should cap a stage timeout by the time left")
+    void shouldCapStageTimeout() {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+
+        assertEquals(Duration.ofSeconds(1), deadline.cap(Duration.ofSeconds(1)));
+        assertTrue(deadline.cap(Duration.ofSeconds(30)).compareTo(Duration.ofSeconds(10)) <= 0);
+        assertFalse(deadline.isExpired());
+    }
+
+    private Duration budget(String deadline, String timeout) {
+        return Deadline.fromHeaders(deadline, timeout, clock).orElseThrow().getBudget();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.aipoc.generation;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GenerationProfiles Tests")
+class GenerationProfilesTest {
+
+    private SimpleMeterRegistry registry;
+    private GenerationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new GenerationProperties();
+        properties.getProfiles().put("fast", profile(null, 800, 0, List.of("FIM")));
+        properties.getProfiles().put("thorough", profile(null, null, -1, null));
+
+        GenerationProperties.Operation sentiment = new GenerationProperties.Operation();
+        sentiment.setDefaultProfile("fast");
+        sentiment.getProfiles().put("fast", profile(0.1, 300, null, null));
+        sentiment.getProfiles().put("thorough", profile(0.1, 4000, 2048, null));
+        properties.getOperations().put("sentiment", sentiment);
+    }
+
+    @Test
+    @DisplayName("Should merge the operation profile over the shared profile of the same name")
+    void shouldMergeProfiles() {
+        // Given
+        GenerationProfiles profiles = new GenerationProfiles(properties, registry);
+
+        // When
+        GenerationProfile fast = profiles.resolve(AiOperation.SENTIMENT, "fast");
+        GenerationProfile thorough = profiles.resolve(AiOperation.SENTIMENT, "THOROUGH");
+        GenerationProfile chatFast = profiles.resolve(AiOperation.CHAT, "fast");
+
+        // Then
+        assertEquals(new GenerationProfile("fast", 0.1, 300, 0, List.of("FIM")), fast);
+        assertEquals(new GenerationProfile("thorough", 0.1, 4000, 2048, List.of()), thorough);
+        assertEquals(new GenerationProfile("fast", null, 800, 0, List.of("FIM")), chatFast);
+    }
+
+    @Test
+    @DisplayName("Should use the operation default profile, then the global one, when the caller picks none")
+    void shouldUseDefaultProfile() {
+        // Given
+        GenerationProfiles profiles = new GenerationProfiles(properties, registry);
+
+        // When / Then
+        assertEquals("fast", profiles.resolve(AiOperation.SENTIMENT, null).name());
+        assertEquals("balanced", profiles.resolve(AiOperation.SUMMARY, " ").name());
+        assertEquals(new GenerationProfile("balanced", null, null, null, List.of()),
+                GenerationProfiles.NOOP.resolve(AiOperation.CHAT, null));
+        assertEquals(1.0, registry.get("ai.generation.requests")
+                .tags("operation", "sentiment", "profile", "fast").counter().count());
+        assertEquals(1.0, registry.get("ai.generation.requests")
+                .tags("operation", "summary", "profile", "balanced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown profiles and ignore unknown default profiles")
+    void shouldRejectUnknownProfiles() {
+        // Given
+        properties.setDefaultProfile("turbo");
+        GenerationProfiles profiles = new GenerationProfiles(properties, registry);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> profiles.resolve(AiOperation.SENTIMENT, "turbo"));
+        assertEquals("balanced", profiles.resolve(AiOperation.CHAT, null).name());
+    }
+
+    private static GenerationProperties.Profile profile(Double temperature, Integer maxOutputTokens,
+                                                        Integer thinkingBudget, List<String> stopSequences) {
+        GenerationProperties.Profile profile = new GenerationProperties.Profile();
+        profile.setTemperature(temperature);
+        profile.setMaxOutputTokens(maxOutputTokens);
+        profile.setThinkingBudget(thinkingBudget);
+        profile.setStopSequences(stopSequences);
+        return profile;
+    }
+}
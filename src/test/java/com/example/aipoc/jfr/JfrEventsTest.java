@@ -0,0 +1,78 @@
+package com.example.aipoc.jfr;
+
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.TokenUsage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Flight Recorder events Tests")
+class JfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should record request stage events with their fields")
+    void shouldRecordStageEvents() throws IOException {
+        // Given
+        Path file = tempDir.resolve("events.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(GeminiCallEvent.class);
+            recording.enable(PromptBuildEvent.class);
+            recording.enable(ResponseParseEvent.class);
+            recording.enable(FallbackUsedEvent.class);
+            recording.start();
+
+            PromptBuildEvent prompt = new PromptBuildEvent();
+            prompt.begin();
+            prompt.complete(AiOperation.SENTIMENT, "sentiment@v2", 120);
+
+            GeminiCallEvent call = new GeminiCallEvent();
+            call.begin();
+            call.complete(AiOperation.SENTIMENT, "gemini-2.5-flash", "success", 300, 900,
+                    new TokenUsage(40, 25, 10, 75));
+
+            ResponseParseEvent parse = new ResponseParseEvent();
+            parse.begin();
+            parse.complete(AiOperation.SENTIMENT, 900);
+
+            FallbackUsedEvent.emit(AiOperation.SENTIMENT);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent call = single(events, "com.example.aipoc.GeminiCall");
+        assertEquals("sentiment", call.getString("operation"));
+        assertEquals("success", call.getString("outcome"));
+        assertEquals(300, call.getLong("requestBytes"));
+        assertEquals(900, call.getLong("responseBytes"));
+        assertEquals(75, call.getInt("totalTokens"));
+
+        assertEquals("sentiment@v2", single(events, "com.example.aipoc.PromptBuild").getString("template"));
+        assertEquals(900, single(events, "com.example.aipoc.ResponseParse").getInt("responseChars"));
+        assertNotNull(single(events, "com.example.aipoc.FallbackUsed").getStackTrace());
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.aipoc.metrics;
+
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GeminiMetrics Tests")
+class GeminiMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private GeminiMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new GeminiMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Should track in-flight calls and record latency per operation, model and outcome")
+    void shouldTrackInFlightAndLatency() {
+        // When
+        GeminiMetrics.Call call = metrics.callStarted(AiOperation.SENTIMENT);
+        metrics.callStarted(AiOperation.SENTIMENT);
+
+        // Then
+        assertEquals(2.0, registry.get("gemini.requests.in.flight").tag("operation", "sentiment").gauge().value());
+
+        // When
+        call.finish("gemini-2.5-flash", GeminiMetrics.OUTCOME_SUCCESS, TimeUnit.MILLISECONDS.toNanos(250));
+
+        // Then
+        assertEquals(1.0, registry.get("gemini.requests.in.flight").tag("operation", "sentiment").gauge().value());
+        assertEquals(1, registry.get("gemini.requests")
+                .tags("operation", "sentiment", "model", "gemini-2.5-flash", "outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should finish a call once when it sees several terminal signals")
+    void shouldFinishCallOnce() {
+        // Given
+        GeminiMetrics.Call call = metrics.callStarted(AiOperation.CHAT);
+
+        // When
+        boolean first = call.finish("gemini-2.5-flash", GeminiMetrics.OUTCOME_SUCCESS, 1_000);
+        boolean second = call.finish("gemini-2.5-flash", GeminiMetrics.OUTCOME_CANCELLED, 2_000);
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(0.0, registry.get("gemini.requests.in.flight").tag("operation", "chat").gauge().value());
+        assertNull(registry.find("gemini.requests").tag("outcome", "cancelled").timer());
+    }
+
+    @Test
+    @DisplayName("Should count tokens by type and skip empty counters")
+    void shouldCountTokensByType() {
+        // When
+        metrics.recordUsage(AiOperation.SUMMARY, "gemini-2.5-flash", new TokenUsage(100, 50, 0, 150));
+
+        // Then
+        assertEquals(100.0, registry.get("gemini.tokens").tags("operation", "summary", "type", "prompt").counter().count());
+        assertEquals(150.0, registry.get("gemini.tokens").tags("operation", "summary", "type", "total").counter().count());
+        assertNull(registry.find("gemini.tokens").tags("type", "thoughts").counter());
+    }
+
+    @Test
+    @DisplayName("Should count finish reasons and fallbacks")
+    void shouldCountFinishReasonsAndFallbacks() {
+        // When
+        metrics.recordFinishReason("STOP");
+        metrics.recordFinishReason("STOP");
+        metrics.recordFinishReason("");
+        metrics.recordFallback(AiOperation.PRODUCT_CLASSIFICATION);
+
+        // Then
+        assertEquals(2.0, registry.get("gemini.finish.reasons").tag("reason", "STOP").counter().count());
+        assertEquals(1.0, registry.get("gemini.finish.reasons").tag("reason", "NONE").counter().count());
+        assertEquals(1.0, registry.get("ai.fallback").tag("operation", "product-classification").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should map failures to low-cardinality outcomes")
+    void shouldMapFailuresToOutcomes() {
+        assertEquals("rate_limited", GeminiMetrics.outcomeOf(
+                WebClientResponseException.create(429, "Too Many Requests", null, null, null)));
+        assertEquals("server_error", GeminiMetrics.outcomeOf(
+                WebClientResponseException.create(503, "Unavailable", null, null, null)));
+        assertEquals("client_error", GeminiMetrics.outcomeOf(
+                WebClientResponseException.create(400, "Bad Request", null, null, null)));
+        assertEquals("timeout", GeminiMetrics.outcomeOf(new TimeoutException()));
+        assertEquals("timeout", GeminiMetrics.outcomeOf(new RuntimeException(ReadTimeoutException.INSTANCE)));
+        assertEquals("io_error", GeminiMetrics.outcomeOf(new RuntimeException()));
+    }
+}
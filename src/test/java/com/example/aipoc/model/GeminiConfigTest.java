@@ -5,6 +5,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("GeminiConfig Tests")
@@ -195,4 +197,48 @@ class GeminiConfigTest {
         // When & Then - should not throw exception
         assertDoesNotThrow(() -> new GeminiConfig(VALID_TEMPERATURE, 1, VALID_MODEL, VALID_API_KEY));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should copy the config for another model, keeping the other settings")
+    void shouldCopyForAnotherModel() {
+        // Given
+        GeminiConfig config = new GeminiConfig(VALID_TEMPERATURE, VALID_MAX_TOKENS, VALID_MODEL, VALID_API_KEY);
+
+        // When
+        GeminiConfig other = config.withModel("gemini-2.0-flash");
+
+        // Then
+        assertSame(config, config.withModel(VALID_MODEL));
+        assertEquals("gemini-2.0-flash", other.getModel());
+        assertEquals(VALID_TEMPERATURE, other.getTemperature());
+        assertEquals(VALID_MAX_TOKENS, other.getMaxTokens());
+        assertEquals(VALID_API_KEY, other.getApiKey());
+    }
+
+    @Test
+    @DisplayName("Should keep thinking budget and stop sequences across models")
+    void shouldKeepGenerationSettingsAcrossModels() {
+        // Given
+        GeminiConfig config = new GeminiConfig(VALID_TEMPERATURE, VALID_MAX_TOKENS, VALID_MODEL, VALID_API_KEY,
+                0, List.of("FIM"));
+
+        // When
+        GeminiConfig other = config.withModel("gemini-2.5-flash-lite");
+
+        // Then
+        assertEquals(0, other.getThinkingBudget());
+        assertEquals(List.of("FIM"), other.getStopSequences());
+        assertNotEquals(config, new GeminiConfig(VALID_TEMPERATURE, VALID_MAX_TOKENS, VALID_MODEL, VALID_API_KEY));
+        assertNull(new GeminiConfig(VALID_TEMPERATURE, VALID_MAX_TOKENS, VALID_MODEL, VALID_API_KEY)
+                .getThinkingBudget());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid thinking budget and too many stop sequences")
+    void shouldRejectInvalidGenerationSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new GeminiConfig(VALID_TEMPERATURE, VALID_MAX_TOKENS,
+                VALID_MODEL, VALID_API_KEY, -2, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new GeminiConfig(VALID_TEMPERATURE, VALID_MAX_TOKENS,
+                VALID_MODEL, VALID_API_KEY, null, List.of("a", "b", "c", "d", "e", "f")));
+    }
+}
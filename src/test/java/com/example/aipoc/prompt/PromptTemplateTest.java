@@ -0,0 +1,103 @@
+package com.example.aipoc.prompt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PromptTemplate Tests")
+class PromptTemplateTest {
+
+    @Test
+    @DisplayName("Should render literals and variables in declaration order")
+    void shouldRenderLiteralsAndVariables() {
+        // Given
+        PromptTemplate template = PromptTemplates.parse("greeting", """
+                # version: 3
+                # params: name, place
+                ---
+                Olá {{name}}, bem-vindo a {{ place }}!
+                """);
+
+        // When
+        String rendered = template.render("Ana", "São Paulo");
+
+        // Then
+        assertEquals("Olá Ana, bem-vindo a São Paulo!", rendered);
+        assertEquals(3, template.getVersion());
+        assertEquals("greeting@v3", template.id());
+    }
+
+    @Test
+    @DisplayName("Should escape quotes, backslashes and newlines in quoted variables")
+    void shouldEscapeQuotedVariables() {
+        // Given
+        PromptTemplate template = PromptTemplates.parse("quoted", """
+                # params: text
+                ---
+                "{{text|quoted}}"
+                """);
+
+        // When
+        String rendered = template.render("Ele disse \"ótimo\"\\ok\nfim");
+
+        // Then
+        assertEquals("\"Ele disse \\\"ótimo\\\"\\\\ok\\nfim\"", rendered);
+    }
+
+    @Test
+    @DisplayName("Should render sections only when the value is not blank")
+    void shouldRenderSectionsOnlyForNonBlankValues() {
+        // Given
+        PromptTemplate template = PromptTemplates.parse("section", """
+                # params: context, message
+                ---
+                {{#context}}Contexto: {{context}}
+                {{/context}}Pergunta: {{message}}
+                """);
+
+        // When & Then
+        assertEquals("Contexto: Java\nPergunta: Oi", template.render("Java", "Oi"));
+        assertEquals("Pergunta: Oi", template.render("   ", "Oi"));
+        assertEquals("Pergunta: Oi", template.render(null, "Oi"));
+    }
+
+    @Test
+    @DisplayName("Should reject a wrong number of values")
+    void shouldRejectWrongNumberOfValues() {
+        // Given
+        PromptTemplate template = PromptTemplates.parse("single", """
+                # params: text
+                ---
+                {{text}}
+                """);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> template.render("a", "b"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "# params: a\n---\n{{b}}",
+            "# params: a\n---\n{{a",
+            "# params: a\n---\n{{#a}}sem fechamento",
+            "# params: a\n---\n{{a|unknown}}",
+            "# params: a\nsem separador"
+    })
+    @DisplayName("Should reject invalid template definitions")
+    void shouldRejectInvalidDefinitions(String definition) {
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplates.parse("invalid", definition));
+    }
+
+    @Test
+    @DisplayName("Should load every template shipped with the application")
+    void shouldLoadShippedTemplates() {
+        assertEquals(2, PromptTemplates.get("chat").getParams().size());
+        assertEquals("sentiment@v2", PromptTemplates.get("sentiment").id());
+        assertEquals(3, PromptTemplates.get("summary").getParams().size());
+        assertEquals(3, PromptTemplates.get("product-classification").getParams().size());
+        assertThrows(IllegalStateException.class, () -> PromptTemplates.get("does-not-exist"));
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.aipoc.quota;
+
+import com.example.aipoc.model.TokenUsage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClientLedger Tests")
+class ClientLedgerTest {
+
+    private MutableClock clock;
+    private ClientQuotaProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-03-10T12:00:45Z"));
+        properties = new ClientQuotaProperties();
+        properties.getDefaults().setRequestsPerMinute(3L);
+        properties.getDefaults().setTokensPerDay(1000L);
+
+        ClientQuotaProperties.Client reporting = new ClientQuotaProperties.Client();
+        reporting.setApiKey("reporting-key");
+        reporting.setRequestsPerMinute(0L);
+        properties.getClients().put("reporting", reporting);
+    }
+
+    @Test
+    @DisplayName("Should identify configured keys and account everything else as anonymous")
+    void shouldIdentifyClients() {
+        // Given
+        ClientLedger ledger = new ClientLedger(properties, clock);
+
+        // Then
+        assertEquals("reporting", ledger.identify("reporting-key"));
+        assertEquals(ClientQuotaProperties.ANONYMOUS, ledger.identify("unknown-key"));
+        assertEquals(ClientQuotaProperties.ANONYMOUS, ledger.identify(null));
+    }
+
+    @Test
+    @DisplayName("Should recognize only the configured admin key")
+    void shouldRecognizeAdminKey() {
+        // Given
+        ClientLedger withoutAdmin = new ClientLedger(properties, clock);
+        properties.setAdminApiKey("admin-key");
+        ClientLedger ledger = new ClientLedger(properties, clock);
+
+        // Then
+        assertTrue(ledger.isAdmin("admin-key"));
+        assertFalse(ledger.isAdmin("reporting-key"));
+        assertFalse(ledger.isAdmin(null));
+        assertFalse(withoutAdmin.isAdmin(""));
+    }
+
+    @Test
+    @DisplayName("Should refuse an over-quota client on check without counting the request")
+    void shouldCheckWithoutCounting() {
+        // Given
+        ClientLedger ledger = new ClientLedger(properties, clock);
+        ledger.admit("anonymous");
+        ledger.admit("anonymous");
+
+        // When
+        ledger.check("anonymous");
+        ledger.check("anonymous");
+        ledger.admit("anonymous");
+
+        // Then
+        assertEquals(3, ledger.snapshot("anonymous").orElseThrow().minute().requests());
+        assertThrows(QuotaExceededException.class, () -> ledger.check("anonymous"));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start with the snapshot enabled but no path")
+    void shouldRequireSnapshotPath() {
+        // Given
+        properties.getSnapshot().setEnabled(true);
+        ClientLedger ledger = new ClientLedger(properties, clock);
+
+        // Then
+        assertThrows(IllegalStateException.class,
+                () -> new UsageSnapshotWriter(ledger, new ObjectMapper(), properties));
+    }
+
+    @Test
+    @DisplayName("Should refuse requests over the per-minute quota until the next minute")
+    void shouldEnforceRequestsPerMinute() {
+        // Given
+        ClientLedger ledger = new ClientLedger(properties, clock);
+        for (int i = 0; i < 3; i++) {
+            ledger.admit("anonymous");
+        }
+
+        // When
+        QuotaExceededException exception = assertThrows(QuotaExceededException.class,
+                () -> ledger.admit("anonymous"));
+
+        // Then
+        assertEquals(QuotaExceededException.Scope.REQUESTS_PER_MINUTE, exception.getScope());
+        assertEquals(Duration.ofSeconds(15), exception.getRetryAfter());
+        assertEquals(1, ledger.snapshot("anonymous").orElseThrow().rejected());
+
+        // When
+        clock.advance(Duration.ofSeconds(15));
+
+        // Then
+        assertDoesNotThrow(() -> ledger.admit("anonymous"));
+    }
+
+    @Test
+    @DisplayName("Should apply per-client overrides and inherit the remaining limits from defaults")
+    void shouldInheritDefaultLimits() {
+        // Given
+        ClientLedger ledger = new ClientLedger(properties, clock);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            ledger.admit("reporting");
+        }
+        ledger.recordUsage("reporting", new TokenUsage(700, 300, 0, 1000));
+
+        // Then
+        QuotaExceededException exception = assertThrows(QuotaExceededException.class,
+                () -> ledger.admit("reporting"));
+        assertEquals(QuotaExceededException.Scope.TOKENS_PER_DAY, exception.getScope());
+        assertEquals(1000, exception.getLimit());
+        assertEquals(new UsageSnapshot.Limits(0, 0, 0, 1000),
+                ledger.snapshot("reporting").orElseThrow().limits());
+    }
+
+    @Test
+    @DisplayName("Should not lose updates under concurrent accounting")
+    void shouldCountConcurrentUsage() throws Exception {
+        // Given
+        properties.getDefaults().setRequestsPerMinute(0L);
+        properties.getDefaults().setTokensPerDay(0L);
+        ClientLedger ledger = new ClientLedger(properties, clock);
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 10_000).forEach(i -> executor.submit(() -> {
+                ledger.admit("anonymous");
+                ledger.recordUsage("anonymous", new TokenUsage(2, 1, 0, 3));
+            }));
+        }
+
+        // Then
+        UsageSnapshot.Client usage = ledger.snapshot("anonymous").orElseThrow();
+        assertEquals(10_000, usage.requests());
+        assertEquals(30_000, usage.totalTokens());
+        assertEquals(10_000, usage.minute().requests());
+        assertEquals(30_000, usage.day().tokens());
+    }
+
+    @Test
+    @DisplayName("Should restore the daily window from a snapshot written the same day")
+    void shouldRestoreSnapshot(@TempDir Path directory) {
+        // Given
+        properties.getSnapshot().setEnabled(true);
+        properties.getSnapshot().setPath(directory.resolve("usage.json").toString());
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        ClientLedger before = new ClientLedger(properties, clock);
+        before.admit("reporting");
+        before.recordUsage("reporting", new TokenUsage(500, 100, 0, 600));
+        new UsageSnapshotWriter(before, objectMapper, properties).write();
+
+        // When
+        clock.advance(Duration.ofMinutes(5));
+        ClientLedger after = new ClientLedger(properties, clock);
+        new UsageSnapshotWriter(after, objectMapper, properties).restore();
+
+        // Then
+        UsageSnapshot.Client usage = after.snapshot("reporting").orElseThrow();
+        assertEquals(600, usage.totalTokens());
+        assertEquals(600, usage.day().tokens());
+        assertEquals(0, usage.minute().requests());
+
+        // When
+        after.recordUsage("reporting", new TokenUsage(0, 0, 0, 400));
+
+        // Then
+        assertThrows(QuotaExceededException.class, () -> after.admit("reporting"));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.aipoc.routing;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ModelFallbacks Tests")
+class ModelFallbacksTest {
+
+    private SimpleMeterRegistry registry;
+    private ModelFallbackProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ModelFallbackProperties();
+        properties.setDefaults(List.of("gemini-2.5-flash-lite", "gemini-2.0-flash"));
+        properties.setOperations(Map.of("summary", List.of("gemini-2.5-pro")));
+    }
+
+    @Test
+    @DisplayName("Should try the call's model first, then the operation's fallbacks, without repeats")
+    void shouldBuildChainPerOperation() {
+        // Given
+        ModelFallbacks fallbacks = new ModelFallbacks(properties, registry);
+
+        // When / Then
+        assertEquals(List.of("gemini-2.5-flash", "gemini-2.5-flash-lite", "gemini-2.0-flash"),
+                fallbacks.chain(AiOperation.SENTIMENT, "gemini-2.5-flash"));
+        assertEquals(List.of("gemini-2.0-flash", "gemini-2.5-flash-lite"),
+                fallbacks.chain(AiOperation.CHAT, "gemini-2.0-flash"));
+        assertEquals(List.of("gemini-2.5-flash", "gemini-2.5-pro"),
+                fallbacks.chain(AiOperation.SUMMARY, "gemini-2.5-flash"));
+        assertEquals(List.of("gemini-2.5-flash"),
+                ModelFallbacks.NOOP.chain(AiOperation.SENTIMENT, "gemini-2.5-flash"));
+    }
+
+    @Test
+    @DisplayName("Should move cooling models to the end of the chain until the cool-down ends")
+    void shouldMoveCoolingModelsLast() throws Exception {
+        // Given
+        properties.setCoolDown(Duration.ofMillis(50));
+        ModelFallbacks fallbacks = new ModelFallbacks(properties, registry);
+
+        // When
+        fallbacks.coolDown(AiOperation.SENTIMENT, "gemini-2.5-flash", overload(503, HttpHeaders.EMPTY, ""));
+
+        // Then
+        assertEquals(List.of("gemini-2.5-flash-lite", "gemini-2.0-flash", "gemini-2.5-flash"),
+                fallbacks.chain(AiOperation.CHAT, "gemini-2.5-flash"));
+        assertEquals(1.0, registry.get("gemini.model.cooldowns")
+                .tags("operation", "sentiment", "model", "gemini-2.5-flash").counter().count());
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        assertFalse(fallbacks.isCoolingDown("gemini-2.5-flash"));
+        assertEquals("gemini-2.5-flash", fallbacks.chain(AiOperation.CHAT, "gemini-2.5-flash").get(0));
+    }
+
+    @Test
+    @DisplayName("Should honour the retry delay asked by the API when longer than the cool-down")
+    void shouldHonourRetryDelay() {
+        // Given
+        properties.setCoolDown(Duration.ZERO);
+        ModelFallbacks fallbacks = new ModelFallbacks(properties, registry);
+        HttpHeaders retryAfter = new HttpHeaders();
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "30");
+
+        // When
+        fallbacks.coolDown(AiOperation.SENTIMENT, "gemini-2.5-flash", overload(429, HttpHeaders.EMPTY,
+                "{\"error\": {\"details\": [{\"retryDelay\": \"37s\"}]}}"));
+        fallbacks.coolDown(AiOperation.SENTIMENT, "gemini-2.0-flash", overload(429, retryAfter, ""));
+        fallbacks.coolDown(AiOperation.SENTIMENT, "gemini-2.5-flash-lite", overload(429, HttpHeaders.EMPTY, ""));
+
+        // Then
+        assertTrue(fallbacks.isCoolingDown("gemini-2.5-flash"));
+        assertTrue(fallbacks.isCoolingDown("gemini-2.0-flash"));
+        assertFalse(fallbacks.isCoolingDown("gemini-2.5-flash-lite"));
+    }
+
+    @Test
+    @DisplayName("Should fall back only on 429 and 503 answers")
+    void shouldFallBackOnlyOnOverload() {
+        assertTrue(ModelFallbacks.isOverload(overload(429, HttpHeaders.EMPTY, "")));
+        assertTrue(ModelFallbacks.isOverload(overload(503, HttpHeaders.EMPTY, "")));
+        assertFalse(ModelFallbacks.isOverload(overload(400, HttpHeaders.EMPTY, "")));
+        assertFalse(ModelFallbacks.isOverload(new IllegalStateException("timeout")));
+    }
+
+    private static WebClientResponseException overload(int status, HttpHeaders headers, String body) {
+        return WebClientResponseException.create(status, "error", headers,
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.aipoc.routing;
+
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.model.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ModelRouter Tests")
+class ModelRouterTest {
+
+    private static final String DEFAULT_MODEL = "gemini-2.5-flash";
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry registry;
+    private ModelRoutingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ModelRoutingProperties();
+        properties.setModels(Map.of(
+                "gemini-2.5-flash-lite", model(0.10, 0.40),
+                "gemini-2.5-flash", model(0.30, 2.50),
+                "gemini-2.5-pro", model(1.25, 10.00)));
+    }
+
+    @Test
+    @DisplayName("Should pick the first rule matching operation, size, style and tier")
+    void shouldPickFirstMatchingRule() {
+        // Given
+        properties.setRules(List.of(
+                rule("sentiment", null, null, 280, "gemini-2.5-flash-lite"),
+                rule("summary", "detalhado", null, null, "gemini-2.5-pro"),
+                rule(null, null, "premium", null, "gemini-2.5-pro")));
+        ModelRouter router = new ModelRouter(properties, registry);
+
+        // When / Then
+        assertEquals("gemini-2.5-flash-lite",
+                router.route(new RouteRequest(AiOperation.SENTIMENT, 20, null, "premium"), DEFAULT_MODEL));
+        assertEquals("gemini-2.5-pro",
+                router.route(new RouteRequest(AiOperation.SENTIMENT, 2000, null, "premium"), DEFAULT_MODEL));
+        assertEquals(DEFAULT_MODEL,
+                router.route(new RouteRequest(AiOperation.SENTIMENT, 2000, null, null), DEFAULT_MODEL));
+        assertEquals("gemini-2.5-pro",
+                router.route(new RouteRequest(AiOperation.SUMMARY, 5000, "DETALHADO", null), DEFAULT_MODEL));
+        assertEquals(DEFAULT_MODEL,
+                router.route(new RouteRequest(AiOperation.SUMMARY, 5000, "conciso", null), DEFAULT_MODEL));
+        assertEquals(1.0, registry.get("ai.routing.decisions")
+                .tags("operation", "summary", "model", "gemini-2.5-pro").counter().count());
+        assertEquals(1.0, registry.get("ai.routing.decisions")
+                .tags("operation", "sentiment", "model", DEFAULT_MODEL).counter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop rules pointing outside the catalog or to unknown operations")
+    void shouldDropInvalidRules() {
+        // Given
+        properties.setRules(List.of(
+                rule("sentiment", null, null, null, "gemini-1.0-ultra"),
+                rule("translation", null, null, null, "gemini-2.5-flash-lite"),
+                rule("sentiment", null, null, null, null)));
+
+        // When
+        ModelRouter router = new ModelRouter(properties, registry);
+
+        // Then
+        assertTrue(router.getRules().isEmpty());
+        assertEquals(DEFAULT_MODEL,
+                router.route(new RouteRequest(AiOperation.SENTIMENT, 10, null, null), DEFAULT_MODEL));
+    }
+
+    @Test
+    @DisplayName("Should reload the rules file when it changes and keep the rules when it breaks")
+    void shouldReloadRulesFile() throws Exception {
+        // Given
+        Path file = tempDir.resolve("model-routes.json");
+        writeRules(file, """
+                {"rules": [{"operation": "sentiment", "maxChars": 280, "model": "gemini-2.5-flash-lite"}]}
+                """, 1);
+        properties.setRules(List.of(rule("sentiment", null, null, null, "gemini-2.5-pro")));
+        properties.setRulesFile(file.toString());
+        ModelRouter router = new ModelRouter(properties, registry);
+        RouteRequest shortText = new RouteRequest(AiOperation.SENTIMENT, 20, null, null);
+        assertEquals("gemini-2.5-flash-lite", router.route(shortText, DEFAULT_MODEL));
+
+        // When
+        writeRules(file, """
+                {"rules": [{"operation": "sentiment", "model": "gemini-2.5-flash"}]}
+                """, 2);
+        router.reloadIfChanged();
+
+        // Then
+        assertEquals("gemini-2.5-flash", router.route(shortText, DEFAULT_MODEL));
+
+        // When
+        writeRules(file, "{\"rules\": [{\"operation\": ", 3);
+        router.reloadIfChanged();
+
+        // Then
+        assertEquals("gemini-2.5-flash", router.route(shortText, DEFAULT_MODEL));
+
+        // When
+        Files.delete(file);
+        router.reloadIfChanged();
+
+        // Then
+        assertEquals("gemini-2.5-pro", router.route(shortText, DEFAULT_MODEL));
+    }
+
+    @Test
+    @DisplayName("Should price calls by the catalog, billing thoughts as output")
+    void shouldRecordCost() {
+        // Given
+        ModelRouter router = new ModelRouter(properties, registry);
+
+        // When
+        router.recordUsage(AiOperation.SENTIMENT, "gemini-2.5-flash", new TokenUsage(1_000_000, 200_000, 200_000, 0));
+        router.recordUsage(AiOperation.SENTIMENT, "unknown-model", new TokenUsage(1_000_000, 0, 0, 0));
+
+        // Then
+        assertEquals(0.30 + 0.4 * 2.50, registry.get("gemini.cost")
+                .tags("operation", "sentiment", "model", "gemini-2.5-flash").counter().count(), 1e-9);
+        assertNull(registry.find("gemini.cost").tag("model", "unknown-model").counter());
+    }
+
+    @Test
+    @DisplayName("Should fit thinking budgets into the range of the catalog model")
+    void shouldFitThinkingBudget() {
+        // Given
+        properties.getModels().get("gemini-2.5-pro").setMinThinkingBudget(128);
+        properties.getModels().get("gemini-2.5-pro").setMaxThinkingBudget(32768);
+        ModelRouter router = new ModelRouter(properties, registry);
+
+        // When / Then
+        assertEquals(128, router.thinkingBudget("gemini-2.5-pro", 0));
+        assertEquals(32768, router.thinkingBudget("gemini-2.5-pro", 50_000));
+        assertEquals(512, router.thinkingBudget("gemini-2.5-pro", 512));
+        assertEquals(-1, router.thinkingBudget("gemini-2.5-pro", -1));
+        assertNull(router.thinkingBudget("gemini-2.5-pro", null));
+        assertEquals(0, router.thinkingBudget("gemini-2.5-flash", 0));
+        assertEquals(0, router.thinkingBudget("unknown-model", 0));
+    }
+
+    private static void writeRules(Path file, String json, int version) throws Exception {
+        Files.writeString(file, json);
+        // Garante mtimes distintos mesmo em sistemas de arquivos com resolução de segundos
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(1_700_000_000L + version)));
+    }
+
+    private static ModelRoutingProperties.Model model(double input, double output) {
+        ModelRoutingProperties.Model model = new ModelRoutingProperties.Model();
+        model.setInputCostPerMillion(input);
+        model.setOutputCostPerMillion(output);
+        return model;
+    }
+
+    private static RouteRule rule(String operation, String style, String tier, Integer maxChars, String model) {
+        RouteRule rule = new RouteRule();
+        rule.setOperation(operation);
+        rule.setStyle(style);
+        rule.setTier(tier);
+        rule.setMaxChars(maxChars);
+        rule.setModel(model);
+        return rule;
+    }
+}
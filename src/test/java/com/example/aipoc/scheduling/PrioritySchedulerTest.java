@@ -0,0 +1,224 @@
+package com.example.aipoc.scheduling;
+
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.model.AiOperation;
+import com.example.aipoc.quota.ClientLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PriorityScheduler Tests")
+class PrioritySchedulerTest {
+
+    private SimpleMeterRegistry registry;
+    private SchedulerProperties properties;
+    private List<String> served;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new SchedulerProperties();
+        properties.setMaxConcurrent(1);
+        served = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Test
+    @DisplayName("Should split slots between backlogged lanes by weight")
+    void shouldServeLanesByWeight() throws Exception {
+        // Given
+        properties.getLanes().put(Priority.INTERACTIVE, new SchedulerProperties.Lane(3, 1.0));
+        properties.getLanes().put(Priority.BULK, new SchedulerProperties.Lane(1, 1.0));
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        Sinks.One<String> blocker = Sinks.one();
+        schedule(scheduler, Priority.STANDARD, "tenant", blocker::asMono).subscribe();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(schedule(scheduler, Priority.BULK, "tenant", work("bulk")).toFuture());
+        }
+        for (int i = 0; i < 4; i++) {
+            results.add(schedule(scheduler, Priority.INTERACTIVE, "tenant", work("interactive")).toFuture());
+        }
+
+        // When
+        blocker.tryEmitValue("done");
+
+        // Then
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("interactive", "interactive", "interactive", "bulk",
+                "interactive", "bulk", "bulk", "bulk"), served);
+    }
+
+    @Test
+    @DisplayName("Should keep slots above a lane's max-share free for higher lanes")
+    void shouldReserveCapacityAboveMaxShare() throws Exception {
+        // Given
+        properties.setMaxConcurrent(4);
+        properties.getLanes().put(Priority.BULK, new SchedulerProperties.Lane(1, 0.5));
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        for (int i = 0; i < 3; i++) {
+            schedule(scheduler, Priority.BULK, "tenant", () -> Sinks.<String>one().asMono()).subscribe();
+        }
+
+        // When
+        CompletableFuture<String> interactive = schedule(scheduler, Priority.INTERACTIVE, "tenant",
+                work("interactive")).toFuture();
+
+        // Then
+        assertEquals("interactive", interactive.get(1, TimeUnit.SECONDS));
+        assertEquals(2, scheduler.inFlight(Priority.BULK));
+        assertEquals(1, scheduler.queued(Priority.BULK));
+    }
+
+    @Test
+    @DisplayName("Should alternate between tenants within a lane")
+    void shouldRoundRobinTenants() throws Exception {
+        // Given
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        Sinks.One<String> blocker = Sinks.one();
+        schedule(scheduler, Priority.BULK, "a", blocker::asMono).subscribe();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(schedule(scheduler, Priority.BULK, "a", work("a")).toFuture());
+        }
+        results.add(schedule(scheduler, Priority.BULK, "b", work("b")).toFuture());
+
+        // When
+        blocker.tryEmitValue("done");
+
+        // Then
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("a", "b", "a", "a"), served);
+    }
+
+    @Test
+    @DisplayName("Should release the slot and leave the queue when the caller cancels")
+    void shouldReleaseOnCancel() throws Exception {
+        // Given
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        Disposable running = schedule(scheduler, Priority.STANDARD, "tenant", () -> Sinks.<String>one().asMono())
+                .subscribe();
+        Disposable queued = schedule(scheduler, Priority.STANDARD, "tenant", work("queued")).subscribe();
+
+        // When
+        queued.dispose();
+        running.dispose();
+
+        // Then
+        assertEquals(0, scheduler.queued(Priority.STANDARD));
+        assertEquals(0, scheduler.inFlight(Priority.STANDARD));
+        assertEquals("next", schedule(scheduler, Priority.STANDARD, "tenant", work("next"))
+                .toFuture().get(1, TimeUnit.SECONDS));
+        assertFalse(served.contains("queued"));
+    }
+
+    @Test
+    @DisplayName("Should drop a queued call whose deadline runs out without giving it a slot")
+    void shouldLeaveQueueAtDeadline() throws Exception {
+        // Given
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        Sinks.One<String> blocker = Sinks.one();
+        schedule(scheduler, Priority.STANDARD, "tenant", blocker::asMono).subscribe();
+        CompletableFuture<String> queued = schedule(scheduler, Priority.STANDARD, "tenant", work("late"))
+                .contextWrite(Context.of(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(100))))
+                .toFuture();
+
+        // When
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        blocker.tryEmitValue("done");
+
+        // Then
+        DeadlineExceededException exceeded = assertInstanceOf(DeadlineExceededException.class, failure.getCause());
+        assertEquals(DeadlineExceededException.Stage.SCHEDULER, exceeded.getStage());
+        assertEquals(0, scheduler.queued(Priority.STANDARD));
+        assertEquals(0, scheduler.inFlight(Priority.STANDARD));
+        assertFalse(served.contains("late"));
+    }
+
+    @Test
+    @DisplayName("Should record queue time per lane and default to the standard lane")
+    void shouldRecordQueueTimePerLane() throws Exception {
+        // Given
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        Sinks.One<String> blocker = Sinks.one();
+        scheduler.schedule(blocker::asMono).subscribe();
+        CompletableFuture<String> queued = schedule(scheduler, Priority.BULK, "tenant", work("bulk")).toFuture();
+        Thread.sleep(50);
+
+        // When
+        blocker.tryEmitValue("done");
+
+        // Then
+        assertEquals("bulk", queued.get(1, TimeUnit.SECONDS));
+        assertEquals(1, registry.get("ai.scheduler.queue.time").tag("lane", "standard").timer().count());
+        assertTrue(registry.get("ai.scheduler.queue.time").tag("lane", "bulk").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    @DisplayName("Should prefer the X-Priority header over the endpoint default")
+    void shouldResolvePriority() {
+        // Given
+        properties.getEndpointPriorities().put("product-classification", Priority.BULK);
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+
+        // When / Then
+        assertEquals(Priority.BULK, scheduler.priorityOf(AiOperation.PRODUCT_CLASSIFICATION, null));
+        assertEquals(Priority.INTERACTIVE, scheduler.priorityOf(AiOperation.PRODUCT_CLASSIFICATION, " Interactive "));
+        assertEquals(Priority.BULK, scheduler.priorityOf(AiOperation.PRODUCT_CLASSIFICATION, "urgent"));
+        assertEquals(Priority.STANDARD, scheduler.priorityOf(AiOperation.SUMMARY, null));
+    }
+
+    @Test
+    @DisplayName("Should hold a streamed call's slot until the stream ends")
+    void shouldHoldSlotForStream() throws Exception {
+        // Given
+        PriorityScheduler scheduler = new PriorityScheduler(properties, registry);
+        Sinks.Many<String> chunks = Sinks.many().unicast().onBackpressureBuffer();
+        CompletableFuture<List<String>> stream = scheduler.scheduleMany(chunks::asFlux)
+                .contextWrite(Context.of(PriorityScheduler.PRIORITY_KEY, Priority.STANDARD))
+                .collectList()
+                .toFuture();
+        CompletableFuture<String> next = schedule(scheduler, Priority.STANDARD, "tenant", work("next")).toFuture();
+
+        // When
+        chunks.tryEmitNext("a");
+        chunks.tryEmitNext("b");
+        assertEquals(1, scheduler.queued(Priority.STANDARD));
+        chunks.tryEmitComplete();
+
+        // Then
+        assertEquals(List.of("a", "b"), stream.get(1, TimeUnit.SECONDS));
+        assertEquals("next", next.get(1, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.inFlight(Priority.STANDARD));
+    }
+
+    private Mono<String> schedule(PriorityScheduler scheduler, Priority priority, String tenant,
+            Supplier<Mono<String>> call) {
+        return scheduler.schedule(call)
+                .contextWrite(Context.of(PriorityScheduler.PRIORITY_KEY, priority, ClientLedger.CONTEXT_KEY, tenant));
+    }
+
+    private Supplier<Mono<String>> work(String value) {
+        return () -> Mono.fromSupplier(() -> {
+            served.add(value);
+            return value;
+        });
+    }
+}
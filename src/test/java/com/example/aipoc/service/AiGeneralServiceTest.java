@@ -1,18 +1,50 @@
 package com.example.aipoc.service;
 
+import com.example.aipoc.chat.ChatSession;
+import com.example.aipoc.chat.ChatSessionNotFoundException;
+import com.example.aipoc.chat.ChatSessionProperties;
+import com.example.aipoc.chat.ChatSessionStore;
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.metrics.GeminiMetrics;
 import com.example.aipoc.model.AiRequest;
 import com.example.aipoc.model.AiResponse;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import com.example.aipoc.support.Await;
+import com.example.aipoc.tracing.AiObservations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class AiGeneralServiceTest {
 
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.setAnswers(List.of(new GeminiStubSettings.CannedAnswer("Atualize o resumo",
+                "O usuário quer trocar o pedido 42.")));
+        return settings;
+    });
+
     private AiGeneralService aiService;
 
     @BeforeEach
@@ -113,7 +145,8 @@ class AiGeneralServiceTest {
             """;
 
         // Act
-        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", validResponse);
+        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", validResponse,
+                "gemini-pro");
 
         // Assert
         assertNotNull(response);
@@ -133,7 +166,8 @@ class AiGeneralServiceTest {
             """;
 
         // Act
-        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", emptyResponse);
+        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", emptyResponse,
+                "gemini-pro");
 
         // Assert
         assertNotNull(response);
@@ -147,7 +181,8 @@ class AiGeneralServiceTest {
         String malformedResponse = "{ invalid json }";
 
         // Act
-        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", malformedResponse);
+        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", malformedResponse,
+                "gemini-pro");
 
         // Assert
         assertNotNull(response);
@@ -172,7 +207,8 @@ class AiGeneralServiceTest {
             """;
 
         // Act
-        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", responseWithoutTokens);
+        AiResponse response = ReflectionTestUtils.invokeMethod(aiService, "parseGeminiResponse", responseWithoutTokens,
+                "gemini-pro");
 
         // Assert
         assertNotNull(response);
@@ -180,4 +216,138 @@ class AiGeneralServiceTest {
         assertEquals("Response without token info", response.getResponse());
         assertEquals(0, response.getTokensUsed()); // Should default to 0 when no token info
     }
-}
\ No newline at end of file
+
+    @Test
+    void processMessage_ShouldKeepSessionHistoryBoundedAndSummarizeOlderTurns() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(aiService, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ChatSessionProperties properties = new ChatSessionProperties();
+        properties.setHistoryTokens(60);
+        ChatSessionStore store = new ChatSessionStore(properties, registry);
+        ReflectionTestUtils.setField(aiService, "chatSessions", store);
+        String sessionId = aiService.startSession(null);
+
+        // Act
+        for (int turn = 1; turn <= 4; turn++) {
+            AiRequest request = new AiRequest("Pergunta número " + turn + " sobre o pedido 42", null);
+            request.setSessionId(sessionId);
+            StepVerifier.create(aiService.processMessage(request))
+                    .assertNext(response -> assertTrue(response.isSuccess()))
+                    .verifyComplete();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (registry.get("ai.chat.compactions").tag("outcome", "success").counter().count() == 0) {
+            assertTrue(System.nanoTime() < deadline, "no compaction within 2s");
+            Thread.sleep(10);
+        }
+
+        // Assert
+        ChatSession.Snapshot history = store.find(sessionId, null).orElseThrow().snapshot();
+        assertEquals("O usuário quer trocar o pedido 42.", history.summary());
+        assertFalse(history.history().isEmpty());
+        assertTrue(history.history().stream().mapToInt(ChatSession.Turn::tokens).sum() <= 60);
+        String prompt = ReflectionTestUtils.invokeMethod(aiService, "buildSessionPrompt",
+                new AiRequest("E agora?", null), history);
+        assertTrue(prompt.contains("Resumo da conversa até aqui: O usuário quer trocar o pedido 42."));
+        assertTrue(prompt.contains("Usuário: Pergunta número 4"));
+        assertFalse(prompt.contains("Pergunta número 1"));
+    }
+
+    @Test
+    void remember_ShouldCompactAsChatSummaryAndFollowUpOnTurnsLeftPending() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(aiService, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(aiService, "metrics", new GeminiMetrics(registry));
+        ChatSessionProperties properties = new ChatSessionProperties();
+        properties.setHistoryTokens(60);
+        ChatSessionStore store = new ChatSessionStore(properties, registry);
+        ReflectionTestUtils.setField(aiService, "chatSessions", store);
+        ChatSession session = store.create(null);
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofMillis(200));
+        String longMessage = "Quero trocar o pedido 42 ".repeat(12);
+
+        // Act
+        // Cada troca passa do orçamento da janela e vai direto para o resumo
+        ReflectionTestUtils.invokeMethod(aiService, "remember", session,
+                new ChatSession.Turn(longMessage, "Certo."), null);
+        ReflectionTestUtils.invokeMethod(aiService, "remember", session,
+                new ChatSession.Turn(longMessage + "de novo", "Ok."), null);
+        Await.until(() -> registry.get("ai.chat.compactions").tag("outcome", "success").counter().count() == 2);
+
+        // Assert
+        assertEquals(2, stub.getServer().getRequestCount());
+        assertEquals(2, registry.get("gemini.requests").tag("operation", "chat-summary").timer().count());
+        assertNull(registry.find("gemini.requests").tag("operation", "chat").timer());
+        assertEquals("O usuário quer trocar o pedido 42.", session.snapshot().summary());
+    }
+
+    @Test
+    void streamMessage_ShouldTraceCallAndCountOnlyUnreceivedTokensAsSavedOnCancel() {
+        // Arrange
+        ReflectionTestUtils.setField(aiService, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(aiService, "metrics", new GeminiMetrics(registry));
+        List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        ReflectionTestUtils.setField(aiService, "observationRegistry", observations);
+        // 400 caracteres = 100 tokens de resposta, em trechos de 40 caracteres (10 tokens)
+        stub.getServer().getSettings().setDefaultAnswer("a".repeat(400));
+
+        // Act
+        StepVerifier.create(aiService.streamMessage(new AiRequest("Olá", null)))
+                .expectNextCount(10)
+                .verifyComplete();
+        StepVerifier.create(aiService.streamMessage(new AiRequest("Olá de novo", null)).take(1))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(90.0, registry.get("gemini.tokens.saved").tag("operation", "chat").counter().count());
+        List<Observation.Context> calls = stopped.stream()
+                .filter(context -> AiObservations.GEMINI_CALL.equals(context.getName()))
+                .toList();
+        assertEquals(2, calls.size());
+        assertEquals("gemini-pro", calls.get(0).getLowCardinalityKeyValue("gemini.model").getValue());
+        assertEquals("STOP", calls.get(0).getHighCardinalityKeyValue("gemini.finish_reason").getValue());
+    }
+
+    @Test
+    void streamMessage_ShouldNotCallGeminiWithoutDeadlineBudget() {
+        // Arrange
+        ReflectionTestUtils.setField(aiService, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        ReflectionTestUtils.setField(aiService, "minUpstreamBudget", Duration.ofMillis(100));
+
+        // Act / Assert
+        StepVerifier.create(aiService.streamMessage(new AiRequest("Olá", null))
+                        .contextWrite(Context.of(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(10)))))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+        assertEquals(0, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    void processMessage_ShouldRejectUnknownSession() {
+        // Arrange
+        AiRequest request = new AiRequest("Olá", null);
+        request.setSessionId("expirada");
+
+        // Act / Assert
+        StepVerifier.create(aiService.processMessage(request))
+                .expectError(ChatSessionNotFoundException.class)
+                .verify();
+    }
+}
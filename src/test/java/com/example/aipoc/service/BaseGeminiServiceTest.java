@@ -1,6 +1,8 @@
 package com.example.aipoc.service;
 
+import com.example.aipoc.generation.GenerationProfile;
 import com.example.aipoc.model.GeminiConfig;
+import com.example.aipoc.model.TokenUsage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,10 +13,15 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class BaseGeminiServiceTest {
@@ -82,13 +89,27 @@ class BaseGeminiServiceTest {
 
     @Test
     void testLogOperationStart() {
+        when(logger.isDebugEnabled()).thenReturn(true);
+
         service.logOperationStart("sentiment analysis", "analyzing user text");
         
-        verify(logger).info("Iniciando operação [{}]: {}", "sentiment analysis", "analyzing user text");
+        verify(logger).debug("Iniciando operação [{}]: {}", "sentiment analysis", "analyzing user text");
+    }
+
+    @Test
+    void testLogOperationStart_DoesNotBuildDetailsWhenDebugDisabled() {
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        service.logOperationStart("sentiment analysis", () -> fail("details should not be built"));
+
+        verify(logger, never()).debug(anyString(), any(Object.class), any(Object.class));
+        verify(logger, never()).info(anyString(), any(Object.class), any(Object.class));
     }
 
     @Test
     void testLogOperationSuccess_WithDurationAndTokens() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+
         service.logOperationSuccess("text summary", 1500L, 250);
         
         verify(logger).info("Operação [text summary] concluída com sucesso em 1500ms, tokens utilizados: 250");
@@ -96,6 +117,8 @@ class BaseGeminiServiceTest {
 
     @Test
     void testLogOperationSuccess_WithoutOptionalParams() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+
         service.logOperationSuccess("classification", null, null);
         
         verify(logger).info("Operação [classification] concluída com sucesso");
@@ -154,6 +177,33 @@ class BaseGeminiServiceTest {
         assertEquals(25, tokens);
     }
 
+    @Test
+    void testExtractUsageMetadata_SkipsCandidatesAndReadsAllCounters() {
+        String responseBody = """
+            {
+                "candidates": [{"content": {"parts": [{"text": "{\\"usageMetadata\\": 1}"}]}, "finishReason": "STOP"}],
+                "usageMetadata": {
+                    "promptTokenCount": 10,
+                    "candidatesTokenCount": 15,
+                    "promptTokensDetails": [{"modality": "TEXT", "tokenCount": 10}],
+                    "thoughtsTokenCount": 40,
+                    "totalTokenCount": 65
+                },
+                "modelVersion": "gemini-2.5-flash"
+            }
+            """;
+
+        TokenUsage usage = service.extractUsageMetadata(responseBody);
+
+        assertEquals(new TokenUsage(10, 15, 40, 65), usage);
+    }
+
+    @Test
+    void testExtractUsageMetadata_InvalidResponse() {
+        assertEquals(TokenUsage.EMPTY, service.extractUsageMetadata("invalid json"));
+        assertEquals(TokenUsage.EMPTY, service.extractUsageMetadata("{\"candidates\": []}"));
+    }
+
     @Test
     void testExtractTokenUsage_InvalidResponse() {
         String responseBody = "invalid json";
@@ -177,6 +227,31 @@ class BaseGeminiServiceTest {
         Map<String, Object> generationConfig = (Map<String, Object>) requestBody.get("generationConfig");
         assertEquals(0.5, generationConfig.get("temperature"));
         assertEquals(200, generationConfig.get("maxOutputTokens"));
+        assertFalse(generationConfig.containsKey("thinkingConfig"));
+        assertFalse(generationConfig.containsKey("stopSequences"));
+    }
+
+    @Test
+    void testBuildBaseRequestBody_WithThinkingBudgetAndStopSequences() {
+        GeminiConfig config = new GeminiConfig(0.5, 200, "gemini-pro", "api-key", 0, List.of("FIM"));
+
+        Map<String, Object> requestBody = service.buildBaseRequestBody("Test prompt", config);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> generationConfig = (Map<String, Object>) requestBody.get("generationConfig");
+        assertEquals(Map.of("thinkingBudget", 0), generationConfig.get("thinkingConfig"));
+        assertEquals(List.of("FIM"), generationConfig.get("stopSequences"));
+    }
+
+    @Test
+    void testCreateConfig_FromGenerationProfile() {
+        GeminiConfig config = service.createConfig(new GenerationProfile("fast", null, 300, 0, List.of()));
+
+        // Temperature falls back to the default, the rest comes from the profile
+        assertEquals(0.7, config.getTemperature());
+        assertEquals(300, config.getMaxTokens());
+        assertEquals(0, config.getThinkingBudget());
+        assertEquals("gemini-pro", config.getModel());
     }
 
     // Testable concrete implementation of BaseGeminiService
@@ -197,6 +272,11 @@ class BaseGeminiServiceTest {
             super.logOperationStart(operation, details);
         }
         
+        @Override
+        public void logOperationStart(String operation, java.util.function.Supplier<String> details) {
+            super.logOperationStart(operation, details);
+        }
+
         @Override
         public void logOperationSuccess(String operation, Long duration, Integer tokensUsed) {
             super.logOperationSuccess(operation, duration, tokensUsed);
@@ -212,6 +292,11 @@ class BaseGeminiServiceTest {
             return super.createConfig(temperature, maxTokens);
         }
         
+        @Override
+        public GeminiConfig createConfig(GenerationProfile profile) {
+            return super.createConfig(profile);
+        }
+        
         @Override
         public GeminiConfig createDefaultConfig() {
             return super.createDefaultConfig();
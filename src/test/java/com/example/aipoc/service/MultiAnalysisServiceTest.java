@@ -0,0 +1,207 @@
+package com.example.aipoc.service;
+
+import com.example.aipoc.deadline.DeadlineExceededException;
+import com.example.aipoc.metrics.GeminiMetrics;
+import com.example.aipoc.model.AnalysisTiming;
+import com.example.aipoc.model.AnalyzeRequest;
+import com.example.aipoc.model.AnalyzeResponse;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs combined analyses end to end against the local Gemini stub.
+ */
+@DisplayName("MultiAnalysisService against the Gemini stub")
+class MultiAnalysisServiceTest {
+
+    private static final String COMBINED_ANSWER = """
+            {"sentiment": {"sentiment": "POSITIVE", "confidence": 0.9, "explanation": "Elogio claro"},
+             "summary": "Cliente satisfeito com o produto."}""";
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.setAnswers(List.of(
+                new GeminiStubSettings.CannedAnswer("responda com um único JSON", COMBINED_ANSWER),
+                new GeminiStubSettings.CannedAnswer("Analise o sentimento",
+                        "{\"sentiment\": \"NEGATIVE\", \"confidence\": 0.8, \"explanation\": \"Separada\"}"),
+                new GeminiStubSettings.CannedAnswer("Texto original:", "Resumo separado."),
+                new GeminiStubSettings.CannedAnswer("Pergunta:", "A entrega.")));
+        return settings;
+    });
+
+    private MultiAnalysisService service;
+    private SimpleMeterRegistry registry;
+    private GeminiMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new GeminiMetrics(registry);
+        service = configure(new MultiAnalysisService());
+        ReflectionTestUtils.setField(service, "sentimentAnalysisService", configure(new SentimentAnalysisService()));
+        ReflectionTestUtils.setField(service, "textSummaryService", configure(new TextSummaryService()));
+        ReflectionTestUtils.setField(service, "aiGeneralService", configure(new AiGeneralService()));
+    }
+
+    @Test
+    @DisplayName("Should answer sentiment and summary from one structured call")
+    void shouldCombineStructuredAnalyses() {
+        // When / Then
+        StepVerifier.create(service.analyze(request("sentiment", "summary")))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("POSITIVE", response.getSentiment().getSentiment());
+                    assertEquals("Cliente satisfeito com o produto.", response.getSummary().getResponse());
+                    assertEquals("combined", response.getTimings().get("sentiment").mode());
+                    assertEquals("combined", response.getTimings().get("summary").mode());
+                    assertTrue(response.getTokensUsed() > 0);
+                })
+                .verifyComplete();
+        assertEquals(1, stub.getServer().getRequestCount());
+        assertEquals(1, registry.get("ai.analyze.parts").tags("analysis", "summary", "mode", "combined")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should run chat on its own call next to the combined one")
+    void shouldRunChatSeparately() {
+        // Given
+        AnalyzeRequest request = request("SENTIMENT", "summary", "chat");
+        request.setQuestion("Qual foi o problema?");
+
+        // When / Then
+        StepVerifier.create(service.analyze(request))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("A entrega.", response.getChat().getResponse());
+                    assertEquals(List.of("sentiment", "summary", "chat"), List.copyOf(response.getTimings().keySet()));
+                    assertEquals("separate", response.getTimings().get("chat").mode());
+                    assertEquals(response.getChat().getTokensUsed() + (int) registry.get("gemini.tokens")
+                            .tags("operation", "analyze", "type", "total").counter().count(), response.getTokensUsed());
+                })
+                .verifyComplete();
+        assertEquals(2, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should ask separately for the analyses the combined answer lacks")
+    void shouldFallBackToSeparateCalls() {
+        // Given
+        List<GeminiStubSettings.CannedAnswer> answers = new ArrayList<>(stub.getServer().getSettings().getAnswers());
+        answers.set(0, new GeminiStubSettings.CannedAnswer("responda com um único JSON",
+                "{\"sentiment\": {\"sentiment\": \"POSITIVE\", \"confidence\": 0.9, \"explanation\": \"ok\"}}"));
+        stub.getServer().getSettings().setAnswers(answers);
+
+        // When / Then
+        StepVerifier.create(service.analyze(request("sentiment", "summary")))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("POSITIVE", response.getSentiment().getSentiment());
+                    assertEquals("Resumo separado.", response.getSummary().getResponse());
+                    AnalysisTiming sentiment = response.getTimings().get("sentiment");
+                    AnalysisTiming summary = response.getTimings().get("summary");
+                    assertEquals("combined", sentiment.mode());
+                    assertEquals("fallback", summary.mode());
+                    assertTrue(summary.durationMs() >= sentiment.durationMs());
+                })
+                .verifyComplete();
+        assertEquals(2, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should send a lone analysis through its own service and serve local answers past the deadline")
+    void shouldUseOwnServiceForLoneAnalysis() {
+        // When / Then
+        StepVerifier.create(service.analyze(request("sentiment")))
+                .assertNext(single -> {
+                    assertEquals("NEGATIVE", single.getSentiment().getSentiment());
+                    assertEquals("separate", single.getTimings().get("sentiment").mode());
+                    assertNull(single.getSummary());
+                })
+                .verifyComplete();
+        assertEquals(1, stub.getServer().getRequestCount());
+
+        // When
+        AnalyzeResponse degraded = service.degradedAnalysis(request("sentiment", "summary"),
+                new DeadlineExceededException(DeadlineExceededException.Stage.ADMISSION));
+
+        // Then
+        assertTrue(degraded.isSuccess());
+        assertTrue(degraded.isDegraded());
+        assertEquals("degraded", degraded.getTimings().get("summary").mode());
+    }
+
+    @Test
+    @DisplayName("Should pass the request's language on to the sentiment analysis")
+    void shouldPassLanguageToSentiment() {
+        // Given
+        List<String> languages = new ArrayList<>();
+        ReflectionTestUtils.setField(service, "sentimentAnalysisService", configure(new SentimentAnalysisService() {
+            @Override
+            public Mono<SentimentResponse> analyzeSentiment(SentimentRequest request) {
+                languages.add(request.getLanguage());
+                return super.analyzeSentiment(request);
+            }
+        }));
+        AnalyzeRequest request = request("sentiment");
+        request.setLanguage("en");
+
+        // When / Then
+        StepVerifier.create(service.analyze(request))
+                .assertNext(response -> assertTrue(response.isSuccess()))
+                .verifyComplete();
+        assertEquals(List.of("en"), languages);
+    }
+
+    @Test
+    @DisplayName("Should summarize concisely when no style is given and reject unknown styles")
+    void shouldDefaultAndValidateStyle() {
+        // Given
+        AnalyzeRequest request = request("sentiment", "summary");
+        request.setStyle(null);
+
+        // When / Then
+        StepVerifier.create(service.analyze(request))
+                .assertNext(response -> assertEquals("combined", response.getTimings().get("summary").mode()))
+                .verifyComplete();
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            request.setStyle("poema");
+            assertEquals(1, factory.getValidator().validate(request).size());
+            request.setStyle("Detalhado");
+            assertTrue(factory.getValidator().validate(request).isEmpty());
+        }
+    }
+
+    private <T extends BaseGeminiService> T configure(T target) {
+        ReflectionTestUtils.setField(target, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        ReflectionTestUtils.setField(target, "defaultModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(target, "defaultMaxTokens", 1000);
+        ReflectionTestUtils.setField(target, "defaultTemperature", 0.7);
+        ReflectionTestUtils.setField(target, "defaultApiKey", "test-api-key");
+        ReflectionTestUtils.setField(target, "metrics", metrics);
+        return target;
+    }
+
+    private static AnalyzeRequest request(String... analyses) {
+        return new AnalyzeRequest("Adorei o produto, mas a entrega atrasou.", List.of(analyses));
+    }
+}
@@ -0,0 +1,645 @@
+package com.example.aipoc.service;
+
+import com.example.aipoc.cache.ResultCache;
+import com.example.aipoc.cache.ResultCacheProperties;
+import com.example.aipoc.config.GeminiBulkheads;
+import com.example.aipoc.config.GeminiHttpProperties;
+import com.example.aipoc.deadline.Deadline;
+import com.example.aipoc.deadline.SlaBackgroundCalls;
+import com.example.aipoc.deadline.SlaProperties;
+import com.example.aipoc.generation.GenerationProfiles;
+import com.example.aipoc.generation.GenerationProperties;
+import com.example.aipoc.metrics.GeminiMetrics;
+import com.example.aipoc.model.SentimentRequest;
+import com.example.aipoc.model.SentimentResponse;
+import com.example.aipoc.prompt.PromptTemplates;
+import com.example.aipoc.quota.ClientLedger;
+import com.example.aipoc.quota.ClientQuotaProperties;
+import com.example.aipoc.routing.CascadeProperties;
+import com.example.aipoc.routing.ModelFallbackProperties;
+import com.example.aipoc.routing.ModelFallbacks;
+import com.example.aipoc.routing.ModelRouter;
+import com.example.aipoc.routing.ModelRoutingProperties;
+import com.example.aipoc.routing.RouteRule;
+import com.example.aipoc.stub.GeminiStubExtension;
+import com.example.aipoc.stub.GeminiStubSettings;
+import com.example.aipoc.support.Await;
+import com.example.aipoc.tracing.AiObservations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the sentiment service end to end against the local Gemini stub, including
+ * the fault paths the real API only produces occasionally.
+ */
+@DisplayName("SentimentAnalysisService against the Gemini stub")
+class SentimentAnalysisServiceTest {
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.setAnswers(List.of(new GeminiStubSettings.CannedAnswer("Analise o sentimento",
+                "{\"sentiment\": \"POSITIVE\", \"confidence\": 0.92, \"explanation\": \"Elogio claro\"}")));
+        return settings;
+    });
+
+    private SentimentAnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SentimentAnalysisService();
+        ReflectionTestUtils.setField(service, "geminiWebClient", WebClient.create(stub.getServer().getBaseUrl()));
+        ReflectionTestUtils.setField(service, "defaultModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(service, "defaultMaxTokens", 1000);
+        ReflectionTestUtils.setField(service, "defaultTemperature", 0.7);
+        ReflectionTestUtils.setField(service, "defaultApiKey", "test-api-key");
+        ReflectionTestUtils.setField(service, "blockingTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should parse the model answer")
+    void shouldParseModelAnswer() {
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("POSITIVE", response.getSentiment());
+                    assertEquals(0.92, response.getConfidence());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should fall back to keyword analysis when the answer is malformed")
+    void shouldFallBackOnMalformedAnswer() {
+        // Given
+        stub.getServer().getSettings().setMalformedRate(1.0);
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("POSITIVE", response.getSentiment());
+                    assertEquals(0.7, response.getConfidence());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should tag the template on the prompt build and the finish reason on the gemini.call span")
+    void shouldTagFinishReasonOnCallSpan() {
+        // Given
+        List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        ReflectionTestUtils.setField(service, "observationRegistry", observations);
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        Observation.Context call = stopped.stream()
+                .filter(context -> AiObservations.GEMINI_CALL.equals(context.getName()))
+                .findFirst().orElseThrow();
+        assertEquals("STOP", call.getHighCardinalityKeyValue("gemini.finish_reason").getValue());
+        Observation.Context promptBuild = stopped.stream()
+                .filter(context -> AiObservations.PROMPT_BUILD.equals(context.getName()))
+                .findFirst().orElseThrow();
+        assertEquals(PromptTemplates.get("sentiment").id(),
+                promptBuild.getLowCardinalityKeyValue(AiObservations.TEMPLATE_KEY).getValue());
+        stopped.stream()
+                .filter(context -> AiObservations.RESPONSE_PARSE.equals(context.getName()))
+                .forEach(context -> assertNull(context.getHighCardinalityKeyValue("gemini.finish_reason")));
+    }
+
+    @Test
+    @DisplayName("Should report an error when the answer is truncated")
+    void shouldReportTruncatedAnswer() {
+        // Given
+        stub.getServer().getSettings().setMaxTokensRate(1.0);
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(response -> assertFalse(response.isSuccess()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should report an error when the model is unavailable")
+    void shouldReportUnavailableModel() {
+        // Given
+        stub.getServer().getSettings().setUnavailableRate(1.0);
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(response -> assertFalse(response.isSuccess()))
+                .verifyComplete();
+        assertEquals(1, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should abort the upstream call and release its connection when the caller cancels")
+    void shouldAbortUpstreamCallOnCancel() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GeminiBulkheads bulkheads = new GeminiBulkheads(WebClient.create(stub.getServer().getBaseUrl()),
+                new GeminiHttpProperties(), registry);
+        ReflectionTestUtils.setField(service, "geminiBulkheads", bulkheads);
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .expectNextCount(1)
+                .verifyComplete();
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofSeconds(5));
+        Disposable call = service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")).subscribe();
+        Await.until(() -> stub.getServer().getInFlight() == 1);
+
+        // When
+        call.dispose();
+
+        // Then
+        try {
+            Await.until(() -> stub.getServer().getCancelledCount() == 1);
+            Await.until(() -> registry.get("gemini.bulkhead.active").tag("operation", "sentiment").gauge().value() == 0);
+            assertEquals(1, registry.get("gemini.requests").tag("outcome", "cancelled").timer().count());
+            assertTrue(registry.get("gemini.tokens.saved").tag("operation", "sentiment").counter().count() > 0);
+        } finally {
+            bulkheads.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count a call once when the caller cancels right after the answer")
+    void shouldCountCallOnceWhenCancelledAfterAnswer() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+
+        // When: take(1) cancela a cadeia logo depois do onNext, antes do onComplete
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")).flux().take(1))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        assertEquals(0.0, registry.get("gemini.requests.in.flight").tag("operation", "sentiment").gauge().value());
+        assertEquals(1, registry.get("gemini.requests").tag("outcome", "success").timer().count());
+        assertNull(registry.find("gemini.requests").tag("outcome", "cancelled").timer());
+    }
+
+    @Test
+    @DisplayName("Should abort the upstream call when the caller times out")
+    void shouldAbortUpstreamCallOnCallerTimeout() throws Exception {
+        // Given
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofSeconds(5));
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt"))
+                        .timeout(Duration.ofMillis(300)))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+
+        // Then
+        Await.until(() -> stub.getServer().getCancelledCount() == 1);
+        Await.until(() -> stub.getServer().getInFlight() == 0);
+    }
+
+    @Test
+    @DisplayName("Should answer through the blocking wait")
+    void shouldAnswerThroughBlockingWait() {
+        // When
+        SentimentResponse response = service.awaitBlocking(
+                service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")));
+
+        // Then
+        assertTrue(response.isSuccess());
+        assertEquals("POSITIVE", response.getSentiment());
+        assertEquals(0.92, response.getConfidence());
+    }
+
+    @Test
+    @DisplayName("Should abort the upstream call when the blocking wait times out")
+    void shouldAbortUpstreamCallOnBlockingTimeout() throws Exception {
+        // Given
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(service, "blockingTimeout", Duration.ofMillis(300));
+
+        // When
+        assertThrows(IllegalStateException.class,
+                () -> service.awaitBlocking(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt"))));
+
+        // Then
+        Await.until(() -> stub.getServer().getCancelledCount() == 1);
+        Await.until(() -> stub.getServer().getInFlight() == 0);
+    }
+
+    @Test
+    @DisplayName("Should serve the degraded answer when the blocking wait's deadline runs out")
+    void shouldServeDegradedAnswerOnBlockingDeadline() throws Exception {
+        // Given
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofSeconds(5));
+        long start = System.nanoTime();
+
+        // When
+        SentimentResponse response = service.awaitBlocking(
+                service.analyzeSentiment(new SentimentRequest("Adorei o produto, muito bom", "pt")),
+                Deadline.after(Duration.ofMillis(300)));
+
+        // Then
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000, "deadline should bound the wait");
+        assertTrue(response.isDegraded());
+        assertEquals("POSITIVE", response.getSentiment());
+        Await.until(() -> stub.getServer().getCancelledCount() == 1);
+    }
+
+    @Test
+    @DisplayName("Should answer repeated texts from the result cache")
+    void shouldAnswerRepeatedTextFromCache() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(service, "resultCache", new ResultCache(new ResultCacheProperties(), registry));
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest(" Adorei o produto ", "pt")))
+                .assertNext(response -> assertEquals(0.92, response.getConfidence()))
+                .verifyComplete();
+        assertEquals(1, stub.getServer().getRequestCount());
+        assertEquals(1.0, registry.get("ai.cache.requests").tags("operation", "sentiment", "result", "hit")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should serve the local answer when Gemini misses the SLA and cache the late model answer")
+    void shouldServeLocalAnswerPastSla() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlaProperties sla = new SlaProperties();
+        sla.getOperations().put("sentiment", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(service, "slaProperties", sla);
+        ReflectionTestUtils.setField(service, "resultCache", new ResultCache(new ResultCacheProperties(), registry));
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofMillis(500));
+        SentimentRequest request = new SentimentRequest("Adorei o produto, muito bom", "pt");
+        long start = System.nanoTime();
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(request))
+                .assertNext(local -> {
+                    assertTrue(local.isDegraded());
+                    assertEquals("POSITIVE", local.getSentiment());
+                })
+                .verifyComplete();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400, "local answer should not wait for Gemini");
+        assertEquals(1.0, registry.get("ai.sla.missed").tags("operation", "sentiment", "reason", "timeout")
+                .counter().count());
+
+        // When
+        Await.until(() -> registry.get("ai.cache.size").gauge().value() == 1);
+
+        // Then
+        StepVerifier.create(service.analyzeSentiment(request))
+                .assertNext(cached -> {
+                    assertFalse(cached.isDegraded());
+                    assertEquals(0.92, cached.getConfidence());
+                })
+                .verifyComplete();
+        assertEquals(0, stub.getServer().getCancelledCount());
+        assertEquals(1, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should share one background call between identical requests past the SLA")
+    void shouldShareBackgroundCallPerKey() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlaProperties sla = slaMode(registry, Duration.ofMillis(500));
+        ReflectionTestUtils.setField(service, "slaBackgroundCalls", new SlaBackgroundCalls(sla, registry));
+        SentimentRequest request = new SentimentRequest("Adorei o produto, muito bom", "pt");
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(request))
+                .assertNext(local -> assertTrue(local.isDegraded()))
+                .verifyComplete();
+        StepVerifier.create(service.analyzeSentiment(request))
+                .assertNext(local -> assertTrue(local.isDegraded()))
+                .verifyComplete();
+        Await.until(() -> registry.get("ai.cache.size").gauge().value() == 1);
+
+        // Then
+        assertEquals(1, stub.getServer().getRequestCount());
+        assertEquals(0, stub.getServer().getCancelledCount());
+        assertEquals(0.0, registry.get("ai.sla.background.in.flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should end the call with its request when no background slot is free")
+    void shouldDropBackgroundCallWhenFull() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlaProperties sla = slaMode(registry, Duration.ofMillis(500));
+        sla.getBackground().setMaxInFlight(0);
+        ReflectionTestUtils.setField(service, "slaBackgroundCalls", new SlaBackgroundCalls(sla, registry));
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto, muito bom", "pt")))
+                .assertNext(local -> assertTrue(local.isDegraded()))
+                .verifyComplete();
+
+        // Then: depois da latência do stub, nada chegou ao cache e não há chamada pendente
+        Thread.sleep(800);
+        assertEquals(0, stub.getServer().getInFlight());
+        assertEquals(0.0, registry.get("ai.cache.size").gauge().value());
+        assertEquals(1.0, registry.get("ai.sla.background.dropped").tag("operation", "sentiment")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should abort a background call at its own deadline")
+    void shouldBoundBackgroundCallByItsDeadline() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlaProperties sla = slaMode(registry, Duration.ofSeconds(2));
+        sla.getBackground().setTimeout(Duration.ofMillis(300));
+        ReflectionTestUtils.setField(service, "slaBackgroundCalls", new SlaBackgroundCalls(sla, registry));
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto, muito bom", "pt")))
+                .assertNext(local -> assertTrue(local.isDegraded()))
+                .verifyComplete();
+
+        // Then
+        Await.until(() -> stub.getServer().getCancelledCount() == 1);
+        Await.until(() -> registry.get("ai.sla.background.in.flight").gauge().value() == 0);
+        assertEquals(0.0, registry.get("ai.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should call the model picked by the routing rules for the input and the caller's tier")
+    void shouldRouteByInputAndTier() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ModelRoutingProperties routing = new ModelRoutingProperties();
+        routing.setRules(List.of(rule("premium", null, "gemini-2.5-pro"),
+                rule(null, 280, "gemini-2.5-flash-lite")));
+        ClientQuotaProperties quota = new ClientQuotaProperties();
+        ClientQuotaProperties.Client premium = new ClientQuotaProperties.Client();
+        premium.setApiKey("premium-key");
+        premium.setTier("premium");
+        quota.getClients().put("relatorios", premium);
+        ReflectionTestUtils.setField(service, "modelRouter", new ModelRouter(routing, registry));
+        ReflectionTestUtils.setField(service, "clientLedger", new ClientLedger(quota));
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        SentimentRequest request = new SentimentRequest("Adorei o produto", "pt");
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(request))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(service.analyzeSentiment(request)
+                        .contextWrite(Context.of(ClientLedger.CONTEXT_KEY, "relatorios")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        assertEquals(1, registry.get("gemini.requests").tags("model", "gemini-2.5-flash-lite").timer().count());
+        assertEquals(1, registry.get("gemini.requests").tags("model", "gemini-2.5-pro").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should escalate to the next cascade model only when confidence is below the threshold")
+    void shouldEscalateLowConfidenceAnswers() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        CascadeProperties.Cascade cascade = new CascadeProperties.Cascade();
+        cascade.setModels(List.of("gemini-2.5-flash-lite", "gemini-2.5-flash"));
+        cascade.setMinConfidence(0.9);
+        CascadeProperties cascades = new CascadeProperties();
+        cascades.getOperations().put("sentiment", cascade);
+        ReflectionTestUtils.setField(service, "cascadeProperties", cascades);
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(confident -> assertEquals(0.92, confident.getConfidence()))
+                .verifyComplete();
+        cascade.setMinConfidence(0.95);
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(escalated -> assertEquals(0.92, escalated.getConfidence()))
+                .verifyComplete();
+        assertEquals(3, stub.getServer().getRequestCount());
+        assertEquals(1, registry.get("ai.cascade.requests").tags("path", "gemini-2.5-flash-lite").timer().count());
+        assertEquals(1, registry.get("ai.cascade.requests")
+                .tags("path", "gemini-2.5-flash-lite>gemini-2.5-flash").timer().count());
+        assertEquals(1.0, registry.get("ai.cascade.escalations")
+                .tags("model", "gemini-2.5-flash-lite", "reason", "low_confidence").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should escalate when the model answer is not valid JSON and serve the last answer as is")
+    void shouldEscalateUnparsedAnswers() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        CascadeProperties.Cascade cascade = new CascadeProperties.Cascade();
+        cascade.setModels(List.of("gemini-2.5-flash-lite", "gemini-2.5-flash"));
+        CascadeProperties cascades = new CascadeProperties();
+        cascades.getOperations().put("sentiment", cascade);
+        ReflectionTestUtils.setField(service, "cascadeProperties", cascades);
+        stub.getServer().getSettings().setMalformedRate(1.0);
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertTrue(response.isDegraded());
+                })
+                .verifyComplete();
+        assertEquals(2, stub.getServer().getRequestCount());
+        assertEquals(1.0, registry.get("ai.cascade.escalations")
+                .tags("model", "gemini-2.5-flash-lite", "reason", "unparsed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the next model on quota exhaustion and cool the exhausted model down")
+    void shouldFallBackToNextModelOnQuotaExhaustion() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ModelFallbackProperties fallback = new ModelFallbackProperties();
+        fallback.setDefaults(List.of("gemini-2.5-flash-lite"));
+        ModelFallbacks fallbacks = new ModelFallbacks(fallback, registry);
+        ReflectionTestUtils.setField(service, "modelFallbacks", fallbacks);
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        stub.getServer().getSettings().getExhaustedModels().add("gemini-2.5-flash");
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Adorei o produto", "pt")))
+                .assertNext(first -> {
+                    assertTrue(first.isSuccess());
+                    assertEquals(0.92, first.getConfidence());
+                })
+                .verifyComplete();
+        StepVerifier.create(service.analyzeSentiment(new SentimentRequest("Amei a entrega", "pt")))
+                .assertNext(second -> assertTrue(second.isSuccess()))
+                .verifyComplete();
+        // A segunda chamada já começa pelo fallback: o modelo esgotado está em espera
+        assertEquals(3, stub.getServer().getRequestCount());
+        assertTrue(fallbacks.isCoolingDown("gemini-2.5-flash"));
+        assertEquals(1.0, registry.get("gemini.model.cooldowns")
+                .tags("operation", "sentiment", "model", "gemini-2.5-flash").counter().count());
+        assertEquals(2, registry.get("gemini.requests")
+                .tags("model", "gemini-2.5-flash-lite", "outcome", GeminiMetrics.OUTCOME_SUCCESS).timer().count());
+    }
+
+    @Test
+    @DisplayName("Should send the thinking budget of the requested profile and cache answers per profile")
+    void shouldApplyRequestedGenerationProfile() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GenerationProperties generation = new GenerationProperties();
+        generation.getProfiles().put("fast", thinking(0));
+        generation.getProfiles().put("thorough", thinking(-1));
+        ReflectionTestUtils.setField(service, "generationProfiles", new GenerationProfiles(generation, registry));
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        ReflectionTestUtils.setField(service, "resultCache", new ResultCache(new ResultCacheProperties(), registry));
+        stub.getServer().getSettings().setThoughtsTokens(120);
+        SentimentRequest fast = new SentimentRequest("Adorei o produto", "pt");
+        fast.setProfile("fast");
+        SentimentRequest thorough = new SentimentRequest("Adorei o produto", "pt");
+        thorough.setProfile("thorough");
+
+        // When
+        StepVerifier.create(service.analyzeSentiment(fast)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.analyzeSentiment(thorough)).expectNextCount(1).verifyComplete();
+
+        // Then
+        assertEquals(2, stub.getServer().getRequestCount());
+        assertEquals(120.0, registry.get("gemini.tokens").tag("type", "thoughts").counter().count());
+        assertEquals(1.0, registry.get("ai.generation.requests").tag("profile", "fast").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fit the fast profile's thinking budget to a model that cannot turn thinking off")
+    void shouldFitThinkingBudgetToRoutedModel() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ModelRoutingProperties.Model pro = new ModelRoutingProperties.Model();
+        pro.setMinThinkingBudget(128);
+        ModelRoutingProperties routing = new ModelRoutingProperties();
+        routing.getModels().put("gemini-2.5-pro", pro);
+        routing.setRules(List.of(rule(null, null, "gemini-2.5-pro")));
+        GenerationProperties generation = new GenerationProperties();
+        generation.getProfiles().put("fast", thinking(0));
+        ReflectionTestUtils.setField(service, "modelRouter", new ModelRouter(routing, registry));
+        ReflectionTestUtils.setField(service, "generationProfiles", new GenerationProfiles(generation, registry));
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        stub.getServer().getSettings().getMinThinkingBudgets().put("gemini-2.5-pro", 128);
+        stub.getServer().getSettings().setThoughtsTokens(500);
+        SentimentRequest request = new SentimentRequest("Adorei o produto", "pt");
+        request.setProfile("fast");
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(request))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals(0.92, response.getConfidence());
+                })
+                .verifyComplete();
+        assertEquals(128.0, registry.get("gemini.tokens").tag("type", "thoughts").counter().count());
+        assertEquals(1, registry.get("gemini.requests")
+                .tags("model", "gemini-2.5-pro", "outcome", GeminiMetrics.OUTCOME_SUCCESS).timer().count());
+    }
+
+    @Test
+    @DisplayName("Should fit the thinking budget again when falling back to another model")
+    void shouldFitThinkingBudgetOnFallback() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ModelRoutingProperties.Model pro = new ModelRoutingProperties.Model();
+        pro.setMinThinkingBudget(128);
+        ModelRoutingProperties routing = new ModelRoutingProperties();
+        routing.getModels().put("gemini-2.5-pro", pro);
+        ModelFallbackProperties fallback = new ModelFallbackProperties();
+        fallback.setDefaults(List.of("gemini-2.5-pro"));
+        GenerationProperties generation = new GenerationProperties();
+        generation.getProfiles().put("fast", thinking(0));
+        ReflectionTestUtils.setField(service, "modelRouter", new ModelRouter(routing, registry));
+        ReflectionTestUtils.setField(service, "modelFallbacks", new ModelFallbacks(fallback, registry));
+        ReflectionTestUtils.setField(service, "generationProfiles", new GenerationProfiles(generation, registry));
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        stub.getServer().getSettings().getMinThinkingBudgets().put("gemini-2.5-pro", 128);
+        stub.getServer().getSettings().getExhaustedModels().add("gemini-2.5-flash");
+        SentimentRequest request = new SentimentRequest("Adorei o produto", "pt");
+        request.setProfile("fast");
+
+        // When / Then
+        StepVerifier.create(service.analyzeSentiment(request))
+                .assertNext(response -> assertEquals(0.92, response.getConfidence()))
+                .verifyComplete();
+        assertEquals(2, stub.getServer().getRequestCount());
+        assertEquals(1, registry.get("gemini.requests")
+                .tags("model", "gemini-2.5-pro", "outcome", GeminiMetrics.OUTCOME_SUCCESS).timer().count());
+    }
+
+    private static RouteRule rule(String tier, Integer maxChars, String model) {
+        RouteRule rule = new RouteRule();
+        rule.setOperation("sentiment");
+        rule.setTier(tier);
+        rule.setMaxChars(maxChars);
+        rule.setModel(model);
+        return rule;
+    }
+
+    private static GenerationProperties.Profile thinking(int budget) {
+        GenerationProperties.Profile profile = new GenerationProperties.Profile();
+        profile.setThinkingBudget(budget);
+        return profile;
+    }
+
+    private SlaProperties slaMode(SimpleMeterRegistry registry, Duration latency) {
+        SlaProperties sla = new SlaProperties();
+        sla.getOperations().put("sentiment", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(service, "slaProperties", sla);
+        ReflectionTestUtils.setField(service, "resultCache", new ResultCache(new ResultCacheProperties(), registry));
+        ReflectionTestUtils.setField(service, "metrics", new GeminiMetrics(registry));
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(latency);
+        return sla;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aipoc.stub;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.util.function.Supplier;
+
+/**
+ * JUnit 5 extension that runs a {@link GeminiStubServer} on a random port for the
+ * test class. Before each test the counters are reset and the settings restored,
+ * so tests can change the stub behaviour freely.
+ *
+ * <pre>{@code
+ * @RegisterExtension
+ * static final GeminiStubExtension stub = new GeminiStubExtension();
+ *
+ * @Test
+ * void test() {
+ *     stub.getServer().getSettings().setUnavailableRate(1.0);
+ *     WebClient client = WebClient.create(stub.getServer().getBaseUrl());
+ * }
+ * }</pre>
+ *
+ * <p>Also usable with {@code @ExtendWith(GeminiStubExtension.class)}, receiving the
+ * server as a test method parameter.
+ */
+public class GeminiStubExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback,
+        ParameterResolver {
+
+    private final Supplier<GeminiStubSettings> settings;
+    private GeminiStubServer server;
+
+    public GeminiStubExtension() {
+        this(GeminiStubSettings::new);
+    }
+
+    /**
+     * @param settings supplier of the settings each test starts with
+     */
+    public GeminiStubExtension(Supplier<GeminiStubSettings> settings) {
+        this.settings = settings;
+    }
+
+    public GeminiStubServer getServer() {
+        return server;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        server = new GeminiStubServer(settings.get()).start(0);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        server.stop();
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        server.reset();
+        server.setSettings(settings.get());
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == GeminiStubServer.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return server;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.aipoc.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GeminiStubServer Tests")
+class GeminiStubServerTest {
+
+    private static final String ANSWER = "{\"sentiment\": \"POSITIVE\", \"confidence\": 0.9}";
+
+    @RegisterExtension
+    static final GeminiStubExtension stub = new GeminiStubExtension(() -> {
+        GeminiStubSettings settings = new GeminiStubSettings();
+        settings.setAnswers(List.of(new GeminiStubSettings.CannedAnswer("sentimento", ANSWER)));
+        return settings;
+    });
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should answer generateContent with the canned answer and usage metadata")
+    void shouldAnswerGenerateContent() throws Exception {
+        // When
+        Reply reply = post("/models/gemini-2.5-flash:generateContent", request("Analise o sentimento: ótimo"));
+
+        // Then
+        assertEquals(200, reply.status());
+        JsonNode candidate = reply.json().path("candidates").get(0);
+        assertEquals(ANSWER, candidate.path("content").path("parts").get(0).path("text").asText());
+        assertEquals("STOP", candidate.path("finishReason").asText());
+        assertEquals("gemini-2.5-flash", reply.json().path("modelVersion").asText());
+        assertTrue(reply.json().path("usageMetadata").path("totalTokenCount").asInt() > 0);
+        assertEquals(1, stub.getServer().getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should use the default answer when no canned answer matches")
+    void shouldUseDefaultAnswer() throws Exception {
+        // When
+        Reply reply = post("/models/gemini-2.5-flash:generateContent", request("Olá"));
+
+        // Then
+        assertEquals(new GeminiStubSettings().getDefaultAnswer(),
+                reply.json().path("candidates").get(0).path("content").path("parts").get(0).path("text").asText());
+    }
+
+    @Test
+    @DisplayName("Should inject 429 with retry info and 503 errors")
+    void shouldInjectErrors() throws Exception {
+        // Given
+        stub.getServer().getSettings().setRateLimitRate(1.0);
+
+        // When
+        Reply limited = post("/models/gemini-2.5-flash:generateContent", request("Olá"));
+
+        // Then
+        assertEquals(429, limited.status());
+        assertEquals("RESOURCE_EXHAUSTED", limited.json().path("error").path("status").asText());
+        assertEquals("type.googleapis.com/google.rpc.RetryInfo",
+                limited.json().path("error").path("details").get(0).path("@type").asText());
+
+        // Given
+        stub.getServer().getSettings().setRateLimitRate(0.0);
+        stub.getServer().getSettings().setUnavailableRate(1.0);
+
+        // When & Then
+        assertEquals(503, post("/models/gemini-2.5-flash:generateContent", request("Olá")).status());
+    }
+
+    @Test
+    @DisplayName("Should enforce the per-minute quota")
+    void shouldEnforceQuota() throws Exception {
+        // Given
+        stub.getServer().getSettings().getQuota().setRequestsPerMinute(2);
+
+        // When
+        int first = post("/models/gemini-2.5-flash:generateContent", request("a")).status();
+        int second = post("/models/gemini-2.5-flash:generateContent", request("b")).status();
+        int third = post("/models/gemini-2.5-flash:generateContent", request("c")).status();
+
+        // Then
+        assertEquals(List.of(200, 200, 429), List.of(first, second, third));
+    }
+
+    @Test
+    @DisplayName("Should truncate answers with MAX_TOKENS and break JSON when malformed")
+    void shouldTruncateAndMalform() throws Exception {
+        // Given
+        stub.getServer().getSettings().setMaxTokensRate(1.0);
+
+        // When
+        JsonNode truncated = post("/models/m:generateContent", request("sentimento")).json()
+                .path("candidates").get(0);
+
+        // Then
+        assertEquals("MAX_TOKENS", truncated.path("finishReason").asText());
+        assertEquals(ANSWER.substring(0, ANSWER.length() / 2),
+                truncated.path("content").path("parts").get(0).path("text").asText());
+
+        // Given
+        stub.getServer().getSettings().setMaxTokensRate(0.0);
+        stub.getServer().getSettings().setMalformedRate(1.0);
+
+        // When
+        String malformed = post("/models/m:generateContent", request("sentimento")).json()
+                .path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
+
+        // Then
+        assertTrue(malformed.contains("'sentiment'"));
+        assertThrows(Exception.class, () -> objectMapper.readTree(malformed.substring(malformed.indexOf('{'))));
+    }
+
+    @Test
+    @DisplayName("Should stream the answer in chunks as server-sent events")
+    void shouldStreamAnswer() {
+        // Given
+        stub.getServer().getSettings().getStream().setChunkChars(10);
+        stub.getServer().getSettings().getStream().setChunkInterval(Duration.ZERO);
+
+        // When
+        List<String> events = client().post()
+                .uri("/models/m:streamGenerateContent?alt=sse")
+                .header("x-goog-api-key", "test")
+                .bodyValue(request("sentimento"))
+                .retrieve()
+                .bodyToFlux(String.class)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(events);
+        StringBuilder text = new StringBuilder();
+        for (String event : events) {
+            JsonNode chunk = read(event);
+            text.append(chunk.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText());
+        }
+        assertEquals(ANSWER, text.toString());
+        assertEquals(5, events.size());
+        assertEquals("STOP", read(events.get(4)).path("candidates").get(0).path("finishReason").asText());
+    }
+
+    @Test
+    @DisplayName("Should count tokens and manage cached contents")
+    void shouldCountTokensAndCacheContents() throws Exception {
+        // When
+        Reply count = post("/models/m:countTokens", request("12345678"));
+
+        // Then
+        assertEquals(2, count.json().path("totalTokens").asInt());
+
+        // When
+        Map<String, Object> cacheRequest = Map.of("model", "models/m", "ttl", "600s",
+                "contents", List.of(Map.of("parts", List.of(Map.of("text", "x".repeat(400))))));
+        JsonNode cached = post("/cachedContents", cacheRequest).json();
+        String name = cached.path("name").asText();
+        JsonNode usage = post("/models/m:generateContent", Map.of("cachedContent", name,
+                "contents", List.of(Map.of("parts", List.of(Map.of("text", "Olá")))))).json().path("usageMetadata");
+
+        // Then
+        assertTrue(name.startsWith("cachedContents/"));
+        assertEquals(100, usage.path("cachedContentTokenCount").asInt());
+        assertEquals(200, get(name).status());
+
+        // When
+        client().delete().uri("/" + name).header("x-goog-api-key", "test").retrieve().toBodilessEntity().block();
+
+        // Then
+        assertEquals(404, get(name).status());
+    }
+
+    @Test
+    @DisplayName("Should reject requests without an API key")
+    void shouldRejectMissingApiKey() {
+        // When
+        Integer status = client().post()
+                .uri("/models/m:generateContent")
+                .bodyValue(request("Olá"))
+                .exchangeToMono(response -> Mono.just(response.statusCode().value()))
+                .block();
+
+        // Then
+        assertEquals(403, status);
+    }
+
+    @Test
+    @DisplayName("Should apply the configured latency")
+    void shouldApplyLatency() throws Exception {
+        // Given
+        stub.getServer().getSettings().getLatency().setDistribution(GeminiStubSettings.Distribution.FIXED);
+        stub.getServer().getSettings().getLatency().setMedian(Duration.ofMillis(300));
+
+        // When
+        long start = System.nanoTime();
+        post("/models/m:generateContent", request("Olá"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(elapsedMs >= 300, "elapsed " + elapsedMs + "ms");
+    }
+
+    private record Reply(int status, JsonNode json) {
+    }
+
+    private Map<String, Object> request(String prompt) {
+        return Map.of("contents", List.of(Map.of("parts", List.of(Map.of("text", prompt)))));
+    }
+
+    private Reply post(String path, Object body) {
+        return client().post()
+                .uri(path)
+                .header("x-goog-api-key", "test")
+                .bodyValue(body)
+                .exchangeToMono(response -> toReply(response.statusCode(), response.bodyToMono(String.class)))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private Reply get(String path) {
+        return client().get()
+                .uri("/" + path)
+                .header("x-goog-api-key", "test")
+                .exchangeToMono(response -> toReply(response.statusCode(), response.bodyToMono(String.class)))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private Mono<Reply> toReply(HttpStatusCode status, Mono<String> body) {
+        return body.defaultIfEmpty("{}").map(text -> new Reply(status.value(), read(text)));
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private WebClient client() {
+        return WebClient.create(stub.getServer().getBaseUrl());
+    }
+}
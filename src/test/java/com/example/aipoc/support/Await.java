@@ -0,0 +1,43 @@
+package com.example.aipoc.support;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Polls a condition until it holds, for tests waiting on work that happens on
+ * other threads (stub server counters, gauges, scheduled probes).
+ */
+public final class Await {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(2);
+
+    private Await() {
+    }
+
+    /**
+     * Waits up to 2s for {@code condition}, failing the test otherwise.
+     *
+     * @param condition the condition to poll every 10ms
+     */
+    public static void until(BooleanSupplier condition) throws InterruptedException {
+        until(condition, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Waits up to {@code timeout} for {@code condition}, failing the test otherwise.
+     *
+     * @param condition the condition to poll every 10ms
+     * @param timeout   how long to wait
+     */
+    public static void until(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not met within " + timeout.toMillis() + "ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
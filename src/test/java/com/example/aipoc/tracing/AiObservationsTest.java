@@ -0,0 +1,145 @@
+package com.example.aipoc.tracing;
+
+import com.example.aipoc.model.AiOperation;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AiObservations Tests")
+class AiObservationsTest {
+
+    private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private ObservationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public void onEvent(Observation.Event event, Observation.Context context) {
+                events.add(context.getName() + ":" + event.getName());
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should nest stage observations under the enclosing observation")
+    void shouldNestStageObservations() {
+        // Given
+        Mono<String> call = AiObservations.observe(registry, AiObservations.REQUEST, AiOperation.SENTIMENT,
+                () -> AiObservations.observe(registry, AiObservations.GEMINI_CALL, AiOperation.SENTIMENT,
+                        () -> Mono.just("ok"), (observation, value) ->
+                                observation.highCardinalityKeyValue("gemini.response.chars",
+                                        String.valueOf(value.length()))),
+                null);
+
+        // When
+        String result = call.block();
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(2, stopped.size());
+        Observation.Context inner = stopped.get(0);
+        Observation.Context outer = stopped.get(1);
+        assertEquals(AiObservations.GEMINI_CALL, inner.getName());
+        assertEquals(AiObservations.REQUEST, outer.getName());
+        assertSame(outer, inner.getParentObservation().getContextView());
+        assertEquals("sentiment", inner.getLowCardinalityKeyValue("operation").getValue());
+        assertEquals("2", inner.getHighCardinalityKeyValue("gemini.response.chars").getValue());
+    }
+
+    @Test
+    @DisplayName("Should stop the observation and record an event when cancelled")
+    void shouldRecordCancellation() {
+        // Given
+        Mono<String> call = AiObservations.observe(registry, AiObservations.GEMINI_CALL, AiOperation.CHAT,
+                () -> Mono.<String>never(), null);
+
+        // When
+        assertNull(call.timeout(Duration.ofMillis(50), Mono.empty()).block());
+
+        // Then
+        assertEquals(1, stopped.size());
+        assertTrue(events.contains(AiObservations.GEMINI_CALL + ":" + AiObservations.CANCELLED_EVENT));
+    }
+
+    @Test
+    @DisplayName("Should observe a streamed stage until it completes or is cancelled")
+    void shouldObserveStreamedStages() {
+        // Given
+        Flux<String> stream = AiObservations.observeMany(registry, AiObservations.GEMINI_CALL, AiOperation.CHAT,
+                () -> Flux.just("a", "b").concatWith(Flux.never()));
+
+        // When
+        List<String> first = stream.take(1).collectList().block();
+        List<String> all = AiObservations.observeMany(registry, AiObservations.GEMINI_CALL, AiOperation.CHAT,
+                () -> Flux.just("a", "b")).collectList().block();
+
+        // Then
+        assertEquals(List.of("a"), first);
+        assertEquals(List.of("a", "b"), all);
+        assertEquals(2, stopped.size());
+        assertEquals(1, events.stream()
+                .filter((AiObservations.GEMINI_CALL + ":" + AiObservations.CANCELLED_EVENT)::equals).count());
+    }
+
+    @Test
+    @DisplayName("Should record the error on a failed stage")
+    void shouldRecordError() {
+        // Given
+        Mono<String> call = AiObservations.observe(registry, AiObservations.GEMINI_CALL, AiOperation.SUMMARY,
+                () -> Mono.error(new IllegalStateException("boom")), null);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, call::block);
+        assertEquals(1, stopped.size());
+        assertInstanceOf(IllegalStateException.class, stopped.get(0).getError());
+    }
+
+    @Test
+    @DisplayName("Should observe synchronous stages")
+    void shouldObserveSynchronousStages() {
+        // When
+        int value = AiObservations.observe(registry, AiObservations.PROMPT_BUILD, AiOperation.CHAT, () -> 42);
+
+        // Then
+        assertEquals(42, value);
+        assertEquals(AiObservations.PROMPT_BUILD, stopped.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Should add extra key values to synchronous stages")
+    void shouldTagSynchronousStages() {
+        // When
+        AiObservations.observe(registry, AiObservations.PROMPT_BUILD, AiOperation.SENTIMENT,
+                KeyValues.of(AiObservations.TEMPLATE_KEY, "sentiment@v2"), () -> 42);
+
+        // Then
+        Observation.Context context = stopped.get(0);
+        assertEquals("sentiment", context.getLowCardinalityKeyValue("operation").getValue());
+        assertEquals("sentiment@v2", context.getLowCardinalityKeyValue(AiObservations.TEMPLATE_KEY).getValue());
+    }
+}
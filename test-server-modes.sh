@@ -0,0 +1,19 @@
+#!/bin/bash
+# Compara os modos servlet (Tomcat) e reativo (Netty) sob chamadas lentas ao upstream.
+# Uso: ./test-server-modes.sh [níveis de concorrência] [atraso do upstream em ms]
+
+set -e
+
+LEVELS=${1:-100,500,1000,2000}
+DELAY_MS=${2:-2000}
+
+echo "📦 Gerando os dois builds..."
+mvn -B -q package -DskipTests
+mvn -B -q package -DskipTests -Dreactive
+
+echo "🧪 Executando comparação (níveis: $LEVELS, atraso: ${DELAY_MS}ms)..."
+java load-tests/ServerModeComparison.java \
+  --servlet-jar target/springboot-ai-poc-1.0.0.jar \
+  --reactive-jar target/springboot-ai-poc-1.0.0-reactive.jar \
+  --levels "$LEVELS" \
+  --upstream-delay-ms "$DELAY_MS"